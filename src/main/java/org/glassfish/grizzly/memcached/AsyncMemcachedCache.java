@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import java.net.SocketAddress;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * The asynchronous memcached's cache interface
+ * <p>
+ * Every method returns a {@link CompletableFuture} immediately after the request is written
+ * and the future will be completed by {@link MemcachedClientFilter} when the response is received.
+ * So no thread is blocked while the response is in flight.
+ * But the caller's thread can be blocked while borrowing a connection, until the connect timeout or the operation's timeout,
+ * if all connections to the server are in use or a new connection is being connected.
+ * <p>
+ * The result of the completed future is same as the corresponding synchronous method of {@link MemcachedCache}.
+ * For example, {@code getAsync()} is completed with null if the key is not found.
+ * But the future is completed exceptionally if the request could not be sent or the response was timed out.
+ * Errors while making the requests such as a key or a value which can't be encoded are reported through the future as well
+ * and no method throws them to the caller.
+ * <p>
+ * Note) dependent actions of the returned future can be executed in Grizzly's selector thread
+ * or, if the response was timed out, in the thread of the shared timer unless {@code timeoutExecutor} of the cache is set.
+ * Long-running actions should be executed with async methods such as {@link CompletableFuture#thenApplyAsync}.
+ * <p>
+ * Some commands of {@link MemcachedCache} have no asynchronous versions.
+ * {@code stats} and {@code statsItems} are answered with many packets which are collected by the waiting caller,
+ * {@code quit} closes the connection which the pool shares with other requests
+ * and {@code sasl*} authenticate only the connection which the pool lends to the caller.
+ */
+public interface AsyncMemcachedCache<K, V> {
+
+    // storage commands
+
+    public CompletableFuture<Boolean> setAsync(final K key, final V value, final int expirationInSecs);
+
+    public CompletableFuture<Boolean> setAsync(final K key, final V value, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Boolean> addAsync(final K key, final V value, final int expirationInSecs);
+
+    public CompletableFuture<Boolean> addAsync(final K key, final V value, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Boolean> replaceAsync(final K key, final V value, final int expirationInSecs);
+
+    public CompletableFuture<Boolean> replaceAsync(final K key, final V value, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Boolean> appendAsync(final K key, final V value);
+
+    public CompletableFuture<Boolean> appendAsync(final K key, final V value, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Boolean> prependAsync(final K key, final V value);
+
+    public CompletableFuture<Boolean> prependAsync(final K key, final V value, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Boolean> casAsync(final K key, final V value, final int expirationInSecs, final long cas);
+
+    public CompletableFuture<Boolean> casAsync(final K key, final V value, final int expirationInSecs, final long cas, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Map<K, Boolean>> setMultiAsync(final Map<K, V> map, final int expirationInSecs);
+
+    public CompletableFuture<Map<K, Boolean>> setMultiAsync(final Map<K, V> map, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Map<K, Boolean>> casMultiAsync(final Map<K, ValueWithCas<V>> map, final int expirationInSecs);
+
+    public CompletableFuture<Map<K, Boolean>> casMultiAsync(final Map<K, ValueWithCas<V>> map, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+
+    // retrieval commands
+
+    public CompletableFuture<V> getAsync(final K key);
+
+    public CompletableFuture<V> getAsync(final K key, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<ValueWithKey<K, V>> getKeyAsync(final K key);
+
+    public CompletableFuture<ValueWithKey<K, V>> getKeyAsync(final K key, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<ValueWithCas<V>> getsAsync(final K key);
+
+    public CompletableFuture<ValueWithCas<V>> getsAsync(final K key, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<V> gatAsync(final K key, final int expirationInSecs);
+
+    public CompletableFuture<V> gatAsync(final K key, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    /**
+     * Get the values of the given keys asynchronously
+     * <p>
+     * Requests for each server are sent together and the returned future is completed when all servers answer.
+     * If some servers are failed, the result has only values from other servers.
+     *
+     * @param keys keys
+     * @return the future of the found key/value map
+     */
+    public CompletableFuture<Map<K, V>> getMultiAsync(final Set<K> keys);
+
+    public CompletableFuture<Map<K, V>> getMultiAsync(final Set<K> keys, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    /**
+     * Get the values of the given keys asynchronously and hand each found value to {@code consumer} as soon as it is decoded
+     * <p>
+     * The returned future is completed when all servers answer. If some servers are failed, their values are not handed.
+     * {@code consumer} is called in {@code decodeExecutor} of the cache if it is set. Otherwise it is called in Grizzly's selector threads
+     * and must not block because it delays reading the server's following responses.
+     * {@code consumer} can be called concurrently for keys of different servers.
+     * {@code consumer} is never called after the returned future is completed even if responses arrive after the timeout.
+     *
+     * @param keys     keys
+     * @param consumer the consumer of found keys and values
+     * @return the future which is completed after all found values are handed
+     * @see MemcachedCache#getMulti(Collection, BiConsumer)
+     */
+    public CompletableFuture<Void> getMultiAsync(final Collection<K> keys, final BiConsumer<K, V> consumer);
+
+    public CompletableFuture<Void> getMultiAsync(final Collection<K> keys, final BiConsumer<K, V> consumer, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Map<K, ValueWithCas<V>>> getsMultiAsync(final Set<K> keys);
+
+    public CompletableFuture<Map<K, ValueWithCas<V>>> getsMultiAsync(final Set<K> keys, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+
+    // etc...
+
+    public CompletableFuture<Boolean> deleteAsync(final K key);
+
+    public CompletableFuture<Boolean> deleteAsync(final K key, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Map<K, Boolean>> deleteMultiAsync(final Set<K> keys);
+
+    public CompletableFuture<Map<K, Boolean>> deleteMultiAsync(final Set<K> keys, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Long> incrAsync(final K key, final long delta, final long initial, final int expirationInSecs);
+
+    public CompletableFuture<Long> incrAsync(final K key, final long delta, final long initial, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Long> decrAsync(final K key, final long delta, final long initial, final int expirationInSecs);
+
+    public CompletableFuture<Long> decrAsync(final K key, final long delta, final long initial, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Boolean> touchAsync(final K key, final int expirationInSecs);
+
+    public CompletableFuture<Boolean> touchAsync(final K key, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Boolean> noopAsync(final SocketAddress address);
+
+    public CompletableFuture<Boolean> noopAsync(final SocketAddress address, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<String> versionAsync(final SocketAddress address);
+
+    public CompletableFuture<String> versionAsync(final SocketAddress address, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Boolean> flushAllAsync(final SocketAddress address, final int expirationInSecs);
+
+    public CompletableFuture<Boolean> flushAllAsync(final SocketAddress address, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+
+    public CompletableFuture<Boolean> verbosityAsync(final SocketAddress address, final int verbosity);
+
+    public CompletableFuture<Boolean> verbosityAsync(final SocketAddress address, final int verbosity, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
+}
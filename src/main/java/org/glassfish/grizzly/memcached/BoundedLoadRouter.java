@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.glassfish.grizzly.memcached.pool.ObjectPool;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Routes keys by the consistent hashing with bounded loads
+ * <p>
+ * A node can take at most (1 + {@code loadFactor}) times its fair share of all in-flight requests.
+ * A read whose node is over the bound spills to the next node in the order of the node locator.
+ * Other commands always go to their own nodes. A spilled mutation such as set or delete would leave the old value
+ * in the own node for later reads, and cas tokens are valid only in the node which issued them.
+ * <p>
+ * Sets are never copied to the spilled node, so a spilled read usually misses even if the own node has the value,
+ * or it can see a stale value which the spilled node stored before the node list changed.
+ * With the cache-aside pattern, a spilled miss makes the caller load the value from the backing store
+ * and set it to the own node again, which adds load to the backing store and the overloaded node.
+ * So the bounded loads suit reads which can tolerate misses or stale values, such as optional or precomputed data.
+ * <p>
+ * A connection is borrowed from the pool until its response arrives, so the active count of the pool is
+ * the number of in-flight requests of the node. Loads are summed at most once per millisecond.
+ * <p>
+ * This class should be thread-safe.
+ */
+public class BoundedLoadRouter<A> {
+
+    private static final long REFRESH_INTERVAL_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final NodeLocator<A> nodeLocator;
+    private final ObjectPool<A, ?> pool;
+    private final Supplier<? extends Collection<A>> nodes;
+    private final ToIntFunction<A> weights;
+    private final double loadFactor;
+    private final Predicate<A> acceptor;
+
+    private volatile long refreshedTimeInNanos;
+    private volatile int totalLoad;
+    private volatile int totalWeight;
+
+    /**
+     * @param nodeLocator the node locator which decides the order of nodes
+     * @param pool        the pool whose active count is the load of a node
+     * @param nodes       the supplier of current nodes
+     * @param weights     the weight of each node
+     * @param loadFactor  the allowed ratio over the fair share such as 0.25
+     */
+    public BoundedLoadRouter(final NodeLocator<A> nodeLocator,
+                             final ObjectPool<A, ?> pool,
+                             final Supplier<? extends Collection<A>> nodes,
+                             final ToIntFunction<A> weights,
+                             final double loadFactor) {
+        if (nodeLocator == null || pool == null || nodes == null || weights == null) {
+            throw new IllegalArgumentException("nodeLocator, pool, nodes and weights must not be null");
+        }
+        if (loadFactor <= 0) {
+            throw new IllegalArgumentException("load factor must be greater than 0");
+        }
+        this.nodeLocator = nodeLocator;
+        this.pool = pool;
+        this.nodes = nodes;
+        this.weights = weights;
+        this.loadFactor = loadFactor;
+        this.refreshedTimeInNanos = System.nanoTime() - REFRESH_INTERVAL_IN_NANOS;
+        this.acceptor = new Predicate<A>() {
+            @Override
+            public boolean test(final A node) {
+                final int weight = totalWeight;
+                if (weight <= 0) {
+                    return true;
+                }
+                // the fair share of all in-flight requests including this request
+                final double capacity = Math.ceil((1 + BoundedLoadRouter.this.loadFactor) * (totalLoad + 1) * weights.applyAsInt(node) / weight);
+                return pool.getActiveCount(node) + 1 <= capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the node of the command for the hash
+     *
+     * @param hash the hash of the key which was calculated by {@link NodeLocator#getKeyHash()}
+     * @param op   the command
+     * @return the own node of the hash or the spilled node if the command is a spillable read
+     */
+    public A get(final long hash, final CommandOpcodes op) {
+        if (!isSpillable(op)) {
+            return nodeLocator.getByHash(hash);
+        }
+        refresh();
+        return nodeLocator.getByHash(hash, acceptor);
+    }
+
+    /**
+     * Only plain gets can spill. Gets is excluded because its cas token is used by the following cas in the own node,
+     * and gat is excluded because it changes the expiration
+     */
+    static boolean isSpillable(final CommandOpcodes op) {
+        switch (op) {
+            case Get:
+            case GetQ:
+            case GetK:
+            case GetKQ:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void refresh() {
+        final long now = System.nanoTime();
+        if (now - refreshedTimeInNanos < REFRESH_INTERVAL_IN_NANOS) {
+            return;
+        }
+        refreshedTimeInNanos = now;
+        int load = 0;
+        int weight = 0;
+        for (A node : nodes.get()) {
+            final int active = pool.getActiveCount(node);
+            if (active > 0) {
+                load += active;
+            }
+            weight += weights.applyAsInt(node);
+        }
+        totalLoad = load;
+        totalWeight = weight;
+    }
+
+    public double getLoadFactor() {
+        return loadFactor;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedLoadRouter{" +
+                "nodeLocator=" + nodeLocator +
+                ", loadFactor=" + loadFactor +
+                '}';
+    }
+}
@@ -30,6 +30,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.util.Date;
@@ -177,7 +178,20 @@ public class BufferWrapper<T> implements Cacheable {
      * @return the buffer wrapper which included origin, buffer type and buffer corresponding to {@code origin}
      * @throws IllegalArgumentException if given parameters are not valid
      */
-    public static <T> BufferWrapper<T> wrap(final T origin, MemoryManager memoryManager) throws IllegalArgumentException {
+    public static <T> BufferWrapper<T> wrap(final T origin, final MemoryManager memoryManager) throws IllegalArgumentException {
+        return wrap(origin, memoryManager, DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    /**
+     * Return {@code BufferWrapper} instance from original object
+     *
+     * @param origin               original object
+     * @param memoryManager        the memory manager for allocating {@link Buffer}
+     * @param compressionThreshold packets which are larger than this are compressed by GZIP. if negative, packets are never compressed
+     * @return the buffer wrapper which included origin, buffer type and buffer corresponding to {@code origin}
+     * @throws IllegalArgumentException if given parameters are not valid
+     */
+    public static <T> BufferWrapper<T> wrap(final T origin, MemoryManager memoryManager, final int compressionThreshold) throws IllegalArgumentException {
         if (origin == null) {
             throw new IllegalArgumentException("object must not be null");
         }
@@ -187,18 +201,22 @@ public class BufferWrapper<T> implements Cacheable {
         if (memoryManager == null) {
             memoryManager = MemoryManager.DEFAULT_MEMORY_MANAGER;
         }
+        if (origin instanceof MemcachedKey) {
+            // the encoded bytes are shared without copying and never disposed
+            return create(origin, Buffers.wrap(memoryManager, ((MemcachedKey) origin).bytes()), BufferType.NONE);
+        }
         final Buffer buffer;
         final BufferWrapper<T> bufferWrapper;
         if (origin instanceof String) {
             buffer = Buffers.wrap(memoryManager, (String) origin);
-            if (buffer.remaining() > DEFAULT_COMPRESSION_THRESHOLD) {
+            if (shouldCompress(buffer.remaining(), compressionThreshold)) {
                 bufferWrapper = create(origin, compressBuffer(buffer, memoryManager), BufferType.STRING_COMPRESSED);
             } else {
                 bufferWrapper = create(origin, buffer, BufferWrapper.BufferType.STRING);
             }
         } else if (origin instanceof byte[]) {
             final byte[] originBytes = (byte[]) origin;
-            if (originBytes.length > DEFAULT_COMPRESSION_THRESHOLD) {
+            if (shouldCompress(originBytes.length, compressionThreshold)) {
                 buffer = Buffers.wrap(memoryManager, compress(originBytes));
                 bufferWrapper = create(origin, buffer, BufferType.BYTE_ARRAY_COMPRESSED);
             } else {
@@ -207,7 +225,7 @@ public class BufferWrapper<T> implements Cacheable {
             }
         } else if (origin instanceof ByteBuffer) {
             buffer = Buffers.wrap(memoryManager, (ByteBuffer) origin);
-            if (buffer.remaining() > DEFAULT_COMPRESSION_THRESHOLD) {
+            if (shouldCompress(buffer.remaining(), compressionThreshold)) {
                 bufferWrapper = create(origin, compressBuffer(buffer, memoryManager), BufferType.BYTE_BUFFER_COMPRESSED);
             } else {
                 bufferWrapper = create(origin, buffer, BufferWrapper.BufferType.BYTE_BUFFER);
@@ -273,7 +291,7 @@ public class BufferWrapper<T> implements Cacheable {
                 oos.writeObject(origin);
                 buffer = bos.getBuffer();
                 buffer.flip();
-                if (buffer.remaining() > DEFAULT_COMPRESSION_THRESHOLD) {
+                if (shouldCompress(buffer.remaining(), compressionThreshold)) {
                     bufferWrapper = create(origin, compressBuffer(buffer, memoryManager), BufferType.OBJECT_COMPRESSED);
                 } else {
                     bufferWrapper = create(origin, buffer, BufferType.OBJECT);
@@ -301,6 +319,43 @@ public class BufferWrapper<T> implements Cacheable {
         return bufferWrapper;
     }
 
+    /**
+     * Return true if {@code origin} is serialized by {@link ObjectOutputStream} when it is wrapped
+     *
+     * @param origin original object
+     * @return true if the buffer type of {@code origin} is {@link BufferType#OBJECT} or {@link BufferType#OBJECT_COMPRESSED}
+     */
+    public static boolean isSerializedObject(final Object origin) {
+        return origin != null &&
+                !(origin instanceof Buffer) &&
+                !(origin instanceof String) &&
+                !(origin instanceof byte[]) &&
+                !(origin instanceof ByteBuffer) &&
+                !(origin instanceof Byte) &&
+                !(origin instanceof Boolean) &&
+                !(origin instanceof Short) &&
+                !(origin instanceof Integer) &&
+                !(origin instanceof Float) &&
+                !(origin instanceof Double) &&
+                !(origin instanceof Long) &&
+                !(origin instanceof Date);
+    }
+
+    /**
+     * Serialize {@code origin} into {@code out} without compression
+     * <p>
+     * The written bytes are same as the buffer of {@link BufferType#OBJECT}. {@code out} is not closed.
+     *
+     * @param origin original object
+     * @param out    the output stream
+     * @throws IOException if {@code origin} can't be serialized
+     */
+    public static void writeObject(final Object origin, final OutputStream out) throws IOException {
+        final ObjectOutputStream oos = new ObjectOutputStream(out);
+        oos.writeObject(origin);
+        oos.flush();
+    }
+
     /**
      * Return the original instance from {@code buffer}
      *
@@ -469,6 +524,10 @@ public class BufferWrapper<T> implements Cacheable {
         }
     }
 
+    private static boolean shouldCompress(final int length, final int compressionThreshold) {
+        return compressionThreshold >= 0 && length > compressionThreshold;
+    }
+
     private static Buffer compressBuffer(final Buffer buffer, final MemoryManager memoryManager) {
         if (buffer == null) {
             throw new IllegalArgumentException("failed to compress the buffer. buffer should be not null");
@@ -19,26 +19,33 @@ package org.glassfish.grizzly.memcached;
 import org.glassfish.grizzly.Grizzly;
 
 import java.nio.ByteBuffer;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.zip.CRC32;
 
 /**
  * The implementation class of the Consistent Hashing algorithms
  * <p>
- * Given keys and values will be hashed by MD5 and stored in sorted map.
- * If MD5 is not supported, CRC32 will be used.
+ * Given keys and values will be hashed by {@link KeyHash} and stored in sorted arrays.
+ * By default, {@link KeyHash#KETAMA} is used. It hashes by MD5 and CRC32 is used if MD5 is not supported.
  * Values(such as server list) can be added and removed dynamically.
+ * A value of the weight n has n * {@code replicaNumber} points on the ring.
+ * <p>
+ * The ring is an immutable snapshot of sorted points and their values.
+ * When values are added or removed, new snapshot is built off to the side and published by one volatile write,
+ * so a lookup never sees a half-built ring and costs only one binary search over a primitive array.
  * <p>
  * This store supports keys of String, byte array and ByteBuffer type
  * <p>
- * Ketama's logic applied partially.
+ * Ketama's logic applied partially. This is the default {@link NodeLocator}.
  * <p>
  * This class should be thread-safe.
  * <p>
@@ -47,26 +54,92 @@ import java.util.zip.CRC32;
  *
  * @author Bongjae Chang
  */
-public class ConsistentHashStore<T> {
+public class ConsistentHashStore<T> implements NodeLocator<T> {
 
     private static final Logger logger = Grizzly.logger(ConsistentHashStore.class);
 
-    private static final ThreadLocal<MessageDigest> md5ThreadLocal = new ThreadLocal<MessageDigest>();
-    private volatile static boolean md5NotSupported;
+    public static final int DEFAULT_REPLICA_NUMBER = 160;
+
+    private static final Ring EMPTY_RING = new Ring(new long[0], new Object[0], 1.0);
 
-    private static final int REPLICA_NUMBER = 160;
+    private final int replicaNumber;
+    private final KeyHash keyHash;
 
-    private final ConcurrentSkipListMap<Long, T> buckets = new ConcurrentSkipListMap<Long, T>();
+    // guarded by "this". keeps the insertion order so that the first added value wins the colliding point
+    private final Map<T, long[]> pointsMap = new LinkedHashMap<T, long[]>();
     private final Set<T> values = Collections.newSetFromMap(new ConcurrentHashMap<T, Boolean>());
+    private volatile Ring ring = EMPTY_RING;
+
+    public ConsistentHashStore() {
+        this(DEFAULT_REPLICA_NUMBER);
+    }
+
+    /**
+     * @param replicaNumber the number of virtual nodes of each value
+     */
+    public ConsistentHashStore(final int replicaNumber) {
+        this(replicaNumber, KeyHash.KETAMA);
+    }
+
+    /**
+     * @param replicaNumber the number of virtual nodes of each value
+     * @param keyHash       the hash function of keys and values
+     */
+    public ConsistentHashStore(final int replicaNumber, final KeyHash keyHash) {
+        if (replicaNumber <= 0) {
+            throw new IllegalArgumentException("replica number must be greater than 0");
+        }
+        if (keyHash == null) {
+            throw new IllegalArgumentException("key hash must not be null");
+        }
+        this.replicaNumber = replicaNumber;
+        this.keyHash = keyHash;
+    }
 
     /**
      * Add the value such as a server name
      *
      * @param value value to be added
      */
-    public void add(final T value) {
-        addOrRemove(value, true);
+    @Override
+    public synchronized void add(final T value) {
+        if (value == null || pointsMap.containsKey(value)) {
+            return;
+        }
+        add(value, DEFAULT_WEIGHT);
+    }
+
+    /**
+     * Add the value with the weight or update the weight of the value which already added
+     * <p>
+     * Points of a value don't depend on its weight except their number,
+     * so updating the weight only adds or removes the value's extra points.
+     *
+     * @param value  value to be added or updated
+     * @param weight the positive weight of the value which is not greater than {@link #MAX_WEIGHT}
+     */
+    @Override
+    public synchronized void add(final T value, final int weight) {
+        if (value == null) {
+            return;
+        }
+        if (weight <= 0 || weight > MAX_WEIGHT) {
+            throw new IllegalArgumentException("weight must be between 1 and " + MAX_WEIGHT + ". weight=" + weight);
+        }
+        if ((long) replicaNumber * weight > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("too many points. replicaNumber=" + replicaNumber + ", weight=" + weight);
+        }
+        final long[] old = pointsMap.get(value);
+        if (old != null && old.length == replicaNumber * weight) {
+            return;
+        }
+        // the insertion order is kept when the weight is updated
+        pointsMap.put(value, calculatePoints(value, weight));
         values.add(value);
+        rebuild();
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "added {0} to the bucket successfully. replicas={1}", new Object[]{value, replicaNumber * weight});
+        }
     }
 
     /**
@@ -74,9 +147,21 @@ public class ConsistentHashStore<T> {
      *
      * @param value value to be removed in this store
      */
-    public void remove(final T value) {
-        addOrRemove(value, false);
+    @Override
+    public synchronized void remove(final T value) {
+        if (value == null || pointsMap.remove(value) == null) {
+            return;
+        }
         values.remove(value);
+        rebuild();
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "removed {0} to the bucket successfully. replicas={1}", new Object[]{value, replicaNumber});
+        }
+    }
+
+    @Override
+    public boolean hasNode(final T node) {
+        return hasValue(node);
     }
 
     /**
@@ -92,59 +177,107 @@ public class ConsistentHashStore<T> {
     /**
      * Clear all values and keys
      */
-    public void clear() {
-        buckets.clear();
+    @Override
+    public synchronized void clear() {
+        pointsMap.clear();
         values.clear();
+        ring = EMPTY_RING;
     }
 
-    private void addOrRemove(final T value, boolean add) {
-        if (value == null) {
+    /**
+     * @return the number of points of the weight 1
+     */
+    public int getReplicaNumber() {
+        return replicaNumber;
+    }
+
+    @Override
+    public KeyHash getKeyHash() {
+        return keyHash;
+    }
+
+    private long[] calculatePoints(final T value, final int weight) {
+        final long[] points = new long[replicaNumber * weight];
+        keyHash.calculatePoints(value, points);
+        return points;
+    }
+
+    /**
+     * Builds new snapshot from all values' points and publishes it
+     */
+    private void rebuild() {
+        final int size = pointsMap.size();
+        if (size == 0) {
+            ring = EMPTY_RING;
             return;
         }
-        final MessageDigest md5 = getMessageDigest();
-        if (md5 == null) {
-            for (int i = 0; i < REPLICA_NUMBER; i++) {
-                final StringBuilder stringBuilder = new StringBuilder(64);
-                stringBuilder.append(value).append('-').append(i);
-                CRC32 crc32 = new CRC32();
-                crc32.update(stringBuilder.toString().getBytes());
-                long hashKey = crc32.getValue() >> 16 & 0x7fff;
-                if (add) {
-                    buckets.putIfAbsent(hashKey, value);
-                    if (logger.isLoggable(Level.FINE)) {
-                        logger.log(Level.FINE, "added {0} to the bucket successfully. key={1}", new Object[]{value, hashKey});
-                    }
-                } else {
-                    buckets.remove(hashKey);
-                    if (logger.isLoggable(Level.FINE)) {
-                        logger.log(Level.FINE, "removed {0} to the bucket successfully. key={1}", new Object[]{value, hashKey});
-                    }
+        int total = 0;
+        for (long[] points : pointsMap.values()) {
+            total += points.length;
+        }
+        // the earliest added value owns the colliding point
+        final Map<Long, T> owners = new HashMap<Long, T>(total * 2);
+        for (Map.Entry<T, long[]> entry : pointsMap.entrySet()) {
+            for (long point : entry.getValue()) {
+                if (!owners.containsKey(point)) {
+                    owners.put(point, entry.getKey());
                 }
             }
-        } else {
-            for (int i = 0; i < REPLICA_NUMBER / 4; i++) {
-                final StringBuilder stringBuilder = new StringBuilder(64);
-                stringBuilder.append(value).append('-').append(i);
-                byte[] digest = md5.digest(stringBuilder.toString().getBytes());
-                for (int j = 0; j < 4; j++) {
-                    long hashKey = ((long) (digest[3 + j * 4] & 0xFF) << 24)
-                            | ((long) (digest[2 + j * 4] & 0xFF) << 16)
-                            | ((long) (digest[1 + j * 4] & 0xFF) << 8)
-                            | ((long) (digest[j * 4] & 0xFF));
-                    if (add) {
-                        buckets.putIfAbsent(hashKey, value);
-                        if (logger.isLoggable(Level.FINE)) {
-                            logger.log(Level.FINE, "added {0} to the bucket successfully. key={1}", new Object[]{value, hashKey});
-                        }
-                    } else {
-                        buckets.remove(hashKey);
-                        if (logger.isLoggable(Level.FINE)) {
-                            logger.log(Level.FINE, "removed {0} to the bucket successfully. key={1}", new Object[]{value, hashKey});
-                        }
-                    }
-                }
+        }
+        final long[] ringPoints = new long[owners.size()];
+        int ringSize = 0;
+        for (Long point : owners.keySet()) {
+            ringPoints[ringSize++] = point;
+        }
+        Arrays.sort(ringPoints);
+        final Object[] ringValues = new Object[ringSize];
+        for (int i = 0; i < ringSize; i++) {
+            ringValues[i] = owners.get(ringPoints[i]);
+        }
+        ring = new Ring(ringPoints, ringValues, calculateLoadImbalance(ringPoints, ringValues, size, total));
+    }
+
+    /**
+     * Calculate the ratio of the largest arc share to the fair share which is proportional to the weight
+     * <p>
+     * Each point owns the arc from the previous point, and the first point owns the arc which wraps around the ring.
+     */
+    private double calculateLoadImbalance(final long[] points, final Object[] owners, final int valueCount, final int totalPoints) {
+        if (valueCount == 1) {
+            return 1.0;
+        }
+        final Map<Object, Double> arcs = new HashMap<Object, Double>(valueCount * 2);
+        final int bits = keyHash.getHashBits();
+        final double space = Math.pow(2, bits);
+        for (int i = 0; i < points.length; i++) {
+            final long arc;
+            if (i > 0) {
+                arc = points[i] - points[i - 1];
+            } else if (bits < 64) {
+                arc = (1L << bits) - (points[points.length - 1] - points[0]);
+            } else {
+                // wraps around by the overflow
+                arc = points[0] - points[points.length - 1];
             }
+            final Double sum = arcs.get(owners[i]);
+            arcs.put(owners[i], (sum != null ? sum : 0) + toUnsignedDouble(arc));
         }
+        double largest = 0;
+        for (Map.Entry<Object, Double> entry : arcs.entrySet()) {
+            // the number of points is proportional to the weight
+            final double fairShare = space * pointsMap.get(entry.getKey()).length / totalPoints;
+            largest = Math.max(largest, entry.getValue() / fairShare);
+        }
+        return largest;
+    }
+
+    private static double toUnsignedDouble(final long value) {
+        return value >= 0 ? value : (value >>> 1) * 2.0 + (value & 1);
+    }
+
+    @Override
+    public double getLoadImbalance() {
+        return ring.loadImbalance;
     }
 
     /**
@@ -170,21 +303,55 @@ public class ConsistentHashStore<T> {
         if (key == null) {
             return null;
         }
-        if (buckets.size() == 0) {
+        final Ring current = ring;
+        if (current.single != null) {
+            return current.<T>single();
+        }
+        return current.get(keyHash.hash(key));
+    }
+
+    /**
+     * Get the value corresponding to the hash which was calculated already
+     *
+     * @param hash the hash of the key which was calculated by {@link #getKeyHash()}
+     * @return the selected value corresponding to the {@code hash}
+     */
+    @Override
+    public T getByHash(final long hash) {
+        return ring.get(hash);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The order is the clockwise order of points from the hash, so a rejected value's keys spill to the next points.
+     */
+    @Override
+    public T getByHash(final long hash, final Predicate<T> acceptable) {
+        final Ring current = ring;
+        if (current.points.length == 0) {
             return null;
         }
-        if (buckets.size() == 1) {
-            return buckets.firstEntry().getValue();
+        final int start = current.indexOf(hash);
+        final T primary = current.get(start);
+        if (acceptable == null || current.single != null || acceptable.test(primary)) {
+            return primary;
         }
-        // ceilingKey returns the least key greater than or equal to the given key,
-        // or null if no such key.
-        Long hashKey = buckets.ceilingKey(calculateHash(key));
-        // if none found, it must be at the end, return the lowest in the tree
-        // (we go over the end the continuum to the first entry)
-        if (hashKey == null) {
-            hashKey = buckets.firstKey();
+        Set<T> rejected = null;
+        for (int i = 1; i < current.points.length; i++) {
+            final T candidate = current.get((start + i) % current.points.length);
+            if (candidate == primary || (rejected != null && rejected.contains(candidate))) {
+                continue;
+            }
+            if (acceptable.test(candidate)) {
+                return candidate;
+            }
+            if (rejected == null) {
+                rejected = new HashSet<T>();
+            }
+            rejected.add(candidate);
         }
-        return buckets.get(hashKey);
+        return primary;
     }
 
     /**
@@ -193,90 +360,87 @@ public class ConsistentHashStore<T> {
      * @param key {@link ByteBuffer} key
      * @return the selected value corresponding to the {@code key}
      */
+    @Override
     public T get(final ByteBuffer key) {
         if (key == null) {
             return null;
         }
-        if (buckets.size() == 0) {
+        final Ring current = ring;
+        if (current.points.length == 0) {
             return null;
         }
-        if (buckets.size() == 1) {
-            return buckets.firstEntry().getValue();
-        }
-        // ceilingKey returns the least key greater than or equal to the given key,
-        // or null if no such key.
-        Long hashKey = buckets.ceilingKey(calculateHash(key));
-        // if none found, it must be at the end, return the lowest in the tree
-        // (we go over the end the continuum to the first entry)
-        if (hashKey == null) {
-            hashKey = buckets.firstKey();
+        if (current.single != null) {
+            return current.<T>single();
         }
-        return buckets.get(hashKey);
+        return current.get(keyHash.hash(key));
     }
 
-    private long calculateHash(final byte[] key) {
-        if (key == null) {
-            return 0;
-        }
-        final long hash;
-        final MessageDigest md5 = getMessageDigest();
-        if (md5 == null) {
-            CRC32 crc32 = new CRC32();
-            crc32.update(key);
-            hash = crc32.getValue() >> 16 & 0x7fff;
-        } else {
-            md5.reset();
-            final byte[] digest = md5.digest(key);
-            hash = ((long) (digest[3] & 0xFF) << 24) | ((long) (digest[2] & 0xFF) << 16) | ((long) (digest[1] & 0xFF) << 8) | (long) (digest[0] & 0xFF);
-        }
-        return hash;
-    }
+    /**
+     * The immutable snapshot of the ring
+     */
+    private static final class Ring {
+        private final long[] points;
+        private final Object[] values;
+        // not null if only one value is in the ring
+        private final Object single;
+        private final double loadImbalance;
 
-    private long calculateHash(final ByteBuffer key) {
-        if (key == null) {
-            return 0;
-        }
-        final long hash;
-        final MessageDigest md5 = getMessageDigest();
-        if (md5 == null) {
-            if (key.hasArray()) {
-                CRC32 crc32 = new CRC32();
-                byte[] b = key.array();
-                int ofs = key.arrayOffset();
-                int pos = key.position();
-                int lim = key.limit();
-                crc32.update(b, ofs + pos, lim - pos);
-                key.position(lim);
-                hash = crc32.getValue() >> 16 & 0x7fff;
-            } else {
-                hash = key.hashCode();
+        private Ring(final long[] points, final Object[] values, final double loadImbalance) {
+            this.points = points;
+            this.values = values;
+            this.loadImbalance = loadImbalance;
+            Object first = values.length > 0 ? values[0] : null;
+            for (Object value : values) {
+                if (value != first) {
+                    first = null;
+                    break;
+                }
             }
-        } else {
-            md5.reset();
-            md5.update(key);
-            final byte[] digest = md5.digest();
-            hash = ((long) (digest[3] & 0xFF) << 24) | ((long) (digest[2] & 0xFF) << 16) | ((long) (digest[1] & 0xFF) << 8) | (long) (digest[0] & 0xFF);
-        }
-        key.flip();
-        return hash;
-    }
+            this.single = first;
+        }
 
-    private static MessageDigest getMessageDigest() {
-        if (md5NotSupported) {
-            return null;
+        @SuppressWarnings("unchecked")
+        private <T> T single() {
+            return (T) single;
+        }
+
+        private <T> T get(final long hash) {
+            if (points.length == 0) {
+                return null;
+            }
+            return get(indexOf(hash));
         }
-        MessageDigest md5 = md5ThreadLocal.get();
-        if (md5 == null) {
-            try {
-                md5 = MessageDigest.getInstance("MD5");
-                md5ThreadLocal.set(md5);
-            } catch (NoSuchAlgorithmException nsae) {
-                md5NotSupported = true;
-                if (logger.isLoggable(Level.WARNING)) {
-                    logger.log(Level.WARNING, "failed to get the md5", nsae);
+
+        @SuppressWarnings("unchecked")
+        private <T> T get(final int index) {
+            return (T) values[index];
+        }
+
+        /**
+         * @return the index of the point which owns the hash
+         */
+        private int indexOf(final long hash) {
+            int index = Arrays.binarySearch(points, hash);
+            if (index < 0) {
+                // the least point greater than the hash
+                index = -(index + 1);
+                // if none found, it must be at the end, return the lowest in the ring
+                // (we go over the end the continuum to the first entry)
+                if (index == points.length) {
+                    index = 0;
                 }
             }
+            return index;
         }
-        return md5;
+    }
+
+    @Override
+    public String toString() {
+        return "ConsistentHashStore{" +
+                "replicaNumber=" + replicaNumber +
+                ", keyHash=" + keyHash +
+                ", values=" + values +
+                ", loadImbalance=" + ring.loadImbalance +
+                '}';
     }
 }
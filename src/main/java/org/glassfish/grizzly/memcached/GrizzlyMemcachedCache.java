@@ -28,10 +28,17 @@ import org.glassfish.grizzly.attributes.Attribute;
 import org.glassfish.grizzly.attributes.AttributeHolder;
 import org.glassfish.grizzly.filterchain.FilterChain;
 import org.glassfish.grizzly.memcached.pool.BaseObjectPool;
+import org.glassfish.grizzly.memcached.pool.MultiplexedObjectPool;
 import org.glassfish.grizzly.memcached.pool.NoValidObjectException;
 import org.glassfish.grizzly.memcached.pool.ObjectPool;
 import org.glassfish.grizzly.memcached.pool.PoolExhaustedException;
 import org.glassfish.grizzly.memcached.pool.PoolableObjectFactory;
+import org.glassfish.grizzly.memcached.transcoder.CachedData;
+import org.glassfish.grizzly.memcached.transcoder.CompressingTranscoder;
+import org.glassfish.grizzly.memcached.transcoder.Compressor;
+import org.glassfish.grizzly.memcached.transcoder.DefaultTranscoder;
+import org.glassfish.grizzly.memcached.transcoder.DirectTranscoder;
+import org.glassfish.grizzly.memcached.transcoder.Transcoder;
 import org.glassfish.grizzly.memcached.zookeeper.BarrierListener;
 import org.glassfish.grizzly.memcached.zookeeper.CacheServerListBarrierListener;
 import org.glassfish.grizzly.memcached.zookeeper.PreferRemoteConfigBarrierListener;
@@ -42,23 +49,38 @@ import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
 
 import java.io.UnsupportedEncodingException;
 import java.net.SocketAddress;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -66,7 +88,7 @@ import java.util.logging.Logger;
  * The implementation of the {@link MemcachedCache} based on Grizzly
  * <p>
  * Basically, this class use {@link BaseObjectPool} for pooling connections of the memcached server
- * and {@link ConsistentHashStore} for selecting the memcached server corresponding to the given key.
+ * and {@link NodeLocator} such as {@link ConsistentHashStore} for selecting the memcached server corresponding to the given key.
  * <p>
  * When a Cache operation is called,
  * 1. finding the correct server by consistent hashing
@@ -77,11 +99,20 @@ import java.util.logging.Logger;
  * <p>
  * For the failback of the memcached server, {@link HealthMonitorTask} will be scheduled by {@code healthMonitorIntervalInSecs}.
  * If connecting and writing are failed, this cache retries failure operations by {@code retryCount}.
- * If retrials also failed, the server will be regarded as not valid and removed in {@link ConsistentHashStore}.
+ * If retrials also failed, the server will be regarded as not valid and removed in {@link NodeLocator}.
  * Sometimes, automatical changes of the server list can cause stale cache data at runtime.
  * So this cache provides {@code failover} flag which can turn off the failover/failback.
  * <p>
  * This cache also supports bulk operations such as {@link #setMulti} as well as {@link #getMulti}.
+ * Bulk operations write requests to all servers first and then wait for all responses together,
+ * so the elapsed time is bounded by the slowest server rather than the sum of all servers.
+ * <p>
+ * All operations can be also executed asynchronously by {@link AsyncMemcachedCache}'s methods such as {@link #getAsync}.
+ * Asynchronous operations don't wait for the response and the returned future will be completed by {@link MemcachedClientFilter}.
+ * <p>
+ * If {@code requestCoalescing} is enabled, concurrent single gets, deletes and touches for the same server
+ * are collected by {@link RequestCoalescer} and sent together as one pipeline.
+ * Batches whose windows elapse are sent in the cache's own worker threads, not in the coalescing scheduler's thread.
  * <p>
  * Example of use:
  * {@code
@@ -109,12 +140,33 @@ import java.util.logging.Logger;
  *
  * @author Bongjae Chang
  */
-public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKeeperSupportCache {
+public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, AsyncMemcachedCache<K, V>, ZooKeeperSupportCache {
 
     private static final Logger logger = Grizzly.logger(GrizzlyMemcachedCache.class);
 
     private static final AtomicInteger opaqueIndex = new AtomicInteger();
 
+    private static final Long INVALID_LONG = (long) -1;
+    private static final long NO_DEADLINE = Long.MIN_VALUE;
+    private static final Function<Object, Boolean> TO_BOOLEAN = new Function<Object, Boolean>() {
+        @Override
+        public Boolean apply(final Object result) {
+            return result instanceof Boolean ? (Boolean) result : Boolean.FALSE;
+        }
+    };
+    private static final Function<Object, Object> RESOLVE_LAZY_VALUE = new Function<Object, Object>() {
+        @Override
+        public Object apply(final Object result) {
+            return LazyValue.resolve(result);
+        }
+    };
+    private static final Function<Object, Long> TO_LONG = new Function<Object, Long>() {
+        @Override
+        public Long apply(final Object result) {
+            return result instanceof Long ? (Long) result : INVALID_LONG;
+        }
+    };
+
     private final String cacheName;
     private final TCPNIOTransport transport;
     private final long connectTimeoutInMillis;
@@ -125,8 +177,27 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
     private final Attribute<ObjectPool<SocketAddress, Connection<SocketAddress>>> connectionPoolAttribute =
             Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(CONNECTION_POOL_ATTRIBUTE_NAME);
     private final ObjectPool<SocketAddress, Connection<SocketAddress>> connectionPool;
+    public static final String TRANSCODER_ATTRIBUTE_NAME = "GrizzlyMemcachedCache.Transcoder";
+    private final Attribute<Transcoder<?>> transcoderAttribute =
+            Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(TRANSCODER_ATTRIBUTE_NAME);
+    private final Transcoder<V> transcoder;
+    // not null if values can be written into packet buffers directly
+    private final DirectTranscoder<V> directTranscoder;
+    public static final String LAZY_DECODING_THRESHOLD_ATTRIBUTE_NAME = "GrizzlyMemcachedCache.LazyDecodingThreshold";
+    private final Attribute<Integer> lazyDecodingThresholdAttribute =
+            Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(LAZY_DECODING_THRESHOLD_ATTRIBUTE_NAME);
+    // negative if all values are decoded in the selector thread
+    private final int lazyDecodingThreshold;
+    private final Executor decodeExecutor;
+    private final boolean multiplexed;
+    private final int multiplexedConnectionPerServer;
+    private final int pipelineWindowSize;
+    private final int pipelineWindowBytes;
+    private final boolean awaitWriteWithResponse;
 
     private final Set<SocketAddress> servers;
+    // the weights of servers which are not NodeLocator.DEFAULT_WEIGHT
+    private final Map<SocketAddress, Integer> serverWeights = new ConcurrentHashMap<SocketAddress, Integer>();
 
     private final long healthMonitorIntervalInSecs;
     private final ScheduledFuture<?> scheduledFuture;
@@ -137,7 +208,9 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
 
     private final boolean preferRemoteConfig;
 
-    private final ConsistentHashStore<SocketAddress> consistentHash = new ConsistentHashStore<SocketAddress>();
+    private final boolean zooKeeperServerWeights;
+
+    private final NodeLocator<SocketAddress> nodeLocator;
 
     private final ZKClient zkClient;
     private final CacheServerListBarrierListener zkListener;
@@ -145,6 +218,24 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
 
     private MemcachedClientFilter clientFilter;
 
+    private final HashedWheelTimer timeoutTimer;
+    // completes timed-out futures. null if they are completed in the timer's thread
+    private final Executor timeoutExecutor;
+
+    private final ScheduledExecutorService coalescingExecutor;
+    // sends batches whose windows elapsed so that borrowing connections doesn't block the coalescing scheduler
+    private final ExecutorService coalescingSendExecutor;
+    private final RequestCoalescer<SocketAddress> requestCoalescer;
+
+    private final ScheduledExecutorService hedgingExecutor;
+    // sends backup requests so that borrowing connections doesn't block the hedging scheduler
+    private final ExecutorService hedgingSendExecutor;
+    private final RequestHedger<SocketAddress> requestHedger;
+
+    private final double boundedLoadFactor;
+    // null if the bounded-load routing is disabled
+    private final BoundedLoadRouter<SocketAddress> boundedLoadRouter;
+
     private GrizzlyMemcachedCache(Builder<K, V> builder) {
         this.cacheName = builder.cacheName;
         this.transport = builder.transport;
@@ -152,10 +243,56 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         this.writeTimeoutInMillis = builder.writeTimeoutInMillis;
         this.responseTimeoutInMillis = builder.responseTimeoutInMillis;
         this.healthMonitorIntervalInSecs = builder.healthMonitorIntervalInSecs;
+        if (builder.nodeLocator != null) {
+            this.nodeLocator = builder.nodeLocator;
+        } else {
+            this.nodeLocator = new ConsistentHashStore<SocketAddress>(builder.virtualNodeNumber, builder.keyHash);
+        }
+
+        this.multiplexed = builder.multiplexed;
+        this.multiplexedConnectionPerServer = builder.multiplexedConnectionPerServer;
+        this.pipelineWindowSize = builder.pipelineWindowSize;
+        this.pipelineWindowBytes = builder.pipelineWindowBytes;
+        this.awaitWriteWithResponse = builder.awaitWriteWithResponse;
+        Transcoder<V> valueTranscoder = builder.transcoder;
+        if (valueTranscoder == DefaultTranscoder.getInstance()) {
+            // the compressor replaces GZIP of the default transcoder
+            valueTranscoder = new DefaultTranscoder<V>(builder.compressor != null ? -1 : builder.compressionThreshold);
+        }
+        if (builder.compressor != null) {
+            valueTranscoder = new CompressingTranscoder<V>(valueTranscoder, builder.compressor,
+                    builder.compressionThreshold, builder.compressionMinGainPercent);
+        }
+        this.transcoder = valueTranscoder;
+        this.directTranscoder = valueTranscoder instanceof DirectTranscoder ? (DirectTranscoder<V>) valueTranscoder : null;
+        if (builder.lazyValueDecoding) {
+            this.lazyDecodingThreshold = 0;
+        } else if (builder.decodeExecutor != null) {
+            this.lazyDecodingThreshold = Math.max(builder.inlineDecodingMaxBytes, 0);
+        } else {
+            this.lazyDecodingThreshold = -1;
+        }
+        if (builder.decodeExecutor != null) {
+            final Executor executor = builder.decodeExecutor;
+            this.decodeExecutor = new Executor() {
+                @Override
+                public void execute(final Runnable command) {
+                    try {
+                        executor.execute(command);
+                    } catch (RejectedExecutionException ree) {
+                        // decodes in the current thread rather than losing the result
+                        command.run();
+                    }
+                }
+            };
+        } else {
+            this.decodeExecutor = null;
+        }
+        this.timeoutTimer = builder.manager.getTimeoutTimer();
+        this.timeoutExecutor = builder.timeoutExecutor;
 
-        @SuppressWarnings("unchecked")
-        final BaseObjectPool.Builder<SocketAddress, Connection<SocketAddress>> connectionPoolBuilder =
-                new BaseObjectPool.Builder<SocketAddress, Connection<SocketAddress>>(new PoolableObjectFactory<SocketAddress, Connection<SocketAddress>>() {
+        final PoolableObjectFactory<SocketAddress, Connection<SocketAddress>> connectionFactory =
+                new PoolableObjectFactory<SocketAddress, Connection<SocketAddress>>() {
                     @Override
                     public Connection<SocketAddress> createObject(final SocketAddress key) throws Exception {
                         final ConnectorHandler<SocketAddress> connectorHandler =
@@ -204,6 +341,11 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
                         }
                         if (connection != null) {
                             connectionPoolAttribute.set(connection, connectionPool);
+                            // the filter decodes values of this cache's connections with this cache's transcoder
+                            transcoderAttribute.set(connection, transcoder);
+                            if (lazyDecodingThreshold >= 0) {
+                                lazyDecodingThresholdAttribute.set(connection, lazyDecodingThreshold);
+                            }
                             return connection;
                         } else {
                             throw new IllegalStateException("connection must not be null");
@@ -219,6 +361,8 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
                             final AttributeHolder attributeHolder = value.getAttributes();
                             if (attributeHolder != null) {
                                 attributeHolder.removeAttribute(CONNECTION_POOL_ATTRIBUTE_NAME);
+                                attributeHolder.removeAttribute(TRANSCODER_ATTRIBUTE_NAME);
+                                attributeHolder.removeAttribute(LAZY_DECODING_THRESHOLD_ATTRIBUTE_NAME);
                             }
                             if (logger.isLoggable(Level.FINEST)) {
                                 logger.log(Level.FINEST, "the connection has been destroyed. key={0}, value={1}", new Object[]{key, value});
@@ -231,18 +375,29 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
                         return GrizzlyMemcachedCache.this.validateConnectionWithNoopCommand(value);
                         // or return GrizzlyMemcachedCache.this.validateConnectionWithVersionCommand(value);
                     }
-                });
-        connectionPoolBuilder.min(builder.minConnectionPerServer);
-        connectionPoolBuilder.max(builder.maxConnectionPerServer);
-        connectionPoolBuilder.keepAliveTimeoutInSecs(builder.keepAliveTimeoutInSecs);
-        connectionPoolBuilder.disposable(builder.allowDisposableConnection);
-        connectionPoolBuilder.borrowValidation(builder.borrowValidation);
-        connectionPoolBuilder.returnValidation(builder.returnValidation);
-        connectionPool = connectionPoolBuilder.build();
+                };
+        if (multiplexed) {
+            final MultiplexedObjectPool.Builder<SocketAddress, Connection<SocketAddress>> connectionPoolBuilder =
+                    new MultiplexedObjectPool.Builder<SocketAddress, Connection<SocketAddress>>(connectionFactory);
+            connectionPoolBuilder.size(builder.multiplexedConnectionPerServer);
+            connectionPoolBuilder.validation(builder.borrowValidation);
+            connectionPool = connectionPoolBuilder.build();
+        } else {
+            final BaseObjectPool.Builder<SocketAddress, Connection<SocketAddress>> connectionPoolBuilder =
+                    new BaseObjectPool.Builder<SocketAddress, Connection<SocketAddress>>(connectionFactory);
+            connectionPoolBuilder.min(builder.minConnectionPerServer);
+            connectionPoolBuilder.max(builder.maxConnectionPerServer);
+            connectionPoolBuilder.keepAliveTimeoutInSecs(builder.keepAliveTimeoutInSecs);
+            connectionPoolBuilder.disposable(builder.allowDisposableConnection);
+            connectionPoolBuilder.borrowValidation(builder.borrowValidation);
+            connectionPoolBuilder.returnValidation(builder.returnValidation);
+            connectionPool = connectionPoolBuilder.build();
+        }
 
         this.failover = builder.failover;
 
         this.servers = builder.servers;
+        this.serverWeights.putAll(builder.serverWeights);
 
         if (failover && healthMonitorIntervalInSecs > 0) {
             healthMonitorTask = new HealthMonitorTask();
@@ -255,12 +410,56 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         }
 
         this.preferRemoteConfig = builder.preferRemoteConfig;
+        this.zooKeeperServerWeights = builder.zooKeeperServerWeights;
         if (this.preferRemoteConfig) {
-            this.zkListener = new PreferRemoteConfigBarrierListener(this, servers);
+            this.zkListener = new PreferRemoteConfigBarrierListener(this, servers, zooKeeperServerWeights);
         } else {
-            this.zkListener = new CacheServerListBarrierListener(this, servers);
+            this.zkListener = new CacheServerListBarrierListener(this, servers, zooKeeperServerWeights);
         }
         this.zkClient = builder.zkClient;
+
+        if (builder.requestCoalescing) {
+            this.coalescingExecutor = Executors.newSingleThreadScheduledExecutor();
+            this.coalescingSendExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            this.requestCoalescer = new RequestCoalescer<SocketAddress>(new RequestCoalescer.BatchSender<SocketAddress>() {
+                @Override
+                public void send(final SocketAddress address, final List<RequestCoalescer.Entry> entries) {
+                    sendBatch(address, entries);
+                }
+            }, coalescingExecutor, coalescingSendExecutor, builder.coalescingWindowInMicros, builder.coalescingMaxBatchSize);
+        } else {
+            this.coalescingExecutor = null;
+            this.coalescingSendExecutor = null;
+            this.requestCoalescer = null;
+        }
+
+        if (builder.hedgedReads) {
+            this.hedgingExecutor = Executors.newSingleThreadScheduledExecutor();
+            this.hedgingSendExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            this.requestHedger = new RequestHedger<SocketAddress>(hedgingExecutor, hedgingSendExecutor,
+                    builder.hedgeDelayInMillis, builder.hedgePercentile, builder.hedgeBudgetPercent);
+        } else {
+            this.hedgingExecutor = null;
+            this.hedgingSendExecutor = null;
+            this.requestHedger = null;
+        }
+
+        this.boundedLoadFactor = builder.boundedLoadFactor;
+        if (boundedLoadFactor > 0) {
+            this.boundedLoadRouter = new BoundedLoadRouter<SocketAddress>(nodeLocator, connectionPool, new Supplier<List<SocketAddress>>() {
+                @Override
+                public List<SocketAddress> get() {
+                    return getCurrentServerList();
+                }
+            }, new ToIntFunction<SocketAddress>() {
+                @Override
+                public int applyAsInt(final SocketAddress address) {
+                    return getWeight(address);
+                }
+            }, boundedLoadFactor);
+        } else {
+            this.boundedLoadRouter = null;
+        }
     }
 
     /**
@@ -312,8 +511,24 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         if (scheduledExecutor != null) {
             scheduledExecutor.shutdown();
         }
+        if (requestCoalescer != null) {
+            requestCoalescer.destroy();
+        }
+        if (coalescingExecutor != null) {
+            coalescingExecutor.shutdownNow();
+        }
+        if (coalescingSendExecutor != null) {
+            coalescingSendExecutor.shutdownNow();
+        }
+        if (hedgingExecutor != null) {
+            hedgingExecutor.shutdownNow();
+        }
+        if (hedgingSendExecutor != null) {
+            hedgingSendExecutor.shutdownNow();
+        }
         servers.clear();
-        consistentHash.clear();
+        serverWeights.clear();
+        nodeLocator.clear();
         if (connectionPool != null) {
             connectionPool.destroy();
         }
@@ -352,15 +567,48 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
                 }
             }
         }
-        consistentHash.add(serverAddress);
+        nodeLocator.add(serverAddress, getWeight(serverAddress));
         servers.add(serverAddress);
 
         if (logger.isLoggable(Level.INFO)) {
-            logger.log(Level.INFO, "added the server to the consistent hash successfully. address={0}", serverAddress);
+            logger.log(Level.INFO, "added the server to the consistent hash successfully. address={0}, weight={1}",
+                    new Object[]{serverAddress, getWeight(serverAddress)});
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean addServer(final SocketAddress serverAddress, final int weight) {
+        if (serverAddress == null) {
+            return true;
+        }
+        if (weight <= 0 || weight > NodeLocator.MAX_WEIGHT) {
+            throw new IllegalArgumentException("weight must be between 1 and " + NodeLocator.MAX_WEIGHT + ". weight=" + weight);
+        }
+        if (weight == NodeLocator.DEFAULT_WEIGHT) {
+            serverWeights.remove(serverAddress);
+        } else {
+            serverWeights.put(serverAddress, weight);
+        }
+        if (!nodeLocator.hasNode(serverAddress)) {
+            return addServer(serverAddress, true);
+        }
+        // updates the weight in place. the connections are kept
+        nodeLocator.add(serverAddress, weight);
+        if (logger.isLoggable(Level.INFO)) {
+            logger.log(Level.INFO, "updated the weight of the server successfully. address={0}, weight={1}", new Object[]{serverAddress, weight});
         }
         return true;
     }
 
+    private int getWeight(final SocketAddress serverAddress) {
+        final Integer weight = serverWeights.get(serverAddress);
+        return weight != null ? weight : NodeLocator.DEFAULT_WEIGHT;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -375,19 +623,24 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         }
         if (!forcibly) {
             if (healthMonitorTask != null && healthMonitorTask.failure(serverAddress)) {
-                consistentHash.remove(serverAddress);
+                nodeLocator.remove(serverAddress);
                 servers.remove(serverAddress);
                 if (logger.isLoggable(Level.INFO)) {
                     logger.log(Level.INFO, "removed the server from the consistent hash successfully. address={0}", serverAddress);
                 }
             }
         } else {
-            consistentHash.remove(serverAddress);
+            nodeLocator.remove(serverAddress);
             servers.remove(serverAddress);
+            // unlike the failure server, the removed server never revives with its weight
+            serverWeights.remove(serverAddress);
             if (logger.isLoggable(Level.INFO)) {
                 logger.log(Level.INFO, "removed the server from the consistent hash successfully. address={0}", serverAddress);
             }
         }
+        if (requestHedger != null) {
+            requestHedger.remove(serverAddress);
+        }
         if (connectionPool != null) {
             try {
                 connectionPool.destroy(serverAddress);
@@ -407,7 +660,7 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
      */
     @Override
     public boolean isInServerList(final SocketAddress serverAddress) {
-        return consistentHash.hasValue(serverAddress);
+        return nodeLocator.hasNode(serverAddress);
     }
 
     /**
@@ -476,6 +729,13 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         if (cacheServerList == null) {
             return false;
         }
+        if (!zooKeeperServerWeights && CacheServerListBarrierListener.hasWeights(cacheServerList)) {
+            // old clients would parse "host:port:weight" as the host "host:port" and the port "weight"
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.log(Level.WARNING, "the weighted server list is refused because zooKeeperServerWeights is false. list={0}", cacheServerList);
+            }
+            return false;
+        }
         final byte[] serverListBytes;
         try {
             serverListBytes = cacheServerList.getBytes(CacheServerListBarrierListener.DEFAULT_SERVER_LIST_CHARSET);
@@ -538,14 +798,11 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         final Buffer keyBuffer = keyWrapper.getBuffer();
         builder.key(keyBuffer);
         keyWrapper.recycle();
-        final BufferWrapper valueWrapper = BufferWrapper.wrap(value, transport.getMemoryManager());
-        builder.value(valueWrapper.getBuffer());
-        builder.flags(valueWrapper.getType().flags);
-        valueWrapper.recycle();
+        encodeValue(builder, value, true);
         builder.expirationInSecs(expirationInSecs);
         final MemcachedRequest request = builder.build();
 
-        final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
         if (address == null) {
             builder.recycle();
             return false;
@@ -585,45 +842,29 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
 
     @Override
     public Map<K, Boolean> setMulti(final Map<K, V> map, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return setMultiUntil(map, expirationInSecs, toDeadlineInNanos(writeTimeoutInMillis, responseTimeoutInMillis));
+    }
+
+    @Override
+    public Map<K, Boolean> setMulti(final Map<K, V> map, final int expirationInSecs, final Duration timeout) {
+        return setMultiUntil(map, expirationInSecs, toDeadlineInNanos(timeout));
+    }
+
+    private Map<K, Boolean> setMultiUntil(final Map<K, V> map, final int expirationInSecs, final long deadlineInNanos) {
         final Map<K, Boolean> result = new HashMap<K, Boolean>();
         if (map == null || map.isEmpty()) {
             return result;
         }
 
         // categorize keys by address
-        final Map<SocketAddress, List<BufferWrapper<K>>> categorizedMap = new HashMap<SocketAddress, List<BufferWrapper<K>>>();
-        for (K key : map.keySet()) {
-            final BufferWrapper<K> keyWrapper = BufferWrapper.wrap(key, transport.getMemoryManager());
-            final Buffer keyBuffer = keyWrapper.getBuffer();
-            final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
-            if (address == null) {
-                if (logger.isLoggable(Level.WARNING)) {
-                    logger.log(Level.WARNING, "failed to get the address from the consistent hash in setMulti(). key buffer={0}", keyBuffer);
-                }
-                keyWrapper.recycle();
-                continue;
-            }
-            List<BufferWrapper<K>> keyList = categorizedMap.get(address);
-            if (keyList == null) {
-                keyList = new ArrayList<BufferWrapper<K>>();
-                categorizedMap.put(address, keyList);
-            }
-            keyList.add(keyWrapper);
-        }
+        final Map<SocketAddress, List<BufferWrapper<K>>> categorizedMap = categorizeKeys(map.keySet(), CommandOpcodes.SetQ, "setMulti");
 
-        // set multi from server
+        final Map<SocketAddress, MemcachedRequest[]> requestsMap = new HashMap<SocketAddress, MemcachedRequest[]>();
         for (Map.Entry<SocketAddress, List<BufferWrapper<K>>> entry : categorizedMap.entrySet()) {
             final SocketAddress address = entry.getKey();
             final List<BufferWrapper<K>> keyList = entry.getValue();
             try {
-                sendSetMulti(entry.getKey(), keyList, map, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis, result);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                if (logger.isLoggable(Level.SEVERE)) {
-                    logger.log(Level.SEVERE, "failed to execute setMulti(). address=" + address + ", keySize=" + keyList.size(), ie);
-                } else if (logger.isLoggable(Level.FINER)) {
-                    logger.log(Level.FINER, "failed to execute setMulti(). address=" + address + ", keyList=" + keyList, ie);
-                }
+                requestsMap.put(address, createSetMultiRequests(keyList, map, expirationInSecs));
             } catch (Exception e) {
                 if (logger.isLoggable(Level.SEVERE)) {
                     logger.log(Level.SEVERE, "failed to execute setMulti(). address=" + address + ", keySize=" + keyList.size(), e);
@@ -634,6 +875,9 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
                 recycleBufferWrappers(keyList);
             }
         }
+
+        // set multi from all servers in parallel
+        sendMulti(requestsMap, deadlineInNanos, result, "setMulti");
         return result;
     }
 
@@ -656,14 +900,11 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         final Buffer keyBuffer = keyWrapper.getBuffer();
         builder.key(keyBuffer);
         keyWrapper.recycle();
-        final BufferWrapper valueWrapper = BufferWrapper.wrap(value, transport.getMemoryManager());
-        builder.value(valueWrapper.getBuffer());
-        builder.flags(valueWrapper.getType().flags);
-        valueWrapper.recycle();
+        encodeValue(builder, value, true);
         builder.expirationInSecs(expirationInSecs);
         final MemcachedRequest request = builder.build();
 
-        final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
         if (address == null) {
             builder.recycle();
             return false;
@@ -715,14 +956,11 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         final Buffer keyBuffer = keyWrapper.getBuffer();
         builder.key(keyBuffer);
         keyWrapper.recycle();
-        final BufferWrapper valueWrapper = BufferWrapper.wrap(value, transport.getMemoryManager());
-        builder.value(valueWrapper.getBuffer());
-        builder.flags(valueWrapper.getType().flags);
-        valueWrapper.recycle();
+        encodeValue(builder, value, true);
         builder.expirationInSecs(expirationInSecs);
         final MemcachedRequest request = builder.build();
 
-        final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
         if (address == null) {
             builder.recycle();
             return false;
@@ -775,14 +1013,11 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         final Buffer keyBuffer = keyWrapper.getBuffer();
         builder.key(keyBuffer);
         keyWrapper.recycle();
-        final BufferWrapper valueWrapper = BufferWrapper.wrap(value, transport.getMemoryManager());
-        builder.value(valueWrapper.getBuffer());
-        builder.flags(valueWrapper.getType().flags);
-        valueWrapper.recycle();
+        encodeValue(builder, value, true);
         builder.expirationInSecs(expirationInSecs);
         final MemcachedRequest request = builder.build();
 
-        final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
         if (address == null) {
             builder.recycle();
             return false;
@@ -822,45 +1057,29 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
 
     @Override
     public Map<K, Boolean> casMulti(final Map<K, ValueWithCas<V>> map, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return casMultiUntil(map, expirationInSecs, toDeadlineInNanos(writeTimeoutInMillis, responseTimeoutInMillis));
+    }
+
+    @Override
+    public Map<K, Boolean> casMulti(final Map<K, ValueWithCas<V>> map, final int expirationInSecs, final Duration timeout) {
+        return casMultiUntil(map, expirationInSecs, toDeadlineInNanos(timeout));
+    }
+
+    private Map<K, Boolean> casMultiUntil(final Map<K, ValueWithCas<V>> map, final int expirationInSecs, final long deadlineInNanos) {
         final Map<K, Boolean> result = new HashMap<K, Boolean>();
         if (map == null || map.isEmpty()) {
             return result;
         }
 
         // categorize keys by address
-        final Map<SocketAddress, List<BufferWrapper<K>>> categorizedMap = new HashMap<SocketAddress, List<BufferWrapper<K>>>();
-        for (K key : map.keySet()) {
-            final BufferWrapper<K> keyWrapper = BufferWrapper.wrap(key, transport.getMemoryManager());
-            final Buffer keyBuffer = keyWrapper.getBuffer();
-            final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
-            if (address == null) {
-                if (logger.isLoggable(Level.WARNING)) {
-                    logger.log(Level.WARNING, "failed to get the address from the consistent hash in casMulti(). key buffer={0}", keyBuffer);
-                }
-                keyWrapper.recycle();
-                continue;
-            }
-            List<BufferWrapper<K>> keyList = categorizedMap.get(address);
-            if (keyList == null) {
-                keyList = new ArrayList<BufferWrapper<K>>();
-                categorizedMap.put(address, keyList);
-            }
-            keyList.add(keyWrapper);
-        }
+        final Map<SocketAddress, List<BufferWrapper<K>>> categorizedMap = categorizeKeys(map.keySet(), CommandOpcodes.SetQ, "casMulti");
 
-        // cas multi from server
+        final Map<SocketAddress, MemcachedRequest[]> requestsMap = new HashMap<SocketAddress, MemcachedRequest[]>();
         for (Map.Entry<SocketAddress, List<BufferWrapper<K>>> entry : categorizedMap.entrySet()) {
             final SocketAddress address = entry.getKey();
             final List<BufferWrapper<K>> keyList = entry.getValue();
             try {
-                sendCasMulti(entry.getKey(), keyList, map, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis, result);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                if (logger.isLoggable(Level.SEVERE)) {
-                    logger.log(Level.SEVERE, "failed to execute casMulti(). address=" + address + ", keySize=" + keyList.size(), ie);
-                } else if (logger.isLoggable(Level.FINER)) {
-                    logger.log(Level.FINER, "failed to execute casMulti(). address=" + address + ", keyList=" + keyList, ie);
-                }
+                requestsMap.put(address, createCasMultiRequests(keyList, map, expirationInSecs));
             } catch (Exception e) {
                 if (logger.isLoggable(Level.SEVERE)) {
                     logger.log(Level.SEVERE, "failed to execute casMulti(). address=" + address + ", keySize=" + keyList.size(), e);
@@ -871,6 +1090,9 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
                 recycleBufferWrappers(keyList);
             }
         }
+
+        // cas multi from all servers in parallel
+        sendMulti(requestsMap, deadlineInNanos, result, "casMulti");
         return result;
     }
 
@@ -893,12 +1115,10 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         final Buffer keyBuffer = keyWrapper.getBuffer();
         builder.key(keyBuffer);
         keyWrapper.recycle();
-        final BufferWrapper valueWrapper = BufferWrapper.wrap(value, transport.getMemoryManager());
-        builder.value(valueWrapper.getBuffer());
-        valueWrapper.recycle();
+        encodeValue(builder, value, false);
         final MemcachedRequest request = builder.build();
 
-        final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
         if (address == null) {
             builder.recycle();
             return false;
@@ -950,12 +1170,10 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         final Buffer keyBuffer = keyWrapper.getBuffer();
         builder.key(keyBuffer);
         keyWrapper.recycle();
-        final BufferWrapper valueWrapper = BufferWrapper.wrap(value, transport.getMemoryManager());
-        builder.value(valueWrapper.getBuffer());
-        valueWrapper.recycle();
+        encodeValue(builder, value, false);
         final MemcachedRequest request = builder.build();
 
-        final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
         if (address == null) {
             builder.recycle();
             return false;
@@ -995,44 +1213,33 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
 
     @Override
     public Map<K, V> getMulti(final Set<K> keys, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return getMultiUntil(keys, toDeadlineInNanos(writeTimeoutInMillis, responseTimeoutInMillis));
+    }
+
+    @Override
+    public Map<K, V> getMulti(final Set<K> keys, final Duration timeout) {
+        return getMultiUntil(keys, toDeadlineInNanos(timeout));
+    }
+
+    private Map<K, V> getMultiUntil(final Set<K> keys, final long deadlineInNanos) {
         final Map<K, V> result = new HashMap<K, V>();
         if (keys == null || keys.isEmpty()) {
             return result;
         }
 
         // categorize keys by address
-        final Map<SocketAddress, List<BufferWrapper<K>>> categorizedMap = new HashMap<SocketAddress, List<BufferWrapper<K>>>();
-        for (K key : keys) {
-            final BufferWrapper<K> keyWrapper = BufferWrapper.wrap(key, transport.getMemoryManager());
-            final Buffer keyBuffer = keyWrapper.getBuffer();
-            final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
-            if (address == null) {
-                if (logger.isLoggable(Level.WARNING)) {
-                    logger.log(Level.WARNING, "failed to get the address from the consistent hash in getMulti(). key buffer={0}", keyBuffer);
-                }
-                keyWrapper.recycle();
-                continue;
-            }
-            List<BufferWrapper<K>> keyList = categorizedMap.get(address);
-            if (keyList == null) {
-                keyList = new ArrayList<BufferWrapper<K>>();
-                categorizedMap.put(address, keyList);
-            }
-            keyList.add(keyWrapper);
-        }
+        final Map<SocketAddress, List<BufferWrapper<K>>> categorizedMap = categorizeKeys(keys, CommandOpcodes.GetQ, "getMulti");
 
-        // get multi from server
+        final Map<SocketAddress, MemcachedRequest[]> requestsMap = new HashMap<SocketAddress, MemcachedRequest[]>();
+        final Map<SocketAddress, Supplier<MemcachedRequest[]>> backupRequestsMap =
+                requestHedger != null ? new HashMap<SocketAddress, Supplier<MemcachedRequest[]>>() : null;
         for (Map.Entry<SocketAddress, List<BufferWrapper<K>>> entry : categorizedMap.entrySet()) {
             final SocketAddress address = entry.getKey();
             final List<BufferWrapper<K>> keyList = entry.getValue();
             try {
-                sendGetMulti(entry.getKey(), keyList, writeTimeoutInMillis, responseTimeoutInMillis, result);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                if (logger.isLoggable(Level.SEVERE)) {
-                    logger.log(Level.SEVERE, "failed to execute getMulti(). address=" + address + ", keySize=" + keyList.size(), ie);
-                } else if (logger.isLoggable(Level.FINER)) {
-                    logger.log(Level.FINER, "failed to execute getMulti(). address=" + address + ", keyList=" + keyList, ie);
+                requestsMap.put(address, createGetMultiRequests(keyList, CommandOpcodes.Get, CommandOpcodes.GetQ));
+                if (backupRequestsMap != null) {
+                    backupRequestsMap.put(address, createBackupGetMultiRequests(keyList, CommandOpcodes.Get, CommandOpcodes.GetQ));
                 }
             } catch (Exception e) {
                 if (logger.isLoggable(Level.SEVERE)) {
@@ -1044,6 +1251,9 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
                 recycleBufferWrappers(keyList);
             }
         }
+
+        // get multi from all servers in parallel
+        sendMulti(requestsMap, backupRequestsMap, deadlineInNanos, result, "getMulti");
         return result;
     }
 
@@ -1058,10 +1268,12 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         if (key == null) {
             return null;
         }
+        // coalesced gets are sent quietly and fenced by the batch's noop so that misses have no responses
+        final boolean coalesced = requestCoalescer != null && !noReply;
         final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, true, false);
-        builder.op(noReply ? CommandOpcodes.GetQ : CommandOpcodes.Get);
-        builder.noReply(false);
-        builder.opaque(noReply ? generateOpaque() : 0);
+        builder.op(noReply || coalesced ? CommandOpcodes.GetQ : CommandOpcodes.Get);
+        builder.noReply(coalesced);
+        builder.opaque(noReply || coalesced ? generateOpaque() : 0);
         builder.originKey(key);
         final BufferWrapper<K> keyWrapper = BufferWrapper.wrap(key, transport.getMemoryManager());
         final Buffer keyBuffer = keyWrapper.getBuffer();
@@ -1069,13 +1281,20 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         keyWrapper.recycle();
         final MemcachedRequest request = builder.build();
 
-        final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
         if (address == null) {
             builder.recycle();
             return null;
         }
         try {
-            final Object result = send(address, request, writeTimeoutInMillis, responseTimeoutInMillis);
+            final Object result;
+            if (coalesced) {
+                result = sendCoalesced(address, request, writeTimeoutInMillis, responseTimeoutInMillis);
+            } else if (requestHedger != null && !noReply) {
+                result = sendHedged(address, request, createBackupRequest(key, CommandOpcodes.Get), writeTimeoutInMillis, responseTimeoutInMillis);
+            } else {
+                result = send(address, request, writeTimeoutInMillis, responseTimeoutInMillis);
+            }
             if (result != null) {
                 return (V) result;
             } else {
@@ -1097,6 +1316,72 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         }
     }
 
+    @Override
+    public void getMulti(final Collection<K> keys, final BiConsumer<K, V> consumer) {
+        getMulti(keys, consumer, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public void getMulti(final Collection<K> keys, final BiConsumer<K, V> consumer, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        getMultiUntil(keys, consumer, toDeadlineInNanos(writeTimeoutInMillis, responseTimeoutInMillis));
+    }
+
+    @Override
+    public void getMulti(final Collection<K> keys, final BiConsumer<K, V> consumer, final Duration timeout) {
+        getMultiUntil(keys, consumer, toDeadlineInNanos(timeout));
+    }
+
+    private void getMultiUntil(final Collection<K> keys, final BiConsumer<K, V> consumer, final long deadlineInNanos) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer must not be null");
+        }
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+
+        // categorize keys by address
+        final Map<SocketAddress, List<BufferWrapper<K>>> categorizedMap = categorizeKeys(keys, CommandOpcodes.GetQ, "getMulti");
+
+        final StreamingResponseHandler handler = new StreamingResponseHandler(consumer, decodeExecutor);
+        final Map<SocketAddress, MemcachedRequest[]> requestsMap = new HashMap<SocketAddress, MemcachedRequest[]>();
+        for (Map.Entry<SocketAddress, List<BufferWrapper<K>>> entry : categorizedMap.entrySet()) {
+            final SocketAddress address = entry.getKey();
+            final List<BufferWrapper<K>> keyList = entry.getValue();
+            try {
+                requestsMap.put(address, createStreamingGetMultiRequests(keyList, handler));
+            } catch (Exception e) {
+                if (logger.isLoggable(Level.SEVERE)) {
+                    logger.log(Level.SEVERE, "failed to execute getMulti(). address=" + address + ", keySize=" + keyList.size(), e);
+                } else if (logger.isLoggable(Level.FINER)) {
+                    logger.log(Level.FINER, "failed to execute getMulti(). address=" + address + ", keyList=" + keyList, e);
+                }
+            } finally {
+                recycleBufferWrappers(keyList);
+            }
+        }
+
+        // get multi from all servers in parallel. found values are handed to the consumer by the filter
+        try {
+            sendMulti(requestsMap, deadlineInNanos, null, "getMulti");
+            // waits for values which are being handed in decodeExecutor
+            final CompletableFuture<Void> handed = handler.finish();
+            if (deadlineInNanos == NO_DEADLINE) {
+                handed.get();
+            } else {
+                handed.get(Math.max(deadlineInNanos - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ee) {
+            // never happens because the future is not failed
+        } catch (TimeoutException te) {
+            // values which are not handed until the deadline are dropped
+        } finally {
+            // responses which arrive after the deadline are not handed to the consumer
+            handler.close();
+        }
+    }
+
     @Override
     public ValueWithKey<K, V> getKey(final K key, final boolean noReply) {
         return getKey(key, noReply, writeTimeoutInMillis, responseTimeoutInMillis);
@@ -1119,7 +1404,7 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         keyWrapper.recycle();
         final MemcachedRequest request = builder.build();
 
-        final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
         if (address == null) {
             builder.recycle();
             return null;
@@ -1169,13 +1454,15 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         keyWrapper.recycle();
         final MemcachedRequest request = builder.build();
 
-        final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
         if (address == null) {
             builder.recycle();
             return null;
         }
         try {
-            final Object result = send(address, request, writeTimeoutInMillis, responseTimeoutInMillis);
+            final Object result = requestHedger != null && !noReply ?
+                    sendHedged(address, request, createBackupRequest(key, CommandOpcodes.Gets), writeTimeoutInMillis, responseTimeoutInMillis) :
+                    send(address, request, writeTimeoutInMillis, responseTimeoutInMillis);
             if (result != null) {
                 return (ValueWithCas<V>) result;
             } else {
@@ -1204,44 +1491,33 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
 
     @Override
     public Map<K, ValueWithCas<V>> getsMulti(final Set<K> keys, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return getsMultiUntil(keys, toDeadlineInNanos(writeTimeoutInMillis, responseTimeoutInMillis));
+    }
+
+    @Override
+    public Map<K, ValueWithCas<V>> getsMulti(final Set<K> keys, final Duration timeout) {
+        return getsMultiUntil(keys, toDeadlineInNanos(timeout));
+    }
+
+    private Map<K, ValueWithCas<V>> getsMultiUntil(final Set<K> keys, final long deadlineInNanos) {
         final Map<K, ValueWithCas<V>> result = new HashMap<K, ValueWithCas<V>>();
         if (keys == null || keys.isEmpty()) {
             return result;
         }
 
         // categorize keys by address
-        final Map<SocketAddress, List<BufferWrapper<K>>> categorizedMap = new HashMap<SocketAddress, List<BufferWrapper<K>>>();
-        for (K key : keys) {
-            final BufferWrapper<K> keyWrapper = BufferWrapper.wrap(key, transport.getMemoryManager());
-            final Buffer keyBuffer = keyWrapper.getBuffer();
-            final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
-            if (address == null) {
-                if (logger.isLoggable(Level.WARNING)) {
-                    logger.log(Level.WARNING, "failed to get the address from the consistent hash in getsMulti(). key buffer={0}", keyBuffer);
-                }
-                keyWrapper.recycle();
-                continue;
-            }
-            List<BufferWrapper<K>> keyList = categorizedMap.get(address);
-            if (keyList == null) {
-                keyList = new ArrayList<BufferWrapper<K>>();
-                categorizedMap.put(address, keyList);
-            }
-            keyList.add(keyWrapper);
-        }
+        final Map<SocketAddress, List<BufferWrapper<K>>> categorizedMap = categorizeKeys(keys, CommandOpcodes.GetsQ, "getsMulti");
 
-        // get multi from server
+        final Map<SocketAddress, MemcachedRequest[]> requestsMap = new HashMap<SocketAddress, MemcachedRequest[]>();
+        final Map<SocketAddress, Supplier<MemcachedRequest[]>> backupRequestsMap =
+                requestHedger != null ? new HashMap<SocketAddress, Supplier<MemcachedRequest[]>>() : null;
         for (Map.Entry<SocketAddress, List<BufferWrapper<K>>> entry : categorizedMap.entrySet()) {
             final SocketAddress address = entry.getKey();
             final List<BufferWrapper<K>> keyList = entry.getValue();
             try {
-                sendGetsMulti(entry.getKey(), keyList, writeTimeoutInMillis, responseTimeoutInMillis, result);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                if (logger.isLoggable(Level.SEVERE)) {
-                    logger.log(Level.SEVERE, "failed to execute getsMulti(). address=" + address + ", keySize=" + keyList.size(), ie);
-                } else if (logger.isLoggable(Level.FINER)) {
-                    logger.log(Level.FINER, "failed to execute getsMulti(). address=" + address + ", keyList=" + keyList, ie);
+                requestsMap.put(address, createGetMultiRequests(keyList, CommandOpcodes.Gets, CommandOpcodes.GetsQ));
+                if (backupRequestsMap != null) {
+                    backupRequestsMap.put(address, createBackupGetMultiRequests(keyList, CommandOpcodes.Gets, CommandOpcodes.GetsQ));
                 }
             } catch (Exception e) {
                 if (logger.isLoggable(Level.SEVERE)) {
@@ -1253,6 +1529,9 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
                 recycleBufferWrappers(keyList);
             }
         }
+
+        // get multi from all servers in parallel
+        sendMulti(requestsMap, backupRequestsMap, deadlineInNanos, result, "getsMulti");
         return result;
     }
 
@@ -1279,7 +1558,7 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         builder.expirationInSecs(expirationInSecs);
         final MemcachedRequest request = builder.build();
 
-        final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
         if (address == null) {
             builder.recycle();
             return null;
@@ -1317,10 +1596,12 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         if (key == null) {
             return false;
         }
+        // coalesced deletes are sent quietly and fenced by the batch's noop so that successes have no responses
+        final boolean coalesced = requestCoalescer != null && !noReply;
         final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, true, false);
-        builder.op(noReply ? CommandOpcodes.DeleteQ : CommandOpcodes.Delete);
-        builder.noReply(noReply);
-        builder.opaque(noReply ? generateOpaque() : 0);
+        builder.op(noReply || coalesced ? CommandOpcodes.DeleteQ : CommandOpcodes.Delete);
+        builder.noReply(noReply || coalesced);
+        builder.opaque(noReply || coalesced ? generateOpaque() : 0);
         builder.originKey(key);
         final BufferWrapper<K> keyWrapper = BufferWrapper.wrap(key, transport.getMemoryManager());
         final Buffer keyBuffer = keyWrapper.getBuffer();
@@ -1328,7 +1609,7 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         keyWrapper.recycle();
         final MemcachedRequest request = builder.build();
 
-        final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
         if (address == null) {
             builder.recycle();
             return false;
@@ -1338,7 +1619,9 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
                 sendNoReply(address, request);
                 return true;
             } else {
-                final Object result = send(address, request, writeTimeoutInMillis, responseTimeoutInMillis);
+                final Object result = coalesced ?
+                        sendCoalesced(address, request, writeTimeoutInMillis, responseTimeoutInMillis) :
+                        send(address, request, writeTimeoutInMillis, responseTimeoutInMillis);
                 if (result instanceof Boolean) {
                     return (Boolean) result;
                 } else {
@@ -1368,45 +1651,29 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
 
     @Override
     public Map<K, Boolean> deleteMulti(final Set<K> keys, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return deleteMultiUntil(keys, toDeadlineInNanos(writeTimeoutInMillis, responseTimeoutInMillis));
+    }
+
+    @Override
+    public Map<K, Boolean> deleteMulti(final Set<K> keys, final Duration timeout) {
+        return deleteMultiUntil(keys, toDeadlineInNanos(timeout));
+    }
+
+    private Map<K, Boolean> deleteMultiUntil(final Set<K> keys, final long deadlineInNanos) {
         final Map<K, Boolean> result = new HashMap<K, Boolean>();
         if (keys == null || keys.isEmpty()) {
             return result;
         }
 
         // categorize keys by address
-        final Map<SocketAddress, List<BufferWrapper<K>>> categorizedMap = new HashMap<SocketAddress, List<BufferWrapper<K>>>();
-        for (K key : keys) {
-            final BufferWrapper<K> keyWrapper = BufferWrapper.wrap(key, transport.getMemoryManager());
-            final Buffer keyBuffer = keyWrapper.getBuffer();
-            final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
-            if (address == null) {
-                if (logger.isLoggable(Level.WARNING)) {
-                    logger.log(Level.WARNING, "failed to get the address from the consistent hash in deleteMulti(). key buffer={0}", keyBuffer);
-                }
-                keyWrapper.recycle();
-                continue;
-            }
-            List<BufferWrapper<K>> keyList = categorizedMap.get(address);
-            if (keyList == null) {
-                keyList = new ArrayList<BufferWrapper<K>>();
-                categorizedMap.put(address, keyList);
-            }
-            keyList.add(keyWrapper);
-        }
+        final Map<SocketAddress, List<BufferWrapper<K>>> categorizedMap = categorizeKeys(keys, CommandOpcodes.DeleteQ, "deleteMulti");
 
-        // delete multi from server
+        final Map<SocketAddress, MemcachedRequest[]> requestsMap = new HashMap<SocketAddress, MemcachedRequest[]>();
         for (Map.Entry<SocketAddress, List<BufferWrapper<K>>> entry : categorizedMap.entrySet()) {
             final SocketAddress address = entry.getKey();
             final List<BufferWrapper<K>> keyList = entry.getValue();
             try {
-                sendDeleteMulti(entry.getKey(), keyList, writeTimeoutInMillis, responseTimeoutInMillis, result);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                if (logger.isLoggable(Level.SEVERE)) {
-                    logger.log(Level.SEVERE, "failed to execute deleteMulti(). address=" + address + ", keySize=" + keyList.size(), ie);
-                } else if (logger.isLoggable(Level.FINER)) {
-                    logger.log(Level.FINER, "failed to execute deleteMulti(). address=" + address + ", keyList=" + keyList, ie);
-                }
+                requestsMap.put(address, createDeleteMultiRequests(keyList));
             } catch (Exception e) {
                 if (logger.isLoggable(Level.SEVERE)) {
                     logger.log(Level.SEVERE, "failed to execute deleteMulti(). address=" + address + ", keySize=" + keyList.size(), e);
@@ -1417,6 +1684,9 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
                 recycleBufferWrappers(keyList);
             }
         }
+
+        // delete multi from all servers in parallel
+        sendMulti(requestsMap, deadlineInNanos, result, "deleteMulti");
         return result;
     }
 
@@ -1434,6 +1704,7 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         builder.op(noReply ? CommandOpcodes.IncrementQ : CommandOpcodes.Increment);
         builder.noReply(noReply);
         builder.opaque(noReply ? generateOpaque() : 0);
+        builder.primitiveResult(true);
         builder.originKey(key);
         final BufferWrapper<K> keyWrapper = BufferWrapper.wrap(key, transport.getMemoryManager());
         final Buffer keyBuffer = keyWrapper.getBuffer();
@@ -1444,7 +1715,7 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         builder.expirationInSecs(expirationInSecs);
         final MemcachedRequest request = builder.build();
 
-        final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
         if (address == null) {
             builder.recycle();
             return -1;
@@ -1454,12 +1725,7 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
                 sendNoReply(address, request);
                 return -1;
             } else {
-                final Object result = send(address, request, writeTimeoutInMillis, responseTimeoutInMillis);
-                if (result != null) {
-                    return (Long) result;
-                } else {
-                    return -1;
-                }
+                return sendForNumeric(address, request, writeTimeoutInMillis, responseTimeoutInMillis, -1);
             }
         } catch (InterruptedException ie) {
             Thread.currentThread().interrupt();
@@ -1491,6 +1757,7 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         builder.op(noReply ? CommandOpcodes.DecrementQ : CommandOpcodes.Decrement);
         builder.noReply(noReply);
         builder.opaque(noReply ? generateOpaque() : 0);
+        builder.primitiveResult(true);
         builder.originKey(key);
         final BufferWrapper<K> keyWrapper = BufferWrapper.wrap(key, transport.getMemoryManager());
         final Buffer keyBuffer = keyWrapper.getBuffer();
@@ -1501,7 +1768,7 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         builder.expirationInSecs(expirationInSecs);
         final MemcachedRequest request = builder.build();
 
-        final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
         if (address == null) {
             builder.recycle();
             return -1;
@@ -1511,12 +1778,7 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
                 sendNoReply(address, request);
                 return -1;
             } else {
-                final Object result = send(address, request, writeTimeoutInMillis, responseTimeoutInMillis);
-                if (result != null) {
-                    return (Long) result;
-                } else {
-                    return -1;
-                }
+                return sendForNumeric(address, request, writeTimeoutInMillis, responseTimeoutInMillis, -1);
             }
         } catch (InterruptedException ie) {
             Thread.currentThread().interrupt();
@@ -1535,34 +1797,186 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
     }
 
     @Override
-    public String saslAuth(final SocketAddress address, final String mechanism, final byte[] data) {
-        return saslAuth(address, mechanism, data, writeTimeoutInMillis, responseTimeoutInMillis);
+    public long getLong(final K key, final long defaultValue) {
+        return getLong(key, defaultValue, writeTimeoutInMillis, responseTimeoutInMillis);
     }
 
     @Override
-    public String saslAuth(final SocketAddress address, final String mechanism, final byte[] data, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
-        throw new UnsupportedOperationException();
+    public long getLong(final K key, final long defaultValue, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return getNumeric(key, defaultValue, writeTimeoutInMillis, responseTimeoutInMillis);
     }
 
     @Override
-    public String saslStep(final SocketAddress address, final String mechanism, final byte[] data) {
-        return saslStep(address, mechanism, data, writeTimeoutInMillis, responseTimeoutInMillis);
+    public int getInt(final K key, final int defaultValue) {
+        return getInt(key, defaultValue, writeTimeoutInMillis, responseTimeoutInMillis);
     }
 
     @Override
-    public String saslStep(final SocketAddress address, final String mechanism, final byte[] data, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
-        throw new UnsupportedOperationException();
+    public int getInt(final K key, final int defaultValue, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        final long value = getNumeric(key, defaultValue, writeTimeoutInMillis, responseTimeoutInMillis);
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (int) value : defaultValue;
     }
 
-    @Override
-    public String saslList(final SocketAddress address) {
-        return saslList(address, writeTimeoutInMillis, responseTimeoutInMillis);
-    }
+    private long getNumeric(final K key, final long defaultValue, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (key == null) {
+            return defaultValue;
+        }
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, true, false);
+        builder.op(CommandOpcodes.Get);
+        builder.noReply(false);
+        builder.opaque(0);
+        builder.primitiveResult(true);
+        builder.originKey(key);
+        final BufferWrapper<K> keyWrapper = BufferWrapper.wrap(key, transport.getMemoryManager());
+        final Buffer keyBuffer = keyWrapper.getBuffer();
+        builder.key(keyBuffer);
+        keyWrapper.recycle();
+        final MemcachedRequest request = builder.build();
 
-    @Override
-    public String saslList(final SocketAddress address, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
-        throw new UnsupportedOperationException();
-    }
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
+        if (address == null) {
+            builder.recycle();
+            return defaultValue;
+        }
+        try {
+            return sendForNumeric(address, request, writeTimeoutInMillis, responseTimeoutInMillis, defaultValue);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            if (logger.isLoggable(Level.SEVERE)) {
+                logger.log(Level.SEVERE, "failed to get the numeric value. address=" + address + ", request=" + request, ie);
+            }
+            return defaultValue;
+        } catch (Exception e) {
+            if (logger.isLoggable(Level.SEVERE)) {
+                logger.log(Level.SEVERE, "failed to get the numeric value. address=" + address + ", request=" + request, e);
+            }
+            return defaultValue;
+        } finally {
+            builder.recycle();
+        }
+    }
+
+    @Override
+    public boolean setLong(final K key, final long value, final int expirationInSecs, final boolean noReply) {
+        return setLong(key, value, expirationInSecs, noReply, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public boolean setLong(final K key, final long value, final int expirationInSecs, final boolean noReply, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return setNumeric(key, value, BufferWrapper.BufferType.LONG, expirationInSecs, noReply, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public boolean setInt(final K key, final int value, final int expirationInSecs, final boolean noReply) {
+        return setInt(key, value, expirationInSecs, noReply, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public boolean setInt(final K key, final int value, final int expirationInSecs, final boolean noReply, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return setNumeric(key, value, BufferWrapper.BufferType.INTEGER, expirationInSecs, noReply, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    /**
+     * Store the numeric value in the format of {@link BufferWrapper} without boxing
+     *
+     * @param type {@link BufferWrapper.BufferType#LONG} or {@link BufferWrapper.BufferType#INTEGER}
+     */
+    private boolean setNumeric(final K key,
+                               final long value,
+                               final BufferWrapper.BufferType type,
+                               final int expirationInSecs,
+                               final boolean noReply,
+                               final long writeTimeoutInMillis,
+                               final long responseTimeoutInMillis) {
+        if (key == null) {
+            return false;
+        }
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(true, true, true);
+        builder.op(noReply ? CommandOpcodes.SetQ : CommandOpcodes.Set);
+        builder.noReply(noReply);
+        builder.opaque(noReply ? generateOpaque() : 0);
+        builder.originKey(key);
+        final BufferWrapper<K> keyWrapper = BufferWrapper.wrap(key, transport.getMemoryManager());
+        final Buffer keyBuffer = keyWrapper.getBuffer();
+        builder.key(keyBuffer);
+        keyWrapper.recycle();
+        final Buffer valueBuffer;
+        if (type == BufferWrapper.BufferType.LONG) {
+            valueBuffer = transport.getMemoryManager().allocate(8);
+            valueBuffer.putLong(value);
+        } else {
+            valueBuffer = transport.getMemoryManager().allocate(4);
+            valueBuffer.putInt((int) value);
+        }
+        valueBuffer.flip();
+        valueBuffer.allowBufferDispose(true);
+        builder.value(valueBuffer);
+        builder.flags(type.flags);
+        builder.expirationInSecs(expirationInSecs);
+        final MemcachedRequest request = builder.build();
+
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
+        if (address == null) {
+            builder.recycle();
+            return false;
+        }
+        try {
+            if (noReply) {
+                sendNoReply(address, request);
+                return true;
+            } else {
+                final Object result = send(address, request, writeTimeoutInMillis, responseTimeoutInMillis);
+                if (result instanceof Boolean) {
+                    return (Boolean) result;
+                } else {
+                    return false;
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            if (logger.isLoggable(Level.SEVERE)) {
+                logger.log(Level.SEVERE, "failed to set the numeric value. address=" + address + ", request=" + request, ie);
+            }
+            return false;
+        } catch (Exception e) {
+            if (logger.isLoggable(Level.SEVERE)) {
+                logger.log(Level.SEVERE, "failed to set the numeric value. address=" + address + ", request=" + request, e);
+            }
+            return false;
+        } finally {
+            builder.recycle();
+        }
+    }
+
+    @Override
+    public String saslAuth(final SocketAddress address, final String mechanism, final byte[] data) {
+        return saslAuth(address, mechanism, data, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public String saslAuth(final SocketAddress address, final String mechanism, final byte[] data, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String saslStep(final SocketAddress address, final String mechanism, final byte[] data) {
+        return saslStep(address, mechanism, data, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public String saslStep(final SocketAddress address, final String mechanism, final byte[] data, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String saslList(final SocketAddress address) {
+        return saslList(address, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public String saslList(final SocketAddress address, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        throw new UnsupportedOperationException();
+    }
 
     @Override
     public Map<String, String> stats(final SocketAddress address) {
@@ -1629,7 +2043,7 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
             return null;
         }
         try {
-            final GrizzlyFuture<WriteResult<MemcachedRequest[], SocketAddress>> future = connection.write(new MemcachedRequest[]{request});
+            final GrizzlyFuture<WriteResult<MemcachedRequest[], SocketAddress>> future = write(connection, new MemcachedRequest[]{request});
             try {
                 if (writeTimeoutInMillis > 0) {
                     future.get(writeTimeoutInMillis, TimeUnit.MILLISECONDS);
@@ -1798,13 +2212,16 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         builder.expirationInSecs(expirationInSecs);
         final MemcachedRequest request = builder.build();
 
-        final SocketAddress address = consistentHash.get(keyBuffer.toByteBuffer());
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
         if (address == null) {
             builder.recycle();
             return false;
         }
         try {
-            final Object result = send(address, request, writeTimeoutInMillis, responseTimeoutInMillis);
+            // touch has no quiet command so it is coalesced as it is
+            final Object result = requestCoalescer != null ?
+                    sendCoalesced(address, request, writeTimeoutInMillis, responseTimeoutInMillis) :
+                    send(address, request, writeTimeoutInMillis, responseTimeoutInMillis);
             if (result instanceof Boolean) {
                 return (Boolean) result;
             } else {
@@ -1942,104 +2359,1172 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         }
     }
 
-    private boolean validateConnectionWithNoopCommand(final Connection<SocketAddress> connection) {
-        if (connection == null) {
-            return false;
-        }
-        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, false, false);
-        builder.op(CommandOpcodes.Noop);
-        builder.opaque(generateOpaque());
-        builder.noReply(false);
-        final MemcachedRequest request = builder.build();
+    @Override
+    public CompletableFuture<Boolean> setAsync(final K key, final V value, final int expirationInSecs) {
+        return setAsync(key, value, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setAsync(final K key, final V value, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return storeAsync(CommandOpcodes.Set, key, value, expirationInSecs, 0, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addAsync(final K key, final V value, final int expirationInSecs) {
+        return addAsync(key, value, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addAsync(final K key, final V value, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return storeAsync(CommandOpcodes.Add, key, value, expirationInSecs, 0, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
 
+    @Override
+    public CompletableFuture<Boolean> replaceAsync(final K key, final V value, final int expirationInSecs) {
+        return replaceAsync(key, value, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> replaceAsync(final K key, final V value, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return storeAsync(CommandOpcodes.Replace, key, value, expirationInSecs, 0, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> appendAsync(final K key, final V value) {
+        return appendAsync(key, value, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> appendAsync(final K key, final V value, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return storeAsync(CommandOpcodes.Append, key, value, 0, 0, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> prependAsync(final K key, final V value) {
+        return prependAsync(key, value, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> prependAsync(final K key, final V value, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return storeAsync(CommandOpcodes.Prepend, key, value, 0, 0, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> casAsync(final K key, final V value, final int expirationInSecs, final long cas) {
+        return casAsync(key, value, expirationInSecs, cas, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> casAsync(final K key, final V value, final int expirationInSecs, final long cas, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return storeAsync(CommandOpcodes.Set, key, value, expirationInSecs, cas, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, Boolean>> setMultiAsync(final Map<K, V> map, final int expirationInSecs) {
+        return setMultiAsync(map, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, Boolean>> setMultiAsync(final Map<K, V> map, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (map == null || map.isEmpty()) {
+            return CompletableFuture.completedFuture((Map<K, Boolean>) new HashMap<K, Boolean>());
+        }
+        final Map<SocketAddress, MemcachedRequest[]> requestsMap;
         try {
-            final GrizzlyFuture<WriteResult<MemcachedRequest[], SocketAddress>> future = connection.write(new MemcachedRequest[]{request});
-            if (writeTimeoutInMillis > 0) {
-                future.get(writeTimeoutInMillis, TimeUnit.MILLISECONDS);
-            } else {
-                future.get();
-            }
-            final Object result = clientFilter.getCorrelatedResponse(connection, request, responseTimeoutInMillis);
-            if (result instanceof Boolean) {
-                return (Boolean) result;
-            } else {
-                return false;
-            }
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-            if (logger.isLoggable(Level.SEVERE)) {
-                logger.log(Level.SEVERE, "failed to execute the noop operation. connection=" + connection + ", request=" + request, ie);
-            }
-            return false;
+            requestsMap = createMultiRequests(categorizeKeys(map.keySet(), CommandOpcodes.SetQ, "setMultiAsync"), new Function<List<BufferWrapper<K>>, MemcachedRequest[]>() {
+                @Override
+                public MemcachedRequest[] apply(final List<BufferWrapper<K>> keyList) {
+                    return createSetMultiRequests(keyList, map, expirationInSecs);
+                }
+            });
         } catch (Exception e) {
-            if (logger.isLoggable(Level.SEVERE)) {
-                logger.log(Level.SEVERE, "failed to execute the noop operation. connection=" + connection + ", request=" + request, e);
-            }
-            return false;
-        } finally {
-            builder.recycle();
+            return failedFuture(e);
         }
+        return sendMultiAsync(requestsMap, writeTimeoutInMillis, responseTimeoutInMillis, "setMultiAsync");
     }
 
-    private boolean validateConnectionWithVersionCommand(final Connection<SocketAddress> connection) {
-        if (connection == null) {
-            return false;
-        }
-        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, false, false);
-        builder.op(CommandOpcodes.Version);
-        builder.noReply(false);
-        final MemcachedRequest request = builder.build();
+    @Override
+    public CompletableFuture<Map<K, Boolean>> casMultiAsync(final Map<K, ValueWithCas<V>> map, final int expirationInSecs) {
+        return casMultiAsync(map, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
 
+    @Override
+    public CompletableFuture<Map<K, Boolean>> casMultiAsync(final Map<K, ValueWithCas<V>> map, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (map == null || map.isEmpty()) {
+            return CompletableFuture.completedFuture((Map<K, Boolean>) new HashMap<K, Boolean>());
+        }
+        final Map<SocketAddress, MemcachedRequest[]> requestsMap;
         try {
-            final GrizzlyFuture<WriteResult<MemcachedRequest[], SocketAddress>> future = connection.write(new MemcachedRequest[]{request});
-            if (writeTimeoutInMillis > 0) {
-                future.get(writeTimeoutInMillis, TimeUnit.MILLISECONDS);
-            } else {
-                future.get();
-            }
-            if (clientFilter == null) {
-                throw new IllegalStateException("client filter must not be null");
-            }
-            final Object result = clientFilter.getCorrelatedResponse(connection, request, responseTimeoutInMillis);
-            return result instanceof String;
-        } catch (TimeoutException te) {
-            if (logger.isLoggable(Level.SEVERE)) {
-                logger.log(Level.SEVERE, "failed to check the connection. connection=" + connection, te);
-            }
-            return false;
-        } catch (ExecutionException ee) {
-            if (logger.isLoggable(Level.SEVERE)) {
-                logger.log(Level.SEVERE, "failed to check the connection. connection=" + connection, ee);
-            }
-            return false;
-        } catch (InterruptedException ie) {
-            if (logger.isLoggable(Level.SEVERE)) {
-                logger.log(Level.SEVERE, "failed to check the connection. connection=" + connection, ie);
-            }
-            Thread.currentThread().interrupt();
-            return false;
-        } finally {
-            builder.recycle();
+            requestsMap = createMultiRequests(categorizeKeys(map.keySet(), CommandOpcodes.SetQ, "casMultiAsync"), new Function<List<BufferWrapper<K>>, MemcachedRequest[]>() {
+                @Override
+                public MemcachedRequest[] apply(final List<BufferWrapper<K>> keyList) {
+                    return createCasMultiRequests(keyList, map, expirationInSecs);
+                }
+            });
+        } catch (Exception e) {
+            return failedFuture(e);
         }
+        return sendMultiAsync(requestsMap, writeTimeoutInMillis, responseTimeoutInMillis, "casMultiAsync");
     }
 
-    private void sendNoReply(final SocketAddress address, final MemcachedRequest request)
-            throws PoolExhaustedException, NoValidObjectException, TimeoutException, InterruptedException {
-        if (address == null) {
-            throw new IllegalArgumentException("address must not be null");
-        }
-        if (request == null) {
-            throw new IllegalArgumentException("request must not be null");
+    @Override
+    public CompletableFuture<V> getAsync(final K key) {
+        return getAsync(key, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<V> getAsync(final K key, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (key == null) {
+            return CompletableFuture.completedFuture(null);
         }
-        if (connectionPool == null) {
-            throw new IllegalStateException("connection pool must not be null");
+        return castFuture(retrieveAsync(CommandOpcodes.Get, key, 0, writeTimeoutInMillis, responseTimeoutInMillis));
+    }
+
+    @Override
+    public CompletableFuture<ValueWithKey<K, V>> getKeyAsync(final K key) {
+        return getKeyAsync(key, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<ValueWithKey<K, V>> getKeyAsync(final K key, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (key == null) {
+            return CompletableFuture.completedFuture(null);
         }
+        return castFuture(retrieveAsync(CommandOpcodes.GetK, key, 0, writeTimeoutInMillis, responseTimeoutInMillis));
+    }
 
-        final Connection<SocketAddress> connection;
-        try {
-            connection = connectionPool.borrowObject(address, connectTimeoutInMillis);
-        } catch (PoolExhaustedException pee) {
-            if (logger.isLoggable(Level.FINER)) {
+    @Override
+    public CompletableFuture<ValueWithCas<V>> getsAsync(final K key) {
+        return getsAsync(key, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<ValueWithCas<V>> getsAsync(final K key, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (key == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return castFuture(retrieveAsync(CommandOpcodes.Gets, key, 0, writeTimeoutInMillis, responseTimeoutInMillis));
+    }
+
+    @Override
+    public CompletableFuture<V> gatAsync(final K key, final int expirationInSecs) {
+        return gatAsync(key, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<V> gatAsync(final K key, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (key == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return castFuture(retrieveAsync(CommandOpcodes.GAT, key, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis));
+    }
+
+    @Override
+    public CompletableFuture<Map<K, V>> getMultiAsync(final Set<K> keys) {
+        return getMultiAsync(keys, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, V>> getMultiAsync(final Set<K> keys, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (keys == null || keys.isEmpty()) {
+            return CompletableFuture.completedFuture((Map<K, V>) new HashMap<K, V>());
+        }
+        final Map<SocketAddress, MemcachedRequest[]> requestsMap;
+        try {
+            requestsMap = createMultiRequests(categorizeKeys(keys, CommandOpcodes.GetQ, "getMultiAsync"), new Function<List<BufferWrapper<K>>, MemcachedRequest[]>() {
+                @Override
+                public MemcachedRequest[] apply(final List<BufferWrapper<K>> keyList) {
+                    return createGetMultiRequests(keyList, CommandOpcodes.Get, CommandOpcodes.GetQ);
+                }
+            });
+        } catch (Exception e) {
+            return failedFuture(e);
+        }
+        return sendMultiAsync(requestsMap, writeTimeoutInMillis, responseTimeoutInMillis, "getMultiAsync");
+    }
+
+    @Override
+    public CompletableFuture<Void> getMultiAsync(final Collection<K> keys, final BiConsumer<K, V> consumer) {
+        return getMultiAsync(keys, consumer, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Void> getMultiAsync(final Collection<K> keys, final BiConsumer<K, V> consumer, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (consumer == null) {
+            return failedFuture(new IllegalArgumentException("consumer must not be null"));
+        }
+        if (keys == null || keys.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final StreamingResponseHandler handler = new StreamingResponseHandler(consumer, decodeExecutor);
+        final Map<SocketAddress, MemcachedRequest[]> requestsMap;
+        try {
+            requestsMap = createMultiRequests(categorizeKeys(keys, CommandOpcodes.GetQ, "getMultiAsync"), new Function<List<BufferWrapper<K>>, MemcachedRequest[]>() {
+                @Override
+                public MemcachedRequest[] apply(final List<BufferWrapper<K>> keyList) {
+                    return createStreamingGetMultiRequests(keyList, handler);
+                }
+            });
+        } catch (Exception e) {
+            handler.close();
+            return failedFuture(e);
+        }
+        final List<CompletableFuture<Object>> futures = new ArrayList<CompletableFuture<Object>>(requestsMap.size());
+        for (Map.Entry<SocketAddress, MemcachedRequest[]> entry : requestsMap.entrySet()) {
+            final SocketAddress address = entry.getKey();
+            final int keySize = entry.getValue().length - 1;
+            final CompletableFuture<Object> future = sendAsync(address, entry.getValue(), writeTimeoutInMillis, responseTimeoutInMillis, null);
+            // partial failures are logged and ignored like other bulk operations
+            futures.add(future.exceptionally(new Function<Throwable, Object>() {
+                @Override
+                public Object apply(final Throwable t) {
+                    if (logger.isLoggable(Level.SEVERE)) {
+                        logger.log(Level.SEVERE, "failed to execute getMultiAsync(). address=" + address + ", keySize=" + keySize, t);
+                    }
+                    return null;
+                }
+            }));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).thenCompose(new Function<Void, CompletionStage<Void>>() {
+            @Override
+            public CompletionStage<Void> apply(final Void ignore) {
+                // waits for values which are being handed in decodeExecutor
+                return handler.finish();
+            }
+        }).whenComplete(new BiConsumer<Void, Throwable>() {
+            @Override
+            public void accept(final Void result, final Throwable t) {
+                handler.close();
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<K, ValueWithCas<V>>> getsMultiAsync(final Set<K> keys) {
+        return getsMultiAsync(keys, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, ValueWithCas<V>>> getsMultiAsync(final Set<K> keys, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (keys == null || keys.isEmpty()) {
+            return CompletableFuture.completedFuture((Map<K, ValueWithCas<V>>) new HashMap<K, ValueWithCas<V>>());
+        }
+        final Map<SocketAddress, MemcachedRequest[]> requestsMap;
+        try {
+            requestsMap = createMultiRequests(categorizeKeys(keys, CommandOpcodes.GetsQ, "getsMultiAsync"), new Function<List<BufferWrapper<K>>, MemcachedRequest[]>() {
+                @Override
+                public MemcachedRequest[] apply(final List<BufferWrapper<K>> keyList) {
+                    return createGetMultiRequests(keyList, CommandOpcodes.Gets, CommandOpcodes.GetsQ);
+                }
+            });
+        } catch (Exception e) {
+            return failedFuture(e);
+        }
+        return sendMultiAsync(requestsMap, writeTimeoutInMillis, responseTimeoutInMillis, "getsMultiAsync");
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteAsync(final K key) {
+        return deleteAsync(key, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteAsync(final K key, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (key == null) {
+            return CompletableFuture.completedFuture(Boolean.FALSE);
+        }
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, true, false);
+        builder.op(CommandOpcodes.Delete);
+        builder.noReply(false);
+        return sendAsync(key, builder, writeTimeoutInMillis, responseTimeoutInMillis).thenApply(TO_BOOLEAN);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, Boolean>> deleteMultiAsync(final Set<K> keys) {
+        return deleteMultiAsync(keys, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, Boolean>> deleteMultiAsync(final Set<K> keys, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (keys == null || keys.isEmpty()) {
+            return CompletableFuture.completedFuture((Map<K, Boolean>) new HashMap<K, Boolean>());
+        }
+        final Map<SocketAddress, MemcachedRequest[]> requestsMap;
+        try {
+            requestsMap = createMultiRequests(categorizeKeys(keys, CommandOpcodes.DeleteQ, "deleteMultiAsync"), new Function<List<BufferWrapper<K>>, MemcachedRequest[]>() {
+                @Override
+                public MemcachedRequest[] apply(final List<BufferWrapper<K>> keyList) {
+                    return createDeleteMultiRequests(keyList);
+                }
+            });
+        } catch (Exception e) {
+            return failedFuture(e);
+        }
+        return sendMultiAsync(requestsMap, writeTimeoutInMillis, responseTimeoutInMillis, "deleteMultiAsync");
+    }
+
+    @Override
+    public CompletableFuture<Long> incrAsync(final K key, final long delta, final long initial, final int expirationInSecs) {
+        return incrAsync(key, delta, initial, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Long> incrAsync(final K key, final long delta, final long initial, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return counterAsync(CommandOpcodes.Increment, key, delta, initial, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Long> decrAsync(final K key, final long delta, final long initial, final int expirationInSecs) {
+        return decrAsync(key, delta, initial, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Long> decrAsync(final K key, final long delta, final long initial, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return counterAsync(CommandOpcodes.Decrement, key, delta, initial, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> touchAsync(final K key, final int expirationInSecs) {
+        return touchAsync(key, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> touchAsync(final K key, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (key == null) {
+            return CompletableFuture.completedFuture(Boolean.FALSE);
+        }
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(true, true, false);
+        builder.op(CommandOpcodes.Touch);
+        builder.noReply(false);
+        builder.expirationInSecs(expirationInSecs);
+        return sendAsync(key, builder, writeTimeoutInMillis, responseTimeoutInMillis).thenApply(TO_BOOLEAN);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> noopAsync(final SocketAddress address) {
+        return noopAsync(address, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> noopAsync(final SocketAddress address, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (address == null) {
+            return CompletableFuture.completedFuture(Boolean.FALSE);
+        }
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, false, false);
+        builder.op(CommandOpcodes.Noop);
+        builder.opaque(generateOpaque());
+        builder.noReply(false);
+        final MemcachedRequest request = builder.build();
+        builder.recycle();
+        return sendAsync(address, new MemcachedRequest[]{request}, writeTimeoutInMillis, responseTimeoutInMillis, null).thenApply(TO_BOOLEAN);
+    }
+
+    @Override
+    public CompletableFuture<String> versionAsync(final SocketAddress address) {
+        return versionAsync(address, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<String> versionAsync(final SocketAddress address, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (address == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, false, false);
+        builder.op(CommandOpcodes.Version);
+        builder.noReply(false);
+        final MemcachedRequest request = builder.build();
+        builder.recycle();
+        return castFuture(sendAsync(address, new MemcachedRequest[]{request}, writeTimeoutInMillis, responseTimeoutInMillis, null));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> flushAllAsync(final SocketAddress address, final int expirationInSecs) {
+        return flushAllAsync(address, expirationInSecs, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> flushAllAsync(final SocketAddress address, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (address == null) {
+            return CompletableFuture.completedFuture(Boolean.FALSE);
+        }
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(expirationInSecs > 0, false, false);
+        builder.op(CommandOpcodes.Flush);
+        builder.noReply(false);
+        builder.expirationInSecs(expirationInSecs);
+        final MemcachedRequest request = builder.build();
+        builder.recycle();
+        return sendAsync(address, new MemcachedRequest[]{request}, writeTimeoutInMillis, responseTimeoutInMillis, null).thenApply(TO_BOOLEAN);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> verbosityAsync(final SocketAddress address, final int verbosity) {
+        return verbosityAsync(address, verbosity, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> verbosityAsync(final SocketAddress address, final int verbosity, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (address == null) {
+            return CompletableFuture.completedFuture(Boolean.FALSE);
+        }
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(true, false, false);
+        builder.op(CommandOpcodes.Verbosity);
+        builder.noReply(false);
+        builder.verbosity(verbosity);
+        final MemcachedRequest request = builder.build();
+        builder.recycle();
+        return sendAsync(address, new MemcachedRequest[]{request}, writeTimeoutInMillis, responseTimeoutInMillis, null).thenApply(TO_BOOLEAN);
+    }
+
+    private boolean validateConnectionWithNoopCommand(final Connection<SocketAddress> connection) {
+        if (connection == null) {
+            return false;
+        }
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, false, false);
+        builder.op(CommandOpcodes.Noop);
+        builder.opaque(generateOpaque());
+        builder.noReply(false);
+        final MemcachedRequest request = builder.build();
+
+        try {
+            final GrizzlyFuture<WriteResult<MemcachedRequest[], SocketAddress>> future = write(connection, new MemcachedRequest[]{request});
+            if (writeTimeoutInMillis > 0) {
+                future.get(writeTimeoutInMillis, TimeUnit.MILLISECONDS);
+            } else {
+                future.get();
+            }
+            final Object result = clientFilter.getCorrelatedResponse(connection, request, responseTimeoutInMillis);
+            if (result instanceof Boolean) {
+                return (Boolean) result;
+            } else {
+                return false;
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            if (logger.isLoggable(Level.SEVERE)) {
+                logger.log(Level.SEVERE, "failed to execute the noop operation. connection=" + connection + ", request=" + request, ie);
+            }
+            return false;
+        } catch (Exception e) {
+            if (logger.isLoggable(Level.SEVERE)) {
+                logger.log(Level.SEVERE, "failed to execute the noop operation. connection=" + connection + ", request=" + request, e);
+            }
+            return false;
+        } finally {
+            builder.recycle();
+        }
+    }
+
+    private boolean validateConnectionWithVersionCommand(final Connection<SocketAddress> connection) {
+        if (connection == null) {
+            return false;
+        }
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, false, false);
+        builder.op(CommandOpcodes.Version);
+        builder.noReply(false);
+        final MemcachedRequest request = builder.build();
+
+        try {
+            final GrizzlyFuture<WriteResult<MemcachedRequest[], SocketAddress>> future = write(connection, new MemcachedRequest[]{request});
+            if (writeTimeoutInMillis > 0) {
+                future.get(writeTimeoutInMillis, TimeUnit.MILLISECONDS);
+            } else {
+                future.get();
+            }
+            if (clientFilter == null) {
+                throw new IllegalStateException("client filter must not be null");
+            }
+            final Object result = clientFilter.getCorrelatedResponse(connection, request, responseTimeoutInMillis);
+            return result instanceof String;
+        } catch (TimeoutException te) {
+            if (logger.isLoggable(Level.SEVERE)) {
+                logger.log(Level.SEVERE, "failed to check the connection. connection=" + connection, te);
+            }
+            return false;
+        } catch (ExecutionException ee) {
+            if (logger.isLoggable(Level.SEVERE)) {
+                logger.log(Level.SEVERE, "failed to check the connection. connection=" + connection, ee);
+            }
+            return false;
+        } catch (InterruptedException ie) {
+            if (logger.isLoggable(Level.SEVERE)) {
+                logger.log(Level.SEVERE, "failed to check the connection. connection=" + connection, ie);
+            }
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            builder.recycle();
+        }
+    }
+
+    private void sendNoReply(final SocketAddress address, final MemcachedRequest request)
+            throws PoolExhaustedException, NoValidObjectException, TimeoutException, InterruptedException {
+        if (address == null) {
+            throw new IllegalArgumentException("address must not be null");
+        }
+        if (request == null) {
+            throw new IllegalArgumentException("request must not be null");
+        }
+        if (connectionPool == null) {
+            throw new IllegalStateException("connection pool must not be null");
+        }
+
+        final Connection<SocketAddress> connection = borrowConnection(address);
+        if (request.isNoReply()) {
+            write(connection, new MemcachedRequest[]{request}, new CompletionHandler<WriteResult<MemcachedRequest[], SocketAddress>>() {
+                @Override
+                public void cancelled() {
+                    returnConnectionSafely(address, connection);
+                    if (logger.isLoggable(Level.SEVERE)) {
+                        logger.log(Level.SEVERE, "failed to send the request. request={0}, connection={1}", new Object[]{request, connection});
+                    }
+                }
+
+                @Override
+                public void failed(Throwable t) {
+                    try {
+                        connectionPool.removeObject(address, connection);
+                    } catch (Exception e) {
+                        if (logger.isLoggable(Level.SEVERE)) {
+                            logger.log(Level.SEVERE, "failed to remove the connection. address=" + address + ", connection=" + connection, e);
+                        }
+                    }
+                    if (logger.isLoggable(Level.SEVERE)) {
+                        logger.log(Level.SEVERE, "failed to send the request. request=" + request + ", connection=" + connection, t);
+                    }
+                }
+
+                @Override
+                public void completed(WriteResult<MemcachedRequest[], SocketAddress> result) {
+                    returnConnectionSafely(address, connection);
+                }
+
+                @Override
+                public void updated(WriteResult<MemcachedRequest[], SocketAddress> result) {
+                }
+            });
+        }
+    }
+
+    private boolean sendNoReplySafely(final Connection<SocketAddress> connection, final MemcachedRequest request) {
+        if (connection == null) {
+            throw new IllegalArgumentException("connection must not be null");
+        }
+        if (request == null) {
+            throw new IllegalArgumentException("request must not be null");
+        }
+        if (request.isNoReply()) {
+            GrizzlyFuture<WriteResult<MemcachedRequest[], SocketAddress>> future = write(connection, new MemcachedRequest[]{request});
+            try {
+                future.get(writeTimeoutInMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ie) {
+                if (logger.isLoggable(Level.SEVERE)) {
+                    logger.log(Level.SEVERE, "failed to check the connection. connection=" + connection, ie);
+                }
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException ee) {
+                if (logger.isLoggable(Level.SEVERE)) {
+                    logger.log(Level.SEVERE, "failed to check the connection. connection=" + connection, ee);
+                }
+                return false;
+            } catch (TimeoutException te) {
+                if (logger.isLoggable(Level.SEVERE)) {
+                    logger.log(Level.SEVERE, "failed to check the connection. connection=" + connection, te);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Object send(final SocketAddress address,
+                        final MemcachedRequest request,
+                        final long writeTimeoutInMillis,
+                        final long responseTimeoutInMillis) throws TimeoutException, InterruptedException, PoolExhaustedException, NoValidObjectException, ExecutionException {
+        if (address == null) {
+            throw new IllegalArgumentException("address must not be null");
+        }
+        if (request == null) {
+            throw new IllegalArgumentException("request must not be null");
+        }
+        if (request.isNoReply()) {
+            throw new IllegalStateException("request type is no reply");
+        }
+        final Object response = sendInternal(address, new MemcachedRequest[]{request}, writeTimeoutInMillis, responseTimeoutInMillis, null);
+        recycleCompletedRequests(request);
+        return LazyValue.resolve(response);
+    }
+
+    /**
+     * Send the request whose numeric response is read without boxing
+     *
+     * @return the numeric response or {@code defaultValue} if the response was an error or not numeric
+     */
+    private long sendForNumeric(final SocketAddress address,
+                                final MemcachedRequest request,
+                                final long writeTimeoutInMillis,
+                                final long responseTimeoutInMillis,
+                                final long defaultValue) throws TimeoutException, InterruptedException, PoolExhaustedException, NoValidObjectException, ExecutionException {
+        sendInternal(address, new MemcachedRequest[]{request}, writeTimeoutInMillis, responseTimeoutInMillis, null);
+        final long result = Boolean.FALSE.equals(request.isError) && request.hasNumericResponse ? request.numericResponse : defaultValue;
+        recycleCompletedRequests(request);
+        return result;
+    }
+
+    private Object sendCoalesced(final SocketAddress address,
+                                 final MemcachedRequest request,
+                                 final long writeTimeoutInMillis,
+                                 final long responseTimeoutInMillis) throws TimeoutException, InterruptedException, ExecutionException {
+        final CompletableFuture<Object> future = requestCoalescer.submit(address, request);
+        final Object response;
+        if (responseTimeoutInMillis < 0) {
+            response = future.get();
+        } else {
+            response = future.get(Math.max(writeTimeoutInMillis, 0) + responseTimeoutInMillis, TimeUnit.MILLISECONDS);
+        }
+        recycleCompletedRequests(request);
+        return LazyValue.resolve(response);
+    }
+
+    private Object sendHedged(final SocketAddress address,
+                              final MemcachedRequest request,
+                              final Supplier<MemcachedRequest[]> backupRequests,
+                              final long writeTimeoutInMillis,
+                              final long responseTimeoutInMillis) throws TimeoutException, InterruptedException, ExecutionException {
+        final long deadlineInNanos = toDeadlineInNanos(writeTimeoutInMillis, responseTimeoutInMillis);
+        final CompletableFuture<Object> future = sendHedgedAsync(address, new MemcachedRequest[]{request}, backupRequests, deadlineInNanos, false);
+        if (deadlineInNanos == NO_DEADLINE) {
+            return LazyValue.resolve(future.get());
+        } else {
+            return LazyValue.resolve(future.get(Math.max(deadlineInNanos - System.nanoTime(), 0), TimeUnit.NANOSECONDS));
+        }
+    }
+
+    /**
+     * Sends the requests and the backup requests if the requests are slower than usual
+     * <p>
+     * The backup is sent on another connection of the same server and the first successful answer wins.
+     * The hedger cancels the losing attempt so that its requests are abandoned and its connection is released.
+     * Both attempts draw from the same deadline.
+     *
+     * @param multi true if responses of all requests should be collected as a map
+     */
+    private CompletableFuture<Object> sendHedgedAsync(final SocketAddress address,
+                                                      final MemcachedRequest[] requests,
+                                                      final Supplier<MemcachedRequest[]> backupRequests,
+                                                      final long deadlineInNanos,
+                                                      final boolean multi) {
+        // the primary's connection which the backup should not use
+        final AtomicReference<Connection<SocketAddress>> primaryConnection = new AtomicReference<Connection<SocketAddress>>();
+        // bulk latencies are observed apart from single gets' so that they don't delay single hedges
+        return requestHedger.submit(address, multi, new Supplier<CompletableFuture<Object>>() {
+            @Override
+            public CompletableFuture<Object> get() {
+                return sendAsync(address, requests, deadlineInNanos, multi ? new HashMap<K, Object>() : null, primaryConnection);
+            }
+        }, new Supplier<CompletableFuture<Object>>() {
+            @Override
+            public CompletableFuture<Object> get() {
+                return sendAsync(address, backupRequests.get(), deadlineInNanos, multi ? new HashMap<K, Object>() : null, primaryConnection);
+            }
+        });
+    }
+
+    /**
+     * Borrow the connection for one attempt of a hedged request
+     * <p>
+     * The primary keeps its connection in {@code primaryConnection}.
+     * A multiplexed pool can hand the primary's connection to the backup again, where the backup would wait behind the slow
+     * response because memcached answers in order, so the backup borrows again until it gets another connection.
+     * A dedicated connection is never borrowed by both attempts.
+     *
+     * @throws PoolExhaustedException if the backup can't get any connection other than the primary's
+     */
+    private Connection<SocketAddress> borrowHedgedConnection(final SocketAddress address,
+                                                             final long connectTimeoutInMillis,
+                                                             final AtomicReference<Connection<SocketAddress>> primaryConnection)
+            throws PoolExhaustedException, NoValidObjectException, TimeoutException, InterruptedException {
+        Connection<SocketAddress> connection = borrowConnection(address, connectTimeoutInMillis);
+        if (primaryConnection.compareAndSet(null, connection) || !multiplexed) {
+            return connection;
+        }
+        for (int i = 1; connection == primaryConnection.get(); i++) {
+            returnConnectionSafely(address, connection);
+            if (i >= multiplexedConnectionPerServer) {
+                throw new PoolExhaustedException("no connection other than the primary's for the backup request. address=" + address);
+            }
+            connection = borrowConnection(address, connectTimeoutInMillis);
+        }
+        return connection;
+    }
+
+    /**
+     * Sends coalesced requests of a server as one pipeline which is terminated by a noop
+     * <p>
+     * Because memcached answers in order, the noop's response means that all preceding quiet requests were processed.
+     * Each caller's future is completed with its own request's response.
+     */
+    private void sendBatch(final SocketAddress address, final List<RequestCoalescer.Entry> entries) {
+        final MemcachedRequest[] requests = new MemcachedRequest[entries.size() + 1];
+        for (int i = 0; i < entries.size(); i++) {
+            requests[i] = entries.get(i).getRequest();
+        }
+        requests[entries.size()] = createNoopRequest();
+
+        sendAsync(address, requests, writeTimeoutInMillis, responseTimeoutInMillis, null).whenComplete(new BiConsumer<Object, Throwable>() {
+            @Override
+            public void accept(final Object ignore, final Throwable t) {
+                for (RequestCoalescer.Entry entry : entries) {
+                    if (t != null) {
+                        entry.getFuture().completeExceptionally(t);
+                    } else {
+                        final MemcachedRequest request = entry.getRequest();
+                        entry.getFuture().complete(request.isError != null && !request.isError ? request.response : null);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Sends bulk requests to all servers before waiting for any response
+     * <p>
+     * Requests of every server are written first and then all responses are waited together with one overall deadline,
+     * so the elapsed time is bounded by the slowest server instead of the sum of all servers' round trips.
+     * When the deadline expires, the results of servers which already answered are kept.
+     * Partial failures are logged and ignored. The keys of failed servers are omitted from {@code result}.
+     * {@code result} can be null if responses are handed to the requests' own completion handlers.
+     */
+    private <R> void sendMulti(final Map<SocketAddress, MemcachedRequest[]> requestsMap,
+                               final long deadlineInNanos,
+                               final Map<K, R> result,
+                               final String operation) {
+        sendMulti(requestsMap, null, deadlineInNanos, result, operation);
+    }
+
+    /**
+     * @param backupRequestsMap the makers of backup requests per server if the requests should be hedged, or null
+     */
+    @SuppressWarnings("unchecked")
+    private <R> void sendMulti(final Map<SocketAddress, MemcachedRequest[]> requestsMap,
+                               final Map<SocketAddress, Supplier<MemcachedRequest[]>> backupRequestsMap,
+                               final long deadlineInNanos,
+                               final Map<K, R> result,
+                               final String operation) {
+        if (requestsMap.isEmpty()) {
+            return;
+        }
+        final Map<SocketAddress, CompletableFuture<Object>> futures = new HashMap<SocketAddress, CompletableFuture<Object>>(requestsMap.size());
+        for (Map.Entry<SocketAddress, MemcachedRequest[]> entry : requestsMap.entrySet()) {
+            final Supplier<MemcachedRequest[]> backupRequests = backupRequestsMap != null ? backupRequestsMap.get(entry.getKey()) : null;
+            // every server's borrow, write and response draw from the same deadline
+            futures.put(entry.getKey(), backupRequests != null ?
+                    sendHedgedAsync(entry.getKey(), entry.getValue(), backupRequests, deadlineInNanos, true) :
+                    sendAsync(entry.getKey(), entry.getValue(), deadlineInNanos, new HashMap<K, R>()));
+        }
+        for (Map.Entry<SocketAddress, CompletableFuture<Object>> entry : futures.entrySet()) {
+            final SocketAddress address = entry.getKey();
+            final int keySize = requestsMap.get(address).length;
+            try {
+                final Object partialResult;
+                if (deadlineInNanos == NO_DEADLINE) {
+                    partialResult = entry.getValue().get();
+                } else {
+                    partialResult = entry.getValue().get(deadlineInNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                }
+                if (result != null && partialResult instanceof Map) {
+                    // lazy values are decoded in the caller's thread
+                    result.putAll(LazyValue.resolveAll((Map<K, R>) partialResult));
+                }
+                if (backupRequestsMap == null) {
+                    // the losing attempt of hedged requests may still be reading its requests
+                    recycleCompletedRequests(requestsMap.get(address));
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                if (logger.isLoggable(Level.SEVERE)) {
+                    logger.log(Level.SEVERE, "failed to execute " + operation + "(). address=" + address + ", keySize=" + keySize, ie);
+                }
+                // remaining servers' responses will be cleaned up by their own timeouts
+                return;
+            } catch (ExecutionException ee) {
+                if (logger.isLoggable(Level.SEVERE)) {
+                    logger.log(Level.SEVERE, "failed to execute " + operation + "(). address=" + address + ", keySize=" + keySize, ee.getCause());
+                }
+            } catch (TimeoutException te) {
+                if (logger.isLoggable(Level.SEVERE)) {
+                    logger.log(Level.SEVERE, "failed to execute " + operation + "(). address=" + address + ", keySize=" + keySize, te);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the requests which were completed by the filter to the cache for next operations
+     * <p>
+     * This should be called by the sender after it has read the responses.
+     * Requests which were timed out or failed are left to the garbage collector.
+     */
+    private static void recycleCompletedRequests(final MemcachedRequest... requests) {
+        for (MemcachedRequest request : requests) {
+            request.recycleIfCompleted();
+        }
+    }
+
+    /**
+     * The deadline which bounds the connection borrow, the write and the response together
+     * <p>
+     * The budget is same as the worst case of sequential connect-timeout, write-timeout and response-timeout.
+     * If {@code responseTimeoutInMillis} is negative, there is no deadline.
+     */
+    private long toDeadlineInNanos(final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (responseTimeoutInMillis < 0) {
+            return NO_DEADLINE;
+        }
+        return System.nanoTime() +
+                TimeUnit.MILLISECONDS.toNanos(Math.max(connectTimeoutInMillis, 0) + Math.max(writeTimeoutInMillis, 0) + responseTimeoutInMillis);
+    }
+
+    private static long toDeadlineInNanos(final Duration timeout) {
+        if (timeout == null) {
+            throw new IllegalArgumentException("timeout must not be null");
+        }
+        if (timeout.isNegative()) {
+            return NO_DEADLINE;
+        }
+        final long timeoutInNanos;
+        try {
+            timeoutInNanos = timeout.toNanos();
+        } catch (ArithmeticException ae) {
+            return NO_DEADLINE;
+        }
+        return System.nanoTime() + timeoutInNanos;
+    }
+
+    /**
+     * @return connect-timeout bounded by the remaining time of {@code deadlineInNanos}
+     */
+    private long getBorrowTimeoutInMillis(final long deadlineInNanos) {
+        if (deadlineInNanos == NO_DEADLINE) {
+            return connectTimeoutInMillis;
+        }
+        final long remainingInMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(deadlineInNanos - System.nanoTime()), 0);
+        return connectTimeoutInMillis < 0 ? remainingInMillis : Math.min(connectTimeoutInMillis, remainingInMillis);
+    }
+
+    /**
+     * @param op the command of the key. only reads can spill to other servers if the bounded-load routing is enabled
+     * @return the server address of the key. {@link MemcachedKey} is routed by its precomputed hash
+     */
+    private SocketAddress getAddress(final K key, final Buffer keyBuffer, final CommandOpcodes op) {
+        if (boundedLoadRouter != null) {
+            final long hash = key instanceof MemcachedKey ?
+                    ((MemcachedKey) key).getHash(nodeLocator.getKeyHash()) : nodeLocator.getKeyHash().hash(keyBuffer.toByteBuffer());
+            return boundedLoadRouter.get(hash, op);
+        }
+        if (key instanceof MemcachedKey) {
+            return nodeLocator.getByHash(((MemcachedKey) key).getHash(nodeLocator.getKeyHash()));
+        }
+        return nodeLocator.get(keyBuffer.toByteBuffer());
+    }
+
+    private Map<SocketAddress, List<BufferWrapper<K>>> categorizeKeys(final Collection<K> keys, final CommandOpcodes op, final String operation) {
+        final Map<SocketAddress, List<BufferWrapper<K>>> categorizedMap = new HashMap<SocketAddress, List<BufferWrapper<K>>>();
+        try {
+            for (K key : keys) {
+                final BufferWrapper<K> keyWrapper = BufferWrapper.wrap(key, transport.getMemoryManager());
+                final Buffer keyBuffer = keyWrapper.getBuffer();
+                final SocketAddress address = getAddress(key, keyBuffer, op);
+                if (address == null) {
+                    if (logger.isLoggable(Level.WARNING)) {
+                        logger.log(Level.WARNING, "failed to get the address from the consistent hash in {0}(). key buffer={1}", new Object[]{operation, keyBuffer});
+                    }
+                    keyWrapper.recycle();
+                    continue;
+                }
+                List<BufferWrapper<K>> keyList = categorizedMap.get(address);
+                if (keyList == null) {
+                    keyList = new ArrayList<BufferWrapper<K>>();
+                    categorizedMap.put(address, keyList);
+                }
+                keyList.add(keyWrapper);
+            }
+        } catch (RuntimeException e) {
+            // a key which can't be wrapped fails the whole operation
+            for (List<BufferWrapper<K>> keyList : categorizedMap.values()) {
+                recycleBufferWrappers(keyList);
+            }
+            throw e;
+        }
+        return categorizedMap;
+    }
+
+    /**
+     * Creates the requests of each server with {@code factory}
+     * <p>
+     * All key wrappers of {@code categorizedMap} are recycled even if {@code factory} fails.
+     */
+    private Map<SocketAddress, MemcachedRequest[]> createMultiRequests(final Map<SocketAddress, List<BufferWrapper<K>>> categorizedMap,
+                                                                      final Function<List<BufferWrapper<K>>, MemcachedRequest[]> factory) {
+        final Map<SocketAddress, MemcachedRequest[]> requestsMap = new HashMap<SocketAddress, MemcachedRequest[]>();
+        final Iterator<Map.Entry<SocketAddress, List<BufferWrapper<K>>>> iterator = categorizedMap.entrySet().iterator();
+        try {
+            while (iterator.hasNext()) {
+                final Map.Entry<SocketAddress, List<BufferWrapper<K>>> entry = iterator.next();
+                try {
+                    requestsMap.put(entry.getKey(), factory.apply(entry.getValue()));
+                } finally {
+                    recycleBufferWrappers(entry.getValue());
+                }
+            }
+        } finally {
+            while (iterator.hasNext()) {
+                recycleBufferWrappers(iterator.next().getValue());
+            }
+        }
+        return requestsMap;
+    }
+
+    private MemcachedRequest[] createGetMultiRequests(final List<BufferWrapper<K>> keyList,
+                                                      final CommandOpcodes op,
+                                                      final CommandOpcodes quietOp) {
+        // make multi requests based on key list
+        final MemcachedRequest[] requests = new MemcachedRequest[keyList.size()];
+        final BufferWrapper.BufferType keyType = !keyList.isEmpty() ? keyList.get(0).getType() : null;
+        for (int i = 0; i < keyList.size(); i++) {
+            final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, true, false);
+            builder.originKeyType(keyType);
+            builder.originKey(keyList.get(i).getOrigin());
+            builder.key(keyList.get(i).getBuffer());
+            if (i == keyList.size() - 1) {
+                builder.noReply(false);
+                builder.op(op);
+            } else {
+                builder.noReply(true);
+                builder.op(quietOp);
+                builder.opaque(generateOpaque());
+            }
+            requests[i] = builder.build();
+            builder.recycle();
+        }
+        return requests;
+    }
+
+    /**
+     * Make the maker of backup requests for hedging
+     * <p>
+     * The key buffers of sent requests are consumed by the filter so backup requests should be made from the origin keys again.
+     */
+    private Supplier<MemcachedRequest[]> createBackupGetMultiRequests(final List<BufferWrapper<K>> keyList,
+                                                                      final CommandOpcodes op,
+                                                                      final CommandOpcodes quietOp) {
+        final List<K> originKeys = new ArrayList<K>(keyList.size());
+        for (BufferWrapper<K> keyWrapper : keyList) {
+            originKeys.add(keyWrapper.getOrigin());
+        }
+        return new Supplier<MemcachedRequest[]>() {
+            @Override
+            public MemcachedRequest[] get() {
+                final List<BufferWrapper<K>> newKeyList = new ArrayList<BufferWrapper<K>>(originKeys.size());
+                for (K key : originKeys) {
+                    newKeyList.add(BufferWrapper.wrap(key, transport.getMemoryManager()));
+                }
+                try {
+                    return createGetMultiRequests(newKeyList, op, quietOp);
+                } finally {
+                    recycleBufferWrappers(newKeyList);
+                }
+            }
+        };
+    }
+
+    private Supplier<MemcachedRequest[]> createBackupRequest(final K key, final CommandOpcodes op) {
+        return new Supplier<MemcachedRequest[]>() {
+            @Override
+            public MemcachedRequest[] get() {
+                final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, true, false);
+                builder.op(op);
+                builder.noReply(false);
+                builder.originKey(key);
+                final BufferWrapper<K> keyWrapper = BufferWrapper.wrap(key, transport.getMemoryManager());
+                builder.key(keyWrapper.getBuffer());
+                keyWrapper.recycle();
+                final MemcachedRequest request = builder.build();
+                builder.recycle();
+                return new MemcachedRequest[]{request};
+            }
+        };
+    }
+
+    /**
+     * Make quiet get requests whose found values are handed to {@code handler}'s consumer one by one
+     * <p>
+     * The last request is a noop which fences quiet requests because memcached answers in order.
+     */
+    private MemcachedRequest[] createStreamingGetMultiRequests(final List<BufferWrapper<K>> keyList,
+                                                               final StreamingResponseHandler handler) {
+        final MemcachedRequest[] requests = new MemcachedRequest[keyList.size() + 1];
+        final BufferWrapper.BufferType keyType = !keyList.isEmpty() ? keyList.get(0).getType() : null;
+        for (int i = 0; i < keyList.size(); i++) {
+            final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, true, false);
+            builder.originKeyType(keyType);
+            builder.originKey(keyList.get(i).getOrigin());
+            builder.key(keyList.get(i).getBuffer());
+            builder.noReply(true);
+            builder.op(CommandOpcodes.GetQ);
+            builder.opaque(generateOpaque());
+            requests[i] = builder.build();
+            requests[i].completionHandler = handler;
+            builder.recycle();
+        }
+        requests[keyList.size()] = createNoopRequest();
+        return requests;
+    }
+
+    private static MemcachedRequest createNoopRequest() {
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, false, false);
+        builder.op(CommandOpcodes.Noop);
+        builder.opaque(generateOpaque());
+        builder.noReply(false);
+        final MemcachedRequest request = builder.build();
+        builder.recycle();
+        return request;
+    }
+
+    private MemcachedRequest[] createSetMultiRequests(final List<BufferWrapper<K>> keyList,
+                                                      final Map<K, V> map,
+                                                      final int expirationInSecs) {
+        // make multi requests based on key list
+        // a direct value which fails to be encoded is dropped from the pipeline so it is fenced by a noop
+        final boolean fenced = !keyList.isEmpty() && isDirectValue(map.get(keyList.get(keyList.size() - 1).getOrigin()));
+        final MemcachedRequest[] requests = new MemcachedRequest[fenced ? keyList.size() + 1 : keyList.size()];
+        final BufferWrapper.BufferType keyType = !keyList.isEmpty() ? keyList.get(0).getType() : null;
+        for (int i = 0; i < keyList.size(); i++) {
+            final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(true, true, true);
+            if (i == keyList.size() - 1 && !fenced) {
+                builder.op(CommandOpcodes.Set);
+                builder.noReply(false);
+                builder.opaque(0);
+            } else {
+                builder.op(CommandOpcodes.SetQ);
+                builder.noReply(true);
+                builder.opaque(generateOpaque());
+            }
+            final K originKey = keyList.get(i).getOrigin();
+            builder.originKeyType(keyType);
+            builder.originKey(originKey);
+            builder.key(keyList.get(i).getBuffer());
+            encodeValue(builder, map.get(originKey), true);
+            builder.expirationInSecs(expirationInSecs);
+            requests[i] = builder.build();
+            builder.recycle();
+        }
+        if (fenced) {
+            requests[keyList.size()] = createNoopRequest();
+        }
+        return requests;
+    }
+
+    private MemcachedRequest[] createCasMultiRequests(final List<BufferWrapper<K>> keyList,
+                                                      final Map<K, ValueWithCas<V>> map,
+                                                      final int expirationInSecs) {
+        // make multi requests based on key list
+        // a direct value which fails to be encoded is dropped from the pipeline so it is fenced by a noop
+        final ValueWithCas<V> lastValue = !keyList.isEmpty() ? map.get(keyList.get(keyList.size() - 1).getOrigin()) : null;
+        final boolean fenced = lastValue != null && isDirectValue(lastValue.getValue());
+        final MemcachedRequest[] requests = new MemcachedRequest[fenced ? keyList.size() + 1 : keyList.size()];
+        final BufferWrapper.BufferType keyType = !keyList.isEmpty() ? keyList.get(0).getType() : null;
+        for (int i = 0; i < keyList.size(); i++) {
+            final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(true, true, true);
+            if (i == keyList.size() - 1 && !fenced) {
+                builder.op(CommandOpcodes.Set);
+                builder.noReply(false);
+                builder.opaque(0);
+            } else {
+                builder.op(CommandOpcodes.SetQ);
+                builder.noReply(true);
+                builder.opaque(generateOpaque());
+            }
+            final K originKey = keyList.get(i).getOrigin();
+            builder.originKeyType(keyType);
+            builder.originKey(originKey);
+            builder.key(keyList.get(i).getBuffer());
+            final ValueWithCas<V> vwc = map.get(originKey);
+            if (vwc != null) {
+                encodeValue(builder, vwc.getValue(), true);
+                builder.cas(vwc.getCas());
+            }
+            builder.expirationInSecs(expirationInSecs);
+            requests[i] = builder.build();
+            builder.recycle();
+        }
+        if (fenced) {
+            requests[keyList.size()] = createNoopRequest();
+        }
+        return requests;
+    }
+
+    /**
+     * Set the value of the request and its flags
+     * <p>
+     * If the transcoder can write the value directly, the filter encodes it into the packet buffer
+     * without the intermediate buffer.
+     */
+    private void encodeValue(final MemcachedRequest.Builder builder, final V value, final boolean hasFlags) {
+        if (isDirectValue(value)) {
+            builder.value(value, directTranscoder);
+            if (hasFlags) {
+                builder.flags(directTranscoder.getFlags(value));
+            }
+            return;
+        }
+        final CachedData cachedData = transcoder.encode(value, transport.getMemoryManager());
+        builder.value(cachedData.getBuffer());
+        if (hasFlags) {
+            builder.flags(cachedData.getFlags());
+        }
+    }
+
+    private boolean isDirectValue(final V value) {
+        return directTranscoder != null && value != null && directTranscoder.isDirectlyEncodable(value);
+    }
+
+    private MemcachedRequest[] createDeleteMultiRequests(final List<BufferWrapper<K>> keyList) {
+        // make multi requests based on key list
+        final MemcachedRequest[] requests = new MemcachedRequest[keyList.size()];
+        final BufferWrapper.BufferType keyType = !keyList.isEmpty() ? keyList.get(0).getType() : null;
+        for (int i = 0; i < keyList.size(); i++) {
+            final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, true, false);
+            if (i == keyList.size() - 1) {
+                builder.op(CommandOpcodes.Delete);
+                builder.noReply(false);
+                builder.opaque(0);
+            } else {
+                builder.op(CommandOpcodes.DeleteQ);
+                builder.noReply(true);
+                builder.opaque(generateOpaque());
+            }
+            final K originKey = keyList.get(i).getOrigin();
+            builder.originKeyType(keyType);
+            builder.originKey(originKey);
+            builder.key(keyList.get(i).getBuffer());
+            requests[i] = builder.build();
+            builder.recycle();
+        }
+        return requests;
+    }
+
+    private Connection<SocketAddress> borrowConnection(final SocketAddress address)
+            throws PoolExhaustedException, NoValidObjectException, TimeoutException, InterruptedException {
+        return borrowConnection(address, connectTimeoutInMillis);
+    }
+
+    private Connection<SocketAddress> borrowConnection(final SocketAddress address, final long connectTimeoutInMillis)
+            throws PoolExhaustedException, NoValidObjectException, TimeoutException, InterruptedException {
+        try {
+            return connectionPool.borrowObject(address, connectTimeoutInMillis);
+        } catch (PoolExhaustedException pee) {
+            if (logger.isLoggable(Level.FINER)) {
                 logger.log(Level.FINER, "failed to get the connection. address=" + address + ", timeout=" + connectTimeoutInMillis + "ms", pee);
             }
             throw pee;
@@ -2060,389 +3545,723 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
             }
             throw ie;
         }
-        if (request.isNoReply()) {
-            connection.write(new MemcachedRequest[]{request}, new CompletionHandler<WriteResult<MemcachedRequest[], SocketAddress>>() {
+    }
+
+    private Object sendInternal(final SocketAddress address,
+                                final MemcachedRequest[] requests,
+                                final long writeTimeoutInMillis,
+                                final long responseTimeoutInMillis,
+                                final Map<K, ?> result) throws PoolExhaustedException, NoValidObjectException, InterruptedException, TimeoutException, ExecutionException {
+        if (address == null || requests == null || requests.length == 0) {
+            return null;
+        }
+        if (connectionPool == null) {
+            throw new IllegalStateException("connection pool must not be null");
+        }
+        if (clientFilter == null) {
+            throw new IllegalStateException("client filter must not be null");
+        }
+
+        final Connection<SocketAddress> connection = borrowConnection(address);
+
+        if (awaitWriteWithResponse) {
+            return sendAndAwaitOnce(address, connection, requests, writeTimeoutInMillis, responseTimeoutInMillis, result);
+        }
+        try {
+            final GrizzlyFuture<WriteResult<MemcachedRequest[], SocketAddress>> future = write(connection, requests);
+            if (writeTimeoutInMillis > 0) {
+                future.get(writeTimeoutInMillis, TimeUnit.MILLISECONDS);
+            } else {
+                future.get();
+            }
+        } catch (ExecutionException ee) {
+            // invalid connection
+            try {
+                connectionPool.removeObject(address, connection);
+            } catch (Exception e) {
+                if (logger.isLoggable(Level.SEVERE)) {
+                    logger.log(Level.SEVERE, "failed to remove the connection. address=" + address + ", connection=" + connection, e);
+                }
+            }
+            throw ee;
+        } catch (TimeoutException te) {
+            releaseFailedConnection(address, connection, requests, te);
+            throw te;
+        } catch (InterruptedException ie) {
+            releaseFailedConnection(address, connection, requests, ie);
+            throw ie;
+        } catch (Exception unexpected) {
+            releaseFailedConnection(address, connection, requests, unexpected);
+            throw new ExecutionException(unexpected);
+        }
+
+        return awaitResponse(address, connection, requests, responseTimeoutInMillis, result);
+    }
+
+    /**
+     * Writes requests without waiting for the write and waits for the response only once
+     * <p>
+     * A failed or cancelled write fails the last request so the waiting caller is woken immediately.
+     */
+    private Object sendAndAwaitOnce(final SocketAddress address,
+                                    final Connection<SocketAddress> connection,
+                                    final MemcachedRequest[] requests,
+                                    final long writeTimeoutInMillis,
+                                    final long responseTimeoutInMillis,
+                                    final Map<K, ?> result) throws InterruptedException, TimeoutException, ExecutionException {
+        final MemcachedRequest lastRequest = requests[requests.length - 1];
+        try {
+            write(connection, requests, new CompletionHandler<WriteResult<MemcachedRequest[], SocketAddress>>() {
                 @Override
                 public void cancelled() {
-                    returnConnectionSafely(address, connection);
-                    if (logger.isLoggable(Level.SEVERE)) {
-                        logger.log(Level.SEVERE, "failed to send the request. request={0}, connection={1}", new Object[]{request, connection});
-                    }
+                    lastRequest.fail(new CancellationException("the write was cancelled"));
                 }
 
                 @Override
-                public void failed(Throwable t) {
-                    try {
-                        connectionPool.removeObject(address, connection);
-                    } catch (Exception e) {
-                        if (logger.isLoggable(Level.SEVERE)) {
-                            logger.log(Level.SEVERE, "failed to remove the connection. address=" + address + ", connection=" + connection, e);
-                        }
-                    }
-                    if (logger.isLoggable(Level.SEVERE)) {
-                        logger.log(Level.SEVERE, "failed to send the request. request=" + request + ", connection=" + connection, t);
-                    }
+                public void failed(final Throwable t) {
+                    lastRequest.fail(t);
                 }
 
                 @Override
-                public void completed(WriteResult<MemcachedRequest[], SocketAddress> result) {
-                    returnConnectionSafely(address, connection);
+                public void completed(final WriteResult<MemcachedRequest[], SocketAddress> writeResult) {
                 }
 
                 @Override
-                public void updated(WriteResult<MemcachedRequest[], SocketAddress> result) {
+                public void updated(final WriteResult<MemcachedRequest[], SocketAddress> writeResult) {
                 }
             });
+        } catch (Exception unexpected) {
+            releaseFailedConnection(address, connection, requests, unexpected);
+            throw new ExecutionException(unexpected);
         }
+        // the write and the response share one timeout
+        final long timeoutInMillis = responseTimeoutInMillis < 0 ? responseTimeoutInMillis : Math.max(writeTimeoutInMillis, 0) + responseTimeoutInMillis;
+        return awaitResponse(address, connection, requests, timeoutInMillis, result);
     }
 
-    private boolean sendNoReplySafely(final Connection<SocketAddress> connection, final MemcachedRequest request) {
-        if (connection == null) {
-            throw new IllegalArgumentException("connection must not be null");
+    /**
+     * Abandon the requests whose responses will not be waited for anymore
+     * <p>
+     * The filter discards their late responses so the connection is returned to the pool for reuse.
+     * The connection is removed only if the filter can't cancel the requests safely.
+     */
+    private void abandon(final SocketAddress address, final Connection<SocketAddress> connection, final MemcachedRequest[] requests) {
+        if (clientFilter.cancel(connection, requests)) {
+            returnConnectionSafely(address, connection);
+        } else {
+            removeConnectionSafely(address, connection);
         }
-        if (request == null) {
-            throw new IllegalArgumentException("request must not be null");
+    }
+
+    private Object awaitResponse(final SocketAddress address,
+                                 final Connection<SocketAddress> connection,
+                                 final MemcachedRequest[] requests,
+                                 final long responseTimeoutInMillis,
+                                 final Map<K, ?> result) throws InterruptedException, TimeoutException, ExecutionException {
+        final boolean isMulti = (result != null);
+        final Object response;
+        try {
+            if (!isMulti) {
+                response = clientFilter.getCorrelatedResponse(connection, requests[0], responseTimeoutInMillis);
+            } else {
+                response = clientFilter.getMultiResponse(connection, requests, responseTimeoutInMillis, result);
+            }
+
+        } catch (TimeoutException te) {
+            final Throwable failure = requests[requests.length - 1].failure;
+            if (failure != null) {
+                // the write was failed or the connection was closed
+                releaseFailedConnection(address, connection, requests, failure);
+                throw new ExecutionException(failure);
+            }
+            abandon(address, connection, requests);
+            throw te;
+        } catch (InterruptedException ie) {
+            abandon(address, connection, requests);
+            throw ie;
+        } catch (Exception unexpected) {
+            releaseFailedConnection(address, connection, requests, unexpected);
+            throw new ExecutionException(unexpected);
         }
-        if (request.isNoReply()) {
-            GrizzlyFuture future = connection.write(new MemcachedRequest[]{request});
-            try {
-                future.get(writeTimeoutInMillis, TimeUnit.MILLISECONDS);
-            } catch (InterruptedException ie) {
-                if (logger.isLoggable(Level.SEVERE)) {
-                    logger.log(Level.SEVERE, "failed to check the connection. connection=" + connection, ie);
+        returnConnectionSafely(address, connection);
+        return response;
+    }
+
+    /**
+     * Release the connection of the failed requests
+     * <p>
+     * A multiplexed connection also carries other callers' requests
+     * so it is destroyed only on I/O or protocol errors which the filter reports as {@link java.io.IOException}s.
+     * On a timeout, a cancellation or an interrupt, only the failed requests are abandoned and the connection is returned.
+     * A dedicated connection is removed on any failure except {@link ValueEncodingException}
+     * because a value which can't be encoded is never written.
+     */
+    private void releaseFailedConnection(final SocketAddress address,
+                                         final Connection<SocketAddress> connection,
+                                         final MemcachedRequest[] requests,
+                                         final Throwable cause) {
+        if (connection.isOpen() && (cause instanceof ValueEncodingException || (multiplexed &&
+                (cause instanceof TimeoutException || cause instanceof CancellationException || cause instanceof InterruptedException)))) {
+            abandon(address, connection, requests);
+        } else {
+            removeConnectionSafely(address, connection);
+        }
+    }
+
+    private CompletableFuture<Boolean> storeAsync(final CommandOpcodes op,
+                                                  final K key,
+                                                  final V value,
+                                                  final int expirationInSecs,
+                                                  final long cas,
+                                                  final long writeTimeoutInMillis,
+                                                  final long responseTimeoutInMillis) {
+        if (key == null || value == null) {
+            return CompletableFuture.completedFuture(Boolean.FALSE);
+        }
+        // append and prepend don't have extras
+        final boolean hasExtras = op != CommandOpcodes.Append && op != CommandOpcodes.Prepend;
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(hasExtras, true, true);
+        builder.op(op);
+        builder.noReply(false);
+        builder.cas(cas);
+        try {
+            encodeValue(builder, value, hasExtras);
+        } catch (Exception e) {
+            builder.recycle();
+            return failedFuture(e);
+        }
+        if (hasExtras) {
+            builder.expirationInSecs(expirationInSecs);
+        }
+        return sendAsync(key, builder, writeTimeoutInMillis, responseTimeoutInMillis).thenApply(TO_BOOLEAN);
+    }
+
+    private CompletableFuture<Object> retrieveAsync(final CommandOpcodes op,
+                                                    final K key,
+                                                    final int expirationInSecs,
+                                                    final long writeTimeoutInMillis,
+                                                    final long responseTimeoutInMillis) {
+        // only gat has extras
+        final boolean hasExtras = op == CommandOpcodes.GAT;
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(hasExtras, true, false);
+        builder.op(op);
+        builder.noReply(false);
+        if (hasExtras) {
+            builder.expirationInSecs(expirationInSecs);
+        }
+        final CompletableFuture<Object> future = sendAsync(key, builder, writeTimeoutInMillis, responseTimeoutInMillis);
+        if (lazyDecodingThreshold < 0) {
+            return future;
+        }
+        return decodeExecutor != null ? future.thenApplyAsync(RESOLVE_LAZY_VALUE, decodeExecutor) : future.thenApply(RESOLVE_LAZY_VALUE);
+    }
+
+    private CompletableFuture<Long> counterAsync(final CommandOpcodes op,
+                                                 final K key,
+                                                 final long delta,
+                                                 final long initial,
+                                                 final int expirationInSecs,
+                                                 final long writeTimeoutInMillis,
+                                                 final long responseTimeoutInMillis) {
+        if (key == null) {
+            return CompletableFuture.completedFuture(INVALID_LONG);
+        }
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(true, true, false);
+        builder.op(op);
+        builder.noReply(false);
+        builder.delta(delta);
+        builder.initial(initial);
+        builder.expirationInSecs(expirationInSecs);
+        return sendAsync(key, builder, writeTimeoutInMillis, responseTimeoutInMillis).thenApply(TO_LONG);
+    }
+
+    private CompletableFuture<Object> sendAsync(final K key,
+                                                final MemcachedRequest.Builder builder,
+                                                final long writeTimeoutInMillis,
+                                                final long responseTimeoutInMillis) {
+        builder.originKey(key);
+        final Buffer keyBuffer;
+        final MemcachedRequest request;
+        try {
+            final BufferWrapper<K> keyWrapper = BufferWrapper.wrap(key, transport.getMemoryManager());
+            keyBuffer = keyWrapper.getBuffer();
+            builder.key(keyBuffer);
+            keyWrapper.recycle();
+            request = builder.build();
+        } catch (Exception e) {
+            return failedFuture(e);
+        } finally {
+            builder.recycle();
+        }
+
+        final SocketAddress address = getAddress(key, keyBuffer, request.getOp());
+        if (address == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return sendAsync(address, new MemcachedRequest[]{request}, writeTimeoutInMillis, responseTimeoutInMillis, null);
+    }
+
+    private <R> CompletableFuture<Map<K, R>> sendMultiAsync(final Map<SocketAddress, MemcachedRequest[]> requestsMap,
+                                                            final long writeTimeoutInMillis,
+                                                            final long responseTimeoutInMillis,
+                                                            final String operation) {
+        final List<CompletableFuture<Object>> futures = new ArrayList<CompletableFuture<Object>>(requestsMap.size());
+        for (Map.Entry<SocketAddress, MemcachedRequest[]> entry : requestsMap.entrySet()) {
+            final SocketAddress address = entry.getKey();
+            final int keySize = entry.getValue().length;
+            final CompletableFuture<Object> future =
+                    sendAsync(address, entry.getValue(), writeTimeoutInMillis, responseTimeoutInMillis, new HashMap<K, R>());
+            // partial failures are logged and ignored like the synchronous bulk operations
+            futures.add(future.exceptionally(new Function<Throwable, Object>() {
+                @Override
+                public Object apply(final Throwable t) {
+                    if (logger.isLoggable(Level.SEVERE)) {
+                        logger.log(Level.SEVERE, "failed to execute " + operation + "(). address=" + address + ", keySize=" + keySize, t);
+                    }
+                    return null;
                 }
-                Thread.currentThread().interrupt();
-                return false;
-            } catch (ExecutionException ee) {
-                if (logger.isLoggable(Level.SEVERE)) {
-                    logger.log(Level.SEVERE, "failed to check the connection. connection=" + connection, ee);
+            }));
+        }
+        final Function<Void, Map<K, R>> merger = new Function<Void, Map<K, R>>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public Map<K, R> apply(final Void ignore) {
+                final Map<K, R> result = new HashMap<K, R>();
+                for (CompletableFuture<Object> future : futures) {
+                    final Object partialResult = future.join();
+                    if (partialResult instanceof Map) {
+                        result.putAll(LazyValue.resolveAll((Map<K, R>) partialResult));
+                    }
                 }
-                return false;
-            } catch (TimeoutException te) {
-                if (logger.isLoggable(Level.SEVERE)) {
-                    logger.log(Level.SEVERE, "failed to check the connection. connection=" + connection, te);
+                return result;
+            }
+        };
+        final CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+        // lazy values are decoded while merging
+        return lazyDecodingThreshold >= 0 && decodeExecutor != null ? all.thenApplyAsync(merger, decodeExecutor) : all.thenApply(merger);
+    }
+
+    private CompletableFuture<Object> sendAsync(final SocketAddress address,
+                                                final MemcachedRequest[] requests,
+                                                final long writeTimeoutInMillis,
+                                                final long responseTimeoutInMillis,
+                                                final Map<K, ?> result) {
+        return sendAsync(address, requests, toDeadlineInNanos(writeTimeoutInMillis, responseTimeoutInMillis), result);
+    }
+
+    /**
+     * Sends requests asynchronously within the given deadline
+     * <p>
+     * The connection borrow, the write and the response wait all draw from {@code deadlineInNanos}.
+     *
+     * @param deadlineInNanos the absolute deadline based on {@link System#nanoTime()} or {@link #NO_DEADLINE}
+     */
+    private CompletableFuture<Object> sendAsync(final SocketAddress address,
+                                                final MemcachedRequest[] requests,
+                                                final long deadlineInNanos,
+                                                final Map<K, ?> result) {
+        return sendAsync(address, requests, deadlineInNanos, result, null);
+    }
+
+    /**
+     * @param primaryConnection the primary's connection of a hedged request or null if the requests are not hedged
+     */
+    private CompletableFuture<Object> sendAsync(final SocketAddress address,
+                                                final MemcachedRequest[] requests,
+                                                final long deadlineInNanos,
+                                                final Map<K, ?> result,
+                                                final AtomicReference<Connection<SocketAddress>> primaryConnection) {
+        final CompletableFuture<Object> future = new CompletableFuture<Object>();
+        if (address == null || requests == null || requests.length == 0) {
+            future.complete(null);
+            return future;
+        }
+        if (connectionPool == null) {
+            future.completeExceptionally(new IllegalStateException("connection pool must not be null"));
+            return future;
+        }
+        if (clientFilter == null) {
+            future.completeExceptionally(new IllegalStateException("client filter must not be null"));
+            return future;
+        }
+
+        final Connection<SocketAddress> connection;
+        try {
+            connection = primaryConnection == null ? borrowConnection(address, getBorrowTimeoutInMillis(deadlineInNanos)) :
+                    borrowHedgedConnection(address, getBorrowTimeoutInMillis(deadlineInNanos), primaryConnection);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(ie);
+            return future;
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        final List<MemcachedRequest[]> windows = splitIntoWindows(requests);
+        final MemcachedRequest[] lastWindow = windows.get(windows.size() - 1);
+        final MemcachedRequest[] sentRequests = windows.size() == 1 ? requests : flatten(windows);
+        final AsyncResponseHandler handler = new AsyncResponseHandler(address, connection, sentRequests, result, future);
+        // the caller's cancellation abandons the requests like the timeout
+        future.whenComplete(new BiConsumer<Object, Throwable>() {
+            @Override
+            public void accept(final Object response, final Throwable t) {
+                if (t instanceof CancellationException) {
+                    handler.cancelled();
                 }
-                return false;
             }
+        });
+        // the filter notifies only the last request because memcached's responses are in order
+        lastWindow[lastWindow.length - 1].completionHandler = handler;
+        try {
+            if (deadlineInNanos != NO_DEADLINE) {
+                handler.timeout = timeoutTimer.newTimeout(handler,
+                        Math.max(deadlineInNanos - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            }
+            final CompletionHandler<WriteResult<MemcachedRequest[], SocketAddress>> writeCompletionHandler =
+                    new CompletionHandler<WriteResult<MemcachedRequest[], SocketAddress>>() {
+                        @Override
+                        public void cancelled() {
+                            handler.failed(new CancellationException("the write was cancelled"));
+                        }
+
+                        @Override
+                        public void failed(final Throwable t) {
+                            handler.failed(t);
+                        }
+
+                        @Override
+                        public void completed(final WriteResult<MemcachedRequest[], SocketAddress> writeResult) {
+                        }
+
+                        @Override
+                        public void updated(final WriteResult<MemcachedRequest[], SocketAddress> writeResult) {
+                        }
+                    };
+            // windows are written one by one so that other requests of the shared connection can be interleaved
+            for (MemcachedRequest[] window : windows) {
+                write(connection, window, writeCompletionHandler);
+            }
+        } catch (Exception unexpected) {
+            handler.failed(unexpected);
         }
-        return true;
+        return future;
     }
 
-    private Object send(final SocketAddress address,
-                        final MemcachedRequest request,
-                        final long writeTimeoutInMillis,
-                        final long responseTimeoutInMillis) throws TimeoutException, InterruptedException, PoolExhaustedException, NoValidObjectException, ExecutionException {
-        if (address == null) {
-            throw new IllegalArgumentException("address must not be null");
-        }
-        if (request == null) {
-            throw new IllegalArgumentException("request must not be null");
+    /**
+     * Split large pipelined requests into size-bounded windows
+     * <p>
+     * Each window has {@code pipelineWindowSize} requests or {@code pipelineWindowBytes} bytes at most
+     * so that the filter can make its packets with a bounded buffer.
+     * A window which ends with a quiet request is terminated by a noop fence
+     * which lets the filter complete the window's quiet requests without waiting for following windows.
+     * All windows are in flight on the same connection at once because memcached answers in order.
+     *
+     * @return the list of windows. if {@code requests} don't need to be split, the list has only {@code requests}
+     */
+    private List<MemcachedRequest[]> splitIntoWindows(final MemcachedRequest[] requests) {
+        if (requests.length <= 1 || (pipelineWindowSize <= 0 && pipelineWindowBytes <= 0)) {
+            return Collections.singletonList(requests);
+        }
+        List<MemcachedRequest[]> windows = null;
+        int start = 0;
+        int windowBytes = 0;
+        for (int i = 0; i < requests.length; i++) {
+            final int packetLength = requests[i].getPacketLength();
+            if (i > start &&
+                    ((pipelineWindowSize > 0 && i - start >= pipelineWindowSize) ||
+                            (pipelineWindowBytes > 0 && windowBytes + packetLength > pipelineWindowBytes))) {
+                if (windows == null) {
+                    windows = new ArrayList<MemcachedRequest[]>();
+                }
+                windows.add(createWindow(requests, start, i));
+                start = i;
+                windowBytes = 0;
+            }
+            windowBytes += packetLength;
         }
-        if (request.isNoReply()) {
-            throw new IllegalStateException("request type is no reply");
+        if (windows == null) {
+            return Collections.singletonList(requests);
         }
-        return sendInternal(address, new MemcachedRequest[]{request}, writeTimeoutInMillis, responseTimeoutInMillis, null);
+        windows.add(createWindow(requests, start, requests.length));
+        return windows;
     }
 
-    private void sendGetMulti(final SocketAddress address,
-                                   final List<BufferWrapper<K>> keyList,
-                                   final long writeTimeoutInMillis,
-                                   final long responseTimeoutInMillis,
-                                   final Map<K, V> result) throws ExecutionException, TimeoutException, InterruptedException, PoolExhaustedException, NoValidObjectException {
-        if (address == null || keyList == null || keyList.isEmpty() || result == null) {
-            return;
+    private static MemcachedRequest[] createWindow(final MemcachedRequest[] requests, final int from, final int to) {
+        final boolean fenced = !requests[to - 1].isNoReply();
+        final MemcachedRequest[] window = new MemcachedRequest[fenced ? to - from : to - from + 1];
+        System.arraycopy(requests, from, window, 0, to - from);
+        if (!fenced) {
+            window[to - from] = createNoopRequest();
         }
+        return window;
+    }
 
-        // make multi requests based on key list
-        final MemcachedRequest[] requests = new MemcachedRequest[keyList.size()];
-        final BufferWrapper.BufferType keyType = !keyList.isEmpty() ? keyList.get(0).getType() : null;
-        for (int i = 0; i < keyList.size(); i++) {
-            final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, true, false);
-            builder.originKeyType(keyType);
-            builder.originKey(keyList.get(i).getOrigin());
-            builder.key(keyList.get(i).getBuffer());
-            if (i == keyList.size() - 1) {
-                builder.noReply(false);
-                builder.op(CommandOpcodes.Get);
-            } else {
-                builder.noReply(true);
-                builder.op(CommandOpcodes.GetQ);
-                builder.opaque(generateOpaque());
-            }
-            requests[i] = builder.build();
-            builder.recycle();
+    private static MemcachedRequest[] flatten(final List<MemcachedRequest[]> windows) {
+        int length = 0;
+        for (MemcachedRequest[] window : windows) {
+            length += window.length;
         }
-        sendInternal(address, requests, writeTimeoutInMillis, responseTimeoutInMillis, result);
+        final MemcachedRequest[] result = new MemcachedRequest[length];
+        int position = 0;
+        for (MemcachedRequest[] window : windows) {
+            System.arraycopy(window, 0, result, position, window.length);
+            position += window.length;
+        }
+        return result;
     }
 
-    private void sendGetsMulti(final SocketAddress address,
-                               final List<BufferWrapper<K>> keyList,
-                               final long writeTimeoutInMillis,
-                               final long responseTimeoutInMillis,
-                               final Map<K, ValueWithCas<V>> result) throws ExecutionException, TimeoutException, InterruptedException, PoolExhaustedException, NoValidObjectException {
-        if (address == null || keyList == null || keyList.isEmpty() || result == null) {
-            return;
+    private static <T> CompletableFuture<T> failedFuture(final Throwable t) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        future.completeExceptionally(t);
+        return future;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> CompletableFuture<T> castFuture(final CompletableFuture<Object> future) {
+        return (CompletableFuture<T>) (CompletableFuture<?>) future;
+    }
+
+    /**
+     * Completes the future of the asynchronous operation
+     * <p>
+     * This handler will be called by {@link MemcachedClientFilter} when the last request's response is received,
+     * by the write completion handler when the write is failed, by the shared {@link HashedWheelTimer}
+     * or by the caller's cancellation of the future. Only the first notification is effective.
+     * A timeout or a cancellation abandons the requests so that the connection can be reused.
+     */
+    private class AsyncResponseHandler implements CompletionHandler<MemcachedRequest>, Runnable {
+
+        private final SocketAddress address;
+        private final Connection<SocketAddress> connection;
+        private final MemcachedRequest[] requests;
+        private final Map<K, ?> result;
+        private final CompletableFuture<Object> future;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        private AsyncResponseHandler(final SocketAddress address,
+                                     final Connection<SocketAddress> connection,
+                                     final MemcachedRequest[] requests,
+                                     final Map<K, ?> result,
+                                     final CompletableFuture<Object> future) {
+            this.address = address;
+            this.connection = connection;
+            this.requests = requests;
+            this.result = result;
+            this.future = future;
         }
 
-        // make multi requests based on key list
-        final MemcachedRequest[] requests = new MemcachedRequest[keyList.size()];
-        final BufferWrapper.BufferType keyType = !keyList.isEmpty() ? keyList.get(0).getType() : null;
-        for (int i = 0; i < keyList.size(); i++) {
-            final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, true, false);
-            builder.originKeyType(keyType);
-            builder.originKey(keyList.get(i).getOrigin());
-            builder.key(keyList.get(i).getBuffer());
-            if (i == keyList.size() - 1) {
-                builder.noReply(false);
-                builder.op(CommandOpcodes.Gets);
+        @Override
+        public void completed(final MemcachedRequest request) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            cancelTimeout();
+            final Object response;
+            if (result != null) {
+                response = clientFilter.collectMultiResponse(requests, result);
+            } else if (request.isError != null && !request.isError) {
+                response = request.response;
             } else {
-                builder.noReply(true);
-                builder.op(CommandOpcodes.GetsQ);
-                builder.opaque(generateOpaque());
+                response = null;
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.log(Level.FINE, "error status op={0}, key={1}", new Object[]{request.getOp(), request.getOriginKey()});
+                }
             }
-            requests[i] = builder.build();
-            builder.recycle();
+            // returns the connection before completing the future for dependent actions
+            returnConnectionSafely(address, connection);
+            future.complete(response);
         }
-        sendInternal(address, requests, writeTimeoutInMillis, responseTimeoutInMillis, result);
-    }
 
-    private void sendSetMulti(final SocketAddress address,
-                                         final List<BufferWrapper<K>> keyList,
-                                         final Map<K, V> map,
-                                         final int expirationInSecs,
-                                         final long writeTimeoutInMillis,
-                                         final long responseTimeoutInMillis,
-                                         final Map<K, Boolean> result) throws ExecutionException, TimeoutException, InterruptedException, PoolExhaustedException, NoValidObjectException {
-        if (address == null || keyList == null || keyList.isEmpty() || result == null) {
-            return;
+        @Override
+        public void failed(final Throwable t) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            cancelTimeout();
+            releaseFailedConnection(address, connection, requests, t);
+            future.completeExceptionally(t);
         }
 
-        // make multi requests based on key list
-        final MemcachedRequest[] requests = new MemcachedRequest[keyList.size()];
-        final BufferWrapper.BufferType keyType = !keyList.isEmpty() ? keyList.get(0).getType() : null;
-        for (int i = 0; i < keyList.size(); i++) {
-            final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(true, true, true);
-            if (i == keyList.size() - 1) {
-                builder.op(CommandOpcodes.Set);
-                builder.noReply(false);
-                builder.opaque(0);
-            } else {
-                builder.op(CommandOpcodes.SetQ);
-                builder.noReply(true);
-                builder.opaque(generateOpaque());
+        @Override
+        public void cancelled() {
+            if (!done.compareAndSet(false, true)) {
+                return;
             }
-            final K originKey = keyList.get(i).getOrigin();
-            builder.originKeyType(keyType);
-            builder.originKey(originKey);
-            builder.key(keyList.get(i).getBuffer());
-            final BufferWrapper valueWrapper = BufferWrapper.wrap(map.get(originKey), transport.getMemoryManager());
-            builder.value(valueWrapper.getBuffer());
-            builder.flags(valueWrapper.getType().flags);
-            valueWrapper.recycle();
-            builder.expirationInSecs(expirationInSecs);
-            requests[i] = builder.build();
-            builder.recycle();
+            cancelTimeout();
+            abandon(address, connection, requests);
+            future.completeExceptionally(new CancellationException());
         }
-        sendInternal(address, requests, writeTimeoutInMillis, responseTimeoutInMillis, result);
-    }
 
-    private void sendCasMulti(final SocketAddress address,
-                              final List<BufferWrapper<K>> keyList,
-                              final Map<K, ValueWithCas<V>> map,
-                              final int expirationInSecs,
-                              final long writeTimeoutInMillis,
-                              final long responseTimeoutInMillis,
-                              final Map<K, Boolean> result) throws ExecutionException, TimeoutException, InterruptedException, PoolExhaustedException, NoValidObjectException {
-        if (address == null || keyList == null || keyList.isEmpty() || result == null) {
-            return;
+        @Override
+        public void updated(final MemcachedRequest request) {
         }
 
-        // make multi requests based on key list
-        final MemcachedRequest[] requests = new MemcachedRequest[keyList.size()];
-        final BufferWrapper.BufferType keyType = !keyList.isEmpty() ? keyList.get(0).getType() : null;
-        for (int i = 0; i < keyList.size(); i++) {
-            final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(true, true, true);
-            if (i == keyList.size() - 1) {
-                builder.op(CommandOpcodes.Set);
-                builder.noReply(false);
-                builder.opaque(0);
-            } else {
-                builder.op(CommandOpcodes.SetQ);
-                builder.noReply(true);
-                builder.opaque(generateOpaque());
+        @Override
+        public void run() {
+            if (!done.compareAndSet(false, true)) {
+                return;
             }
-            final K originKey = keyList.get(i).getOrigin();
-            builder.originKeyType(keyType);
-            builder.originKey(originKey);
-            builder.key(keyList.get(i).getBuffer());
-            final ValueWithCas<V> vwc = map.get(originKey);
-            if (vwc != null) {
-                final BufferWrapper valueWrapper = BufferWrapper.wrap(vwc.getValue(), transport.getMemoryManager());
-                builder.value(valueWrapper.getBuffer());
-                builder.flags(valueWrapper.getType().flags);
-                valueWrapper.recycle();
-                builder.cas(vwc.getCas());
+            abandon(address, connection, requests);
+            final TimeoutException te = new TimeoutException("timed out while getting the response");
+            if (timeoutExecutor != null) {
+                try {
+                    // dependent actions of the future should not run in the shared timer's thread
+                    timeoutExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            future.completeExceptionally(te);
+                        }
+                    });
+                    return;
+                } catch (RejectedExecutionException ree) {
+                    if (logger.isLoggable(Level.FINE)) {
+                        logger.log(Level.FINE, "failed to complete the timed-out future in the timeout executor", ree);
+                    }
+                }
             }
-            builder.expirationInSecs(expirationInSecs);
-            requests[i] = builder.build();
-            builder.recycle();
-        }
-        sendInternal(address, requests, writeTimeoutInMillis, responseTimeoutInMillis, result);
-    }
-
-    private void sendDeleteMulti(final SocketAddress address,
-                              final List<BufferWrapper<K>> keyList,
-                              final long writeTimeoutInMillis,
-                              final long responseTimeoutInMillis,
-                              final Map<K, Boolean> result) throws ExecutionException, TimeoutException, InterruptedException, PoolExhaustedException, NoValidObjectException {
-        if (address == null || keyList == null || keyList.isEmpty() || result == null) {
-            return;
+            future.completeExceptionally(te);
         }
 
-        // make multi requests based on key list
-        final MemcachedRequest[] requests = new MemcachedRequest[keyList.size()];
-        final BufferWrapper.BufferType keyType = !keyList.isEmpty() ? keyList.get(0).getType() : null;
-        for (int i = 0; i < keyList.size(); i++) {
-            final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, true, false);
-            if (i == keyList.size() - 1) {
-                builder.op(CommandOpcodes.Delete);
-                builder.noReply(false);
-                builder.opaque(0);
-            } else {
-                builder.op(CommandOpcodes.DeleteQ);
-                builder.noReply(true);
-                builder.opaque(generateOpaque());
+        private void cancelTimeout() {
+            final HashedWheelTimer.Timeout scheduled = timeout;
+            if (scheduled != null) {
+                scheduled.cancel();
             }
-            final K originKey = keyList.get(i).getOrigin();
-            builder.originKeyType(keyType);
-            builder.originKey(originKey);
-            builder.key(keyList.get(i).getBuffer());
-            requests[i] = builder.build();
-            builder.recycle();
         }
-        sendInternal(address, requests, writeTimeoutInMillis, responseTimeoutInMillis, result);
     }
 
-    private Object sendInternal(final SocketAddress address,
-                                final MemcachedRequest[] requests,
-                                final long writeTimeoutInMillis,
-                                final long responseTimeoutInMillis,
-                                final Map<K, ?> result) throws PoolExhaustedException, NoValidObjectException, InterruptedException, TimeoutException, ExecutionException {
-        if (address == null || requests == null || requests.length == 0) {
-            return null;
-        }
-        if (connectionPool == null) {
-            throw new IllegalStateException("connection pool must not be null");
-        }
-        if (clientFilter == null) {
-            throw new IllegalStateException("client filter must not be null");
-        }
+    /**
+     * Hands the found value of each quiet get request to the consumer
+     * <p>
+     * This handler will be called by {@link MemcachedClientFilter} as soon as each request is completed.
+     * The request's response is released after it is handed so that the value can be collected early.
+     * If {@code executor} is not null, the value is decoded and handed in the executor
+     * so that neither the decoding nor the consumer occupies the selector thread.
+     * Otherwise both run in the selector thread.
+     * <p>
+     * After {@link #close} returns, the consumer is not called any more.
+     * Values of different servers can be handed concurrently so the read lock guards each call
+     * and {@link #close} waits for calls in progress by the write lock.
+     */
+    private class StreamingResponseHandler implements CompletionHandler<MemcachedRequest> {
 
-        final boolean isMulti = (result != null);
-        final Connection<SocketAddress> connection;
-        try {
-            connection = connectionPool.borrowObject(address, connectTimeoutInMillis);
-        } catch (PoolExhaustedException pee) {
-            if (logger.isLoggable(Level.FINER)) {
-                logger.log(Level.FINER, "failed to get the connection. address=" + address + ", timeout=" + connectTimeoutInMillis + "ms", pee);
-            }
-            throw pee;
-        } catch (NoValidObjectException nvoe) {
-            if (logger.isLoggable(Level.FINER)) {
-                logger.log(Level.FINER, "failed to get the connection. address=" + address + ", timeout=" + connectTimeoutInMillis + "ms", nvoe);
-            }
-            removeServer(address, false);
-            throw nvoe;
-        } catch (TimeoutException te) {
-            if (logger.isLoggable(Level.FINER)) {
-                logger.log(Level.FINER, "failed to get the connection. address=" + address + ", timeout=" + connectTimeoutInMillis + "ms", te);
-            }
-            throw te;
-        } catch (InterruptedException ie) {
-            if (logger.isLoggable(Level.FINER)) {
-                logger.log(Level.FINER, "failed to get the connection. address=" + address + ", timeout=" + connectTimeoutInMillis + "ms", ie);
-            }
-            throw ie;
+        private final BiConsumer<K, V> consumer;
+        private final Executor executor;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile boolean closed;
+        // values being handed in the executor and one more until finish() is called
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final CompletableFuture<Void> handed = new CompletableFuture<Void>();
+
+        private StreamingResponseHandler(final BiConsumer<K, V> consumer, final Executor executor) {
+            this.consumer = consumer;
+            this.executor = executor;
         }
 
-        try {
-            final GrizzlyFuture<WriteResult<MemcachedRequest[], SocketAddress>> future = connection.write(requests);
-            if (writeTimeoutInMillis > 0) {
-                future.get(writeTimeoutInMillis, TimeUnit.MILLISECONDS);
-            } else {
-                future.get();
+        @Override
+        public void completed(final MemcachedRequest request) {
+            final Object response = request.response;
+            request.response = null;
+            if (closed || response == null || request.isError == null || request.isError) {
+                return;
             }
-        } catch (ExecutionException ee) {
-            // invalid connection
-            try {
-                connectionPool.removeObject(address, connection);
-            } catch (Exception e) {
-                if (logger.isLoggable(Level.SEVERE)) {
-                    logger.log(Level.SEVERE, "failed to remove the connection. address=" + address + ", connection=" + connection, e);
-                }
+            final Object key = request.getOriginKey();
+            if (executor == null) {
+                hand(key, response);
+                return;
             }
-            throw ee;
-        } catch (TimeoutException te) {
-            try {
-                connectionPool.removeObject(address, connection);
-            } catch (Exception e) {
-                if (logger.isLoggable(Level.SEVERE)) {
-                    logger.log(Level.SEVERE, "failed to remove the connection. address=" + address + ", connection=" + connection, e);
+            pending.incrementAndGet();
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        hand(key, response);
+                    } finally {
+                        release();
+                    }
                 }
-            }
-            throw te;
-        } catch (InterruptedException ie) {
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private void hand(final Object key, final Object response) {
+            lock.readLock().lock();
             try {
-                connectionPool.removeObject(address, connection);
-            } catch (Exception e) {
-                if (logger.isLoggable(Level.SEVERE)) {
-                    logger.log(Level.SEVERE, "failed to remove the connection. address=" + address + ", connection=" + connection, e);
+                if (closed) {
+                    return;
                 }
-            }
-            throw ie;
-        } catch (Exception unexpected) {
-            try {
-                connectionPool.removeObject(address, connection);
-            } catch (Exception e) {
-                if (logger.isLoggable(Level.SEVERE)) {
-                    logger.log(Level.SEVERE, "failed to remove the connection. address=" + address + ", connection=" + connection, e);
+                consumer.accept((K) key, (V) LazyValue.resolve(response));
+            } catch (Throwable t) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.log(Level.WARNING, "failed to hand the value to the consumer. key=" + key, t);
                 }
+            } finally {
+                lock.readLock().unlock();
             }
-            throw new ExecutionException(unexpected);
         }
 
-        final Object response;
-        try {
-            if (!isMulti) {
-                response = clientFilter.getCorrelatedResponse(connection, requests[0], responseTimeoutInMillis);
-            } else {
-                response = clientFilter.getMultiResponse(connection, requests, responseTimeoutInMillis, result);
+        private void release() {
+            if (pending.decrementAndGet() == 0) {
+                handed.complete(null);
             }
+        }
 
-        } catch (TimeoutException te) {
-            returnConnectionSafely(address, connection);
-            throw te;
-        } catch (InterruptedException ie) {
-            try {
-                connectionPool.removeObject(address, connection);
-            } catch (Exception e) {
-                if (logger.isLoggable(Level.SEVERE)) {
-                    logger.log(Level.SEVERE, "failed to remove the connection. address=" + address + ", connection=" + connection, e);
-                }
-            }
-            throw ie;
-        } catch (Exception unexpected) {
-            try {
-                connectionPool.removeObject(address, connection);
-            } catch (Exception e) {
-                if (logger.isLoggable(Level.SEVERE)) {
-                    logger.log(Level.SEVERE, "failed to remove the connection. address=" + address + ", connection=" + connection, e);
-                }
+        /**
+         * Called after all servers answered
+         *
+         * @return the future which is completed when all values which are being handed in the executor are handed
+         */
+        private CompletableFuture<Void> finish() {
+            release();
+            return handed;
+        }
+
+        private void close() {
+            lock.writeLock().lock();
+            try {
+                closed = true;
+            } finally {
+                lock.writeLock().unlock();
             }
-            throw new ExecutionException(unexpected);
         }
-        returnConnectionSafely(address, connection);
-        return response;
+
+        @Override
+        public void failed(final Throwable t) {
+            // the future of the bulk operation will be failed by AsyncResponseHandler
+        }
+
+        @Override
+        public void cancelled() {
+        }
+
+        @Override
+        public void updated(final MemcachedRequest request) {
+        }
+    }
+
+    private GrizzlyFuture<WriteResult<MemcachedRequest[], SocketAddress>> write(final Connection<SocketAddress> connection,
+                                                                               final MemcachedRequest[] requests) {
+        if (!multiplexed) {
+            return connection.write(requests);
+        }
+        // the order of writes should be same as the order of the request queue in the shared connection
+        synchronized (connection) {
+            return connection.write(requests);
+        }
+    }
+
+    private void write(final Connection<SocketAddress> connection,
+                       final MemcachedRequest[] requests,
+                       final CompletionHandler<WriteResult<MemcachedRequest[], SocketAddress>> completionHandler) {
+        if (!multiplexed) {
+            connection.write(requests, completionHandler);
+            return;
+        }
+        synchronized (connection) {
+            connection.write(requests, completionHandler);
+        }
     }
 
     private void returnConnectionSafely(final SocketAddress address, final Connection<SocketAddress> connection) {
@@ -2468,6 +4287,19 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         }
     }
 
+    private void removeConnectionSafely(final SocketAddress address, final Connection<SocketAddress> connection) {
+        if (address == null || connection == null) {
+            return;
+        }
+        try {
+            connectionPool.removeObject(address, connection);
+        } catch (Exception e) {
+            if (logger.isLoggable(Level.SEVERE)) {
+                logger.log(Level.SEVERE, "failed to remove the connection. address=" + address + ", connection=" + connection, e);
+            }
+        }
+    }
+
     private static <K> void recycleBufferWrappers(List<BufferWrapper<K>> bufferWrapperList) {
         if (bufferWrapperList == null) {
             return;
@@ -2601,6 +4433,7 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         private final GrizzlyMemcachedCacheManager manager;
         private final TCPNIOTransport transport;
         private Set<SocketAddress> servers = Collections.synchronizedSet(new HashSet<SocketAddress>());
+        private final Map<SocketAddress, Integer> serverWeights = new HashMap<SocketAddress, Integer>();
         private long connectTimeoutInMillis = 5000; // 5secs
         private long writeTimeoutInMillis = 5000; // 5secs
         private long responseTimeoutInMillis = 10000; // 10secs
@@ -2608,6 +4441,11 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         private long healthMonitorIntervalInSecs = 60; // 1 min
         private boolean failover = true;
         private boolean preferRemoteConfig = false;
+        private boolean zooKeeperServerWeights = false;
+        private int virtualNodeNumber = ConsistentHashStore.DEFAULT_REPLICA_NUMBER;
+        private KeyHash keyHash = KeyHash.KETAMA;
+        private NodeLocator<SocketAddress> nodeLocator = null;
+        private double boundedLoadFactor = -1;
 
         // connection pool config
         private int minConnectionPerServer = 5;
@@ -2616,6 +4454,26 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         private boolean allowDisposableConnection = false;
         private boolean borrowValidation = false;
         private boolean returnValidation = false;
+        private boolean multiplexed = false;
+        private int multiplexedConnectionPerServer = 2;
+        private int pipelineWindowSize = 1024;
+        private int pipelineWindowBytes = 1024 * 1024; // 1m
+        private boolean awaitWriteWithResponse = false;
+        private boolean requestCoalescing = false;
+        private long coalescingWindowInMicros = 100;
+        private int coalescingMaxBatchSize = 32;
+        private boolean hedgedReads = false;
+        private long hedgeDelayInMillis = -1;
+        private int hedgePercentile = 95;
+        private int hedgeBudgetPercent = 5;
+        private Transcoder<V> transcoder = DefaultTranscoder.getInstance();
+        private boolean lazyValueDecoding = false;
+        private Executor decodeExecutor = null;
+        private Executor timeoutExecutor = null;
+        private int inlineDecodingMaxBytes = 8 * 1024; // 8K
+        private Compressor compressor = null;
+        private int compressionThreshold = BufferWrapper.DEFAULT_COMPRESSION_THRESHOLD;
+        private int compressionMinGainPercent = 10;
 
         private final ZKClient zkClient;
 
@@ -2793,6 +4651,33 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
             return this;
         }
 
+        /**
+         * Set initial servers with their weights
+         * <p>
+         * A server takes the share of keys proportional to its weight. For example, the server of the weight 4
+         * has four times as many virtual nodes of the consistent hash as the server of the weight 1.
+         *
+         * @param weightedServers the map of the server and its positive weight which is not greater than {@link NodeLocator#MAX_WEIGHT}
+         * @return this builder
+         */
+        public Builder<K, V> servers(final Map<SocketAddress, Integer> weightedServers) {
+            if (weightedServers != null) {
+                for (Map.Entry<SocketAddress, Integer> entry : weightedServers.entrySet()) {
+                    final int weight = entry.getValue() != null ? entry.getValue() : NodeLocator.DEFAULT_WEIGHT;
+                    if (weight <= 0 || weight > NodeLocator.MAX_WEIGHT) {
+                        throw new IllegalArgumentException("weight must be between 1 and " + NodeLocator.MAX_WEIGHT + ". server=" + entry.getKey() + ", weight=" + weight);
+                    }
+                    this.servers.add(entry.getKey());
+                    if (weight == NodeLocator.DEFAULT_WEIGHT) {
+                        this.serverWeights.remove(entry.getKey());
+                    } else {
+                        this.serverWeights.put(entry.getKey(), weight);
+                    }
+                }
+            }
+            return this;
+        }
+
         /**
          * Enable or disable failover/failback
          * <p>
@@ -2817,6 +4702,408 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
             this.preferRemoteConfig = preferRemoteConfig;
             return this;
         }
+
+        /**
+         * Enable server weights in the server list of ZooKeeper such as "host:port:weight"
+         * <p>
+         * Clients which don't support weights parse "host:port:weight" as the host "host:port" and the port "weight",
+         * so they add wrong servers and select different servers for the same key.
+         * This should be enabled only after all clients which share the cache name support weights.
+         * If disabled, weights in the remote server list are ignored
+         * and {@link GrizzlyMemcachedCache#setCurrentServerListOfZooKeeper} refuses the server list which has weights.
+         * Default is false.
+         *
+         * @param zooKeeperServerWeights true if weights of the ZooKeeper server list are applied
+         * @return this builder
+         */
+        public Builder<K, V> zooKeeperServerWeights(final boolean zooKeeperServerWeights) {
+            this.zooKeeperServerWeights = zooKeeperServerWeights;
+            return this;
+        }
+
+        /**
+         * Set the number of virtual nodes of each server on the consistent hash ring
+         * <p>
+         * More virtual nodes spread keys more evenly but make the ring larger.
+         * All clients sharing the servers should use the same number, or they will select different servers for the same key.
+         * Default is 160.
+         *
+         * @param virtualNodeNumber the number of virtual nodes per server
+         * @return this builder
+         */
+        public Builder<K, V> virtualNodeNumber(final int virtualNodeNumber) {
+            this.virtualNodeNumber = virtualNodeNumber;
+            return this;
+        }
+
+        /**
+         * Set the hash function which places keys and servers on the consistent hash ring
+         * <p>
+         * {@link KeyHash#MURMUR3} and {@link KeyHash#XXHASH64} are much cheaper than MD5 but select different servers
+         * from Ketama clients. All clients sharing the servers should use the same hash.
+         * Default is {@link KeyHash#KETAMA}.
+         *
+         * @param keyHash the key hash
+         * @return this builder
+         */
+        public Builder<K, V> keyHash(final KeyHash keyHash) {
+            this.keyHash = keyHash;
+            return this;
+        }
+
+        /**
+         * Set the node locator which selects the memcached server for the given key
+         * <p>
+         * If null, {@link ConsistentHashStore} of {@code virtualNodeNumber} and {@code keyHash} is used.
+         * Otherwise, {@code virtualNodeNumber} and {@code keyHash} are ignored.
+         * The locator should be empty and used by only this cache because the cache adds and removes servers.
+         * Default is null.
+         *
+         * @param nodeLocator the node locator such as {@link JumpNodeLocator} or {@link RendezvousNodeLocator}
+         * @return this builder
+         */
+        public Builder<K, V> nodeLocator(final NodeLocator<SocketAddress> nodeLocator) {
+            this.nodeLocator = nodeLocator;
+            return this;
+        }
+
+        /**
+         * Enable the consistent hashing with bounded loads
+         * <p>
+         * If positive, a server can take at most (1 + {@code boundedLoadFactor}) times its fair share of all in-flight requests.
+         * A read(get, getKey and getMulti) whose server is over the bound spills to the next server in the order of the node locator
+         * such as the next point of the ring, so hot keys don't overload one server.
+         * The order is deterministic, so clients which spill the key send it to the same server.
+         * Other commands such as mutations, deletes, gets and gat always go to the key's own server, so the own server has the latest value
+         * and cas tokens stay valid. Sets are not copied to the other server, so a spilled read sees only what the other server has.
+         * It is usually a miss even for the hottest keys, or a stale value stored before the server list changed.
+         * With the cache-aside pattern, a spilled miss sends the caller to the backing store and its set back to the overloaded server,
+         * so this suits only workloads which tolerate misses and stale reads.
+         * If not positive, keys always go to their own servers.
+         * Default is -1.
+         *
+         * @param boundedLoadFactor the allowed ratio over the fair share such as 0.25
+         * @return this builder
+         */
+        public Builder<K, V> boundedLoadFactor(final double boundedLoadFactor) {
+            this.boundedLoadFactor = boundedLoadFactor;
+            return this;
+        }
+
+        /**
+         * Enable or disable multiplexed connections
+         * <p>
+         * If true, this cache keeps a small fixed number of connections per server and concurrent requests are pipelined
+         * on the shared connections instead of borrowing a connection exclusively for the whole round trip.
+         * Responses are still correlated by each connection's request queue because memcached answers in order.
+         * Connection pool's min, max, KeepAliveTimeout and disposable properties are ignored in this mode.
+         * Default is false.
+         *
+         * @param multiplexed true if connections should be shared by concurrent requests
+         * @return this builder
+         * @see MultiplexedObjectPool
+         */
+        public Builder<K, V> multiplexed(final boolean multiplexed) {
+            this.multiplexed = multiplexed;
+            return this;
+        }
+
+        /**
+         * Set the number of shared connections per server when multiplexed connections are enabled
+         * <p>
+         * Default is 2.
+         *
+         * @param multiplexedConnectionPerServer the number of shared connections per server
+         * @return this builder
+         * @see MultiplexedObjectPool.Builder#size(int)
+         */
+        public Builder<K, V> multiplexedConnectionPerServer(final int multiplexedConnectionPerServer) {
+            this.multiplexedConnectionPerServer = multiplexedConnectionPerServer;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of requests in a pipeline window of bulk operations
+         * <p>
+         * Bulk operations which have more requests for a server are split into several windows
+         * and each window is terminated by a noop fence. All windows are in flight on the connection at once.
+         * If the given param is zero or negative, the number of requests doesn't split bulk operations.
+         * Default is 1024.
+         *
+         * @param pipelineWindowSize the max number of requests in a window
+         * @return this builder
+         */
+        public Builder<K, V> pipelineWindowSize(final int pipelineWindowSize) {
+            this.pipelineWindowSize = pipelineWindowSize;
+            return this;
+        }
+
+        /**
+         * Set the maximum bytes of a pipeline window of bulk operations
+         * <p>
+         * This bounds the write buffer which the filter allocates for a window.
+         * If the given param is zero or negative, the bytes don't split bulk operations.
+         * Default is 1048576(1m).
+         *
+         * @param pipelineWindowBytes the max bytes of a window
+         * @return this builder
+         */
+        public Builder<K, V> pipelineWindowBytes(final int pipelineWindowBytes) {
+            this.pipelineWindowBytes = pipelineWindowBytes;
+            return this;
+        }
+
+        /**
+         * Enable or disable waiting for the write and the response of a single request together
+         * <p>
+         * If true, the write is not waited for separately. A failed or cancelled write fails the request
+         * and the caller waits only once for the response, bounded by {@code writeTimeoutInMillis} + {@code responseTimeoutInMillis}.
+         * This saves one synchronous handoff with the selector thread per operation.
+         * Default is false.
+         *
+         * @param awaitWriteWithResponse true if the write and the response should be awaited together
+         * @return this builder
+         */
+        public Builder<K, V> awaitWriteWithResponse(final boolean awaitWriteWithResponse) {
+            this.awaitWriteWithResponse = awaitWriteWithResponse;
+            return this;
+        }
+
+        /**
+         * Enable or disable coalescing of concurrent single requests
+         * <p>
+         * If true, single get, delete and touch requests which are bound for the same server within {@code coalescingWindowInMicros}
+         * are collected and sent as one pipeline terminated by a noop.
+         * Gets and deletes are sent with their quiet commands so that misses and successes don't need their own responses.
+         * This trades the window's latency for far fewer writes and packets under high concurrency.
+         * Default is false.
+         *
+         * @param requestCoalescing true if concurrent single requests should be coalesced
+         * @return this builder
+         * @see RequestCoalescer
+         */
+        public Builder<K, V> requestCoalescing(final boolean requestCoalescing) {
+            this.requestCoalescing = requestCoalescing;
+            return this;
+        }
+
+        /**
+         * Set the maximum time for collecting requests of a batch when request coalescing is enabled
+         * <p>
+         * Default is 100.
+         *
+         * @param coalescingWindowInMicros the window in micro-seconds
+         * @return this builder
+         */
+        public Builder<K, V> coalescingWindowInMicros(final long coalescingWindowInMicros) {
+            this.coalescingWindowInMicros = coalescingWindowInMicros;
+            return this;
+        }
+
+        /**
+         * Set the number of requests which flushes a batch immediately when request coalescing is enabled
+         * <p>
+         * Default is 32.
+         *
+         * @param coalescingMaxBatchSize the max size of a batch
+         * @return this builder
+         */
+        public Builder<K, V> coalescingMaxBatchSize(final int coalescingMaxBatchSize) {
+            this.coalescingMaxBatchSize = coalescingMaxBatchSize;
+            return this;
+        }
+
+        /**
+         * Enable or disable hedged reads
+         * <p>
+         * If true, get, gets, getMulti and getsMulti send a backup request on another connection of the same server
+         * when the response doesn't arrive within the hedge delay, and the first answer wins.
+         * Backup requests are limited to {@code hedgeBudgetPercent} percent of reads.
+         * Default is false.
+         *
+         * @param hedgedReads true if reads should be hedged
+         * @return this builder
+         * @see RequestHedger
+         */
+        public Builder<K, V> hedgedReads(final boolean hedgedReads) {
+            this.hedgedReads = hedgedReads;
+            return this;
+        }
+
+        /**
+         * Set the fixed delay before the backup request is sent when hedged reads are enabled
+         * <p>
+         * If the given param is negative, the observed {@code hedgePercentile} latency of each server is used.
+         * Default is -1.
+         *
+         * @param hedgeDelayInMillis the hedge delay in milli-seconds
+         * @return this builder
+         */
+        public Builder<K, V> hedgeDelayInMillis(final long hedgeDelayInMillis) {
+            this.hedgeDelayInMillis = hedgeDelayInMillis;
+            return this;
+        }
+
+        /**
+         * Set the latency percentile of a server which decides the hedge delay when {@code hedgeDelayInMillis} is negative
+         * <p>
+         * Default is 95.
+         *
+         * @param hedgePercentile the percentile in (0, 100)
+         * @return this builder
+         */
+        public Builder<K, V> hedgePercentile(final int hedgePercentile) {
+            this.hedgePercentile = hedgePercentile;
+            return this;
+        }
+
+        /**
+         * Set the maximum extra load of backup requests in percent of reads
+         * <p>
+         * Default is 5.
+         *
+         * @param hedgeBudgetPercent the budget in (0, 100]
+         * @return this builder
+         */
+        public Builder<K, V> hedgeBudgetPercent(final int hedgeBudgetPercent) {
+            this.hedgeBudgetPercent = hedgeBudgetPercent;
+            return this;
+        }
+
+        /**
+         * Set the transcoder which converts values of this cache into memcached's values and flags
+         * <p>
+         * All clients which share the stored values should use compatible transcoders.
+         * Default is {@link DefaultTranscoder} which converts values by {@link BufferWrapper}.
+         *
+         * @param transcoder the transcoder
+         * @return this builder
+         * @see org.glassfish.grizzly.memcached.transcoder.BinaryTranscoder
+         * @see org.glassfish.grizzly.memcached.transcoder.StringTranscoder
+         * @see org.glassfish.grizzly.memcached.transcoder.ByteArrayTranscoder
+         */
+        public Builder<K, V> transcoder(final Transcoder<V> transcoder) {
+            if (transcoder == null) {
+                throw new IllegalArgumentException("transcoder must not be null");
+            }
+            this.transcoder = transcoder;
+            return this;
+        }
+
+        /**
+         * Enable or disable the lazy value decoding
+         * <p>
+         * If true, the selector thread only copies the raw bytes of retrieved values
+         * and the transcoder decodes them when the results are handed to the caller.
+         * So decompression and deserialization of large values don't occupy the selector thread.
+         * Synchronous operations decode values in the caller's thread
+         * and asynchronous operations decode them in {@code decodeExecutor} or the thread which completes their futures.
+         * Default is false.
+         *
+         * @param lazyValueDecoding true if values should be decoded lazily
+         * @return this builder
+         */
+        public Builder<K, V> lazyValueDecoding(final boolean lazyValueDecoding) {
+            this.lazyValueDecoding = lazyValueDecoding;
+            return this;
+        }
+
+        /**
+         * Set the executor which decodes heavy values of asynchronous operations
+         * <p>
+         * If not null, compressed values, serialized objects and values which are larger than {@code inlineDecodingMaxBytes}
+         * are not decoded in the selector thread. Synchronous operations decode them in the waiting caller's thread
+         * and asynchronous operations decode them in this executor before their futures are completed.
+         * Small values keep being decoded in the selector thread.
+         * The consumers of {@link GrizzlyMemcachedCache#getMulti(Collection, BiConsumer)} and its asynchronous version
+         * are called in this executor as well so that slow consumers don't occupy the selector thread.
+         * If the executor rejects the task, values are decoded in the current thread.
+         * The executor is not shut down by this cache.
+         * Default is null.
+         *
+         * @param decodeExecutor the executor for decoding values
+         * @return this builder
+         */
+        public Builder<K, V> decodeExecutor(final Executor decodeExecutor) {
+            this.decodeExecutor = decodeExecutor;
+            return this;
+        }
+
+        /**
+         * Set the executor which completes futures of asynchronous operations whose responses time out
+         * <p>
+         * Timeouts of asynchronous operations are fired by the {@link HashedWheelTimer} which all caches of the manager share.
+         * If null, timed-out futures are completed in the timer's thread and their dependent actions run there,
+         * so slow dependent actions delay the timeouts of other operations.
+         * If the executor rejects the task, the future is completed in the timer's thread.
+         * The executor is not shut down by this cache.
+         * Default is null.
+         *
+         * @param timeoutExecutor the executor for completing timed-out futures
+         * @return this builder
+         */
+        public Builder<K, V> timeoutExecutor(final Executor timeoutExecutor) {
+            this.timeoutExecutor = timeoutExecutor;
+            return this;
+        }
+
+        /**
+         * Set the maximum size in bytes of values which are decoded in the selector thread when {@code decodeExecutor} is set
+         * <p>
+         * Default is 8K.
+         *
+         * @param inlineDecodingMaxBytes the maximum size of values which are decoded inline
+         * @return this builder
+         */
+        public Builder<K, V> inlineDecodingMaxBytes(final int inlineDecodingMaxBytes) {
+            this.inlineDecodingMaxBytes = inlineDecodingMaxBytes;
+            return this;
+        }
+
+        /**
+         * Set the compressor which compresses large values
+         * <p>
+         * If not null, values encoded by the transcoder are compressed when they are larger than {@code compressionThreshold}
+         * and the compressor's flag bit is stored with them. GZIP of the default transcoder is disabled.
+         * If null, only the default transcoder compresses values by GZIP.
+         * Default is null.
+         *
+         * @param compressor the compressor such as {@link org.glassfish.grizzly.memcached.transcoder.Lz4Compressor}
+         * @return this builder
+         * @see CompressingTranscoder
+         */
+        public Builder<K, V> compressor(final Compressor compressor) {
+            this.compressor = compressor;
+            return this;
+        }
+
+        /**
+         * Set the size in bytes above which values are compressed
+         * <p>
+         * This is applied to the compressor or GZIP of the default transcoder.
+         * Default is 16K.
+         *
+         * @param compressionThreshold the compression threshold in bytes
+         * @return this builder
+         */
+        public Builder<K, V> compressionThreshold(final int compressionThreshold) {
+            this.compressionThreshold = compressionThreshold;
+            return this;
+        }
+
+        /**
+         * Set the minimum saving in percent which compressed values should achieve
+         * <p>
+         * If the compressor saves less, the raw value is stored. This is applied to the compressor only.
+         * Default is 10.
+         *
+         * @param compressionMinGainPercent the minimum gain in [0, 100)
+         * @return this builder
+         */
+        public Builder<K, V> compressionMinGainPercent(final int compressionMinGainPercent) {
+            this.compressionMinGainPercent = compressionMinGainPercent;
+            return this;
+        }
     }
 
     @Override
@@ -2828,10 +5115,24 @@ public class GrizzlyMemcachedCache<K, V> implements MemcachedCache<K, V>, ZooKee
         sb.append(", writeTimeoutInMillis=").append(writeTimeoutInMillis);
         sb.append(", responseTimeoutInMillis=").append(responseTimeoutInMillis);
         sb.append(", connectionPool=").append(connectionPool);
+        sb.append(", multiplexed=").append(multiplexed);
+        sb.append(", pipelineWindowSize=").append(pipelineWindowSize);
+        sb.append(", pipelineWindowBytes=").append(pipelineWindowBytes);
+        sb.append(", awaitWriteWithResponse=").append(awaitWriteWithResponse);
+        sb.append(", transcoder=").append(transcoder);
+        sb.append(", lazyDecodingThreshold=").append(lazyDecodingThreshold);
+        sb.append(", decodeExecutor=").append(decodeExecutor);
+        sb.append(", timeoutExecutor=").append(timeoutExecutor);
+        sb.append(", requestCoalescer=").append(requestCoalescer);
+        sb.append(", requestHedger=").append(requestHedger);
         sb.append(", servers=").append(servers);
+        sb.append(", serverWeights=").append(serverWeights);
         sb.append(", healthMonitorIntervalInSecs=").append(healthMonitorIntervalInSecs);
         sb.append(", failover=").append(failover);
+        sb.append(", nodeLocator=").append(nodeLocator);
+        sb.append(", boundedLoadFactor=").append(boundedLoadFactor);
         sb.append(", preferRemoteConfig=").append(preferRemoteConfig);
+        sb.append(", zooKeeperServerWeights=").append(zooKeeperServerWeights);
         sb.append(", zkListener=").append(zkListener);
         sb.append(", zooKeeperServerListPath='").append(zooKeeperServerListPath).append('\'');
         sb.append('}');
@@ -34,6 +34,7 @@ import java.io.IOException;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -44,6 +45,11 @@ import java.util.logging.Logger;
  * This cache manager has a key(String cache name)/value({@link GrizzlyMemcachedCache} map for retrieving caches.
  * If the specific {@link TCPNIOTransport GrizzlyTransport} is not set at creation time, this will create a main GrizzlyTransport.
  * The {@link TCPNIOTransport GrizzlyTransport} must contain {@link MemcachedClientFilter}.
+ * <p>
+ * The timeouts of asynchronous requests of all caches are expired by one shared {@link HashedWheelTimer}
+ * so that no thread is blocked per outstanding request.
+ * Synchronous requests don't use the timer. Their callers are blocked anyway,
+ * so each caller waits for its own request with a timed park and wakes up at the exact timeout.
  *
  * @author Bongjae Chang
  */
@@ -55,6 +61,7 @@ public class GrizzlyMemcachedCacheManager implements CacheManager {
     private final TCPNIOTransport transport;
     private final boolean isExternalTransport;
     private final AtomicBoolean shutdown = new AtomicBoolean(false);
+    private final HashedWheelTimer timeoutTimer;
 
     private ZKClient zkClient;
 
@@ -63,7 +70,7 @@ public class GrizzlyMemcachedCacheManager implements CacheManager {
         if (transportLocal == null) {
             isExternalTransport = false;
             final FilterChainBuilder clientFilterChainBuilder = FilterChainBuilder.stateless();
-            clientFilterChainBuilder.add(new TransportFilter()).add(new MemcachedClientFilter(true, true));
+            clientFilterChainBuilder.add(new TransportFilter()).add(new MemcachedClientFilter(true, true, builder.opaqueCorrelation));
             final TCPNIOTransportBuilder clientTCPNIOTransportBuilder = TCPNIOTransportBuilder.newInstance();
             transportLocal = clientTCPNIOTransportBuilder.build();
             transportLocal.setProcessor(clientFilterChainBuilder.build());
@@ -84,6 +91,7 @@ public class GrizzlyMemcachedCacheManager implements CacheManager {
             isExternalTransport = true;
         }
         this.transport = transportLocal;
+        this.timeoutTimer = new HashedWheelTimer(builder.timeoutTickDurationInMillis, TimeUnit.MILLISECONDS, builder.timeoutTicksPerWheel);
         if (builder.zooKeeperConfig != null) {
             final ZKClient.Builder zkBuilder = new ZKClient.Builder(builder.zooKeeperConfig.getName(),
                     builder.zooKeeperConfig.getZooKeeperServerList());
@@ -180,6 +188,7 @@ public class GrizzlyMemcachedCacheManager implements CacheManager {
         if (zkClient != null) {
             zkClient.shutdown();
         }
+        timeoutTimer.stop();
     }
 
     /**
@@ -201,6 +210,10 @@ public class GrizzlyMemcachedCacheManager implements CacheManager {
         return zkClient;
     }
 
+    HashedWheelTimer getTimeoutTimer() {
+        return timeoutTimer;
+    }
+
     public static class Builder {
 
         private TCPNIOTransport transport;
@@ -210,6 +223,11 @@ public class GrizzlyMemcachedCacheManager implements CacheManager {
         private IOStrategy ioStrategy = SameThreadIOStrategy.getInstance();
         private boolean blocking = false;
         private ExecutorService workerThreadPool;
+        private boolean opaqueCorrelation = false;
+
+        // timeout config
+        private long timeoutTickDurationInMillis = 10;
+        private int timeoutTicksPerWheel = 512;
 
         // zookeeper config
         private ZooKeeperConfig zooKeeperConfig;
@@ -286,6 +304,52 @@ public class GrizzlyMemcachedCacheManager implements CacheManager {
             return this;
         }
 
+        /**
+         * Enable or disable the opaque-based response correlation
+         * <p>
+         * If this cache manager will create a default transport, the given flag will be passed to {@link MemcachedClientFilter}.
+         * If true, responses are correlated by unique opaques instead of the request queue
+         * so timed-out requests can be cancelled without dropping their connections.
+         * Default is false.
+         *
+         * @param opaqueCorrelation true if responses should be correlated by opaques
+         * @return this builder
+         */
+        public Builder opaqueCorrelation(final boolean opaqueCorrelation) {
+            this.opaqueCorrelation = opaqueCorrelation;
+            return this;
+        }
+
+        /**
+         * Set the tick duration of the shared timeout timer
+         * <p>
+         * Timeouts of asynchronous requests are expired at the granularity of this tick.
+         * Synchronous requests are not affected.
+         * Default is 10ms.
+         *
+         * @param timeoutTickDurationInMillis the tick duration in milli-seconds
+         * @return this builder
+         */
+        public Builder timeoutTickDurationInMillis(final long timeoutTickDurationInMillis) {
+            this.timeoutTickDurationInMillis = timeoutTickDurationInMillis;
+            return this;
+        }
+
+        /**
+         * Set the number of buckets of the shared timeout timer's wheel
+         * <p>
+         * The value is rounded up to a power of two.
+         * One revolution of the wheel should cover the usual response timeout.
+         * Default is 512.
+         *
+         * @param timeoutTicksPerWheel the number of buckets
+         * @return this builder
+         */
+        public Builder timeoutTicksPerWheel(final int timeoutTicksPerWheel) {
+            this.timeoutTicksPerWheel = timeoutTicksPerWheel;
+            return this;
+        }
+
         /**
          * Set the {@link ZooKeeperConfig} for synchronizing cache server list among cache clients
          *
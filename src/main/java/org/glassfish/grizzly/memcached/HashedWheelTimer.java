@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.glassfish.grizzly.Grizzly;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The timer which expires a large number of timeouts with one thread
+ * <p>
+ * Timeouts are hashed into the buckets of a wheel by their deadlines. The worker thread advances the wheel every tick
+ * and expires the timeouts of the current bucket whose rounds are over.
+ * So adding and cancelling a timeout are O(1) and no thread is blocked per timeout.
+ * The accuracy of this timer is {@code tickDuration}. This is suitable for request timeouts which are cancelled in most cases.
+ * <p>
+ * The worker thread is started lazily when the first timeout is added.
+ * Tasks are executed in the worker thread so they should be short and never block.
+ * <p>
+ * Example of use:
+ * {@code
+ * final HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 512);
+ * final HashedWheelTimer.Timeout timeout = timer.newTimeout(task, 3000, TimeUnit.MILLISECONDS);
+ * // ...
+ * timeout.cancel();
+ * // ...
+ * timer.stop();
+ * }
+ */
+public class HashedWheelTimer {
+
+    private static final Logger logger = Grizzly.logger(HashedWheelTimer.class);
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_STARTED = 1;
+    private static final int STATE_STOPPED = 2;
+
+    // limits the transfer per tick so that a burst of new timeouts can't delay the expiration
+    private static final int MAX_TRANSFER_PER_TICK = 100000;
+
+    private static final AtomicInteger timerIndex = new AtomicInteger();
+
+    private final long tickDurationInNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<Timeout>();
+    private final ConcurrentLinkedQueue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<Timeout>();
+    private final Thread workerThread;
+
+    private volatile int state = STATE_INIT;
+    private volatile long startTime;
+
+    public HashedWheelTimer(final long tickDuration, final TimeUnit unit, final int ticksPerWheel) {
+        if (unit == null) {
+            throw new IllegalArgumentException("unit must not be null");
+        }
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tick duration must be positive");
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticks per wheel must be in (0, 2^30]");
+        }
+        this.tickDurationInNanos = unit.toNanos(tickDuration);
+        int wheelSize = 1;
+        while (wheelSize < ticksPerWheel) {
+            wheelSize <<= 1;
+        }
+        this.wheel = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheelSize - 1;
+        this.workerThread = new Thread(new Worker(), "grizzly-memcached-timer-" + timerIndex.getAndIncrement());
+        this.workerThread.setDaemon(true);
+    }
+
+    /**
+     * Schedule the given {@code task} for one-time execution after the given delay
+     *
+     * @param task  the task which will be executed in the timer thread
+     * @param delay the delay
+     * @param unit  the time unit of {@code delay}
+     * @return the handle which can cancel the task
+     * @throws IllegalStateException if this timer was already stopped
+     */
+    public Timeout newTimeout(final Runnable task, final long delay, final TimeUnit unit) {
+        if (task == null) {
+            throw new IllegalArgumentException("task must not be null");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("unit must not be null");
+        }
+        start();
+        long deadline = System.nanoTime() + unit.toNanos(delay) - startTime;
+        if (delay > 0 && deadline < 0) {
+            // overflow
+            deadline = Long.MAX_VALUE;
+        }
+        final Timeout timeout = new Timeout(task, deadline);
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    private void start() {
+        if (state == STATE_STARTED) {
+            return;
+        }
+        synchronized (this) {
+            if (state == STATE_INIT) {
+                // startTime should be visible before the state
+                startTime = System.nanoTime();
+                workerThread.start();
+                state = STATE_STARTED;
+            } else if (state == STATE_STOPPED) {
+                throw new IllegalStateException("timer was already stopped");
+            }
+        }
+    }
+
+    /**
+     * Stop the worker thread
+     * <p>
+     * Timeouts which have not expired yet are discarded without running their tasks.
+     */
+    public void stop() {
+        synchronized (this) {
+            final int oldState = state;
+            state = STATE_STOPPED;
+            if (oldState != STATE_STARTED) {
+                return;
+            }
+        }
+        if (Thread.currentThread() == workerThread) {
+            return;
+        }
+        workerThread.interrupt();
+        try {
+            workerThread.join(TimeUnit.NANOSECONDS.toMillis(tickDurationInNanos) + 1000);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getTickDurationInNanos() {
+        return tickDurationInNanos;
+    }
+
+    public int getTicksPerWheel() {
+        return wheel.length;
+    }
+
+    private class Worker implements Runnable {
+
+        private long tick;
+
+        @Override
+        public void run() {
+            while (state != STATE_STOPPED) {
+                final long currentTime = waitForNextTick();
+                if (currentTime < 0) {
+                    break;
+                }
+                removeCancelledTimeouts();
+                transferPendingTimeouts();
+                wheel[(int) (tick & mask)].expireTimeouts(currentTime);
+                tick++;
+            }
+            pendingTimeouts.clear();
+            cancelledTimeouts.clear();
+        }
+
+        /**
+         * @return the current time relative to {@code startTime} or -1 if the timer was stopped
+         */
+        private long waitForNextTick() {
+            final long deadline = tickDurationInNanos * (tick + 1);
+            while (true) {
+                final long currentTime = System.nanoTime() - startTime;
+                final long sleepTimeInMillis = (deadline - currentTime + 999999) / 1000000;
+                if (sleepTimeInMillis <= 0) {
+                    return currentTime;
+                }
+                try {
+                    Thread.sleep(sleepTimeInMillis);
+                } catch (InterruptedException ie) {
+                    if (state == STATE_STOPPED) {
+                        return -1;
+                    }
+                }
+            }
+        }
+
+        private void transferPendingTimeouts() {
+            for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+                final Timeout timeout = pendingTimeouts.poll();
+                if (timeout == null) {
+                    break;
+                }
+                if (timeout.state.get() != Timeout.STATE_INIT) {
+                    continue;
+                }
+                final long calculated = timeout.deadline / tickDurationInNanos;
+                timeout.remainingRounds = (calculated - tick) / wheel.length;
+                // the timeout of the past is expired in the current tick
+                final long ticks = Math.max(calculated, tick);
+                wheel[(int) (ticks & mask)].add(timeout);
+            }
+        }
+
+        private void removeCancelledTimeouts() {
+            Timeout timeout;
+            while ((timeout = cancelledTimeouts.poll()) != null) {
+                final Bucket bucket = timeout.bucket;
+                if (bucket != null) {
+                    bucket.remove(timeout);
+                }
+            }
+        }
+    }
+
+    /**
+     * The doubly linked list of timeouts which is accessed only by the worker thread
+     */
+    private static class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(final Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private void expireTimeouts(final long currentTime) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                final Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.deadline <= currentTime) {
+                        timeout.expire();
+                    } else if (logger.isLoggable(Level.WARNING)) {
+                        // should not happen
+                        logger.log(Level.WARNING, "timeout was placed into the wrong bucket. deadline={0}, currentTime={1}",
+                                new Object[]{timeout.deadline, currentTime});
+                    }
+                } else if (timeout.state.get() == Timeout.STATE_CANCELLED) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(final Timeout timeout) {
+            final Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+    /**
+     * The handle of the scheduled task
+     */
+    public final class Timeout {
+
+        private static final int STATE_INIT = 0;
+        private static final int STATE_CANCELLED = 1;
+        private static final int STATE_EXPIRED = 2;
+
+        private final Runnable task;
+        // relative to startTime
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+
+        // accessed only by the worker thread
+        private long remainingRounds;
+        private Timeout prev;
+        private Timeout next;
+        private volatile Bucket bucket;
+
+        private Timeout(final Runnable task, final long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the task
+         *
+         * @return true if the task was cancelled before it was executed
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(STATE_INIT, STATE_CANCELLED)) {
+                return false;
+            }
+            // the worker thread unlinks it from the bucket
+            cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == STATE_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == STATE_EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(STATE_INIT, STATE_EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.log(Level.WARNING, "failed to execute the timeout task", t);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Timeout{" +
+                    "deadline=" + deadline +
+                    ", state=" + state.get() +
+                    '}';
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "HashedWheelTimer{" +
+                "tickDurationInNanos=" + tickDurationInNanos +
+                ", ticksPerWheel=" + wheel.length +
+                ", state=" + state +
+                '}';
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The hash map whose keys are primitive int values
+ * <p>
+ * This map uses open addressing with linear probing so that neither keys nor entries are boxed.
+ * When an entry is removed, following entries of the same cluster are shifted back instead of leaving tombstones.
+ * Null values are not allowed because null means an empty slot.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class IntObjectHashMap<V> {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    public IntObjectHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public IntObjectHashMap(final int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initial capacity must not be negative");
+        }
+        int capacity = 2;
+        while (capacity < initialCapacity && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(final int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        // load factor 0.5
+        threshold = capacity >>> 1;
+    }
+
+    private int indexOf(final int key) {
+        final int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(final int key) {
+        int index = indexOf(key);
+        Object value;
+        while ((value = values[index]) != null) {
+            if (keys[index] == key) {
+                return (V) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(final int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates {@code value} with {@code key}
+     *
+     * @param key   the key
+     * @param value the value. must not be null
+     * @return the previous value or null if there was no mapping for {@code key}
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final int key, final V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+        int index = indexOf(key);
+        Object current;
+        while ((current = values[index]) != null) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return (V) current;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > threshold) {
+            rehash();
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping for {@code key}
+     *
+     * @param key the key
+     * @return the removed value or null if there was no mapping for {@code key}
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(final int key) {
+        int index = indexOf(key);
+        Object value;
+        while ((value = values[index]) != null) {
+            if (keys[index] == key) {
+                shiftBack(index);
+                size--;
+                return (V) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Fills the removed slot with following entries which can't be found without the slot
+     */
+    private void shiftBack(int emptyIndex) {
+        int index = (emptyIndex + 1) & mask;
+        Object value;
+        while ((value = values[index]) != null) {
+            final int key = keys[index];
+            final int home = indexOf(key);
+            // moves the entry if its home slot is not in (emptyIndex, index] cyclically
+            if (((index - home) & mask) >= ((index - emptyIndex) & mask)) {
+                keys[emptyIndex] = key;
+                values[emptyIndex] = value;
+                emptyIndex = index;
+            }
+            index = (index + 1) & mask;
+        }
+        values[emptyIndex] = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rehash() {
+        final int[] oldKeys = keys;
+        final Object[] oldValues = values;
+        if (oldValues.length >= MAX_CAPACITY) {
+            throw new IllegalStateException("map is full");
+        }
+        allocate(oldValues.length << 1);
+        for (int i = 0; i < oldValues.length; i++) {
+            final Object value = oldValues[i];
+            if (value != null) {
+                int index = indexOf(oldKeys[i]);
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = value;
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of current values
+     *
+     * @return the list of values
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        final List<V> result = new ArrayList<V>(size);
+        for (Object value : values) {
+            if (value != null) {
+                result.add((V) value);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = null;
+        }
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "IntObjectHashMap{" +
+                "size=" + size +
+                ", capacity=" + values.length +
+                '}';
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * The {@link NodeLocator} based on the jump consistent hash of Lamping and Veach
+ * <p>
+ * It needs no memory but the node list and spreads keys evenly regardless of the number of nodes.
+ * When a node is added, only keys moving to the new node are remapped.
+ * When a node is removed, the last node takes its place, so keys of the removed node and the last node are remapped.
+ * A node of the weight n has n buckets.
+ * All clients sharing the nodes should add them in the same order, or they will select different nodes for the same key.
+ * <p>
+ * The node list is an immutable snapshot which is replaced by one volatile write, so lookups are never blocked.
+ * <p>
+ * Example of use:
+ * {@code
+ * builder.nodeLocator(new JumpNodeLocator<SocketAddress>());
+ * }
+ */
+public class JumpNodeLocator<T> implements NodeLocator<T> {
+
+    private static final Object[] EMPTY_NODES = new Object[0];
+
+    private final KeyHash keyHash;
+    private volatile Object[] nodes = EMPTY_NODES;
+
+    public JumpNodeLocator() {
+        this(KeyHash.XXHASH64);
+    }
+
+    /**
+     * @param keyHash the hash function of keys. 64-bit hashes are recommended
+     */
+    public JumpNodeLocator(final KeyHash keyHash) {
+        if (keyHash == null) {
+            throw new IllegalArgumentException("key hash must not be null");
+        }
+        this.keyHash = keyHash;
+    }
+
+    @Override
+    public KeyHash getKeyHash() {
+        return keyHash;
+    }
+
+    @Override
+    public void add(final T node) {
+        if (!hasNode(node)) {
+            add(node, DEFAULT_WEIGHT);
+        }
+    }
+
+    @Override
+    public void add(final T node, final int weight) {
+        if (weight <= 0 || weight > MAX_WEIGHT) {
+            throw new IllegalArgumentException("weight must be between 1 and " + MAX_WEIGHT + ". weight=" + weight);
+        }
+        setBuckets(node, weight);
+    }
+
+    @Override
+    public void remove(final T node) {
+        setBuckets(node, 0);
+    }
+
+    /**
+     * Appends buckets or removes the node's last buckets until the node has {@code count} buckets
+     */
+    private synchronized void setBuckets(final T node, final int count) {
+        if (node == null) {
+            return;
+        }
+        Object[] newNodes = nodes;
+        int current = 0;
+        for (Object n : newNodes) {
+            if (n.equals(node)) {
+                current++;
+            }
+        }
+        if (current == count) {
+            return;
+        }
+        if (current < count) {
+            final int length = newNodes.length;
+            newNodes = Arrays.copyOf(newNodes, length + count - current);
+            Arrays.fill(newNodes, length, newNodes.length, node);
+        } else {
+            newNodes = newNodes.clone();
+            int length = newNodes.length;
+            for (int i = length - 1; i >= 0 && current > count; i--) {
+                if (newNodes[i].equals(node)) {
+                    // the last bucket takes the removed bucket
+                    newNodes[i] = newNodes[length - 1];
+                    length--;
+                    current--;
+                }
+            }
+            newNodes = Arrays.copyOf(newNodes, length);
+        }
+        nodes = newNodes;
+    }
+
+    @Override
+    public boolean hasNode(final T node) {
+        return node != null && indexOf(nodes, node) >= 0;
+    }
+
+    @Override
+    public synchronized void clear() {
+        nodes = EMPTY_NODES;
+    }
+
+    @Override
+    public T get(final ByteBuffer key) {
+        if (key == null) {
+            return null;
+        }
+        final Object[] current = nodes;
+        if (current.length <= 1) {
+            return current.length == 0 ? null : JumpNodeLocator.<T>cast(current[0]);
+        }
+        return cast(current[jump(keyHash.hash(key), current.length)]);
+    }
+
+    @Override
+    public T getByHash(final long hash) {
+        final Object[] current = nodes;
+        if (current.length == 0) {
+            return null;
+        }
+        return cast(current[jump(hash, current.length)]);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The candidates are the buckets of the hash rehashed by the number of attempts. Up to as many buckets as nodes are tried.
+     */
+    @Override
+    public T getByHash(final long hash, final Predicate<T> acceptable) {
+        final Object[] current = nodes;
+        if (current.length == 0) {
+            return null;
+        }
+        final T primary = cast(current[jump(hash, current.length)]);
+        if (acceptable == null || current.length == 1 || acceptable.test(primary)) {
+            return primary;
+        }
+        for (int attempt = 1; attempt < current.length; attempt++) {
+            final T candidate = cast(current[jump(hash + attempt * 0x9E3779B97F4A7C15L, current.length)]);
+            if (candidate != primary && acceptable.test(candidate)) {
+                return candidate;
+            }
+        }
+        return primary;
+    }
+
+    /**
+     * Every bucket takes the same share of keys in expectation
+     */
+    @Override
+    public double getLoadImbalance() {
+        return 1.0;
+    }
+
+    /**
+     * @return the bucket of the key in [0, buckets)
+     */
+    static int jump(long key, final int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    private static int indexOf(final Object[] nodes, final Object node) {
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i].equals(node)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(final Object node) {
+        return (T) node;
+    }
+
+    @Override
+    public String toString() {
+        return "JumpNodeLocator{" +
+                "keyHash=" + keyHash +
+                ", nodes=" + Arrays.toString(nodes) +
+                '}';
+    }
+}
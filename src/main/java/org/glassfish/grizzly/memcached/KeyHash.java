@@ -0,0 +1,400 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.glassfish.grizzly.Grizzly;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * The hash function which places keys and servers on the consistent hash ring
+ * <p>
+ * {@link #KETAMA} is the default and is compatible with the previous versions and other Ketama clients.
+ * {@link #MURMUR3} and {@link #XXHASH64} are fast 64-bit non-cryptographic hashes which are much cheaper than MD5 for small keys.
+ * All clients sharing the servers should use the same hash, or they will select different servers for the same key.
+ * <p>
+ * Keys are hashed in place. {@link ByteBuffer}'s position and limit are not changed and its bytes are not copied.
+ * <p>
+ * Implementations should be thread-safe.
+ *
+ * @see ConsistentHashStore
+ */
+public abstract class KeyHash {
+
+    private static final Logger logger = Grizzly.logger(KeyHash.class);
+
+    /**
+     * MD5 based hash of Ketama. CRC32 is used if MD5 is not supported
+     */
+    public static final KeyHash KETAMA = new KetamaKeyHash();
+
+    /**
+     * The lower 64 bits of MurmurHash3 x64 128
+     */
+    public static final KeyHash MURMUR3 = new Murmur3KeyHash();
+
+    /**
+     * xxHash64 with the seed 0
+     */
+    public static final KeyHash XXHASH64 = new XxHash64KeyHash();
+
+    /**
+     * @param key    the key bytes
+     * @param offset the offset of {@code key}
+     * @param length the length of the key
+     * @return the hash of the key
+     */
+    public abstract long hash(final byte[] key, final int offset, final int length);
+
+    /**
+     * @param key the key between the position and the limit
+     * @return the hash of the key
+     */
+    public long hash(final ByteBuffer key) {
+        if (key.hasArray()) {
+            return hash(key.array(), key.arrayOffset() + key.position(), key.remaining());
+        }
+        return hashDirect(key);
+    }
+
+    public long hash(final byte[] key) {
+        return hash(key, 0, key.length);
+    }
+
+    /**
+     * @return the number of bits of hashes. hashes of less than 64 bits are not negative
+     */
+    public int getHashBits() {
+        return 64;
+    }
+
+    /**
+     * @param key the key which doesn't have the accessible array
+     * @return the hash of the key
+     */
+    protected abstract long hashDirect(final ByteBuffer key);
+
+    /**
+     * Calculate points of the value on the ring
+     * <p>
+     * By default, each point is the hash of "{@code value}-{@code index}".
+     *
+     * @param value  the value such as a server address
+     * @param points the points to be filled
+     */
+    protected void calculatePoints(final Object value, final long[] points) {
+        for (int i = 0; i < points.length; i++) {
+            points[i] = hash((value + "-" + i).getBytes());
+        }
+    }
+
+    private static long getLongLE(final byte[] array, final ByteBuffer buffer, final int index) {
+        if (array != null) {
+            return (array[index] & 0xFFL)
+                    | (array[index + 1] & 0xFFL) << 8
+                    | (array[index + 2] & 0xFFL) << 16
+                    | (array[index + 3] & 0xFFL) << 24
+                    | (array[index + 4] & 0xFFL) << 32
+                    | (array[index + 5] & 0xFFL) << 40
+                    | (array[index + 6] & 0xFFL) << 48
+                    | (array[index + 7] & 0xFFL) << 56;
+        }
+        final long value = buffer.getLong(index);
+        return buffer.order() == ByteOrder.LITTLE_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    private static long getIntLE(final byte[] array, final ByteBuffer buffer, final int index) {
+        if (array != null) {
+            return (array[index] & 0xFFL)
+                    | (array[index + 1] & 0xFFL) << 8
+                    | (array[index + 2] & 0xFFL) << 16
+                    | (array[index + 3] & 0xFFL) << 24;
+        }
+        final int value = buffer.getInt(index);
+        return (buffer.order() == ByteOrder.LITTLE_ENDIAN ? value : Integer.reverseBytes(value)) & 0xFFFFFFFFL;
+    }
+
+    private static long getByte(final byte[] array, final ByteBuffer buffer, final int index) {
+        return (array != null ? array[index] : buffer.get(index)) & 0xFFL;
+    }
+
+    private static class KetamaKeyHash extends KeyHash {
+
+        private static final ThreadLocal<MessageDigest> md5ThreadLocal = new ThreadLocal<MessageDigest>();
+        private volatile static boolean md5NotSupported;
+
+        @Override
+        public long hash(final byte[] key, final int offset, final int length) {
+            final MessageDigest md5 = getMessageDigest();
+            if (md5 == null) {
+                final CRC32 crc32 = new CRC32();
+                crc32.update(key, offset, length);
+                return crc32.getValue() >> 16 & 0x7fff;
+            }
+            md5.reset();
+            md5.update(key, offset, length);
+            return toHash(md5.digest(), 0);
+        }
+
+        @Override
+        protected long hashDirect(final ByteBuffer key) {
+            final MessageDigest md5 = getMessageDigest();
+            if (md5 == null) {
+                // CRC32 of JDK 8 doesn't support ByteBuffer without copying
+                final byte[] bytes = new byte[key.remaining()];
+                key.duplicate().get(bytes);
+                return hash(bytes, 0, bytes.length);
+            }
+            md5.reset();
+            final int position = key.position();
+            md5.update(key);
+            key.position(position);
+            return toHash(md5.digest(), 0);
+        }
+
+        @Override
+        protected void calculatePoints(final Object value, final long[] points) {
+            final MessageDigest md5 = getMessageDigest();
+            if (md5 == null) {
+                for (int i = 0; i < points.length; i++) {
+                    final StringBuilder stringBuilder = new StringBuilder(64);
+                    stringBuilder.append(value).append('-').append(i);
+                    CRC32 crc32 = new CRC32();
+                    crc32.update(stringBuilder.toString().getBytes());
+                    points[i] = crc32.getValue() >> 16 & 0x7fff;
+                }
+            } else {
+                // one digest makes four points
+                for (int i = 0; i * 4 < points.length; i++) {
+                    final StringBuilder stringBuilder = new StringBuilder(64);
+                    stringBuilder.append(value).append('-').append(i);
+                    byte[] digest = md5.digest(stringBuilder.toString().getBytes());
+                    for (int j = 0; j < 4 && i * 4 + j < points.length; j++) {
+                        points[i * 4 + j] = toHash(digest, j * 4);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int getHashBits() {
+            return getMessageDigest() != null ? 32 : 15;
+        }
+
+        private static long toHash(final byte[] digest, final int offset) {
+            return ((long) (digest[3 + offset] & 0xFF) << 24)
+                    | ((long) (digest[2 + offset] & 0xFF) << 16)
+                    | ((long) (digest[1 + offset] & 0xFF) << 8)
+                    | ((long) (digest[offset] & 0xFF));
+        }
+
+        private static MessageDigest getMessageDigest() {
+            if (md5NotSupported) {
+                return null;
+            }
+            MessageDigest md5 = md5ThreadLocal.get();
+            if (md5 == null) {
+                try {
+                    md5 = MessageDigest.getInstance("MD5");
+                    md5ThreadLocal.set(md5);
+                } catch (NoSuchAlgorithmException nsae) {
+                    md5NotSupported = true;
+                    if (logger.isLoggable(Level.WARNING)) {
+                        logger.log(Level.WARNING, "failed to get the md5", nsae);
+                    }
+                }
+            }
+            return md5;
+        }
+
+        @Override
+        public String toString() {
+            return "KETAMA";
+        }
+    }
+
+    private static class Murmur3KeyHash extends KeyHash {
+
+        private static final long C1 = 0x87c37b91114253d5L;
+        private static final long C2 = 0x4cf5ad432745937fL;
+
+        @Override
+        public long hash(final byte[] key, final int offset, final int length) {
+            return murmur3(key, null, offset, length);
+        }
+
+        @Override
+        protected long hashDirect(final ByteBuffer key) {
+            return murmur3(null, key, key.position(), key.remaining());
+        }
+
+        private static long murmur3(final byte[] array, final ByteBuffer buffer, final int offset, final int length) {
+            long h1 = 0;
+            long h2 = 0;
+            final int end = offset + (length & ~15);
+            int index = offset;
+            for (; index < end; index += 16) {
+                long k1 = getLongLE(array, buffer, index);
+                long k2 = getLongLE(array, buffer, index + 8);
+                h1 ^= mixK1(k1);
+                h1 = Long.rotateLeft(h1, 27);
+                h1 += h2;
+                h1 = h1 * 5 + 0x52dce729;
+                h2 ^= mixK2(k2);
+                h2 = Long.rotateLeft(h2, 31);
+                h2 += h1;
+                h2 = h2 * 5 + 0x38495ab5;
+            }
+            final int remaining = length & 15;
+            if (remaining > 0) {
+                long k1 = 0;
+                long k2 = 0;
+                for (int i = remaining - 1; i >= 8; i--) {
+                    k2 ^= getByte(array, buffer, index + i) << ((i - 8) * 8);
+                }
+                for (int i = Math.min(remaining, 8) - 1; i >= 0; i--) {
+                    k1 ^= getByte(array, buffer, index + i) << (i * 8);
+                }
+                if (remaining > 8) {
+                    h2 ^= mixK2(k2);
+                }
+                h1 ^= mixK1(k1);
+            }
+            h1 ^= length;
+            h2 ^= length;
+            h1 += h2;
+            h2 += h1;
+            h1 = fmix(h1);
+            h2 = fmix(h2);
+            return h1 + h2;
+        }
+
+        private static long mixK1(long k1) {
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            return k1 * C2;
+        }
+
+        private static long mixK2(long k2) {
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            return k2 * C1;
+        }
+
+        private static long fmix(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            k *= 0xc4ceb9fe1a85ec53L;
+            k ^= k >>> 33;
+            return k;
+        }
+
+        @Override
+        public String toString() {
+            return "MURMUR3";
+        }
+    }
+
+    private static class XxHash64KeyHash extends KeyHash {
+
+        private static final long P1 = 0x9E3779B185EBCA87L;
+        private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+        private static final long P3 = 0x165667B19E3779F9L;
+        private static final long P4 = 0x85EBCA77C2B2AE63L;
+        private static final long P5 = 0x27D4EB2F165667C5L;
+
+        @Override
+        public long hash(final byte[] key, final int offset, final int length) {
+            return xxHash64(key, null, offset, length);
+        }
+
+        @Override
+        protected long hashDirect(final ByteBuffer key) {
+            return xxHash64(null, key, key.position(), key.remaining());
+        }
+
+        private static long xxHash64(final byte[] array, final ByteBuffer buffer, final int offset, final int length) {
+            final int end = offset + length;
+            int index = offset;
+            long h;
+            if (length >= 32) {
+                long v1 = P1 + P2;
+                long v2 = P2;
+                long v3 = 0;
+                long v4 = -P1;
+                final int limit = end - 32;
+                do {
+                    v1 = round(v1, getLongLE(array, buffer, index));
+                    v2 = round(v2, getLongLE(array, buffer, index + 8));
+                    v3 = round(v3, getLongLE(array, buffer, index + 16));
+                    v4 = round(v4, getLongLE(array, buffer, index + 24));
+                    index += 32;
+                } while (index <= limit);
+                h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+                h = mergeRound(h, v1);
+                h = mergeRound(h, v2);
+                h = mergeRound(h, v3);
+                h = mergeRound(h, v4);
+            } else {
+                h = P5;
+            }
+            h += length;
+            for (; index + 8 <= end; index += 8) {
+                h ^= round(0, getLongLE(array, buffer, index));
+                h = Long.rotateLeft(h, 27) * P1 + P4;
+            }
+            if (index + 4 <= end) {
+                h ^= getIntLE(array, buffer, index) * P1;
+                h = Long.rotateLeft(h, 23) * P2 + P3;
+                index += 4;
+            }
+            for (; index < end; index++) {
+                h ^= getByte(array, buffer, index) * P5;
+                h = Long.rotateLeft(h, 11) * P1;
+            }
+            h ^= h >>> 33;
+            h *= P2;
+            h ^= h >>> 29;
+            h *= P3;
+            h ^= h >>> 32;
+            return h;
+        }
+
+        private static long round(long acc, final long input) {
+            acc += input * P2;
+            acc = Long.rotateLeft(acc, 31);
+            return acc * P1;
+        }
+
+        private static long mergeRound(long acc, final long value) {
+            acc ^= round(0, value);
+            return acc * P1 + P4;
+        }
+
+        @Override
+        public String toString() {
+            return "XXHASH64";
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.glassfish.grizzly.memcached.transcoder.Transcoder;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.MemoryManager;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The raw value which will be decoded when the result is handed to the caller
+ * <p>
+ * If the lazy value decoding is enabled, {@link MemcachedResponse} keeps the value bytes with their flags
+ * instead of decoding them in the selector thread. The cache resolves lazy values by {@link #resolve}
+ * before results leave the cache, so users never see this class.
+ * <p>
+ * The received buffer can be reused by the transport after the filter returns, so the bytes are copied once.
+ */
+final class LazyValue {
+
+    private final int flags;
+    private final byte[] bytes;
+    private final Transcoder<?> transcoder;
+    private final MemoryManager memoryManager;
+
+    LazyValue(final int flags, final byte[] bytes, final Transcoder<?> transcoder, final MemoryManager memoryManager) {
+        this.flags = flags;
+        this.bytes = bytes;
+        this.transcoder = transcoder;
+        this.memoryManager = memoryManager != null ? memoryManager : MemoryManager.DEFAULT_MEMORY_MANAGER;
+    }
+
+    Object decode() {
+        return transcoder.decode(flags, Buffers.wrap(memoryManager, bytes), 0, bytes.length, memoryManager);
+    }
+
+    /**
+     * Decode the lazy value in the given response
+     *
+     * @param response the response of a request such as a value, {@link ValueWithKey} or {@link ValueWithCas}
+     * @return the decoded response or {@code response} itself if it has no lazy value
+     */
+    @SuppressWarnings("unchecked")
+    static Object resolve(final Object response) {
+        if (response instanceof LazyValue) {
+            return ((LazyValue) response).decode();
+        } else if (response instanceof ValueWithCas) {
+            final ValueWithCas<?> valueWithCas = (ValueWithCas<?>) response;
+            if (valueWithCas.getValue() instanceof LazyValue) {
+                final Object value = ((LazyValue) valueWithCas.getValue()).decode();
+                return value != null ? new ValueWithCas<Object>(value, valueWithCas.getCas()) : null;
+            }
+        } else if (response instanceof ValueWithKey) {
+            final ValueWithKey<Object, ?> valueWithKey = (ValueWithKey<Object, ?>) response;
+            if (valueWithKey.getValue() instanceof LazyValue) {
+                final Object value = ((LazyValue) valueWithKey.getValue()).decode();
+                return value != null ? new ValueWithKey<Object, Object>(valueWithKey.getKey(), value) : null;
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Decode lazy values of the given map in place
+     * <p>
+     * Entries whose values fail to be decoded are removed like missing keys.
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> Map<K, V> resolveAll(final Map<K, V> result) {
+        if (result == null) {
+            return null;
+        }
+        final Iterator<Map.Entry<K, V>> iterator = result.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<K, V> entry = iterator.next();
+            final Object value = entry.getValue();
+            final Object resolved = resolve(value);
+            if (resolved == null) {
+                iterator.remove();
+            } else if (resolved != value) {
+                entry.setValue((V) resolved);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "LazyValue{" +
+                "flags=" + flags +
+                ", length=" + bytes.length +
+                '}';
+    }
+}
@@ -17,9 +17,13 @@
 package org.glassfish.grizzly.memcached;
 
 import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * The memcached's cache interface
@@ -41,6 +45,11 @@ public interface MemcachedCache<K, V> extends Commands<K, V>, Cache<K, V> {
 
     public Map<K, Boolean> setMulti(final Map<K, V> map, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
 
+    public default Map<K, Boolean> setMulti(final Map<K, V> map, final int expirationInSecs, final Duration timeout) {
+        final long timeoutInMillis = timeout.isNegative() ? -1 : timeout.toMillis();
+        return setMulti(map, expirationInSecs, timeoutInMillis, timeoutInMillis);
+    }
+
     public boolean add(final K key, final V value, final int expirationInSecs, final boolean noReply, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
 
     public boolean replace(final K key, final V value, final int expirationInSecs, final boolean noReply, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
@@ -55,12 +64,93 @@ public interface MemcachedCache<K, V> extends Commands<K, V>, Cache<K, V> {
 
     public Map<K, Boolean> casMulti(final Map<K, ValueWithCas<V>> map, final int expirationInSecs, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
 
+    public default Map<K, Boolean> casMulti(final Map<K, ValueWithCas<V>> map, final int expirationInSecs, final Duration timeout) {
+        final long timeoutInMillis = timeout.isNegative() ? -1 : timeout.toMillis();
+        return casMulti(map, expirationInSecs, timeoutInMillis, timeoutInMillis);
+    }
+
     public V get(final K key, final boolean noReply, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
 
     public Map<K, V> getMulti(final Set<K> keys);
 
     public Map<K, V> getMulti(final Set<K> keys, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
 
+    /**
+     * Get the values of the given keys within the given time budget
+     * <p>
+     * Connection borrows, writes and response waits of all servers draw from one deadline.
+     * When the deadline expires, this returns the values of servers which already answered.
+     * If {@code timeout} is negative, there is no deadline.
+     * <p>
+     * The default implementation uses {@code timeout} as both the write timeout and the response timeout
+     * of {@link #getMulti(Set, long, long)} so the budget is not shared.
+     *
+     * @param keys    keys
+     * @param timeout the time budget of the whole operation
+     * @return the found key/value map
+     */
+    public default Map<K, V> getMulti(final Set<K> keys, final Duration timeout) {
+        final long timeoutInMillis = timeout.isNegative() ? -1 : timeout.toMillis();
+        return getMulti(keys, timeoutInMillis, timeoutInMillis);
+    }
+
+    /**
+     * Get the values of the given keys and hand each found value to {@code consumer} as soon as it is decoded
+     * <p>
+     * Unlike {@link #getMulti(Set)}, found values are not collected into a map
+     * so very large multi-gets don't need to hold all values in memory together.
+     * This method returns after all servers answer or the timeout expires.
+     * <p>
+     * {@code consumer} is called in Grizzly's selector threads and can be called concurrently for keys of different servers.
+     * A slow consumer delays reading its server's following responses so it must not block.
+     * Implementations can call {@code consumer} in another executor instead.
+     * {@code consumer} is never called after this method returns even if responses arrive after the timeout.
+     * <p>
+     * The default implementation collects the values by {@link #getMulti(Set)}
+     * and hands them to {@code consumer} in the caller's thread.
+     *
+     * @param keys     keys
+     * @param consumer the consumer of found keys and values
+     */
+    public default void getMulti(final Collection<K> keys, final BiConsumer<K, V> consumer) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer must not be null");
+        }
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+        final Map<K, V> result = getMulti(new HashSet<K>(keys));
+        if (result != null) {
+            result.forEach(consumer);
+        }
+    }
+
+    public default void getMulti(final Collection<K> keys, final BiConsumer<K, V> consumer, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer must not be null");
+        }
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+        final Map<K, V> result = getMulti(new HashSet<K>(keys), writeTimeoutInMillis, responseTimeoutInMillis);
+        if (result != null) {
+            result.forEach(consumer);
+        }
+    }
+
+    public default void getMulti(final Collection<K> keys, final BiConsumer<K, V> consumer, final Duration timeout) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer must not be null");
+        }
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+        final Map<K, V> result = getMulti(new HashSet<K>(keys), timeout);
+        if (result != null) {
+            result.forEach(consumer);
+        }
+    }
+
     public ValueWithKey<K, V> getKey(final K key, final boolean noReply, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
 
     public ValueWithCas<V> gets(final K key, final boolean noReply, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
@@ -69,6 +159,11 @@ public interface MemcachedCache<K, V> extends Commands<K, V>, Cache<K, V> {
 
     public Map<K, ValueWithCas<V>> getsMulti(final Set<K> keys, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
 
+    public default Map<K, ValueWithCas<V>> getsMulti(final Set<K> keys, final Duration timeout) {
+        final long timeoutInMillis = timeout.isNegative() ? -1 : timeout.toMillis();
+        return getsMulti(keys, timeoutInMillis, timeoutInMillis);
+    }
+
     public V gat(final K key, final int expirationInSecs, final boolean noReply, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
 
     /**
@@ -87,10 +182,96 @@ public interface MemcachedCache<K, V> extends Commands<K, V>, Cache<K, V> {
 
     public Map<K, Boolean> deleteMulti(final Set<K> keys, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
 
+    public default Map<K, Boolean> deleteMulti(final Set<K> keys, final Duration timeout) {
+        final long timeoutInMillis = timeout.isNegative() ? -1 : timeout.toMillis();
+        return deleteMulti(keys, timeoutInMillis, timeoutInMillis);
+    }
+
     public long incr(final K key, final long delta, final long initial, final int expirationInSecs, final boolean noReply, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
 
     public long decr(final K key, final long delta, final long initial, final int expirationInSecs, final boolean noReply, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
 
+    /**
+     * Get the numeric value without boxing
+     * <p>
+     * Values which were stored by {@link #setLong}, {@link #setInt} or the default transcoder as Long or Integer
+     * and counters which were made by incr or decr can be read.
+     * <p>
+     * The default implementation delegates to {@link #get(Object, boolean)} and unboxes the returned {@link Number}.
+     *
+     * @param key          key
+     * @param defaultValue the value which will be returned if the key is not found or its value is not numeric
+     * @return the numeric value or {@code defaultValue}
+     */
+    public default long getLong(final K key, final long defaultValue) {
+        final V value = get(key, false);
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+
+    public default long getLong(final K key, final long defaultValue, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        final V value = get(key, false, writeTimeoutInMillis, responseTimeoutInMillis);
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+
+    /**
+     * Get the numeric value without boxing
+     *
+     * @param key          key
+     * @param defaultValue the value which will be returned if the key is not found or its value is not numeric or out of int range
+     * @return the numeric value or {@code defaultValue}
+     * @see #getLong
+     */
+    public default int getInt(final K key, final int defaultValue) {
+        final long value = getLong(key, defaultValue);
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (int) value : defaultValue;
+    }
+
+    public default int getInt(final K key, final int defaultValue, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        final long value = getLong(key, defaultValue, writeTimeoutInMillis, responseTimeoutInMillis);
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (int) value : defaultValue;
+    }
+
+    /**
+     * Set the numeric value without boxing
+     * <p>
+     * The value is stored as the default transcoder stores Long so {@code get} of the default transcoder returns Long.
+     * <p>
+     * The default implementation boxes the value and delegates to {@link #set(Object, Object, int, boolean)}
+     * so the value type of this cache should accept {@link Long}.
+     *
+     * @param key              key
+     * @param value            the value
+     * @param expirationInSecs expiration in seconds
+     * @param noReply          whether you need to receive the reply or not
+     * @return true if the value is stored successfully
+     */
+    @SuppressWarnings("unchecked")
+    public default boolean setLong(final K key, final long value, final int expirationInSecs, final boolean noReply) {
+        return set(key, (V) Long.valueOf(value), expirationInSecs, noReply);
+    }
+
+    @SuppressWarnings("unchecked")
+    public default boolean setLong(final K key, final long value, final int expirationInSecs, final boolean noReply, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return set(key, (V) Long.valueOf(value), expirationInSecs, noReply, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
+    /**
+     * Set the numeric value without boxing
+     * <p>
+     * The value is stored as the default transcoder stores Integer so {@code get} of the default transcoder returns Integer.
+     *
+     * @see #setLong
+     */
+    @SuppressWarnings("unchecked")
+    public default boolean setInt(final K key, final int value, final int expirationInSecs, final boolean noReply) {
+        return set(key, (V) Integer.valueOf(value), expirationInSecs, noReply);
+    }
+
+    @SuppressWarnings("unchecked")
+    public default boolean setInt(final K key, final int value, final int expirationInSecs, final boolean noReply, final long writeTimeoutInMillis, final long responseTimeoutInMillis) {
+        return set(key, (V) Integer.valueOf(value), expirationInSecs, noReply, writeTimeoutInMillis, responseTimeoutInMillis);
+    }
+
     public String saslAuth(final SocketAddress address, final String mechanism, final byte[] data, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
 
     public String saslStep(final SocketAddress address, final String mechanism, final byte[] data, final long writeTimeoutInMillis, final long responseTimeoutInMillis);
@@ -122,6 +303,25 @@ public interface MemcachedCache<K, V> extends Commands<K, V>, Cache<K, V> {
      */
     public boolean addServer(final SocketAddress serverAddress);
 
+    /**
+     * Add a specific server with the weight in this cache or update the weight of the server which already added
+     * <p>
+     * The server takes the share of keys proportional to its weight.
+     * <p>
+     * The default implementation supports only {@link NodeLocator#DEFAULT_WEIGHT} and delegates to {@link #addServer(SocketAddress)}.
+     *
+     * @param serverAddress a specific server's {@link SocketAddress} to be added
+     * @param weight        the positive weight of the server which is not greater than {@link NodeLocator#MAX_WEIGHT}
+     * @return true if the given {@code serverAddress} is added or updated successfully
+     * @throws UnsupportedOperationException if this cache doesn't support the given {@code weight}
+     */
+    public default boolean addServer(final SocketAddress serverAddress, final int weight) {
+        if (weight != NodeLocator.DEFAULT_WEIGHT) {
+            throw new UnsupportedOperationException("weighted servers are not supported. weight=" + weight);
+        }
+        return addServer(serverAddress);
+    }
+
     /**
      * Remove the given server in this cache
      *
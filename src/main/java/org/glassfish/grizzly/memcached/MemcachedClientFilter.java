@@ -24,18 +24,23 @@ import org.glassfish.grizzly.filterchain.BaseFilter;
 import org.glassfish.grizzly.filterchain.FilterChainContext;
 import org.glassfish.grizzly.filterchain.NextAction;
 import org.glassfish.grizzly.memcached.pool.ObjectPool;
+import org.glassfish.grizzly.memcached.transcoder.Transcoder;
 import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.memory.CompositeBuffer;
 import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.utils.BufferOutputStream;
 import org.glassfish.grizzly.utils.NullaryFunction;
 
 import java.io.IOException;
 import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -59,6 +64,18 @@ import java.util.logging.Logger;
  * Before multi-command(bulk-command) like getMulti and setMulti will be sent to the server, individual packets should be allocated.
  * If this flag is true, the filter will calculate the total buffer size of individual requests in advance
  * and will allocate only a {@link Buffer} once.
+ * <p>
+ * 3) {@code opaqueCorrelation}:
+ * If this flag is true, the filter assigns the unique opaque to every request of the connection
+ * and keeps in-flight requests in an opaque-indexed table instead of the queue.
+ * The response is correlated by its opaque so a request can be cancelled by {@link #cancel} without breaking other requests.
+ * When the response of a request is received, quiet requests which were sent before it are completed
+ * without re-parsing the response with {@link ParsingStatus#NO_REPLY} status.
+ * <p>
+ * In both modes, a timed-out request can be abandoned by {@link #cancel}.
+ * Without {@code opaqueCorrelation}, the abandoned request stays in the queue so that following responses are still matched in order
+ * and its late response is skipped with {@link ParsingStatus#DISCARD} status instead of being decoded.
+ * If too many abandoned requests are pending in a connection, the connection should not be reused.
  *
  * @author Bongjae Chang
  */
@@ -69,11 +86,16 @@ public class MemcachedClientFilter extends BaseFilter {
     private static final int MAX_WRITE_BUFFER_SIZE_FOR_OPTIMIZING = 1024 * 1024; // 1m
 
     private static final int HEADER_LENGTH = 24;
+    private static final int TOTAL_LENGTH_OFFSET = 8;
+    private static final int MAX_VALUE_LENGTH = 1024 * 1024; // 1M
     private static final byte REQUEST_MAGIC_NUMBER = (byte) (0x80 & 0xFF);
     private static final byte RESPONSE_MAGIC_NUMBER = (byte) (0x81 & 0xFF);
 
+    // the server which doesn't answer this many abandoned requests is regarded as stuck
+    static final int MAX_ABANDONED_REQUESTS_PER_CONNECTION = 64;
+
     public enum ParsingStatus {
-        NONE, READ_HEADER, READ_EXTRAS, READ_KEY, READ_VALUE, DONE, NO_REPLY
+        NONE, READ_HEADER, READ_EXTRAS, READ_KEY, READ_VALUE, DONE, NO_REPLY, DISCARD
     }
 
     private final Attribute<ParsingStatus> statusAttribute = Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute("MemcachedClientFilter.Status");
@@ -93,19 +115,45 @@ public class MemcachedClientFilter extends BaseFilter {
                         }
                     });
 
+    private final Attribute<InFlightRequests> inFlightRequestsAttribute =
+            Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute("MemcachedClientFilter.InFlightRequests",
+                    new NullaryFunction<InFlightRequests>() {
+                        public InFlightRequests evaluate() {
+                            return new InFlightRequests();
+                        }
+                    });
+
+    private final Attribute<AtomicInteger> abandonedRequestsAttribute =
+            Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute("MemcachedClientFilter.AbandonedRequests",
+                    new NullaryFunction<AtomicInteger>() {
+                        public AtomicInteger evaluate() {
+                            return new AtomicInteger();
+                        }
+                    });
+
     private final Attribute<ObjectPool<SocketAddress, Connection<SocketAddress>>> connectionPoolAttribute =
             Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(GrizzlyMemcachedCache.CONNECTION_POOL_ATTRIBUTE_NAME);
+    private final Attribute<Transcoder<?>> transcoderAttribute =
+            Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(GrizzlyMemcachedCache.TRANSCODER_ATTRIBUTE_NAME);
+    private final Attribute<Integer> lazyDecodingThresholdAttribute =
+            Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(GrizzlyMemcachedCache.LAZY_DECODING_THRESHOLD_ATTRIBUTE_NAME);
 
     private final boolean localParsingOptimizing;
     private final boolean onceAllocationOptimizing;
+    private final boolean opaqueCorrelation;
 
     public MemcachedClientFilter() {
         this(false, true);
     }
 
     public MemcachedClientFilter(final boolean localParsingOptimizing, final boolean onceAllocationOptimizing) {
+        this(localParsingOptimizing, onceAllocationOptimizing, false);
+    }
+
+    public MemcachedClientFilter(final boolean localParsingOptimizing, final boolean onceAllocationOptimizing, final boolean opaqueCorrelation) {
         this.localParsingOptimizing = localParsingOptimizing;
         this.onceAllocationOptimizing = onceAllocationOptimizing;
+        this.opaqueCorrelation = opaqueCorrelation;
     }
 
     @Override
@@ -132,9 +180,20 @@ public class MemcachedClientFilter extends BaseFilter {
             statusAttribute.set(connection, status);
         }
 
-        final BlockingQueue<MemcachedRequest> requestQueue = requestQueueAttribute.get(connection);
-        if (requestQueue == null) {
-            throw new IOException("request queue must not be null");
+        final BlockingQueue<MemcachedRequest> requestQueue;
+        final InFlightRequests inFlightRequests;
+        if (opaqueCorrelation) {
+            requestQueue = null;
+            inFlightRequests = inFlightRequestsAttribute.get(connection);
+            if (inFlightRequests == null) {
+                throw new IOException("in-flight requests must not be null");
+            }
+        } else {
+            requestQueue = requestQueueAttribute.get(connection);
+            if (requestQueue == null) {
+                throw new IOException("request queue must not be null");
+            }
+            inFlightRequests = null;
         }
 
         short keyLength;
@@ -177,19 +236,32 @@ public class MemcachedClientFilter extends BaseFilter {
                         throw new IOException("invalid magic");
                     }
                     final byte op = input.get();
-                    sentRequest = requestQueue.peek();
-                    if (sentRequest == null) {
-                        throw new IOException("invalid response");
-                    }
-                    final CommandOpcodes commandOpcode = sentRequest.getOp();
-                    response.setOp(commandOpcode);
-                    if (op != commandOpcode.opcode()) {
-                        if (sentRequest.isNoReply()) {
-                            status = ParsingStatus.NO_REPLY;
-                            statusAttribute.set(connection, status);
-                            break;
-                        } else {
-                            throw new IOException("invalid op: " + op);
+                    if (opaqueCorrelation) {
+                        // the opaque is located at the 12th byte of the header
+                        sentRequest = correlate(inFlightRequests, input.getInt(input.position() + 10));
+                        if (sentRequest != null && op != sentRequest.getOp().opcode()) {
+                            if (logger.isLoggable(Level.WARNING)) {
+                                logger.log(Level.WARNING, "invalid op: {0}, request={1}, connection={2}", new Object[]{op, sentRequest, connection});
+                            }
+                            sentRequest = null;
+                        }
+                        // null op means that the response will be discarded because the request was already cancelled
+                        response.setOp(sentRequest != null ? sentRequest.getOp() : null);
+                    } else {
+                        sentRequest = requestQueue.peek();
+                        if (sentRequest == null) {
+                            throw new IOException("invalid response");
+                        }
+                        final CommandOpcodes commandOpcode = sentRequest.getOp();
+                        response.setOp(commandOpcode);
+                        if (op != commandOpcode.opcode()) {
+                            if (sentRequest.isNoReply()) {
+                                status = ParsingStatus.NO_REPLY;
+                                statusAttribute.set(connection, status);
+                                break;
+                            } else {
+                                throw new IOException("invalid op: " + op);
+                            }
                         }
                     }
                     keyLength = input.getShort();
@@ -210,7 +282,7 @@ public class MemcachedClientFilter extends BaseFilter {
                     }
                     response.setTotalBodyLength(totalBodyLength);
                     final int opaque = input.getInt();
-                    if (sentRequest.isNoReply() && opaque != sentRequest.getOpaque()) {
+                    if (!opaqueCorrelation && sentRequest.isNoReply() && opaque != sentRequest.getOpaque()) {
                         status = ParsingStatus.NO_REPLY;
                         statusAttribute.set(connection, status);
                         break;
@@ -219,7 +291,20 @@ public class MemcachedClientFilter extends BaseFilter {
                     }
                     response.setCas(input.getLong());
 
-                    status = ParsingStatus.READ_EXTRAS;
+                    // the late response of the abandoned request is skipped. stats can't be skipped because they have many responses
+                    final boolean discard = response.getOp() == null ||
+                            (!opaqueCorrelation && sentRequest.isDisposed() && response.getOp() != CommandOpcodes.Stat);
+                    status = discard ? ParsingStatus.DISCARD : ParsingStatus.READ_EXTRAS;
+                    statusAttribute.set(connection, status);
+                    break;
+                case DISCARD:
+                    totalBodyLength = response.getTotalBodyLength();
+                    if (input.remaining() < totalBodyLength) {
+                        return ctx.getStopAction(input);
+                    }
+                    input.position(input.position() + totalBodyLength); // skip
+
+                    status = ParsingStatus.DONE;
                     statusAttribute.set(connection, status);
                     break;
                 case READ_EXTRAS:
@@ -272,11 +357,12 @@ public class MemcachedClientFilter extends BaseFilter {
                     final int limit = currentPosition + valueLength;
                     if (response.getStatus() == ResponseStatus.No_Error) {
                         if (valueLength > 0) {
-                            sentRequest = requestQueue.peek();
-                            if (sentRequest == null) {
+                            if (!opaqueCorrelation && requestQueue.peek() == null) {
                                 throw new IOException("invalid response");
                             }
-                            response.setDecodedValue(input, currentPosition, limit, memoryManager);
+                            final Integer lazyDecodingThreshold = lazyDecodingThresholdAttribute.get(connection);
+                            response.setDecodedValue(input, currentPosition, limit, memoryManager,
+                                    transcoderAttribute.get(connection), lazyDecodingThreshold != null ? lazyDecodingThreshold : -1);
                             input.position(limit);
                         } else {
                             response.setDecodedValue(null);
@@ -290,22 +376,29 @@ public class MemcachedClientFilter extends BaseFilter {
                     statusAttribute.set(connection, status);
                     break;
                 case DONE:
-                    final boolean complete = response.complete();
-                    if (complete) {
+                    if (opaqueCorrelation) {
+                        if (response.getOp() != null) {
+                            completeCorrelatedRequest(inFlightRequests, response);
+                        }
+                    } else if (response.complete()) {
                         sentRequest = requestQueue.remove();
-                        response.setResult(sentRequest.getOriginKey(), ParsingStatus.DONE);
-                        if (sentRequest.disposed.compareAndSet(false, true)) {
+                        if (sentRequest.dispose()) {
+                            response.setResult(sentRequest.getOriginKey(), ParsingStatus.DONE, sentRequest.isPrimitiveResult());
                             sentRequest.response = response.getResult();
+                            sentRequest.setNumericResponse(response);
                             sentRequest.isError = response.isError();
-                            sentRequest.notify.countDown();
+                            sentRequest.complete();
+                        } else if (sentRequest.isAbandoned()) {
+                            // the late response of the abandoned request
+                            abandonedRequestsAttribute.get(connection).decrementAndGet();
                         }
                     } else {
                         sentRequest = requestQueue.peek();
                         response.setResult(sentRequest.getOriginKey(), ParsingStatus.DONE);
-                        if (!sentRequest.disposed.get()) {
+                        if (!sentRequest.isDisposed()) {
                             sentRequest.response = response.getResult();
                             sentRequest.isError = response.isError();
-                            sentRequest.notify.countDown();
+                            sentRequest.signal();
                         }
                     }
 
@@ -340,10 +433,14 @@ public class MemcachedClientFilter extends BaseFilter {
                 case NO_REPLY:
                     // processing next internal memcached request
                     sentRequest = requestQueue.remove();
-                    response.setResult(sentRequest.getOriginKey(), ParsingStatus.NO_REPLY);
-                    sentRequest.response = response.getResult();
-                    sentRequest.isError = Boolean.FALSE;
-                    sentRequest.notify.countDown();
+                    if (sentRequest.dispose()) {
+                        response.setResult(sentRequest.getOriginKey(), ParsingStatus.NO_REPLY);
+                        sentRequest.response = response.getResult();
+                        sentRequest.isError = Boolean.FALSE;
+                        sentRequest.complete();
+                    } else if (sentRequest.isAbandoned()) {
+                        abandonedRequestsAttribute.get(connection).decrementAndGet();
+                    }
                     input.reset();
 
                     status = ParsingStatus.READ_HEADER;
@@ -367,9 +464,20 @@ public class MemcachedClientFilter extends BaseFilter {
             throw new IOException("connection must not be null. this connection was already closed or not opened");
         }
 
-        final BlockingQueue<MemcachedRequest> requestQueue = requestQueueAttribute.get(connection);
-        if (requestQueue == null) {
-            throw new IOException("request queue must not be null. this connection was already closed or not opened. connection=" + connection);
+        final BlockingQueue<MemcachedRequest> requestQueue;
+        if (opaqueCorrelation) {
+            final InFlightRequests inFlightRequests = inFlightRequestsAttribute.get(connection);
+            if (inFlightRequests == null) {
+                throw new IOException("in-flight requests must not be null. this connection was already closed or not opened. connection=" + connection);
+            }
+            // requests are correlated by opaques instead of the queue
+            requestQueue = null;
+            inFlightRequests.register(requests);
+        } else {
+            requestQueue = requestQueueAttribute.get(connection);
+            if (requestQueue == null) {
+                throw new IOException("request queue must not be null. this connection was already closed or not opened. connection=" + connection);
+            }
         }
         MemoryManager memoryManager = ctx.getMemoryManager();
         if (memoryManager == null) {
@@ -402,11 +510,9 @@ public class MemcachedClientFilter extends BaseFilter {
         if (requests == null) {
             return 0;
         }
-        int totalSize = requests.length * HEADER_LENGTH;
+        int totalSize = 0;
         for (MemcachedRequest request : requests) {
-            totalSize += request.getExtrasLength();
-            totalSize += request.getKeyLength();
-            totalSize += request.getValueLength();
+            totalSize += request.getPacketLength();
         }
         return totalSize;
     }
@@ -425,15 +531,15 @@ public class MemcachedClientFilter extends BaseFilter {
         if (requests == null) {
             throw new IllegalArgumentException("requests must not be null");
         }
-        if (requestQueue == null) {
-            throw new IllegalArgumentException("request queue must not be null");
-        }
         if (totalSize < HEADER_LENGTH) {
             throw new IllegalArgumentException("invalid packet size");
         }
 
-        final Buffer buffer = memoryManager.allocate(totalSize);
+        Buffer buffer = memoryManager.allocate(totalSize);
         for (MemcachedRequest request : requests) {
+            // the estimated lengths of previous direct values can be short
+            buffer = ensureRemaining(memoryManager, buffer, request.getPacketLength());
+            final int packetStart = buffer.position();
             // header
             final byte extrasLength = request.getExtrasLength();
             buffer.put(REQUEST_MAGIC_NUMBER);
@@ -445,7 +551,7 @@ public class MemcachedClientFilter extends BaseFilter {
             buffer.putShort(request.getvBucketId());
             final int totalLength = keyLength + request.getValueLength() + extrasLength;
             buffer.putInt(totalLength);
-            buffer.putInt(request.getOpaque());
+            buffer.putInt(opaqueCorrelation ? request.correlationOpaque : request.getOpaque());
             buffer.putLong(request.getCas());
 
             // extras
@@ -459,17 +565,27 @@ public class MemcachedClientFilter extends BaseFilter {
             }
 
             // value
-            final Buffer valueBuffer = request.getValue();
-            if (request.hasValue() && valueBuffer != null) {
-                buffer.put(valueBuffer);
-                valueBuffer.tryDispose();
+            if (request.hasDirectValue()) {
+                buffer = putDirectValue(memoryManager, connection, buffer, request, packetStart);
+                if (buffer.position() == packetStart) {
+                    continue;
+                }
+            } else {
+                final Buffer valueBuffer = request.getValue();
+                if (request.hasValue() && valueBuffer != null) {
+                    buffer.put(valueBuffer);
+                    valueBuffer.tryDispose();
+                }
             }
             // store request
-            try {
-                requestQueue.put(request);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                throw new IOException("failed to put the request", ie);
+            if (requestQueue != null) {
+                try {
+                    request.markQueued();
+                    requestQueue.put(request);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("failed to put the request", ie);
+                }
             }
         }
         buffer.flip();
@@ -489,11 +605,20 @@ public class MemcachedClientFilter extends BaseFilter {
         if (requests == null) {
             throw new IllegalArgumentException("requests must not be null");
         }
-        if (requestQueue == null) {
-            throw new IllegalArgumentException("request queue must not be null");
-        }
         Buffer resultBuffer = null;
         for (MemcachedRequest request : requests) {
+            if (request.hasDirectValue()) {
+                // the whole packet including the value is made in one buffer
+                final Buffer packet = makePacketsByOnceAllocation(memoryManager, connection,
+                        new MemcachedRequest[]{request}, requestQueue, request.getPacketLength());
+                if (packet.hasRemaining()) {
+                    packet.allowBufferDispose(true);
+                    resultBuffer = resultBuffer == null ? packet : Buffers.appendBuffers(memoryManager, resultBuffer, packet);
+                } else {
+                    packet.tryDispose();
+                }
+                continue;
+            }
             // header
             final byte extrasLength = request.getExtrasLength();
             final Buffer buffer = memoryManager.allocate(HEADER_LENGTH + extrasLength);
@@ -507,7 +632,7 @@ public class MemcachedClientFilter extends BaseFilter {
             buffer.putShort(request.getvBucketId());
             final int totalLength = keyLength + request.getValueLength() + extrasLength;
             buffer.putInt(totalLength);
-            buffer.putInt(request.getOpaque());
+            buffer.putInt(opaqueCorrelation ? request.correlationOpaque : request.getOpaque());
             buffer.putLong(request.getCas());
 
             // extras
@@ -536,16 +661,67 @@ public class MemcachedClientFilter extends BaseFilter {
             }
 
             // store request
-            try {
-                requestQueue.put(request);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                throw new IOException("failed to put the request", ie);
+            if (requestQueue != null) {
+                try {
+                    request.markQueued();
+                    requestQueue.put(request);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("failed to put the request", ie);
+                }
             }
         }
         return resultBuffer;
     }
 
+    private static Buffer ensureRemaining(final MemoryManager memoryManager, final Buffer buffer, final int length) {
+        if (buffer.remaining() >= length) {
+            return buffer;
+        }
+        return memoryManager.reallocate(buffer, buffer.position() + length);
+    }
+
+    /**
+     * Encode the direct value of {@code request} into {@code buffer} and fix up the body length of its header
+     * <p>
+     * If the value can't be encoded, the request's packet is rolled back and the request fails with {@link ValueEncodingException}.
+     *
+     * @param buffer      the buffer whose position is the start of the value
+     * @param packetStart the start position of the request's header
+     * @return the buffer which includes the packet. it may be reallocated. if the packet was rolled back, its position is {@code packetStart}
+     */
+    private Buffer putDirectValue(final MemoryManager memoryManager,
+                                  final Connection connection,
+                                  final Buffer buffer,
+                                  final MemcachedRequest request,
+                                  final int packetStart) {
+        final BufferOutputStream bos = new BufferOutputStream(memoryManager, buffer, true);
+        Buffer result;
+        try {
+            request.writeDirectValue(bos);
+            result = bos.getBuffer();
+            final int totalLength = result.position() - packetStart - HEADER_LENGTH;
+            if (totalLength - request.getExtrasLength() - request.getKeyLength() > MAX_VALUE_LENGTH) {
+                throw new IllegalArgumentException("value length is in excess of " + MAX_VALUE_LENGTH + "bytes");
+            }
+            result.putInt(packetStart + TOTAL_LENGTH_OFFSET, totalLength);
+        } catch (Exception e) {
+            result = bos.getBuffer();
+            result.position(packetStart);
+            if (opaqueCorrelation) {
+                final InFlightRequests inFlightRequests = inFlightRequestsAttribute.get(connection);
+                if (inFlightRequests != null) {
+                    inFlightRequests.remove(request.correlationOpaque, request);
+                }
+            }
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.log(Level.WARNING, "failed to encode the value. request=" + request, e);
+            }
+            request.fail(new ValueEncodingException("failed to encode the value", e));
+        }
+        return result;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public NextAction handleClose(FilterChainContext ctx) throws IOException {
@@ -553,9 +729,19 @@ public class MemcachedClientFilter extends BaseFilter {
         if (connection != null) {
             final BlockingQueue<MemcachedRequest> requestQueue = requestQueueAttribute.get(connection);
             if (requestQueue != null) {
-                requestQueue.clear();
+                MemcachedRequest request;
+                while ((request = requestQueue.poll()) != null) {
+                    request.fail(new IOException("connection was closed before receiving the response. connection=" + connection));
+                }
                 requestQueueAttribute.remove(connection);
             }
+            abandonedRequestsAttribute.remove(connection);
+            final InFlightRequests inFlightRequests = inFlightRequestsAttribute.remove(connection);
+            if (inFlightRequests != null) {
+                for (MemcachedRequest request : inFlightRequests.removeAll()) {
+                    request.fail(new IOException("connection was closed before receiving the response. connection=" + connection));
+                }
+            }
             responseAttribute.remove(connection);
             statusAttribute.remove(connection);
 
@@ -573,7 +759,173 @@ public class MemcachedClientFilter extends BaseFilter {
         return ctx.getInvokeAction();
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Find the in-flight request corresponding to the given {@code opaque}
+     * <p>
+     * Because memcached processes requests of a connection in order, quiet requests which were sent before the found request
+     * will never receive their responses. They are completed here.
+     *
+     * @return the in-flight request or null if the request was already cancelled
+     */
+    private MemcachedRequest correlate(final InFlightRequests inFlightRequests, final int opaque) {
+        final List<MemcachedRequest> quietRequests = inFlightRequests.removeQuietRequestsBefore(opaque);
+        if (quietRequests != null) {
+            for (MemcachedRequest quietRequest : quietRequests) {
+                if (quietRequest.dispose()) {
+                    final MemcachedResponse quietResponse = MemcachedResponse.create();
+                    quietResponse.setOp(quietRequest.getOp());
+                    quietResponse.setResult(quietRequest.getOriginKey(), ParsingStatus.NO_REPLY);
+                    quietRequest.response = quietResponse.getResult();
+                    quietRequest.isError = Boolean.FALSE;
+                    quietResponse.recycle();
+                    quietRequest.complete();
+                }
+            }
+        }
+        return inFlightRequests.get(opaque);
+    }
+
+    private void completeCorrelatedRequest(final InFlightRequests inFlightRequests, final MemcachedResponse response) {
+        final int opaque = response.getOpaque();
+        final MemcachedRequest sentRequest = inFlightRequests.get(opaque);
+        if (sentRequest == null) {
+            // cancelled while the response was being parsed
+            return;
+        }
+        response.setResult(sentRequest.getOriginKey(), ParsingStatus.DONE, sentRequest.isPrimitiveResult());
+        if (response.complete()) {
+            inFlightRequests.remove(opaque, sentRequest);
+            if (sentRequest.dispose()) {
+                sentRequest.response = response.getResult();
+                sentRequest.setNumericResponse(response);
+                sentRequest.isError = response.isError();
+                sentRequest.complete();
+            }
+        } else {
+            if (!sentRequest.isDisposed()) {
+                sentRequest.response = response.getResult();
+                sentRequest.isError = response.isError();
+                sentRequest.signal();
+            }
+        }
+    }
+
+    /**
+     * Cancel the given requests which were sent with the given {@code connection}
+     * <p>
+     * Cancelled requests are marked as abandoned and their late responses will be discarded
+     * so the connection can be reused safely for other requests.
+     * If {@code opaqueCorrelation} is true, they are also removed from in-flight requests.
+     * Otherwise, they stay in the request queue until their late responses arrive because responses are matched in order.
+     *
+     * @param connection the connection which was used for sending {@code requests}
+     * @param requests   the requests to be cancelled
+     * @return true if requests were cancelled and the connection is still available for other requests.
+     * false if the connection has already been closed or has too many abandoned requests
+     */
+    public boolean cancel(final Connection connection, final MemcachedRequest... requests) {
+        if (connection == null) {
+            throw new IllegalArgumentException("connection must not be null");
+        }
+        if (requests == null) {
+            throw new IllegalArgumentException("requests must not be null");
+        }
+        if (!opaqueCorrelation) {
+            final BlockingQueue<MemcachedRequest> requestQueue = requestQueueAttribute.get(connection);
+            if (requestQueue == null) {
+                return false;
+            }
+            final AtomicInteger abandonedRequests = abandonedRequestsAttribute.get(connection);
+            int abandonedCount = abandonedRequests.get();
+            for (MemcachedRequest request : requests) {
+                // only requests which were queued and not completed yet will receive late responses.
+                // requests which were never written such as rolled-back or unsent ones are not counted
+                if (request.abandon()) {
+                    abandonedCount = abandonedRequests.incrementAndGet();
+                }
+            }
+            return connection.isOpen() && abandonedCount <= MAX_ABANDONED_REQUESTS_PER_CONNECTION;
+        }
+        final InFlightRequests inFlightRequests = inFlightRequestsAttribute.get(connection);
+        if (inFlightRequests == null) {
+            return false;
+        }
+        for (MemcachedRequest request : requests) {
+            request.dispose();
+            inFlightRequests.remove(request.correlationOpaque, request);
+        }
+        return connection.isOpen();
+    }
+
+    public boolean isOpaqueCorrelation() {
+        return opaqueCorrelation;
+    }
+
+    /**
+     * In-flight requests of a connection indexed by their opaques
+     * <p>
+     * The filter assigns sequential opaques to requests in the order of writing.
+     * Requests before {@code oldestOpaque} were already completed or cancelled.
+     * This is accessed by the writing threads, the selector thread and the cancelling threads so all methods are synchronized.
+     */
+    private static class InFlightRequests {
+        private final IntObjectHashMap<MemcachedRequest> requests = new IntObjectHashMap<MemcachedRequest>();
+        private int nextOpaque;
+        private int oldestOpaque;
+
+        private synchronized void register(final MemcachedRequest[] newRequests) {
+            for (MemcachedRequest request : newRequests) {
+                final int opaque = nextOpaque++;
+                request.correlationOpaque = opaque;
+                requests.put(opaque, request);
+            }
+        }
+
+        private synchronized MemcachedRequest get(final int opaque) {
+            return requests.get(opaque);
+        }
+
+        private synchronized void remove(final int opaque, final MemcachedRequest request) {
+            if (requests.get(opaque) == request) {
+                requests.remove(opaque);
+                advanceOldestOpaque();
+            }
+        }
+
+        private synchronized List<MemcachedRequest> removeQuietRequestsBefore(final int opaque) {
+            // opaques can wrap around so they should be compared by their differences
+            if (opaque - oldestOpaque <= 0 || nextOpaque - opaque <= 0) {
+                return null;
+            }
+            List<MemcachedRequest> result = null;
+            for (int i = oldestOpaque; i - opaque < 0; i++) {
+                final MemcachedRequest request = requests.get(i);
+                if (request != null && request.isNoReply()) {
+                    requests.remove(i);
+                    if (result == null) {
+                        result = new ArrayList<MemcachedRequest>();
+                    }
+                    result.add(request);
+                }
+            }
+            advanceOldestOpaque();
+            return result;
+        }
+
+        private synchronized List<MemcachedRequest> removeAll() {
+            final List<MemcachedRequest> result = requests.values();
+            requests.clear();
+            oldestOpaque = nextOpaque;
+            return result;
+        }
+
+        private void advanceOldestOpaque() {
+            while (oldestOpaque != nextOpaque && !requests.containsKey(oldestOpaque)) {
+                oldestOpaque++;
+            }
+        }
+    }
+
     public <K, V> Map<K, V> getMultiResponse(final Connection connection,
                                              final MemcachedRequest[] requests,
                                              final long timeoutInMillis,
@@ -592,41 +944,57 @@ public class MemcachedClientFilter extends BaseFilter {
             throw new IllegalArgumentException("result must not be null");
         }
 
-        Object response;
-        Boolean isError;
+        final Object response;
+        final Boolean isError;
         final int lastIndex = requestLen - 1;
         // wait for receiving last packet
         if (timeoutInMillis < 0) {
-            requests[lastIndex].notify.await();
+            requests[lastIndex].await();
             response = requests[lastIndex].response;
             isError = requests[lastIndex].isError;
         } else {
-            requests[lastIndex].notify.await(timeoutInMillis, TimeUnit.MILLISECONDS);
+            requests[lastIndex].await(timeoutInMillis, TimeUnit.MILLISECONDS);
             response = requests[lastIndex].response;
             isError = requests[lastIndex].isError;
         }
         if (response == null && isError == null) {
             throw new TimeoutException("timed out while getting the response");
         }
-        if (isError != null && !isError) {
-            result.put((K) requests[lastIndex].getOriginKey(), (V) response);
-        } else {
-            if (logger.isLoggable(Level.FINE)) {
-                logger.log(Level.FINE, "error status op={0}, key={1}",
-                        new Object[]{requests[lastIndex].getOp(), requests[lastIndex].getOriginKey()});
-            }
+        return collectMultiResponse(requests, result);
+    }
+
+    /**
+     * Collect the responses of the given {@code requests} which have already been completed
+     * <p>
+     * The last request of {@code requests} should be completed before this method is called.
+     * Noop requests which fence pipelines are ignored.
+     *
+     * @param requests the requests which were sent together
+     * @param result   the map for storing successful responses
+     * @return {@code result}
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> collectMultiResponse(final MemcachedRequest[] requests, final Map<K, V> result) {
+        if (requests == null) {
+            throw new IllegalArgumentException("requests must not be null");
+        }
+        if (result == null) {
+            throw new IllegalArgumentException("result must not be null");
         }
-        // collect previous packets
-        for (int i = 0; i < requestLen - 1; i++) {
-            response = requests[i].response;
-            isError = requests[i].isError;
+        for (MemcachedRequest request : requests) {
+            if (request.getOp() == CommandOpcodes.Noop) {
+                // noops are only fences of pipelines
+                continue;
+            }
+            final Object response = request.response;
+            final Boolean isError = request.isError;
             if (response != null) {
                 if (isError != null && !isError) {
-                    result.put((K) requests[i].getOriginKey(), (V) response);
+                    result.put((K) request.getOriginKey(), (V) response);
                 } else {
                     if (logger.isLoggable(Level.FINE)) {
                         logger.log(Level.FINE, "error status op={0}, key={1}",
-                                new Object[]{requests[i].getOp(), requests[i].getOriginKey()});
+                                new Object[]{request.getOp(), request.getOriginKey()});
                     }
                 }
             }
@@ -651,11 +1019,11 @@ public class MemcachedClientFilter extends BaseFilter {
         final Object response;
         final Boolean isError;
         if (timeoutInMillis < 0) {
-            request.notify.await();
+            request.await();
             response = request.response;
             isError = request.isError;
         } else {
-            request.notify.await(timeoutInMillis, TimeUnit.MILLISECONDS);
+            request.await(timeoutInMillis, TimeUnit.MILLISECONDS);
             response = request.response;
             isError = request.isError;
         }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import java.util.Arrays;
+
+/**
+ * The key handle which keeps the encoded bytes and the ring hash of a key
+ * <p>
+ * Both are computed only once, so a cache whose key type is {@code MemcachedKey}
+ * neither encodes nor hashes keys per command. The hash of {@link KeyHash#KETAMA} is computed when the handle is created
+ * and the hash of other {@link KeyHash} is computed at the first use. Handles of frequently used keys should be reused
+ * or taken from {@link MemcachedKeyCache}.
+ * <p>
+ * The bytes of {@link #of(String)} are same as the bytes of a String key, so a handle is stored in
+ * and routed to the same server as its String key.
+ * <p>
+ * This class is immutable and thread-safe.
+ * <p>
+ * Example of use:
+ * {@code
+ * final GrizzlyMemcachedCache.Builder<MemcachedKey, String> builder = manager.createCacheBuilder("user");
+ * final MemcachedCache<MemcachedKey, String> cache = builder.build();
+ * final MemcachedKey key = MemcachedKey.of("name");
+ * cache.set(key, "foo", 0, false);
+ * }
+ */
+public final class MemcachedKey {
+
+    private final String name;
+    private final byte[] bytes;
+    private final int hashCode;
+    // the last hash and its function. replaced only if the handle is used by caches of different key hashes
+    private volatile HashHolder hashHolder;
+
+    private MemcachedKey(final String name, final byte[] bytes) {
+        if (bytes.length == 0 || bytes.length > MemcachedRequest.MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("key length must be in [1, " + MemcachedRequest.MAX_KEY_LENGTH + "]. keyLen=" + bytes.length);
+        }
+        this.name = name;
+        this.bytes = bytes;
+        this.hashHolder = new HashHolder(KeyHash.KETAMA, KeyHash.KETAMA.hash(bytes));
+        this.hashCode = Arrays.hashCode(bytes);
+    }
+
+    /**
+     * Create the handle of the String key
+     *
+     * @param key the String key
+     * @return the key handle
+     * @throws IllegalArgumentException if the key is null or its length is invalid
+     */
+    public static MemcachedKey of(final String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        // same as the encoding of String keys
+        return new MemcachedKey(key, key.getBytes());
+    }
+
+    /**
+     * Create the handle of the raw key
+     *
+     * @param key the raw key which is copied
+     * @return the key handle
+     * @throws IllegalArgumentException if the key is null or its length is invalid
+     */
+    public static MemcachedKey of(final byte[] key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        return new MemcachedKey(null, key.clone());
+    }
+
+    /**
+     * @return the encoded bytes. they should not be modified
+     */
+    byte[] bytes() {
+        return bytes;
+    }
+
+    /**
+     * @param keyHash the hash function of the consistent hash ring
+     * @return the hash on the consistent hash ring
+     */
+    long getHash(final KeyHash keyHash) {
+        HashHolder holder = hashHolder;
+        if (holder.keyHash != keyHash) {
+            holder = new HashHolder(keyHash, keyHash.hash(bytes));
+            hashHolder = holder;
+        }
+        return holder.hash;
+    }
+
+    public int getLength() {
+        return bytes.length;
+    }
+
+    /**
+     * @return the copy of the encoded bytes
+     */
+    public byte[] getBytes() {
+        return bytes.clone();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MemcachedKey)) {
+            return false;
+        }
+        final MemcachedKey that = (MemcachedKey) o;
+        return hashCode == that.hashCode && Arrays.equals(bytes, that.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    private static class HashHolder {
+        private final KeyHash keyHash;
+        private final long hash;
+
+        private HashHolder(final KeyHash keyHash, final long hash) {
+            this.keyHash = keyHash;
+            this.hash = hash;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name != null ? name : new String(bytes);
+    }
+}
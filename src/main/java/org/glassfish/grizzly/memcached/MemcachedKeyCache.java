@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The bounded cache which maps String keys to their {@link MemcachedKey} handles
+ * <p>
+ * Hot keys are encoded and hashed only once while they stay in this cache.
+ * If the cache is full, the least recently used handle is evicted,
+ * so the size never exceeds {@code maxSize} even when keys are unbounded.
+ * <p>
+ * Caches don't use this class by themselves. Callers should pass the handles as keys of {@link MemcachedCache}'s operations.
+ * <p>
+ * This class is thread-safe. Lookups are serialized by a lock because they update the access order
+ * but new handles are encoded and hashed outside of the lock.
+ * <p>
+ * Example of use:
+ * {@code
+ * final MemcachedKeyCache keyCache = new MemcachedKeyCache(10000);
+ * final String value = cache.get(keyCache.get("name"), false);
+ * }
+ */
+public class MemcachedKeyCache {
+
+    private final LinkedHashMap<String, MemcachedKey> keys;
+    private final int maxSize;
+
+    public MemcachedKeyCache(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("max size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.keys = new LinkedHashMap<String, MemcachedKey>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, MemcachedKey> eldest) {
+                return size() > MemcachedKeyCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get the handle of the given {@code key}
+     *
+     * @param key the String key
+     * @return the cached handle or the new handle
+     * @throws IllegalArgumentException if the key is null or its length is invalid
+     */
+    public MemcachedKey get(final String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        synchronized (keys) {
+            final MemcachedKey cached = keys.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        final MemcachedKey newKey = MemcachedKey.of(key);
+        synchronized (keys) {
+            final MemcachedKey existing = keys.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            keys.put(key, newKey);
+        }
+        return newKey;
+    }
+
+    public int size() {
+        synchronized (keys) {
+            return keys.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void clear() {
+        synchronized (keys) {
+            keys.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MemcachedKeyCache{" +
+                "size=" + size() +
+                ", maxSize=" + maxSize +
+                '}';
+    }
+}
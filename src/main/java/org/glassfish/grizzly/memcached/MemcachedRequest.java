@@ -18,52 +18,100 @@ package org.glassfish.grizzly.memcached;
 
 import org.glassfish.grizzly.Buffer;
 import org.glassfish.grizzly.Cacheable;
+import org.glassfish.grizzly.CompletionHandler;
 import org.glassfish.grizzly.ThreadCache;
+import org.glassfish.grizzly.memcached.transcoder.DirectTranscoder;
 
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Memcached request
  * <p>
  * {@code response} and {@code responseStatus} will be set by the filter when the response will be received.
- * And the filter will notify {@code notify} instance after it will complete the processing for the received message.
+ * And the filter will signal the waiting sender after it will complete the processing for the received message.
+ * If {@code completionHandler} is set, it will be also called by the filter so that asynchronous callers don't need to wait.
+ * <p>
+ * Extras are kept in primitive fields with a presence bitmask and the completion is tracked by one volatile state
+ * so that sending a request doesn't allocate any boxed value, latch or atomic object.
+ * Requests are cached in {@link ThreadCache} by {@link Builder#build()} and {@link #recycle()}.
+ * A request can be recycled only after the filter has completed it because the filter may access it until then.
  *
  * @author Bongjae Chang
  */
 public class MemcachedRequest {
 
-    private static final int MAX_KEY_LENGTH = 250; // 250bytes
-    private static final int MAX_VALUE_LENGTH = 1024 * 1024; // 1M
-
-    private final boolean hasExtras;
-    private final boolean hasKey;
-    private final boolean hasValue;
+    private static final ThreadCache.CachedTypeIndex<MemcachedRequest> REQUEST_CACHE_IDX = ThreadCache.obtainIndex(MemcachedRequest.class, 16);
 
-    private final CommandOpcodes op;
-    private final boolean noReply;
-    private final int opaque;
-    private final long cas;
-    private final byte dataType;
-    private final short vBucketId;
+    static final int MAX_KEY_LENGTH = 250; // 250bytes
+    private static final int MAX_VALUE_LENGTH = 1024 * 1024; // 1M
+    private static final int HEADER_LENGTH = 24;
+
+    // presence bits of extras
+    private static final int FLAGS_BIT = 1;
+    private static final int DELTA_BIT = 1 << 1;
+    private static final int INITIAL_BIT = 1 << 2;
+    private static final int EXPIRATION_BIT = 1 << 3;
+    private static final int VERBOSITY_BIT = 1 << 4;
+
+    // completion state bits
+    private static final int SIGNALLED = 1; // the waiting sender can read the response
+    private static final int COMPLETED = 1 << 1; // the filter doesn't access this request anymore
+    private static final int DISPOSED = 1 << 2; // the response was consumed or will be discarded
+    private static final int QUEUED = 1 << 3; // the filter put this request into the request queue of the connection
+    private static final int ABANDONED = 1 << 4; // disposed after being queued so its late response is still expected
+
+    private static final AtomicIntegerFieldUpdater<MemcachedRequest> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(MemcachedRequest.class, "state");
+
+    private boolean hasExtras;
+    private boolean hasKey;
+    private boolean hasValue;
+
+    private CommandOpcodes op;
+    private boolean noReply;
+    private int opaque;
+    private long cas;
+    private byte dataType;
+    private short vBucketId;
 
     // extras and body
-    private final Integer flags;
-    private final Long delta;
-    private final Long initial;
-    private final Integer expirationInSecs;
-    private final Integer verbosity;
-    private final BufferWrapper.BufferType originKeyType;
-    private final Object originKey;
-    private final Buffer key;
-    private final Buffer value;
-
-    final AtomicBoolean disposed = new AtomicBoolean();
-    final CountDownLatch notify = new CountDownLatch(1);
+    private int extrasMask;
+    private int flags;
+    private long delta;
+    private long initial;
+    private int expirationInSecs;
+    private int verbosity;
+    private BufferWrapper.BufferType originKeyType;
+    private Object originKey;
+    private Buffer key;
+    private Buffer value;
+    // the value which is written into the packet buffer by the filter
+    private Object directValue;
+    private DirectTranscoder<Object> directTranscoder;
+    private int directValueLengthHint;
+
+    private volatile int state;
+    private volatile Thread waiter;
     Object response;
     Boolean isError;
+    CompletionHandler<MemcachedRequest> completionHandler;
+    // the cause if this request will never receive the response
+    volatile Throwable failure;
+    // the opaque which is assigned by the filter if the filter correlates responses by opaques
+    int correlationOpaque;
+    // the primitive result of numeric operations
+    private boolean primitiveResult;
+    boolean hasNumericResponse;
+    long numericResponse = -1;
+
+    private MemcachedRequest() {
+    }
 
-    private MemcachedRequest(final Builder builder) {
+    private void initialize(final Builder builder) {
         this.hasExtras = builder.hasExtras;
         this.hasKey = builder.hasKey;
         this.hasValue = builder.hasValue;
@@ -73,6 +121,7 @@ public class MemcachedRequest {
         this.cas = builder.cas;
         this.dataType = builder.dataType;
         this.vBucketId = builder.vBucketId;
+        this.extrasMask = builder.extrasMask;
         this.flags = builder.flags;
         this.delta = builder.delta;
         this.initial = builder.initial;
@@ -82,6 +131,10 @@ public class MemcachedRequest {
         this.originKey = builder.originKey;
         this.key = builder.key;
         this.value = builder.value;
+        this.directValue = builder.directValue;
+        this.directTranscoder = builder.directTranscoder;
+        this.directValueLengthHint = builder.directValueLengthHint;
+        this.primitiveResult = builder.primitiveResult;
     }
 
     public boolean hasExtras() {
@@ -120,24 +173,59 @@ public class MemcachedRequest {
         return vBucketId;
     }
 
+    public boolean hasFlags() {
+        return (extrasMask & FLAGS_BIT) != 0;
+    }
+
+    /**
+     * @return the flags or null if the request doesn't have it
+     */
     public Integer getFlags() {
-        return flags;
+        return (extrasMask & FLAGS_BIT) != 0 ? Integer.valueOf(flags) : null;
     }
 
+    public boolean hasDelta() {
+        return (extrasMask & DELTA_BIT) != 0;
+    }
+
+    /**
+     * @return the delta or null if the request doesn't have it
+     */
     public Long getDelta() {
-        return delta;
+        return (extrasMask & DELTA_BIT) != 0 ? Long.valueOf(delta) : null;
+    }
+
+    public boolean hasInitial() {
+        return (extrasMask & INITIAL_BIT) != 0;
     }
 
+    /**
+     * @return the initial value or null if the request doesn't have it
+     */
     public Long getInitial() {
-        return initial;
+        return (extrasMask & INITIAL_BIT) != 0 ? Long.valueOf(initial) : null;
     }
 
+    public boolean hasExpirationInSecs() {
+        return (extrasMask & EXPIRATION_BIT) != 0;
+    }
+
+    /**
+     * @return the expiration or null if the request doesn't have it
+     */
     public Integer getExpirationInSecs() {
-        return expirationInSecs;
+        return (extrasMask & EXPIRATION_BIT) != 0 ? Integer.valueOf(expirationInSecs) : null;
+    }
+
+    public boolean hasVerbosity() {
+        return (extrasMask & VERBOSITY_BIT) != 0;
     }
 
+    /**
+     * @return the verbosity or null if the request doesn't have it
+     */
     public Integer getVerbosity() {
-        return verbosity;
+        return (extrasMask & VERBOSITY_BIT) != 0 ? Integer.valueOf(verbosity) : null;
     }
 
     public BufferWrapper.BufferType getOriginKeyType() {
@@ -156,15 +244,47 @@ public class MemcachedRequest {
         return value;
     }
 
+    /**
+     * @return true if the caller reads only the numeric response so the filter should not box it
+     */
+    public boolean isPrimitiveResult() {
+        return primitiveResult;
+    }
+
+    void setNumericResponse(final MemcachedResponse response) {
+        hasNumericResponse = response.hasNumericValue();
+        numericResponse = response.getNumericValue();
+    }
+
+    /**
+     * @return true if the value should be written into the packet buffer by {@link #writeDirectValue}
+     */
+    public boolean hasDirectValue() {
+        return hasValue && directTranscoder != null;
+    }
+
+    /**
+     * Encode the direct value into {@code out}
+     *
+     * @param out the stream which writes into the packet buffer
+     * @throws IOException if the value can't be encoded
+     */
+    public void writeDirectValue(final OutputStream out) throws IOException {
+        if (!hasDirectValue()) {
+            throw new IllegalStateException("the request doesn't have the direct value");
+        }
+        directTranscoder.writeTo(directValue, out);
+    }
+
     public byte getExtrasLength() {
         if (!hasExtras) {
             return 0;
         } else {
-            return (byte) (((flags != null ? 4 : 0) +
-                    (delta != null ? 8 : 0) +
-                    (initial != null ? 8 : 0) +
-                    (expirationInSecs != null ? 4 : 0) +
-                    (verbosity != null ? 4 : 0)) & 0x7f);
+            return (byte) ((((extrasMask & FLAGS_BIT) != 0 ? 4 : 0) +
+                    ((extrasMask & DELTA_BIT) != 0 ? 8 : 0) +
+                    ((extrasMask & INITIAL_BIT) != 0 ? 8 : 0) +
+                    ((extrasMask & EXPIRATION_BIT) != 0 ? 4 : 0) +
+                    ((extrasMask & VERBOSITY_BIT) != 0 ? 4 : 0)) & 0x7f);
         }
     }
 
@@ -179,10 +299,10 @@ public class MemcachedRequest {
             case AddQ:
             case Replace:
             case ReplaceQ:
-                if (flags != null) {
+                if ((extrasMask & FLAGS_BIT) != 0) {
                     buffer.putInt(flags);
                 }
-                if (expirationInSecs != null) {
+                if ((extrasMask & EXPIRATION_BIT) != 0) {
                     buffer.putInt(expirationInSecs);
                 }
                 break;
@@ -190,18 +310,18 @@ public class MemcachedRequest {
             case IncrementQ:
             case Decrement:
             case DecrementQ:
-                if (delta != null) {
+                if ((extrasMask & DELTA_BIT) != 0) {
                     buffer.putLong(delta);
                 }
-                if (initial != null) {
+                if ((extrasMask & INITIAL_BIT) != 0) {
                     buffer.putLong(initial);
                 }
-                if (expirationInSecs != null) {
+                if ((extrasMask & EXPIRATION_BIT) != 0) {
                     buffer.putInt(expirationInSecs);
                 }
                 break;
             case Verbosity:
-                if (verbosity != null) {
+                if ((extrasMask & VERBOSITY_BIT) != 0) {
                     buffer.putInt(verbosity);
                 }
                 break;
@@ -210,7 +330,7 @@ public class MemcachedRequest {
             case Touch:
             case Flush:
             case FlushQ:
-                if (expirationInSecs != null) {
+                if ((extrasMask & EXPIRATION_BIT) != 0) {
                     buffer.putInt(expirationInSecs);
                 }
                 break;
@@ -223,10 +343,238 @@ public class MemcachedRequest {
         return hasKey && key != null ? (short) (key.remaining() & 0x7fff) : 0;
     }
 
+    /**
+     * @return the length of the value. if the value is direct, the length is estimated and the filter fixes up the header after writing it
+     */
     public int getValueLength() {
+        if (hasDirectValue()) {
+            return directValueLengthHint;
+        }
         return hasValue && value != null ? value.remaining() : 0;
     }
 
+    /**
+     * @return the length of the whole packet including the header
+     */
+    public int getPacketLength() {
+        return HEADER_LENGTH + getExtrasLength() + getKeyLength() + getValueLength();
+    }
+
+    /**
+     * Mark this request as disposed
+     *
+     * @return true if this request was not disposed yet
+     */
+    boolean dispose() {
+        return setState(DISPOSED);
+    }
+
+    boolean isDisposed() {
+        return (state & DISPOSED) != 0;
+    }
+
+    /**
+     * Mark this request as queued
+     * <p>
+     * This should be called by the filter before the request is put into the request queue of the connection.
+     */
+    void markQueued() {
+        setState(QUEUED);
+    }
+
+    /**
+     * Mark this request as disposed because nobody waits for its response anymore
+     * <p>
+     * If the request was queued, it is also marked as abandoned atomically
+     * so that the filter can tell the late response which should be discarded from others.
+     *
+     * @return true if this request was not disposed yet and was queued
+     */
+    boolean abandon() {
+        while (true) {
+            final int current = state;
+            if ((current & DISPOSED) != 0) {
+                return false;
+            }
+            final int next = (current & QUEUED) != 0 ? current | DISPOSED | ABANDONED : current | DISPOSED;
+            if (STATE_UPDATER.compareAndSet(this, current, next)) {
+                return (next & ABANDONED) != 0;
+            }
+        }
+    }
+
+    boolean isAbandoned() {
+        return (state & ABANDONED) != 0;
+    }
+
+    boolean isCompleted() {
+        return (state & COMPLETED) != 0;
+    }
+
+    /**
+     * Wake the waiting sender without completing this request
+     * <p>
+     * This is used for a partial response. The filter keeps accessing this request until it is completed.
+     */
+    void signal() {
+        setState(SIGNALLED);
+        unparkWaiter();
+    }
+
+    /**
+     * Notify the waiting sender and {@code completionHandler} that the response has been received
+     * <p>
+     * After this, the filter never accesses this request so the owner can recycle it.
+     * The handler is called before the completion is published so that the woken sender can't recycle this request
+     * while the handler is still reading it.
+     */
+    void complete() {
+        final CompletionHandler<MemcachedRequest> handler = completionHandler;
+        if (handler != null) {
+            handler.completed(this);
+        }
+        setState(SIGNALLED | COMPLETED);
+        unparkWaiter();
+    }
+
+    /**
+     * Notify the waiting sender and {@code completionHandler} that this request will never receive the response
+     * <p>
+     * The waiting sender is waken without the response so it doesn't need to wait for the timeout
+     * when the connection shared by other requests was closed.
+     *
+     * @param t the cause
+     */
+    void fail(final Throwable t) {
+        final CompletionHandler<MemcachedRequest> handler = completionHandler;
+        failure = t;
+        signal();
+        if (handler != null) {
+            handler.failed(t);
+        }
+    }
+
+    /**
+     * Wait until this request is signalled
+     * <p>
+     * Only one thread can wait for a request.
+     */
+    void await() throws InterruptedException {
+        if ((state & SIGNALLED) != 0) {
+            return;
+        }
+        waiter = Thread.currentThread();
+        try {
+            while ((state & SIGNALLED) == 0) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                LockSupport.park(this);
+            }
+        } finally {
+            waiter = null;
+        }
+    }
+
+    /**
+     * Wait until this request is signalled or the given timeout elapses
+     *
+     * @return true if this request was signalled
+     */
+    boolean await(final long timeout, final TimeUnit unit) throws InterruptedException {
+        if ((state & SIGNALLED) != 0) {
+            return true;
+        }
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        waiter = Thread.currentThread();
+        try {
+            while ((state & SIGNALLED) == 0) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+            return true;
+        } finally {
+            waiter = null;
+        }
+    }
+
+    private boolean setState(final int bits) {
+        while (true) {
+            final int current = state;
+            if ((current & bits) == bits) {
+                return false;
+            }
+            if (STATE_UPDATER.compareAndSet(this, current, current | bits)) {
+                return true;
+            }
+        }
+    }
+
+    private void unparkWaiter() {
+        final Thread thread = waiter;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Return this request to the cache if the filter has already completed it
+     * <p>
+     * A request which was timed out, failed or signalled only partially is never recycled
+     * because the filter or the connection may still access it.
+     *
+     * @return true if this request was recycled
+     */
+    boolean recycleIfCompleted() {
+        if ((state & COMPLETED) == 0) {
+            return false;
+        }
+        recycle();
+        return true;
+    }
+
+    void recycle() {
+        hasExtras = false;
+        hasKey = false;
+        hasValue = false;
+        op = null;
+        noReply = false;
+        opaque = 0;
+        cas = 0;
+        dataType = 0;
+        vBucketId = 0;
+        extrasMask = 0;
+        flags = 0;
+        delta = 0;
+        initial = 0;
+        expirationInSecs = 0;
+        verbosity = 0;
+        originKeyType = null;
+        originKey = null;
+        key = null;
+        value = null;
+        directValue = null;
+        directTranscoder = null;
+        directValueLengthHint = 0;
+        state = 0;
+        waiter = null;
+        response = null;
+        isError = null;
+        completionHandler = null;
+        failure = null;
+        correlationOpaque = 0;
+        primitiveResult = false;
+        hasNumericResponse = false;
+        numericResponse = -1;
+        ThreadCache.putToCache(REQUEST_CACHE_IDX, this);
+    }
+
     public static class Builder implements Cacheable {
 
         private static final ThreadCache.CachedTypeIndex<Builder> CACHE_IDX = ThreadCache.obtainIndex(Builder.class, 16);
@@ -243,15 +591,20 @@ public class MemcachedRequest {
         private short vBucketId;
 
         // extras and body
-        private Integer flags;
-        private Long delta;
-        private Long initial;
-        private Integer expirationInSecs;
-        private Integer verbosity;
+        private int extrasMask;
+        private int flags;
+        private long delta;
+        private long initial;
+        private int expirationInSecs;
+        private int verbosity;
         private BufferWrapper.BufferType originKeyType;
         private Object originKey;
         private Buffer key;
         private Buffer value;
+        private Object directValue;
+        private DirectTranscoder<Object> directTranscoder;
+        private int directValueLengthHint;
+        private boolean primitiveResult;
 
         public static Builder create(final boolean hasExtras, final boolean hasKey, final boolean hasValue) {
             final Builder builder = ThreadCache.takeFromCache(CACHE_IDX);
@@ -302,34 +655,104 @@ public class MemcachedRequest {
             return this;
         }
 
-        public Builder flags(final Integer flags) {
+        public Builder flags(final int flags) {
             this.flags = flags;
+            this.extrasMask |= FLAGS_BIT;
             return this;
         }
 
-        public Builder delta(final Long delta) {
+        /**
+         * @deprecated use {@link #flags(int)} which doesn't box the value. null clears the flags
+         */
+        @Deprecated
+        public Builder flags(final Integer flags) {
+            if (flags == null) {
+                this.flags = 0;
+                this.extrasMask &= ~FLAGS_BIT;
+                return this;
+            }
+            return flags(flags.intValue());
+        }
+
+        public Builder delta(final long delta) {
             this.delta = delta;
+            this.extrasMask |= DELTA_BIT;
             return this;
         }
 
-        public Builder initial(final Long initial) {
+        /**
+         * @deprecated use {@link #delta(long)} which doesn't box the value. null clears the delta
+         */
+        @Deprecated
+        public Builder delta(final Long delta) {
+            if (delta == null) {
+                this.delta = 0;
+                this.extrasMask &= ~DELTA_BIT;
+                return this;
+            }
+            return delta(delta.longValue());
+        }
+
+        public Builder initial(final long initial) {
             this.initial = initial;
+            this.extrasMask |= INITIAL_BIT;
             return this;
         }
 
-        public Builder expirationInSecs(final Integer expirationInSecs) throws IllegalArgumentException {
+        /**
+         * @deprecated use {@link #initial(long)} which doesn't box the value. null clears the initial value
+         */
+        @Deprecated
+        public Builder initial(final Long initial) {
+            if (initial == null) {
+                this.initial = 0;
+                this.extrasMask &= ~INITIAL_BIT;
+                return this;
+            }
+            return initial(initial.longValue());
+        }
+
+        public Builder expirationInSecs(final int expirationInSecs) throws IllegalArgumentException {
             if (expirationInSecs < 0) {
                 throw new IllegalArgumentException("expiration must be greater than 0");
             }
             this.expirationInSecs = expirationInSecs;
+            this.extrasMask |= EXPIRATION_BIT;
             return this;
         }
 
-        public Builder verbosity(final Integer verbosity) {
+        /**
+         * @deprecated use {@link #expirationInSecs(int)} which doesn't box the value. null clears the expiration
+         */
+        @Deprecated
+        public Builder expirationInSecs(final Integer expirationInSecs) throws IllegalArgumentException {
+            if (expirationInSecs == null) {
+                this.expirationInSecs = 0;
+                this.extrasMask &= ~EXPIRATION_BIT;
+                return this;
+            }
+            return expirationInSecs(expirationInSecs.intValue());
+        }
+
+        public Builder verbosity(final int verbosity) {
             this.verbosity = verbosity;
+            this.extrasMask |= VERBOSITY_BIT;
             return this;
         }
 
+        /**
+         * @deprecated use {@link #verbosity(int)} which doesn't box the value. null clears the verbosity
+         */
+        @Deprecated
+        public Builder verbosity(final Integer verbosity) {
+            if (verbosity == null) {
+                this.verbosity = 0;
+                this.extrasMask &= ~VERBOSITY_BIT;
+                return this;
+            }
+            return verbosity(verbosity.intValue());
+        }
+
         public Builder originKeyType(final BufferWrapper.BufferType originKeyType) throws IllegalArgumentException {
             if (originKeyType != null) {
                 this.originKeyType = originKeyType;
@@ -366,8 +789,44 @@ public class MemcachedRequest {
             return this;
         }
 
+        /**
+         * Set the value which will be encoded into the packet buffer directly
+         *
+         * @param value      the directly encodable value
+         * @param transcoder the transcoder which writes the value
+         * @return this builder
+         */
+        @SuppressWarnings("unchecked")
+        public <V> Builder value(final V value, final DirectTranscoder<V> transcoder) throws IllegalArgumentException {
+            if (value != null && transcoder != null) {
+                final int lengthHint = transcoder.getEncodedLengthHint(value);
+                this.directValue = value;
+                this.directTranscoder = (DirectTranscoder<Object>) transcoder;
+                this.directValueLengthHint = Math.max(0, Math.min(lengthHint, MAX_VALUE_LENGTH));
+            }
+            return this;
+        }
+
+        /**
+         * Set whether the caller reads only the primitive numeric response
+         * <p>
+         * If true, the filter doesn't box counters and numeric values.
+         *
+         * @param primitiveResult true if the result should not be boxed
+         * @return this builder
+         */
+        public Builder primitiveResult(final boolean primitiveResult) {
+            this.primitiveResult = primitiveResult;
+            return this;
+        }
+
         public MemcachedRequest build() {
-            return new MemcachedRequest(this);
+            MemcachedRequest request = ThreadCache.takeFromCache(REQUEST_CACHE_IDX);
+            if (request == null) {
+                request = new MemcachedRequest();
+            }
+            request.initialize(this);
+            return request;
         }
 
         @Override
@@ -381,14 +840,20 @@ public class MemcachedRequest {
             cas = 0;
             dataType = 0;
             vBucketId = 0;
-            flags = null;
-            delta = null;
-            initial = null;
-            expirationInSecs = null;
-            verbosity = null;
+            extrasMask = 0;
+            flags = 0;
+            delta = 0;
+            initial = 0;
+            expirationInSecs = 0;
+            verbosity = 0;
+            originKeyType = null;
             originKey = null;
             key = null;
             value = null;
+            directValue = null;
+            directTranscoder = null;
+            directValueLengthHint = 0;
+            primitiveResult = false;
             ThreadCache.putToCache(CACHE_IDX, this);
         }
     }
@@ -405,6 +870,7 @@ public class MemcachedRequest {
                 ", cas=" + cas +
                 ", dataType=" + dataType +
                 ", vBucketId=" + vBucketId +
+                ", extrasMask=" + extrasMask +
                 ", flags=" + flags +
                 ", delta=" + delta +
                 ", initial=" + initial +
@@ -416,6 +882,7 @@ public class MemcachedRequest {
                 ", response=" + response +
                 ", isError=" + isError +
                 ", value=" + value +
+                ", directValue=" + directValue +
                 '}';
     }
 }
@@ -20,6 +20,9 @@ import org.glassfish.grizzly.Buffer;
 import org.glassfish.grizzly.Cacheable;
 import org.glassfish.grizzly.Grizzly;
 import org.glassfish.grizzly.ThreadCache;
+import org.glassfish.grizzly.memcached.transcoder.CompressingTranscoder;
+import org.glassfish.grizzly.memcached.transcoder.DefaultTranscoder;
+import org.glassfish.grizzly.memcached.transcoder.Transcoder;
 import org.glassfish.grizzly.memory.MemoryManager;
 
 import java.util.logging.Level;
@@ -58,6 +61,12 @@ public class MemcachedResponse implements Cacheable {
     private Object decodedValue;
     private Object result;
 
+    // the primitive value of counters and numeric values which is read without boxing
+    private boolean hasNumericValue;
+    private long numericValue;
+    // LONG or INTEGER if decodedValue will be boxed from numericValue only when an object is needed
+    private BufferWrapper.BufferType deferredBoxingType;
+
     private MemcachedResponse() {
     }
 
@@ -117,6 +126,20 @@ public class MemcachedResponse implements Cacheable {
         return result;
     }
 
+    /**
+     * @return true if the value was a numeric value such as a counter, {@link BufferWrapper.BufferType#LONG} or {@link BufferWrapper.BufferType#INTEGER}
+     */
+    public boolean hasNumericValue() {
+        return hasNumericValue && !isError();
+    }
+
+    /**
+     * @return the primitive numeric value or -1 if this response doesn't have it
+     */
+    public long getNumericValue() {
+        return hasNumericValue() ? numericValue : -1;
+    }
+
     public void setOp(final CommandOpcodes op) {
         this.op = op;
     }
@@ -178,6 +201,29 @@ public class MemcachedResponse implements Cacheable {
     }
 
     public void setDecodedValue(final Buffer buffer, final int position, final int limit, final MemoryManager memoryManager) {
+        setDecodedValue(buffer, position, limit, memoryManager, null);
+    }
+
+    /**
+     * Decode the value
+     *
+     * @param transcoder the transcoder of the cache which restores user values. if null, {@link BufferWrapper} restores them
+     */
+    public void setDecodedValue(final Buffer buffer, final int position, final int limit, final MemoryManager memoryManager, final Transcoder<?> transcoder) {
+        setDecodedValue(buffer, position, limit, memoryManager, transcoder, -1);
+    }
+
+    /**
+     * Decode the value
+     * <p>
+     * User values which are larger than {@code lazyDecodingThreshold}, compressed or serialized objects are kept as raw bytes
+     * and decoded later by the cache, so heavy decoding never occupies the selector thread.
+     *
+     * @param transcoder            the transcoder of the cache which restores user values. if null, {@link BufferWrapper} restores them
+     * @param lazyDecodingThreshold the maximum size of user values which are decoded immediately. if negative, all values are decoded immediately
+     */
+    public void setDecodedValue(final Buffer buffer, final int position, final int limit, final MemoryManager memoryManager,
+                                final Transcoder<?> transcoder, final int lazyDecodingThreshold) {
         if (buffer == null || position > limit) {
             return;
         }
@@ -192,19 +238,32 @@ public class MemcachedResponse implements Cacheable {
             case GetKQ:
             case Gets:
             case GetsQ:
-                if (!isError()) {
-                    result = BufferWrapper.unwrap(buffer, position, limit, BufferWrapper.BufferType.getBufferType(this.flags), memoryManager);
+                // subclasses of the default transcoder can decode numbers differently
+                if (!isError() && (transcoder == null || transcoder.getClass() == DefaultTranscoder.class) &&
+                        setNumericValue(buffer, position, limit)) {
+                    // boxed only if the caller needs an object
+                    result = null;
+                } else if (!isError() && transcoder != null && lazyDecodingThreshold >= 0 &&
+                        (limit - position > lazyDecodingThreshold || isHeavyToDecode(this.flags))) {
+                    // the caller's thread will decode them
+                    final byte[] bytes = new byte[limit - position];
+                    buffer.get(bytes, 0, bytes.length);
+                    result = new LazyValue(this.flags, bytes, transcoder, memoryManager);
+                } else if (!isError()) {
+                    result = transcoder != null ?
+                            transcoder.decode(this.flags, buffer, position, limit, memoryManager) :
+                            BufferWrapper.unwrap(buffer, position, limit, BufferWrapper.BufferType.getBufferType(this.flags), memoryManager);
                 } else {
                     result = null;
                 }
                 break;
             case Increment:
             case Decrement:
-                if (!isError()) {
-                    result = BufferWrapper.unwrap(buffer, position, limit, BufferWrapper.BufferType.LONG, memoryManager);
-                } else {
-                    result = INVALID_LONG;
+                if (!isError() && limit - position == 8) {
+                    hasNumericValue = true;
+                    numericValue = buffer.getLong(position);
                 }
+                result = null;
                 break;
 
             case Version:
@@ -222,12 +281,83 @@ public class MemcachedResponse implements Cacheable {
         decodedValue = result;
     }
 
+    /**
+     * Read the value of {@link BufferWrapper.BufferType#LONG} or {@link BufferWrapper.BufferType#INTEGER} without boxing
+     * <p>
+     * Counters which memcached made by incr and decr are ASCII decimal strings without flags.
+     * They are parsed too but they are still decoded as usual.
+     * Counters which overflow a signed long are left to the transcoder only.
+     *
+     * @return true if the value was read and its boxing is deferred
+     */
+    private boolean setNumericValue(final Buffer buffer, final int position, final int limit) {
+        final int length = limit - position;
+        final int typeFlags = flags & 0xFFFF;
+        if (flags == typeFlags && typeFlags == BufferWrapper.BufferType.LONG.flags && length == 8) {
+            hasNumericValue = true;
+            numericValue = buffer.getLong(position);
+            deferredBoxingType = BufferWrapper.BufferType.LONG;
+            return true;
+        }
+        if (flags == typeFlags && typeFlags == BufferWrapper.BufferType.INTEGER.flags && length == 4) {
+            hasNumericValue = true;
+            numericValue = buffer.getInt(position);
+            deferredBoxingType = BufferWrapper.BufferType.INTEGER;
+            return true;
+        }
+        if (flags == 0 && length > 0 && length <= 19) {
+            long value = 0;
+            for (int i = position; i < limit; i++) {
+                final int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return false;
+                }
+                // memcached's counters are unsigned 64-bit integers so they can be greater than Long.MAX_VALUE
+                if (value > (Long.MAX_VALUE - digit) / 10) {
+                    return false;
+                }
+                value = value * 10 + digit;
+            }
+            hasNumericValue = true;
+            numericValue = value;
+        }
+        return false;
+    }
+
+    private static boolean isHeavyToDecode(final int flags) {
+        if ((flags & CompressingTranscoder.COMPRESSION_FLAGS_MASK) != 0) {
+            return true;
+        }
+        final int typeFlags = flags & 0xFFFF;
+        return typeFlags == BufferWrapper.BufferType.STRING_COMPRESSED.flags ||
+                typeFlags == BufferWrapper.BufferType.BYTE_ARRAY_COMPRESSED.flags ||
+                typeFlags == BufferWrapper.BufferType.BYTE_BUFFER_COMPRESSED.flags ||
+                typeFlags == BufferWrapper.BufferType.OBJECT.flags ||
+                typeFlags == BufferWrapper.BufferType.OBJECT_COMPRESSED.flags;
+    }
+
     public void setDecodedValue(final Object decodedValue) {
         this.decodedValue = decodedValue;
     }
 
-    @SuppressWarnings("unchecked")
     public <K> void setResult(final K originKey, final MemcachedClientFilter.ParsingStatus parsingStatus) {
+        setResult(originKey, parsingStatus, false);
+    }
+
+    /**
+     * Set the last result
+     *
+     * @param primitiveResult true if the caller reads only {@link #getNumericValue} so numeric values are never boxed
+     */
+    @SuppressWarnings("unchecked")
+    public <K> void setResult(final K originKey, final MemcachedClientFilter.ParsingStatus parsingStatus, final boolean primitiveResult) {
+        if (!primitiveResult && deferredBoxingType != null && decodedValue == null && !isError()) {
+            if (deferredBoxingType == BufferWrapper.BufferType.LONG) {
+                decodedValue = Long.valueOf(numericValue);
+            } else {
+                decodedValue = Integer.valueOf((int) numericValue);
+            }
+        }
         if (isError() && parsingStatus == MemcachedClientFilter.ParsingStatus.DONE) {
             if (status == ResponseStatus.Key_Not_Found) {
                 if (logger.isLoggable(Level.FINER)) {
@@ -306,8 +436,10 @@ public class MemcachedResponse implements Cacheable {
             // long type
             case Increment:
             case Decrement:
-                if (!isError() && decodedValue instanceof Long) {
-                    result = decodedValue;
+                if (primitiveResult) {
+                    result = null;
+                } else if (hasNumericValue()) {
+                    result = numericValue;
                 } else {
                     result = INVALID_LONG;
                 }
@@ -399,6 +531,9 @@ public class MemcachedResponse implements Cacheable {
         decodedKey = null;
         decodedValue = null;
         result = null;
+        hasNumericValue = false;
+        numericValue = 0;
+        deferredBoxingType = null;
     }
 
     @Override
@@ -422,6 +557,7 @@ public class MemcachedResponse implements Cacheable {
                 ", decodedKey=" + decodedKey +
                 ", decodedValue=" + decodedValue +
                 ", result=" + result +
+                ", numericValue=" + (hasNumericValue ? numericValue : "none") +
                 '}';
     }
 }
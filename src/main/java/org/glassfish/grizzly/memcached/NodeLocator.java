@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import java.nio.ByteBuffer;
+import java.util.function.Predicate;
+
+/**
+ * Selects the node such as a memcached server for the given key
+ * <p>
+ * Keys are hashed by {@link #getKeyHash()} and the hash decides the node.
+ * Built-in strategies are {@link ConsistentHashStore}(Ketama's ring), {@link JumpNodeLocator}(jump consistent hash)
+ * and {@link RendezvousNodeLocator}(weighted rendezvous hashing).
+ * <p>
+ * Nodes can be added and removed dynamically and a node takes the share of keys proportional to its weight.
+ * Implementations should be thread-safe
+ * and lookups should not be blocked by adding or removing nodes.
+ */
+public interface NodeLocator<T> {
+
+    public static final int DEFAULT_WEIGHT = 1;
+
+    /**
+     * The largest weight of a node. Weights make virtual nodes or buckets so they should be bounded
+     */
+    public static final int MAX_WEIGHT = 1000;
+
+    /**
+     * @return the hash function of keys
+     */
+    public KeyHash getKeyHash();
+
+    /**
+     * Add the node with {@link #DEFAULT_WEIGHT}
+     *
+     * @param node node to be added
+     */
+    public void add(final T node);
+
+    /**
+     * Add the node with the weight or update the weight of the node which already added
+     * <p>
+     * Updating the weight remaps only keys which move from or to the node.
+     *
+     * @param node   node to be added or updated
+     * @param weight the positive weight of the node which is not greater than {@link #MAX_WEIGHT}
+     * @throws IllegalArgumentException if {@code weight} is not positive or greater than {@link #MAX_WEIGHT}
+     */
+    public void add(final T node, final int weight);
+
+    /**
+     * Remove the node which already added by {@link #add}
+     *
+     * @param node node to be removed
+     */
+    public void remove(final T node);
+
+    /**
+     * Check if this locator has {@code node}
+     *
+     * @param node node to be checked
+     * @return true if this locator already contains {@code node}
+     */
+    public boolean hasNode(final T node);
+
+    /**
+     * Remove all nodes
+     */
+    public void clear();
+
+    /**
+     * Get the node corresponding to the given key
+     *
+     * @param key the key between the position and the limit. its position is not changed
+     * @return the selected node or null if there are no nodes
+     */
+    public T get(final ByteBuffer key);
+
+    /**
+     * Get the node corresponding to the hash which was calculated by {@link #getKeyHash()} already
+     *
+     * @param hash the hash of the key
+     * @return the selected node or null if there are no nodes
+     */
+    public T getByHash(final long hash);
+
+    /**
+     * Get the first acceptable node in the order of preference for the hash
+     * <p>
+     * The order is deterministic for the same hash and nodes and starts with {@link #getByHash(long)}.
+     * This is used for spilling keys of overloaded nodes to other nodes.
+     *
+     * @param hash       the hash of the key
+     * @param acceptable tests whether the node can take the key
+     * @return the first acceptable node, {@link #getByHash(long)} if no node is acceptable or null if there are no nodes
+     */
+    public T getByHash(final long hash, final Predicate<T> acceptable);
+
+    /**
+     * Return the quality of the load balance
+     * <p>
+     * It is the ratio of the largest expected share of keys which a node takes to the fair share.
+     * The fair share of a node is proportional to its weight.
+     * 1.0 means the perfect balance and 1.15 means the hottest node takes 15% more keys than its fair share.
+     *
+     * @return the ratio of the largest share to the fair share or 1.0 if there are no nodes
+     */
+    public double getLoadImbalance();
+}
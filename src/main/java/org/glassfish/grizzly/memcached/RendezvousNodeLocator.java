@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * The {@link NodeLocator} based on the weighted rendezvous hashing(highest random weight)
+ * <p>
+ * Every node scores the key by its own hash and weight, and the node of the highest score is selected.
+ * A node takes the share of keys proportional to its weight, and only keys of the added or removed node are remapped
+ * regardless of the order of adding. A lookup costs O(n) for n nodes, so this is suitable for tens of nodes.
+ * <p>
+ * The node list is an immutable snapshot which is replaced by one volatile write, so lookups are never blocked.
+ * <p>
+ * Example of use:
+ * {@code
+ * final RendezvousNodeLocator<SocketAddress> locator = new RendezvousNodeLocator<SocketAddress>();
+ * locator.add(bigServer, 4);
+ * builder.nodeLocator(locator);
+ * }
+ */
+public class RendezvousNodeLocator<T> implements NodeLocator<T> {
+
+    private static final Node[] EMPTY_NODES = new Node[0];
+
+    private final KeyHash keyHash;
+    private volatile Node[] nodes = EMPTY_NODES;
+
+    public RendezvousNodeLocator() {
+        this(KeyHash.XXHASH64);
+    }
+
+    /**
+     * @param keyHash the hash function of keys and nodes. 64-bit hashes are recommended
+     */
+    public RendezvousNodeLocator(final KeyHash keyHash) {
+        if (keyHash == null) {
+            throw new IllegalArgumentException("key hash must not be null");
+        }
+        this.keyHash = keyHash;
+    }
+
+    @Override
+    public KeyHash getKeyHash() {
+        return keyHash;
+    }
+
+    @Override
+    public void add(final T node) {
+        if (!hasNode(node)) {
+            add(node, DEFAULT_WEIGHT);
+        }
+    }
+
+    @Override
+    public synchronized void add(final T node, final int weight) {
+        if (node == null) {
+            return;
+        }
+        if (weight <= 0 || weight > MAX_WEIGHT) {
+            throw new IllegalArgumentException("weight must be between 1 and " + MAX_WEIGHT + ". weight=" + weight);
+        }
+        final Node[] current = nodes;
+        final int index = indexOf(current, node);
+        final Node[] newNodes = index >= 0 ? current.clone() : Arrays.copyOf(current, current.length + 1);
+        newNodes[index >= 0 ? index : current.length] = new Node(node, keyHash.hash(String.valueOf(node).getBytes()), weight);
+        nodes = newNodes;
+    }
+
+    @Override
+    public synchronized void remove(final T node) {
+        final Node[] current = nodes;
+        final int index = indexOf(current, node);
+        if (index < 0) {
+            return;
+        }
+        final Node[] newNodes = new Node[current.length - 1];
+        System.arraycopy(current, 0, newNodes, 0, index);
+        System.arraycopy(current, index + 1, newNodes, index, newNodes.length - index);
+        nodes = newNodes;
+    }
+
+    @Override
+    public boolean hasNode(final T node) {
+        return node != null && indexOf(nodes, node) >= 0;
+    }
+
+    @Override
+    public synchronized void clear() {
+        nodes = EMPTY_NODES;
+    }
+
+    @Override
+    public T get(final ByteBuffer key) {
+        if (key == null) {
+            return null;
+        }
+        final Node[] current = nodes;
+        if (current.length <= 1) {
+            return current.length == 0 ? null : RendezvousNodeLocator.<T>cast(current[0].value);
+        }
+        return select(current, keyHash.hash(key));
+    }
+
+    @Override
+    public T getByHash(final long hash) {
+        return select(nodes, hash);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The order is the descending order of scores, which is the order of the rendezvous hashing.
+     */
+    @Override
+    public T getByHash(final long hash, final Predicate<T> acceptable) {
+        final Node[] current = nodes;
+        final T primary = select(current, hash);
+        if (primary == null || acceptable == null || current.length == 1 || acceptable.test(primary)) {
+            return primary;
+        }
+        final double[] scores = new double[current.length];
+        for (int i = 0; i < current.length; i++) {
+            scores[i] = current[i].score(hash);
+        }
+        // selection by the descending order without sorting because the first acceptable node is usually found soon
+        for (int tried = 1; tried < current.length; tried++) {
+            int next = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].value != primary && scores[i] != Double.NEGATIVE_INFINITY && (next < 0 || scores[i] > scores[next])) {
+                    next = i;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            final T candidate = cast(current[next].value);
+            if (acceptable.test(candidate)) {
+                return candidate;
+            }
+            scores[next] = Double.NEGATIVE_INFINITY;
+        }
+        return primary;
+    }
+
+    private static <T> T select(final Node[] nodes, final long hash) {
+        Node selected = null;
+        double highest = Double.NEGATIVE_INFINITY;
+        for (Node node : nodes) {
+            final double score = node.score(hash);
+            if (score > highest) {
+                highest = score;
+                selected = node;
+            }
+        }
+        return selected != null ? RendezvousNodeLocator.<T>cast(selected.value) : null;
+    }
+
+    /**
+     * Every node takes the share proportional to its weight in expectation
+     */
+    @Override
+    public double getLoadImbalance() {
+        return 1.0;
+    }
+
+    private static int indexOf(final Node[] nodes, final Object node) {
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i].value.equals(node)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(final Object node) {
+        return (T) node;
+    }
+
+    private static class Node {
+        private final Object value;
+        private final long hash;
+        private final int weight;
+
+        private Node(final Object value, final long hash, final int weight) {
+            this.value = value;
+            this.hash = hash;
+            this.weight = weight;
+        }
+
+        /**
+         * -weight / ln(u) for uniform u in (0, 1). the node takes keys proportional to its weight
+         */
+        private double score(final long keyHash) {
+            final double u = ((mix(keyHash ^ hash) >>> 11) + 0.5) / (double) (1L << 53);
+            return -weight / Math.log(u);
+        }
+
+        @Override
+        public String toString() {
+            return value + ":" + weight;
+        }
+    }
+
+    /**
+     * the finalizer of SplitMix64 which spreads the combined hash
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public String toString() {
+        return "RendezvousNodeLocator{" +
+                "keyHash=" + keyHash +
+                ", nodes=" + Arrays.toString(nodes) +
+                '}';
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.glassfish.grizzly.Grizzly;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Coalesces concurrent single requests bound for the same server into one batch
+ * <p>
+ * The first request for an address opens a new batch and the batch is handed to {@link BatchSender}
+ * when {@code windowInMicros} elapses or when {@code maxBatchSize} requests are collected, whichever comes first.
+ * So many threads which send requests to the same server within the window share one connection borrow, one write and one flush.
+ * <p>
+ * A batch which is full is sent in the thread which submits the last request.
+ * A batch whose window elapses is sent in {@code sendExecutor} because sending can block on borrowing a connection
+ * and the scheduler's thread should only close batches in time.
+ * If {@code sendExecutor} is null, the batch is sent in the scheduler's thread.
+ * <p>
+ * The sender should complete every entry's future with the response of the entry's request.
+ * If the sender throws an exception, all futures of the batch are completed exceptionally.
+ * <p>
+ * Example of use:
+ * {@code
+ * final RequestCoalescer<SocketAddress> coalescer = new RequestCoalescer<SocketAddress>(sender, scheduler, sendExecutor, 100, 32);
+ * final CompletableFuture<Object> future = coalescer.submit(address, request);
+ * final Object response = future.get(timeout, TimeUnit.MILLISECONDS);
+ * // ...
+ * coalescer.destroy();
+ * }
+ */
+public class RequestCoalescer<A> {
+
+    private static final Logger logger = Grizzly.logger(RequestCoalescer.class);
+
+    private final ConcurrentHashMap<A, Batch> batches = new ConcurrentHashMap<A, Batch>();
+    private final BatchSender<A> sender;
+    private final ScheduledExecutorService scheduler;
+    private final Executor sendExecutor;
+    private final long windowInMicros;
+    private final int maxBatchSize;
+    private volatile boolean destroyed;
+
+    public RequestCoalescer(final BatchSender<A> sender,
+                            final ScheduledExecutorService scheduler,
+                            final long windowInMicros,
+                            final int maxBatchSize) {
+        this(sender, scheduler, null, windowInMicros, maxBatchSize);
+    }
+
+    public RequestCoalescer(final BatchSender<A> sender,
+                            final ScheduledExecutorService scheduler,
+                            final Executor sendExecutor,
+                            final long windowInMicros,
+                            final int maxBatchSize) {
+        if (sender == null) {
+            throw new IllegalArgumentException("sender must not be null");
+        }
+        if (scheduler == null) {
+            throw new IllegalArgumentException("scheduler must not be null");
+        }
+        if (windowInMicros <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("max batch size must be positive");
+        }
+        this.sender = sender;
+        this.scheduler = scheduler;
+        this.sendExecutor = sendExecutor;
+        this.windowInMicros = windowInMicros;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Add the given {@code request} to the current batch of {@code address}
+     *
+     * @param address the server address
+     * @param request the request which will be sent with other requests of the same batch
+     * @return the future which will be completed with the response of {@code request}
+     */
+    public CompletableFuture<Object> submit(final A address, final MemcachedRequest request) {
+        if (address == null) {
+            throw new IllegalArgumentException("address must not be null");
+        }
+        if (request == null) {
+            throw new IllegalArgumentException("request must not be null");
+        }
+        final Entry entry = new Entry(request);
+        while (true) {
+            if (destroyed) {
+                entry.future.completeExceptionally(new IllegalStateException("coalescer was already destroyed"));
+                return entry.future;
+            }
+            Batch batch = batches.get(address);
+            if (batch == null) {
+                final Batch newBatch = new Batch(address);
+                batch = batches.putIfAbsent(address, newBatch);
+                if (batch == null) {
+                    batch = newBatch;
+                    schedule(newBatch);
+                }
+            }
+            final int size = batch.add(entry);
+            if (size < 0) {
+                // the batch has just been flushed. retry with new batch
+                continue;
+            }
+            if (size >= maxBatchSize) {
+                flush(batch);
+            }
+            return entry.future;
+        }
+    }
+
+    private void schedule(final Batch batch) {
+        try {
+            scheduler.schedule(batch, windowInMicros, TimeUnit.MICROSECONDS);
+        } catch (RejectedExecutionException ree) {
+            if (logger.isLoggable(Level.FINE)) {
+                logger.log(Level.FINE, "failed to schedule the batch. the batch will be flushed immediately. address=" + batch.address, ree);
+            }
+            flush(batch);
+        }
+    }
+
+    private void flush(final Batch batch) {
+        final List<Entry> entries = close(batch);
+        if (entries != null) {
+            send(batch.address, entries);
+        }
+    }
+
+    private void flushInSendExecutor(final Batch batch) {
+        if (sendExecutor == null) {
+            flush(batch);
+            return;
+        }
+        final List<Entry> entries = close(batch);
+        if (entries == null) {
+            return;
+        }
+        try {
+            sendExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    send(batch.address, entries);
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            fail(batch.address, entries, ree);
+        }
+    }
+
+    private List<Entry> close(final Batch batch) {
+        // removes the batch first so that new requests don't spin on the closed batch
+        batches.remove(batch.address, batch);
+        final List<Entry> entries = batch.close();
+        return entries == null || entries.isEmpty() ? null : entries;
+    }
+
+    private void send(final A address, final List<Entry> entries) {
+        try {
+            sender.send(address, entries);
+        } catch (Throwable t) {
+            fail(address, entries, t);
+        }
+    }
+
+    private void fail(final A address, final List<Entry> entries, final Throwable t) {
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "failed to send the batch. address=" + address + ", size=" + entries.size(), t);
+        }
+        for (Entry entry : entries) {
+            entry.future.completeExceptionally(t);
+        }
+    }
+
+    /**
+     * Fail all pending requests and reject new requests
+     */
+    public void destroy() {
+        destroyed = true;
+        for (Batch batch : batches.values()) {
+            batches.remove(batch.address, batch);
+            final List<Entry> entries = batch.close();
+            if (entries != null) {
+                for (Entry entry : entries) {
+                    entry.future.completeExceptionally(new IllegalStateException("coalescer was destroyed"));
+                }
+            }
+        }
+    }
+
+    public long getWindowInMicros() {
+        return windowInMicros;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Sends the collected batch to the server
+     */
+    public interface BatchSender<A> {
+        void send(final A address, final List<Entry> entries) throws Exception;
+    }
+
+    /**
+     * The request and the future of a caller
+     */
+    public static class Entry {
+        private final MemcachedRequest request;
+        private final CompletableFuture<Object> future = new CompletableFuture<Object>();
+
+        private Entry(final MemcachedRequest request) {
+            this.request = request;
+        }
+
+        public MemcachedRequest getRequest() {
+            return request;
+        }
+
+        public CompletableFuture<Object> getFuture() {
+            return future;
+        }
+    }
+
+    private class Batch implements Runnable {
+        private final A address;
+        private List<Entry> entries = new ArrayList<Entry>();
+
+        private Batch(final A address) {
+            this.address = address;
+        }
+
+        private synchronized int add(final Entry entry) {
+            if (entries == null) {
+                return -1;
+            }
+            entries.add(entry);
+            return entries.size();
+        }
+
+        private synchronized List<Entry> close() {
+            final List<Entry> result = entries;
+            entries = null;
+            return result;
+        }
+
+        @Override
+        public void run() {
+            flushInSendExecutor(this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RequestCoalescer{" +
+                "windowInMicros=" + windowInMicros +
+                ", maxBatchSize=" + maxBatchSize +
+                ", destroyed=" + destroyed +
+                '}';
+    }
+}
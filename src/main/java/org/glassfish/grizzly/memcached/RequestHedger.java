@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.glassfish.grizzly.Grizzly;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends a backup request when the primary request of a read is slower than usual
+ * <p>
+ * If the primary request doesn't complete within the hedge delay, the backup request is sent and the first successful answer wins.
+ * The losing attempt's future is cancelled so that its sender can abandon the request and release its resources early.
+ * The hedge delay is {@code hedgeDelayInMillis} if it is not negative.
+ * Otherwise, it is the observed {@code percentile} latency of the address and no backup is sent until enough latencies are observed.
+ * Latencies of bulk requests such as getMulti's are observed apart from single requests' so that they don't delay single hedges.
+ * <p>
+ * Backup requests are limited by the budget. Every submitted request earns {@code budgetPercent} percent of a backup
+ * and every backup spends one, so backups never exceed {@code budgetPercent} percent of requests except for a small burst.
+ * <p>
+ * Only idempotent requests such as reads should be hedged.
+ * Backups are sent in {@code sendExecutor} because sending can block on borrowing a connection
+ * and the scheduler's thread should only fire hedge delays in time.
+ * If {@code sendExecutor} is null, backups are sent in the scheduler's thread.
+ * <p>
+ * Example of use:
+ * {@code
+ * final RequestHedger<SocketAddress> hedger = new RequestHedger<SocketAddress>(scheduler, sendExecutor, -1, 95, 5);
+ * final CompletableFuture<Object> future = hedger.submit(address, primary, backup);
+ * }
+ */
+public class RequestHedger<A> {
+
+    private static final Logger logger = Grizzly.logger(RequestHedger.class);
+
+    private static final int SAMPLE_SIZE = 256; // power of two
+    private static final int RECOMPUTE_INTERVAL = 64;
+    private static final int MIN_SAMPLES = 64;
+
+    // one backup costs 100 tokens and the budget can save up to 10 backups for a burst
+    private static final long BACKUP_COST = 100;
+    private static final long MAX_TOKENS = BACKUP_COST * 10;
+
+    private final ConcurrentHashMap<A, LatencyRecorder> recorders = new ConcurrentHashMap<A, LatencyRecorder>();
+    private final ConcurrentHashMap<A, LatencyRecorder> bulkRecorders = new ConcurrentHashMap<A, LatencyRecorder>();
+    private final ScheduledExecutorService scheduler;
+    private final Executor sendExecutor;
+    private final long hedgeDelayInMillis;
+    private final int percentile;
+    private final int budgetPercent;
+    private final AtomicLong tokens = new AtomicLong();
+    private final AtomicLong backupCount = new AtomicLong();
+
+    public RequestHedger(final ScheduledExecutorService scheduler,
+                         final long hedgeDelayInMillis,
+                         final int percentile,
+                         final int budgetPercent) {
+        this(scheduler, null, hedgeDelayInMillis, percentile, budgetPercent);
+    }
+
+    public RequestHedger(final ScheduledExecutorService scheduler,
+                         final Executor sendExecutor,
+                         final long hedgeDelayInMillis,
+                         final int percentile,
+                         final int budgetPercent) {
+        if (scheduler == null) {
+            throw new IllegalArgumentException("scheduler must not be null");
+        }
+        if (percentile <= 0 || percentile >= 100) {
+            throw new IllegalArgumentException("percentile must be in (0, 100)");
+        }
+        if (budgetPercent <= 0 || budgetPercent > 100) {
+            throw new IllegalArgumentException("budget percent must be in (0, 100]");
+        }
+        this.scheduler = scheduler;
+        this.sendExecutor = sendExecutor;
+        this.hedgeDelayInMillis = hedgeDelayInMillis;
+        this.percentile = percentile;
+        this.budgetPercent = budgetPercent;
+    }
+
+    /**
+     * Send the primary request of a single key and schedule the backup request
+     *
+     * @param address the server address whose latencies decide the hedge delay
+     * @param primary sends the primary request
+     * @param backup  sends the backup request. it should make new requests because the primary's can't be sent twice
+     * @return the future which will be completed with the first successful answer or the last failure
+     */
+    public <T> CompletableFuture<T> submit(final A address,
+                                           final Supplier<CompletableFuture<T>> primary,
+                                           final Supplier<CompletableFuture<T>> backup) {
+        return submit(address, false, primary, backup);
+    }
+
+    /**
+     * Send the primary request and schedule the backup request
+     *
+     * @param address the server address whose latencies decide the hedge delay
+     * @param bulk    true if the requests are bulk requests whose latencies should be observed apart from single requests'
+     * @param primary sends the primary request
+     * @param backup  sends the backup request. it should make new requests because the primary's can't be sent twice
+     * @return the future which will be completed with the first successful answer or the last failure
+     */
+    public <T> CompletableFuture<T> submit(final A address,
+                                           final boolean bulk,
+                                           final Supplier<CompletableFuture<T>> primary,
+                                           final Supplier<CompletableFuture<T>> backup) {
+        if (address == null) {
+            throw new IllegalArgumentException("address must not be null");
+        }
+        if (primary == null || backup == null) {
+            throw new IllegalArgumentException("primary and backup must not be null");
+        }
+        earnToken();
+        final HedgedCall<T> call = new HedgedCall<T>(getRecorder(address, bulk), backup);
+        call.attach(primary);
+        final long delayInNanos = getHedgeDelayInNanos(address, bulk);
+        if (delayInNanos >= 0 && !call.result.isDone()) {
+            try {
+                final ScheduledFuture<?> scheduled = scheduler.schedule(call, delayInNanos, TimeUnit.NANOSECONDS);
+                call.result.whenComplete(new BiConsumer<T, Throwable>() {
+                    @Override
+                    public void accept(final T ignore, final Throwable t) {
+                        scheduled.cancel(false);
+                    }
+                });
+            } catch (RejectedExecutionException ree) {
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.log(Level.FINE, "failed to schedule the backup request. address=" + address, ree);
+                }
+            }
+        }
+        return call.result;
+    }
+
+    /**
+     * @return the hedge delay in nano-seconds or -1 if the backup should not be scheduled
+     */
+    long getHedgeDelayInNanos(final A address, final boolean bulk) {
+        if (hedgeDelayInMillis >= 0) {
+            return TimeUnit.MILLISECONDS.toNanos(hedgeDelayInMillis);
+        }
+        final LatencyRecorder recorder = (bulk ? bulkRecorders : recorders).get(address);
+        return recorder != null ? recorder.percentileInNanos : -1;
+    }
+
+    private LatencyRecorder getRecorder(final A address, final boolean bulk) {
+        final ConcurrentHashMap<A, LatencyRecorder> map = bulk ? bulkRecorders : recorders;
+        LatencyRecorder recorder = map.get(address);
+        if (recorder == null) {
+            final LatencyRecorder newRecorder = new LatencyRecorder();
+            recorder = map.putIfAbsent(address, newRecorder);
+            if (recorder == null) {
+                recorder = newRecorder;
+            }
+        }
+        return recorder;
+    }
+
+    /**
+     * Forget the latencies of the given {@code address}
+     *
+     * @param address the removed server address
+     */
+    public void remove(final A address) {
+        if (address != null) {
+            recorders.remove(address);
+            bulkRecorders.remove(address);
+        }
+    }
+
+    private void earnToken() {
+        while (true) {
+            final long current = tokens.get();
+            if (current >= MAX_TOKENS) {
+                return;
+            }
+            if (tokens.compareAndSet(current, Math.min(current + budgetPercent, MAX_TOKENS))) {
+                return;
+            }
+        }
+    }
+
+    private boolean spendToken() {
+        while (true) {
+            final long current = tokens.get();
+            if (current < BACKUP_COST) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - BACKUP_COST)) {
+                return true;
+            }
+        }
+    }
+
+    public long getHedgeDelayInMillis() {
+        return hedgeDelayInMillis;
+    }
+
+    public int getPercentile() {
+        return percentile;
+    }
+
+    public int getBudgetPercent() {
+        return budgetPercent;
+    }
+
+    /**
+     * @return the number of backup requests which have been sent
+     */
+    public long getBackupCount() {
+        return backupCount.get();
+    }
+
+    private class HedgedCall<T> implements Runnable {
+        private final CompletableFuture<T> result = new CompletableFuture<T>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final Queue<CompletableFuture<T>> attempts = new ConcurrentLinkedQueue<CompletableFuture<T>>();
+        private final LatencyRecorder recorder;
+        private final Supplier<CompletableFuture<T>> backup;
+
+        private HedgedCall(final LatencyRecorder recorder, final Supplier<CompletableFuture<T>> backup) {
+            this.recorder = recorder;
+            this.backup = backup;
+            // the winner or the caller's cancellation cancels the other attempts
+            result.whenComplete(new BiConsumer<T, Throwable>() {
+                @Override
+                public void accept(final T ignore, final Throwable t) {
+                    for (CompletableFuture<T> attempt : attempts) {
+                        attempt.cancel(false);
+                    }
+                }
+            });
+        }
+
+        private void attach(final Supplier<CompletableFuture<T>> sender) {
+            pending.incrementAndGet();
+            final long startTime = System.nanoTime();
+            final CompletableFuture<T> future;
+            try {
+                future = sender.get();
+            } catch (Throwable t) {
+                onFailure(t);
+                return;
+            }
+            attempts.add(future);
+            future.whenComplete(new BiConsumer<T, Throwable>() {
+                @Override
+                public void accept(final T value, final Throwable t) {
+                    if (t == null) {
+                        recorder.record(System.nanoTime() - startTime);
+                        result.complete(value);
+                    } else {
+                        onFailure(t);
+                    }
+                }
+            });
+            if (result.isDone()) {
+                // the other attempt won while this attempt was being sent
+                future.cancel(false);
+            }
+        }
+
+        private void onFailure(final Throwable t) {
+            // fails only if no other attempt can answer
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(t);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (result.isDone() || !spendToken()) {
+                return;
+            }
+            backupCount.incrementAndGet();
+            if (sendExecutor == null) {
+                attach(backup);
+                return;
+            }
+            try {
+                sendExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!result.isDone()) {
+                            attach(backup);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException ree) {
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.log(Level.FINE, "failed to send the backup request", ree);
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps recent latencies of an address and their percentile
+     */
+    private class LatencyRecorder {
+        private final long[] samples = new long[SAMPLE_SIZE];
+        private final AtomicLong count = new AtomicLong();
+        private volatile long percentileInNanos = -1;
+
+        private void record(final long latencyInNanos) {
+            final long n = count.getAndIncrement();
+            samples[(int) (n & (SAMPLE_SIZE - 1))] = latencyInNanos;
+            final long recorded = n + 1;
+            if (recorded >= MIN_SAMPLES && recorded % RECOMPUTE_INTERVAL == 0) {
+                // samples can be overwritten concurrently but it doesn't matter for the statistics
+                final long[] copy = Arrays.copyOf(samples, (int) Math.min(recorded, SAMPLE_SIZE));
+                Arrays.sort(copy);
+                percentileInNanos = copy[Math.min(copy.length - 1, copy.length * percentile / 100)];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RequestHedger{" +
+                "hedgeDelayInMillis=" + hedgeDelayInMillis +
+                ", percentile=" + percentile +
+                ", budgetPercent=" + budgetPercent +
+                ", backupCount=" + backupCount +
+                '}';
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+/**
+ * This exception will be thrown when the value of a request can't be encoded into the packet
+ * <p>
+ * The failure is local to the request. The request is not written so the connection is still available for other requests.
+ */
+public class ValueEncodingException extends IllegalArgumentException {
+
+    static final long serialVersionUID = -4305873104813829052L;
+
+    public ValueEncodingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,467 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached.pool;
+
+import org.glassfish.grizzly.Grizzly;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link ObjectPool} implementation which shares a small fixed number of objects among all borrowers
+ * <p>
+ * Unlike {@link BaseObjectPool}, a borrowed object is not exclusive.
+ * Each key has {@code size} slots and {@link #borrowObject} returns the object of the next slot in round-robin order,
+ * creating it lazily if the slot is empty. So the same object can be borrowed by many users at the same time
+ * and {@link #returnObject} does nothing except for statistics.
+ * {@link #removeObject} destroys the object and clears its slot so that the next borrower will create new one.
+ * <p>
+ * This pool is useful for objects which can pipeline concurrent requests such as memcached connections
+ * whose responses are correlated in order.
+ * <p>
+ * This class should be thread-safe.
+ */
+public class MultiplexedObjectPool<K, V> implements ObjectPool<K, V> {
+
+    private static final Logger logger = Grizzly.logger(MultiplexedObjectPool.class);
+
+    private final PoolableObjectFactory<K, V> factory;
+    private final int size;
+    private final boolean validation;
+
+    private final ConcurrentMap<K, SlotPool<V>> keyedObjectPool = new ConcurrentHashMap<>();
+    private final AtomicBoolean destroyed = new AtomicBoolean();
+
+    private MultiplexedObjectPool(Builder<K, V> builder) {
+        this.factory = builder.factory;
+        this.size = builder.size;
+        this.validation = builder.validation;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void createAllMinObjects(final K key) throws NoValidObjectException, TimeoutException {
+        final SlotPool<V> pool = getOrCreatePool(key);
+        for (int i = 0; i < size; i++) {
+            getOrCreateObject(pool, key, i);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V borrowObject(final K key, final long timeoutInMillis) throws NoValidObjectException, TimeoutException {
+        final SlotPool<V> pool = getOrCreatePool(key);
+        final int index = (pool.nextIndex.getAndIncrement() & Integer.MAX_VALUE) % size;
+        final V result = getOrCreateObject(pool, key, index);
+        pool.activeCount.incrementAndGet();
+        return result;
+    }
+
+    private SlotPool<V> getOrCreatePool(final K key) {
+        if (destroyed.get()) {
+            throw new IllegalStateException("pool has already destroyed");
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        SlotPool<V> pool = keyedObjectPool.get(key);
+        if (pool == null) {
+            final SlotPool<V> newPool = new SlotPool<V>(size);
+            final SlotPool<V> oldPool = keyedObjectPool.putIfAbsent(key, newPool);
+            pool = oldPool == null ? newPool : oldPool;
+        }
+        if (pool.destroyed.get()) {
+            throw new IllegalStateException("pool already has destroyed. key=" + key);
+        }
+        return pool;
+    }
+
+    private V getOrCreateObject(final SlotPool<V> pool, final K key, final int index) throws NoValidObjectException, TimeoutException {
+        final V current = pool.slots.get(index);
+        if (current != null) {
+            return current;
+        }
+        // only one thread creates the object of the empty slot and others wait for it
+        synchronized (pool.locks[index]) {
+            final V created = pool.slots.get(index);
+            if (created != null) {
+                return created;
+            }
+            final V result;
+            try {
+                result = factory.createObject(key);
+            } catch (TimeoutException te) {
+                throw te;
+            } catch (Exception e) {
+                throw new NoValidObjectException(e);
+            }
+            if (result == null) {
+                throw new IllegalStateException("failed to create the object. the created object must not be null");
+            }
+            if (validation) {
+                boolean valid = false;
+                try {
+                    valid = factory.validateObject(key, result);
+                } catch (Exception ignore) {
+                }
+                if (!valid) {
+                    try {
+                        factory.destroyObject(key, result);
+                    } catch (Exception ignore) {
+                    }
+                    throw new NoValidObjectException("there is no valid object");
+                }
+            }
+            pool.slots.set(index, result);
+            if (pool.destroyed.get() && pool.slots.compareAndSet(index, result, null)) {
+                try {
+                    factory.destroyObject(key, result);
+                } catch (Exception ignore) {
+                }
+                throw new IllegalStateException("pool already has destroyed. key=" + key);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The object is still shared by other borrowers so it is never destroyed here.
+     */
+    @Override
+    public void returnObject(final K key, final V value) {
+        if (destroyed.get()) {
+            throw new IllegalStateException("pool has already destroyed");
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        if (value == null) {
+            return;
+        }
+        final SlotPool<V> pool = keyedObjectPool.get(key);
+        if (pool == null) {
+            try {
+                factory.destroyObject(key, value);
+            } catch (Exception ignore) {
+            }
+            return;
+        }
+        pool.decrementActiveCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Note that other borrowers which share the {@code value} will also lose it.
+     */
+    @Override
+    public void removeObject(final K key, final V value) {
+        if (destroyed.get()) {
+            throw new IllegalStateException("pool has already destroyed");
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        if (value == null) {
+            return;
+        }
+        final SlotPool<V> pool = keyedObjectPool.get(key);
+        if (pool != null) {
+            pool.decrementActiveCount();
+            final boolean removed = pool.remove(value);
+            if (logger.isLoggable(Level.FINEST)) {
+                logger.log(Level.FINEST, "pool.remove={0}, key={1}, value={2}", new Object[]{removed, key, value});
+            }
+        }
+        try {
+            factory.destroyObject(key, value);
+        } catch (Exception ignore) {
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAllObjects(final K key) {
+        if (destroyed.get()) {
+            throw new IllegalStateException("pool has already destroyed");
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        final SlotPool<V> pool = keyedObjectPool.get(key);
+        if (pool == null || pool.destroyed.get()) {
+            return;
+        }
+        clearPool(pool, key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroy(final K key) {
+        if (destroyed.get()) {
+            throw new IllegalStateException("pool has already destroyed");
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        final SlotPool<V> pool = keyedObjectPool.remove(key);
+        if (pool == null || !pool.destroyed.compareAndSet(false, true)) {
+            return;
+        }
+        clearPool(pool, key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroy() {
+        if (!destroyed.compareAndSet(false, true)) {
+            return;
+        }
+        for (Map.Entry<K, SlotPool<V>> entry : keyedObjectPool.entrySet()) {
+            final SlotPool<V> pool = entry.getValue();
+            pool.destroyed.compareAndSet(false, true);
+            clearPool(pool, entry.getKey());
+        }
+        keyedObjectPool.clear();
+    }
+
+    private void clearPool(final SlotPool<V> pool, final K key) {
+        if (pool == null || key == null) {
+            return;
+        }
+        for (int i = 0; i < pool.slots.length(); i++) {
+            final V object = pool.slots.getAndSet(i, null);
+            if (object != null) {
+                try {
+                    factory.destroyObject(key, object);
+                } catch (Exception ignore) {
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPoolSize(final K key) {
+        if (destroyed.get()) {
+            return -1;
+        }
+        if (key == null) {
+            return -1;
+        }
+        final SlotPool<V> pool = keyedObjectPool.get(key);
+        if (pool == null) {
+            return 0;
+        }
+        return pool.getObjectCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This pool never has more objects than {@code size} so it returns {@code size} if the pool has been used.
+     */
+    @Override
+    public int getPeakCount(final K key) {
+        if (destroyed.get()) {
+            return -1;
+        }
+        if (key == null) {
+            return -1;
+        }
+        return keyedObjectPool.containsKey(key) ? size : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Because objects are shared, this returns the number of borrowers which have not returned the object yet.
+     */
+    @Override
+    public int getActiveCount(final K key) {
+        if (destroyed.get()) {
+            return -1;
+        }
+        if (key == null) {
+            return -1;
+        }
+        final SlotPool<V> pool = keyedObjectPool.get(key);
+        if (pool == null) {
+            return 0;
+        }
+        return pool.activeCount.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Shared objects are never idle so this always returns 0 for existing keys.
+     */
+    @Override
+    public int getIdleCount(final K key) {
+        if (destroyed.get()) {
+            return -1;
+        }
+        if (key == null) {
+            return -1;
+        }
+        return 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isValidation() {
+        return validation;
+    }
+
+    /**
+     * Fixed slots of shared objects for a key
+     * <p>
+     * Each slot has its own lock only for creating the object so borrowers never contend after the slot is filled.
+     */
+    private static class SlotPool<V> {
+        private final AtomicReferenceArray<V> slots;
+        private final Object[] locks;
+        private final AtomicInteger nextIndex = new AtomicInteger();
+        private final AtomicInteger activeCount = new AtomicInteger();
+        private final AtomicBoolean destroyed = new AtomicBoolean();
+
+        private SlotPool(final int size) {
+            this.slots = new AtomicReferenceArray<V>(size);
+            this.locks = new Object[size];
+            for (int i = 0; i < size; i++) {
+                locks[i] = new Object();
+            }
+        }
+
+        private boolean remove(final V value) {
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.compareAndSet(i, value, null)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int getObjectCount() {
+            int count = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.get(i) != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private void decrementActiveCount() {
+            int current;
+            do {
+                current = activeCount.get();
+                if (current <= 0) {
+                    return;
+                }
+            } while (!activeCount.compareAndSet(current, current - 1));
+        }
+    }
+
+    public static class Builder<K, V> {
+        private static final int DEFAULT_SIZE = 2;
+        private static final boolean DEFAULT_VALIDATION = false;
+        private final PoolableObjectFactory<K, V> factory;
+        private int size = DEFAULT_SIZE;
+        private boolean validation = DEFAULT_VALIDATION;
+
+        /**
+         * MultiplexedObjectPool's builder constructor
+         *
+         * @param factory {@link PoolableObjectFactory} which is for creating, validating and destroying an object
+         */
+        public Builder(PoolableObjectFactory<K, V> factory) {
+            this.factory = factory;
+        }
+
+        /**
+         * Set the number of shared objects per key
+         * <p>
+         * Default is 2.
+         *
+         * @param size the number of shared objects
+         * @return this builder
+         */
+        public Builder<K, V> size(final int size) {
+            if (size >= 1) {
+                this.size = size;
+            }
+            return this;
+        }
+
+        /**
+         * Set whether this pool should validate the object by {@link PoolableObjectFactory#validateObject} when the object is created
+         * <p>
+         * Shared objects are not validated whenever they are borrowed because they can be in use by other borrowers.
+         * Default is false.
+         *
+         * @param validation true if validation will be needed
+         * @return this builder
+         */
+        public Builder<K, V> validation(final boolean validation) {
+            this.validation = validation;
+            return this;
+        }
+
+        /**
+         * Create an {@link ObjectPool} instance with this builder's properties
+         *
+         * @return an object pool
+         */
+        public ObjectPool<K, V> build() {
+            return new MultiplexedObjectPool<K, V>(this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MultiplexedObjectPool{" +
+                "size=" + size +
+                ", validation=" + validation +
+                ", factory=" + factory +
+                '}';
+    }
+}
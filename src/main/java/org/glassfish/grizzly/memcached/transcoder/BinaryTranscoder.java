@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached.transcoder;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.MemoryManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The compact binary transcoder based on the registry of class IDs
+ * <p>
+ * Every class which can be stored should be registered with its unique ID and {@link Codec} before this transcoder is used.
+ * A value is encoded into the class ID as a variable-length integer and the fields which are written by the codec,
+ * so class descriptors and field names which {@link java.io.ObjectOutputStream} writes are never stored.
+ * All clients which share the stored values should register the same IDs.
+ * <p>
+ * String, Integer, Long, Boolean, Double and byte[] are registered already. IDs less than {@link #MIN_USER_CLASS_ID} are reserved for them.
+ * <p>
+ * Values are written into the outgoing packet directly. The last encoded length of each class is the length hint of its next value.
+ * <p>
+ * Example of use:
+ * {@code
+ * final BinaryTranscoder<Object> transcoder = new BinaryTranscoder<Object>();
+ * transcoder.register(100, User.class, new BinaryTranscoder.Codec<User>() {
+ * public void write(final User user, final DataOutput out) throws IOException {
+ * out.writeLong(user.getId());
+ * out.writeUTF(user.getName());
+ * }
+ * public User read(final DataInput in) throws IOException {
+ * return new User(in.readLong(), in.readUTF());
+ * }
+ * });
+ * }
+ */
+public class BinaryTranscoder<V> implements DirectTranscoder<V> {
+
+    private static final Logger logger = Grizzly.logger(BinaryTranscoder.class);
+
+    // uses the upper 2 bytes of flags which BufferWrapper never uses
+    public static final int FLAGS = 1 << 16;
+
+    public static final int MIN_USER_CLASS_ID = 16;
+
+    private final ConcurrentHashMap<Class<?>, Registration<?>> registrationsByClass = new ConcurrentHashMap<Class<?>, Registration<?>>();
+    private final ConcurrentHashMap<Integer, Registration<?>> registrationsById = new ConcurrentHashMap<Integer, Registration<?>>();
+
+    /**
+     * Encodes and decodes fields of the registered class
+     */
+    public interface Codec<T> {
+        public void write(final T value, final DataOutput out) throws IOException;
+
+        public T read(final DataInput in) throws IOException;
+    }
+
+    public BinaryTranscoder() {
+        registerInternal(1, String.class, new Codec<String>() {
+            @Override
+            public void write(final String value, final DataOutput out) throws IOException {
+                // writeUTF() is limited to 65535 bytes and writes the modified UTF-8
+                final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(bytes.length, out);
+                out.write(bytes);
+            }
+
+            @Override
+            public String read(final DataInput in) throws IOException {
+                return new String(readBytes(in, readVarInt(in)), StandardCharsets.UTF_8);
+            }
+        });
+        registerInternal(2, Integer.class, new Codec<Integer>() {
+            @Override
+            public void write(final Integer value, final DataOutput out) throws IOException {
+                out.writeInt(value);
+            }
+
+            @Override
+            public Integer read(final DataInput in) throws IOException {
+                return in.readInt();
+            }
+        });
+        registerInternal(3, Long.class, new Codec<Long>() {
+            @Override
+            public void write(final Long value, final DataOutput out) throws IOException {
+                out.writeLong(value);
+            }
+
+            @Override
+            public Long read(final DataInput in) throws IOException {
+                return in.readLong();
+            }
+        });
+        registerInternal(4, Boolean.class, new Codec<Boolean>() {
+            @Override
+            public void write(final Boolean value, final DataOutput out) throws IOException {
+                out.writeBoolean(value);
+            }
+
+            @Override
+            public Boolean read(final DataInput in) throws IOException {
+                return in.readBoolean();
+            }
+        });
+        registerInternal(5, Double.class, new Codec<Double>() {
+            @Override
+            public void write(final Double value, final DataOutput out) throws IOException {
+                out.writeDouble(value);
+            }
+
+            @Override
+            public Double read(final DataInput in) throws IOException {
+                return in.readDouble();
+            }
+        });
+        registerInternal(6, byte[].class, new Codec<byte[]>() {
+            @Override
+            public void write(final byte[] value, final DataOutput out) throws IOException {
+                out.writeInt(value.length);
+                out.write(value);
+            }
+
+            @Override
+            public byte[] read(final DataInput in) throws IOException {
+                return readBytes(in, in.readInt());
+            }
+        });
+    }
+
+    /**
+     * Register the class which can be stored by this transcoder
+     *
+     * @param classId the unique ID of {@code type} which is not less than {@link #MIN_USER_CLASS_ID}
+     * @param type    the exact class of values
+     * @param codec   the codec for {@code type}
+     * @return this transcoder
+     * @throws IllegalArgumentException if the ID is reserved or the ID or the class was already registered
+     */
+    public <T> BinaryTranscoder<V> register(final int classId, final Class<T> type, final Codec<T> codec) {
+        if (classId < MIN_USER_CLASS_ID) {
+            throw new IllegalArgumentException("class id must not be less than " + MIN_USER_CLASS_ID);
+        }
+        registerInternal(classId, type, codec);
+        return this;
+    }
+
+    private <T> void registerInternal(final int classId, final Class<T> type, final Codec<T> codec) {
+        if (type == null || codec == null) {
+            throw new IllegalArgumentException("type and codec must not be null");
+        }
+        final Registration<T> registration = new Registration<T>(classId, codec);
+        if (registrationsById.putIfAbsent(classId, registration) != null) {
+            throw new IllegalArgumentException("class id was already registered. id=" + classId);
+        }
+        if (registrationsByClass.putIfAbsent(type, registration) != null) {
+            registrationsById.remove(classId);
+            throw new IllegalArgumentException("class was already registered. class=" + type.getName());
+        }
+    }
+
+    @Override
+    public CachedData encode(final V value, final MemoryManager memoryManager) {
+        final byte[] bytes = encodeToBytes(value);
+        final Buffer buffer = Buffers.wrap(memoryManager != null ? memoryManager : MemoryManager.DEFAULT_MEMORY_MANAGER, bytes);
+        buffer.allowBufferDispose(true);
+        return new CachedData(FLAGS, buffer);
+    }
+
+    byte[] encodeToBytes(final V value) {
+        final Registration<Object> registration = getRegistration(value);
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(registration.lengthHint, 64));
+        try {
+            write(registration, value, bos);
+        } catch (IOException ie) {
+            throw new IllegalArgumentException("failed to encode the value", ie);
+        }
+        return bos.toByteArray();
+    }
+
+    @Override
+    public boolean isDirectlyEncodable(final V value) {
+        return value != null && registrationsByClass.containsKey(value.getClass());
+    }
+
+    @Override
+    public int getFlags(final V value) {
+        return FLAGS;
+    }
+
+    @Override
+    public int getEncodedLengthHint(final V value) {
+        return getRegistration(value).lengthHint;
+    }
+
+    @Override
+    public void writeTo(final V value, final OutputStream out) throws IOException {
+        write(getRegistration(value), value, out);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Registration<Object> getRegistration(final V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+        final Registration<Object> registration = (Registration<Object>) registrationsByClass.get(value.getClass());
+        if (registration == null) {
+            throw new IllegalArgumentException("unregistered class. class=" + value.getClass().getName());
+        }
+        return registration;
+    }
+
+    private static void write(final Registration<Object> registration, final Object value, final OutputStream os) throws IOException {
+        final CountingOutputStream counting = new CountingOutputStream(os);
+        final DataOutputStream out = new DataOutputStream(counting);
+        writeVarInt(registration.classId, out);
+        registration.codec.write(value, out);
+        out.flush();
+        registration.lengthHint = counting.getCount();
+    }
+
+    @Override
+    public V decode(final int flags, final Buffer buffer, final int position, final int limit, final MemoryManager memoryManager) {
+        if (buffer == null || position > limit) {
+            return null;
+        }
+        if (flags != FLAGS) {
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.log(Level.WARNING, "the value was not encoded by the binary transcoder. flags={0}", flags);
+            }
+            return null;
+        }
+        final ByteBuffer byteBuffer = buffer.toByteBuffer(position, limit);
+        final byte[] bytes;
+        final int offset;
+        if (byteBuffer.hasArray()) {
+            bytes = byteBuffer.array();
+            offset = byteBuffer.arrayOffset() + byteBuffer.position();
+        } else {
+            bytes = new byte[limit - position];
+            byteBuffer.get(bytes);
+            offset = 0;
+        }
+        return decodeFromBytes(bytes, offset, limit - position);
+    }
+
+    @SuppressWarnings("unchecked")
+    V decodeFromBytes(final byte[] bytes, final int offset, final int length) {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, offset, length));
+        try {
+            final int classId = readVarInt(in);
+            final Registration<?> registration = registrationsById.get(classId);
+            if (registration == null) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.log(Level.WARNING, "unregistered class id. id={0}", classId);
+                }
+                return null;
+            }
+            return (V) registration.codec.read(in);
+        } catch (IOException ie) {
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.log(Level.WARNING, "failed to decode the value", ie);
+            }
+            return null;
+        }
+    }
+
+    private static void writeVarInt(int value, final DataOutput out) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(final DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed variable-length integer");
+    }
+
+    /**
+     * Read {@code length} bytes. The length is checked against the remaining bytes before allocating
+     * so that a corrupt length can't allocate a huge array
+     */
+    private static byte[] readBytes(final DataInput in, final int length) throws IOException {
+        if (length < 0 || (in instanceof InputStream && length > ((InputStream) in).available())) {
+            throw new IOException("invalid length. length=" + length);
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static class Registration<T> {
+        private final int classId;
+        private final Codec<T> codec;
+        // the last encoded length
+        private volatile int lengthHint = 64;
+
+        private Registration(final int classId, final Codec<T> codec) {
+            this.classId = classId;
+            this.codec = codec;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BinaryTranscoder{" +
+                "registeredClasses=" + registrationsByClass.size() +
+                '}';
+    }
+}
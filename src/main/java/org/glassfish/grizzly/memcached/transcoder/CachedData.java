@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached.transcoder;
+
+import org.glassfish.grizzly.Buffer;
+
+/**
+ * The encoded value and the flags which will be stored in the memcached server
+ */
+public final class CachedData {
+
+    private final int flags;
+    private final Buffer buffer;
+
+    public CachedData(final int flags, final Buffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("buffer must not be null");
+        }
+        this.flags = flags;
+        this.buffer = buffer;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public Buffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public String toString() {
+        return "CachedData{" +
+                "flags=" + flags +
+                ", buffer=" + buffer +
+                '}';
+    }
+}
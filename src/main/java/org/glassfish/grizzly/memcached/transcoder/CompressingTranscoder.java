@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached.transcoder;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.MemoryManager;
+
+import java.nio.ByteBuffer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The transcoder which compresses values encoded by another transcoder
+ * <p>
+ * Values which are larger than {@code compressionThreshold} are compressed by the {@link Compressor}.
+ * If the compressed value doesn't save {@code minGainPercent} percent at least, the raw value is stored
+ * so values which don't compress well never pay for decompression.
+ * The compressor's flag bit is added to the flags of compressed values, so the raw and compressed values can be read together.
+ */
+public class CompressingTranscoder<V> implements Transcoder<V> {
+
+    private static final Logger logger = Grizzly.logger(CompressingTranscoder.class);
+
+    // the upper byte of flags is reserved for compressors
+    public static final int COMPRESSION_FLAGS_MASK = 0xFF000000;
+
+    private final Transcoder<V> transcoder;
+    private final Compressor compressor;
+    private final int compressionThreshold;
+    private final int minGainPercent;
+
+    public CompressingTranscoder(final Transcoder<V> transcoder,
+                                 final Compressor compressor,
+                                 final int compressionThreshold,
+                                 final int minGainPercent) {
+        if (transcoder == null || compressor == null) {
+            throw new IllegalArgumentException("transcoder and compressor must not be null");
+        }
+        final int flag = compressor.getFlag();
+        if (flag == 0 || (flag & ~COMPRESSION_FLAGS_MASK) != 0 || (flag & (flag - 1)) != 0) {
+            throw new IllegalArgumentException("the flag of the compressor should be one bit of the upper byte");
+        }
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException("compression threshold must not be negative");
+        }
+        if (minGainPercent < 0 || minGainPercent >= 100) {
+            throw new IllegalArgumentException("min gain percent must be in [0, 100)");
+        }
+        this.transcoder = transcoder;
+        this.compressor = compressor;
+        this.compressionThreshold = compressionThreshold;
+        this.minGainPercent = minGainPercent;
+    }
+
+    @Override
+    public CachedData encode(final V value, final MemoryManager memoryManager) {
+        final CachedData cachedData = transcoder.encode(value, memoryManager);
+        final Buffer buffer = cachedData.getBuffer();
+        final int length = buffer.remaining();
+        if (length <= compressionThreshold) {
+            return cachedData;
+        }
+        final ByteBuffer byteBuffer = buffer.toByteBuffer(buffer.position(), buffer.limit());
+        final byte[] bytes;
+        final int offset;
+        if (byteBuffer.hasArray()) {
+            bytes = byteBuffer.array();
+            offset = byteBuffer.arrayOffset() + byteBuffer.position();
+        } else {
+            bytes = new byte[length];
+            byteBuffer.get(bytes);
+            offset = 0;
+        }
+        final byte[] compressed = compressor.compress(bytes, offset, length);
+        if (!isWorthCompressing(length, compressed.length)) {
+            return cachedData;
+        }
+        buffer.tryDispose();
+        final Buffer compressedBuffer = Buffers.wrap(memoryManager != null ? memoryManager : MemoryManager.DEFAULT_MEMORY_MANAGER, compressed);
+        compressedBuffer.allowBufferDispose(true);
+        return new CachedData(cachedData.getFlags() | compressor.getFlag(), compressedBuffer);
+    }
+
+    boolean isWorthCompressing(final int length, final int compressedLength) {
+        return compressedLength <= length - (long) length * minGainPercent / 100;
+    }
+
+    @Override
+    public V decode(final int flags, final Buffer buffer, final int position, final int limit, final MemoryManager memoryManager) {
+        if (buffer == null || position > limit) {
+            return null;
+        }
+        final int compressionFlags = flags & COMPRESSION_FLAGS_MASK;
+        if (compressionFlags == 0) {
+            return transcoder.decode(flags, buffer, position, limit, memoryManager);
+        }
+        if (compressionFlags != compressor.getFlag()) {
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.log(Level.WARNING, "the value was compressed by another compressor. flags={0}", flags);
+            }
+            return null;
+        }
+        final ByteBuffer byteBuffer = buffer.toByteBuffer(position, limit);
+        final int length = limit - position;
+        final byte[] decompressed;
+        try {
+            if (byteBuffer.hasArray()) {
+                decompressed = compressor.decompress(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), length);
+            } else {
+                final byte[] bytes = new byte[length];
+                byteBuffer.get(bytes);
+                decompressed = compressor.decompress(bytes, 0, length);
+            }
+        } catch (IllegalArgumentException iae) {
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.log(Level.WARNING, "failed to decompress the value", iae);
+            }
+            return null;
+        }
+        final Buffer decompressedBuffer = Buffers.wrap(memoryManager != null ? memoryManager : MemoryManager.DEFAULT_MEMORY_MANAGER, decompressed);
+        return transcoder.decode(flags & ~COMPRESSION_FLAGS_MASK, decompressedBuffer, 0, decompressed.length, memoryManager);
+    }
+
+    public Transcoder<V> getTranscoder() {
+        return transcoder;
+    }
+
+    public Compressor getCompressor() {
+        return compressor;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public int getMinGainPercent() {
+        return minGainPercent;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressingTranscoder{" +
+                "transcoder=" + transcoder +
+                ", compressor=" + compressor +
+                ", compressionThreshold=" + compressionThreshold +
+                ", minGainPercent=" + minGainPercent +
+                '}';
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached.transcoder;
+
+/**
+ * Compresses encoded values
+ * <p>
+ * Every compressor has its own flag bit which marks values compressed by it.
+ * The flag should be one of the bits in {@link CompressingTranscoder#COMPRESSION_FLAGS_MASK}
+ * because transcoders use the lower bits.
+ * <p>
+ * Implementations should be thread-safe.
+ *
+ * @see CompressingTranscoder
+ */
+public interface Compressor {
+
+    /**
+     * @return the flag bit which marks values compressed by this compressor
+     */
+    public int getFlag();
+
+    /**
+     * Compress the given bytes
+     *
+     * @param in     the source bytes
+     * @param offset the offset of {@code in}
+     * @param length the length of bytes which should be compressed
+     * @return the compressed bytes
+     */
+    public byte[] compress(final byte[] in, final int offset, final int length);
+
+    /**
+     * Decompress the given bytes
+     *
+     * @param in     the compressed bytes
+     * @param offset the offset of {@code in}
+     * @param length the length of compressed bytes
+     * @return the decompressed bytes
+     * @throws IllegalArgumentException if the given bytes are malformed
+     */
+    public byte[] decompress(final byte[] in, final int offset, final int length);
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached.transcoder;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memcached.BufferWrapper;
+import org.glassfish.grizzly.memory.MemoryManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The default transcoder which converts values by {@link BufferWrapper}
+ * <p>
+ * Primitive wrappers, String, byte[], ByteBuffer and Date have their own formats and
+ * other objects are serialized by {@link java.io.ObjectOutputStream}.
+ * Values which are larger than {@code compressionThreshold} are compressed by GZIP.
+ * <p>
+ * If compression is disabled, serialized objects are written into the outgoing packet directly.
+ * The last encoded length of each class is the length hint of its next value.
+ */
+public class DefaultTranscoder<V> implements DirectTranscoder<V> {
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultTranscoder INSTANCE = new DefaultTranscoder();
+
+    private static final int DEFAULT_OBJECT_LENGTH_HINT = 256;
+
+    private final int compressionThreshold;
+    // the hints are attached to the classes so that they don't keep the classes and their class loaders alive
+    private final ClassValue<AtomicInteger> objectLengthHints = new ClassValue<AtomicInteger>() {
+        @Override
+        protected AtomicInteger computeValue(final Class<?> type) {
+            return new AtomicInteger(DEFAULT_OBJECT_LENGTH_HINT);
+        }
+    };
+
+    /**
+     * @return the shared transcoder whose compression threshold is {@link BufferWrapper#DEFAULT_COMPRESSION_THRESHOLD}
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> DefaultTranscoder<V> getInstance() {
+        return (DefaultTranscoder<V>) INSTANCE;
+    }
+
+    public DefaultTranscoder() {
+        this(BufferWrapper.DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    /**
+     * @param compressionThreshold values which are larger than this are compressed by GZIP. if negative, values are never compressed
+     */
+    public DefaultTranscoder(final int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    @Override
+    public CachedData encode(final V value, final MemoryManager memoryManager) {
+        final BufferWrapper<V> valueWrapper = BufferWrapper.wrap(value, memoryManager, compressionThreshold);
+        final CachedData cachedData = new CachedData(valueWrapper.getType().flags, valueWrapper.getBuffer());
+        valueWrapper.recycle();
+        return cachedData;
+    }
+
+    @Override
+    public boolean isDirectlyEncodable(final V value) {
+        return compressionThreshold < 0 && BufferWrapper.isSerializedObject(value);
+    }
+
+    @Override
+    public int getFlags(final V value) {
+        return BufferWrapper.BufferType.OBJECT.flags;
+    }
+
+    @Override
+    public int getEncodedLengthHint(final V value) {
+        return objectLengthHints.get(value.getClass()).get();
+    }
+
+    @Override
+    public void writeTo(final V value, final OutputStream out) throws IOException {
+        final CountingOutputStream counting = new CountingOutputStream(out);
+        BufferWrapper.writeObject(value, counting);
+        objectLengthHints.get(value.getClass()).set(counting.getCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V decode(final int flags, final Buffer buffer, final int position, final int limit, final MemoryManager memoryManager) {
+        return (V) BufferWrapper.unwrap(buffer, position, limit, BufferWrapper.BufferType.getBufferType(flags), memoryManager);
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultTranscoder{" +
+                "compressionThreshold=" + compressionThreshold +
+                '}';
+    }
+}
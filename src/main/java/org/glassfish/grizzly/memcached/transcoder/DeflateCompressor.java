@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached.transcoder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The compressor based on DEFLATE
+ * <p>
+ * This compresses better than {@link Lz4Compressor} but costs much more CPU.
+ * The compressed bytes are prefixed with the original length as a 4-byte integer
+ * so that they are inflated into the exact sized array at once.
+ */
+public class DeflateCompressor implements Compressor {
+
+    public static final int FLAG = 1 << 25;
+
+    // DEFLATE can't expand a byte of the compressed bytes to more than 1032 bytes
+    private static final int MAX_EXPANSION_RATIO = 1032;
+
+    private final int level;
+
+    public DeflateCompressor() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param level the compression level of {@link Deflater}
+     */
+    public DeflateCompressor(final int level) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level");
+        }
+        this.level = level;
+    }
+
+    @Override
+    public int getFlag() {
+        return FLAG;
+    }
+
+    @Override
+    public byte[] compress(final byte[] in, final int offset, final int length) {
+        if (in == null || offset < 0 || length < 0 || offset + length > in.length) {
+            throw new IllegalArgumentException("invalid source bytes");
+        }
+        final Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(in, offset, length);
+            deflater.finish();
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream(length / 2 + 16);
+            bos.write(length >>> 24);
+            bos.write(length >>> 16);
+            bos.write(length >>> 8);
+            bos.write(length);
+            final byte[] buf = new byte[8192];
+            while (!deflater.finished()) {
+                final int n = deflater.deflate(buf);
+                bos.write(buf, 0, n);
+            }
+            return bos.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(final byte[] in, final int offset, final int length) {
+        if (in == null || offset < 0 || length < 4 || offset + length > in.length) {
+            throw new IllegalArgumentException("invalid compressed bytes");
+        }
+        final int originalLength = ((in[offset] & 0xFF) << 24) | ((in[offset + 1] & 0xFF) << 16) | ((in[offset + 2] & 0xFF) << 8) | (in[offset + 3] & 0xFF);
+        if (originalLength < 0 || originalLength > (long) (length - 4) * MAX_EXPANSION_RATIO) {
+            throw new IllegalArgumentException("invalid original length. length=" + originalLength);
+        }
+        final byte[] out = new byte[originalLength];
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(in, offset + 4, length - 4);
+            int n = 0;
+            while (n < originalLength && !inflater.finished()) {
+                final int inflated = inflater.inflate(out, n, originalLength - n);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += inflated;
+            }
+            if (n != originalLength) {
+                throw new IllegalArgumentException("malformed compressed bytes. expected=" + originalLength + ", actual=" + n);
+            }
+            return out;
+        } catch (DataFormatException dfe) {
+            throw new IllegalArgumentException("malformed compressed bytes", dfe);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DeflateCompressor{" +
+                "level=" + level +
+                '}';
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached.transcoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The transcoder which can write encoded values into the outgoing packet directly
+ * <p>
+ * If {@link #isDirectlyEncodable} returns true, the value is not encoded into its own buffer when the request is made.
+ * Instead, {@link org.glassfish.grizzly.memcached.MemcachedClientFilter} writes it into the packet buffer while making the packet
+ * and fixes up the body length of the header afterwards, which saves one copy and one allocation per stored value.
+ * Values which should be compressed can't be written directly because their flags depend on the encoded length.
+ * <p>
+ * A directly encodable value is encoded when its request is written, so it should not be modified until the store operation returns.
+ */
+public interface DirectTranscoder<V> extends Transcoder<V> {
+
+    /**
+     * @param value the value which should be stored
+     * @return true if the given {@code value} can be written by {@link #writeTo} with {@link #getFlags}
+     */
+    public boolean isDirectlyEncodable(final V value);
+
+    /**
+     * @param value the directly encodable value
+     * @return the flags which should be stored with the value
+     */
+    public int getFlags(final V value);
+
+    /**
+     * Estimate the encoded length for sizing the packet buffer
+     * <p>
+     * The estimation doesn't need to be exact because the buffer grows and the header is fixed up after writing.
+     *
+     * @param value the directly encodable value
+     * @return the estimated length in bytes
+     */
+    public int getEncodedLengthHint(final V value);
+
+    /**
+     * Write the encoded value to {@code out}
+     * <p>
+     * {@code out} must not be closed.
+     *
+     * @param value the directly encodable value
+     * @param out   the stream which writes into the packet buffer
+     * @throws IOException if the value can't be encoded
+     */
+    public void writeTo(final V value, final OutputStream out) throws IOException;
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached.transcoder;
+
+import java.util.Arrays;
+
+/**
+ * The pure-Java compressor based on the LZ4 block format
+ * <p>
+ * This trades compression ratio for speed. Matches are found by a hash table of 4-byte sequences within a 64K window
+ * and the search skips faster while no match is found, so incompressible data is passed through quickly.
+ * The compressed bytes are prefixed with the original length as a 4-byte integer.
+ * The original length is checked against the largest length which the compressed bytes can expand to
+ * and the configured maximum before the output is allocated, so corrupt bytes can't allocate a huge array.
+ */
+public class Lz4Compressor implements Compressor {
+
+    public static final int FLAG = 1 << 24;
+
+    private static final int MIN_MATCH = 4;
+    private static final int HASH_LOG = 12;
+    private static final int MAX_DISTANCE = 0xFFFF;
+    // the last match should start at least 12 bytes before the end and the last 5 bytes are always literals
+    private static final int MF_LIMIT = 12;
+    private static final int LAST_LITERALS = 5;
+    private static final int SKIP_TRIGGER = 6;
+    // a byte of the compressed bytes can't expand to more than 255 bytes
+    private static final int MAX_EXPANSION_RATIO = 255;
+
+    private static final Lz4Compressor INSTANCE = new Lz4Compressor();
+
+    private final int maxOriginalLength;
+
+    public static Lz4Compressor getInstance() {
+        return INSTANCE;
+    }
+
+    public Lz4Compressor() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxOriginalLength the maximum length of decompressed values such as the item size limit of memcached
+     */
+    public Lz4Compressor(final int maxOriginalLength) {
+        if (maxOriginalLength < 0) {
+            throw new IllegalArgumentException("max original length must not be negative");
+        }
+        this.maxOriginalLength = maxOriginalLength;
+    }
+
+    @Override
+    public int getFlag() {
+        return FLAG;
+    }
+
+    @Override
+    public byte[] compress(final byte[] in, final int offset, final int length) {
+        if (in == null || offset < 0 || length < 0 || offset + length > in.length) {
+            throw new IllegalArgumentException("invalid source bytes");
+        }
+        final byte[] out = new byte[4 + length + length / 255 + 16];
+        writeInt(out, 0, length);
+        int op = 4;
+        final int end = offset + length;
+        int anchor = offset;
+        if (length > MF_LIMIT) {
+            final int[] table = new int[1 << HASH_LOG];
+            Arrays.fill(table, -1);
+            final int mfLimit = end - MF_LIMIT;
+            final int matchLimit = end - LAST_LITERALS;
+            int ip = offset;
+            while (ip <= mfLimit) {
+                final int sequence = readInt(in, ip);
+                final int h = hash(sequence);
+                int ref = table[h];
+                table[h] = ip;
+                if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(in, ref) != sequence) {
+                    ip += 1 + ((ip - anchor) >>> SKIP_TRIGGER);
+                    continue;
+                }
+                while (ip > anchor && ref > offset && in[ip - 1] == in[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && in[ip + matchLength] == in[ref + matchLength]) {
+                    matchLength++;
+                }
+                op = writeSequence(out, op, in, anchor, ip - anchor, ip - ref, matchLength);
+                ip += matchLength;
+                anchor = ip;
+            }
+        }
+        op = writeLastLiterals(out, op, in, anchor, end - anchor);
+        return Arrays.copyOf(out, op);
+    }
+
+    @Override
+    public byte[] decompress(final byte[] in, final int offset, final int length) {
+        if (in == null || offset < 0 || length < 4 || offset + length > in.length) {
+            throw new IllegalArgumentException("invalid compressed bytes");
+        }
+        final int originalLength = readInt(in, offset);
+        if (originalLength < 0 || originalLength > maxOriginalLength || originalLength > (long) (length - 4) * MAX_EXPANSION_RATIO) {
+            throw new IllegalArgumentException("invalid original length. length=" + originalLength);
+        }
+        final byte[] out = new byte[originalLength];
+        final int end = offset + length;
+        int ip = offset + 4;
+        int op = 0;
+        while (ip < end) {
+            final int token = in[ip++] & 0xFF;
+            int literalLength = token >>> 4;
+            if (literalLength == 0xF) {
+                int b;
+                do {
+                    if (ip >= end) {
+                        throw new IllegalArgumentException("malformed literal length");
+                    }
+                    b = in[ip++] & 0xFF;
+                    literalLength += b;
+                } while (b == 0xFF);
+            }
+            if (literalLength > end - ip || literalLength > originalLength - op) {
+                throw new IllegalArgumentException("malformed literals");
+            }
+            System.arraycopy(in, ip, out, op, literalLength);
+            ip += literalLength;
+            op += literalLength;
+            if (ip >= end) {
+                // the last literals
+                break;
+            }
+            if (ip + 1 >= end) {
+                throw new IllegalArgumentException("malformed match offset");
+            }
+            final int distance = (in[ip] & 0xFF) | ((in[ip + 1] & 0xFF) << 8);
+            ip += 2;
+            if (distance == 0 || distance > op) {
+                throw new IllegalArgumentException("malformed match offset");
+            }
+            int matchLength = token & 0xF;
+            if (matchLength == 0xF) {
+                int b;
+                do {
+                    if (ip >= end) {
+                        throw new IllegalArgumentException("malformed match length");
+                    }
+                    b = in[ip++] & 0xFF;
+                    matchLength += b;
+                } while (b == 0xFF);
+            }
+            matchLength += MIN_MATCH;
+            if (matchLength > originalLength - op) {
+                throw new IllegalArgumentException("malformed match length");
+            }
+            final int ref = op - distance;
+            if (distance >= matchLength) {
+                System.arraycopy(out, ref, out, op, matchLength);
+            } else {
+                // overlapped copy repeats the pattern
+                for (int i = 0; i < matchLength; i++) {
+                    out[op + i] = out[ref + i];
+                }
+            }
+            op += matchLength;
+        }
+        if (op != originalLength) {
+            throw new IllegalArgumentException("malformed compressed bytes. expected=" + originalLength + ", actual=" + op);
+        }
+        return out;
+    }
+
+    private static int writeSequence(final byte[] out, int op, final byte[] in, final int literalOffset, final int literalLength,
+                                     final int distance, final int matchLength) {
+        final int tokenPosition = op++;
+        int token;
+        if (literalLength >= 0xF) {
+            token = 0xF << 4;
+            op = writeLength(out, op, literalLength - 0xF);
+        } else {
+            token = literalLength << 4;
+        }
+        System.arraycopy(in, literalOffset, out, op, literalLength);
+        op += literalLength;
+        out[op++] = (byte) distance;
+        out[op++] = (byte) (distance >>> 8);
+        final int remainingMatchLength = matchLength - MIN_MATCH;
+        if (remainingMatchLength >= 0xF) {
+            token |= 0xF;
+            op = writeLength(out, op, remainingMatchLength - 0xF);
+        } else {
+            token |= remainingMatchLength;
+        }
+        out[tokenPosition] = (byte) token;
+        return op;
+    }
+
+    private static int writeLastLiterals(final byte[] out, int op, final byte[] in, final int literalOffset, final int literalLength) {
+        if (literalLength >= 0xF) {
+            out[op++] = (byte) (0xF << 4);
+            op = writeLength(out, op, literalLength - 0xF);
+        } else {
+            out[op++] = (byte) (literalLength << 4);
+        }
+        System.arraycopy(in, literalOffset, out, op, literalLength);
+        return op + literalLength;
+    }
+
+    private static int writeLength(final byte[] out, int op, int length) {
+        while (length >= 0xFF) {
+            out[op++] = (byte) 0xFF;
+            length -= 0xFF;
+        }
+        out[op++] = (byte) length;
+        return op;
+    }
+
+    private static int hash(final int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static int readInt(final byte[] bytes, final int index) {
+        return ((bytes[index] & 0xFF) << 24) | ((bytes[index + 1] & 0xFF) << 16) | ((bytes[index + 2] & 0xFF) << 8) | (bytes[index + 3] & 0xFF);
+    }
+
+    private static void writeInt(final byte[] bytes, final int index, final int value) {
+        bytes[index] = (byte) (value >>> 24);
+        bytes[index + 1] = (byte) (value >>> 16);
+        bytes[index + 2] = (byte) (value >>> 8);
+        bytes[index + 3] = (byte) value;
+    }
+
+    @Override
+    public String toString() {
+        return "Lz4Compressor{" +
+                "maxOriginalLength=" + maxOriginalLength +
+                '}';
+    }
+}
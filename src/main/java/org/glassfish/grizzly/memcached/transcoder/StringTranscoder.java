@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached.transcoder;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memcached.BufferWrapper;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.MemoryManager;
+
+import java.nio.charset.Charset;
+
+/**
+ * The transcoder for UTF-8 strings
+ * <p>
+ * Strings are never compressed. The flags are compatible with {@link DefaultTranscoder}
+ * so values which were stored by the default transcoder can be read too.
+ */
+public class StringTranscoder implements Transcoder<String> {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final StringTranscoder INSTANCE = new StringTranscoder();
+
+    public static StringTranscoder getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public CachedData encode(final String value, final MemoryManager memoryManager) {
+        if (value == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+        final Buffer buffer = Buffers.wrap(memoryManager != null ? memoryManager : MemoryManager.DEFAULT_MEMORY_MANAGER, value, UTF_8);
+        buffer.allowBufferDispose(true);
+        return new CachedData(BufferWrapper.BufferType.STRING.flags, buffer);
+    }
+
+    @Override
+    public String decode(final int flags, final Buffer buffer, final int position, final int limit, final MemoryManager memoryManager) {
+        if (buffer == null || position > limit) {
+            return null;
+        }
+        if (flags != BufferWrapper.BufferType.STRING.flags) {
+            final Object value = BufferWrapper.unwrap(buffer, position, limit, BufferWrapper.BufferType.getBufferType(flags), memoryManager);
+            return value instanceof String ? (String) value : null;
+        }
+        final byte[] bytes = new byte[limit - position];
+        buffer.get(bytes, 0, bytes.length);
+        return new String(bytes, UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "StringTranscoder";
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached.transcoder;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memory.MemoryManager;
+
+/**
+ * Converts values of a cache into the memcached's value and flags and restores them
+ * <p>
+ * A transcoder can be configured per cache by {@link org.glassfish.grizzly.memcached.GrizzlyMemcachedCache.Builder#transcoder}.
+ * The flags are stored with the value in the memcached server, so a transcoder should decode the value
+ * by the flags which it encoded.
+ * <p>
+ * Implementations should be thread-safe because one transcoder is shared by all connections of a cache.
+ */
+public interface Transcoder<V> {
+
+    /**
+     * Encode the given {@code value}
+     *
+     * @param value         the value which should be stored
+     * @param memoryManager the memory manager for allocating {@link Buffer}
+     * @return the encoded buffer and its flags
+     * @throws IllegalArgumentException if the value can't be encoded
+     */
+    public CachedData encode(final V value, final MemoryManager memoryManager);
+
+    /**
+     * Decode the value between {@code position} and {@code limit} of the given {@code buffer}
+     * <p>
+     * The position of {@code buffer} may be moved.
+     *
+     * @param flags         the flags which were stored with the value
+     * @param buffer        the received buffer
+     * @param position      the start position of the value
+     * @param limit         the limit of the value
+     * @param memoryManager the memory manager for allocating {@link Buffer}
+     * @return the restored value or null if it failed
+     */
+    public V decode(final int flags, final Buffer buffer, final int position, final int limit, final MemoryManager memoryManager);
+}
@@ -18,13 +18,17 @@ package org.glassfish.grizzly.memcached.zookeeper;
 
 import org.glassfish.grizzly.Grizzly;
 import org.glassfish.grizzly.memcached.MemcachedCache;
+import org.glassfish.grizzly.memcached.NodeLocator;
 
 import java.io.UnsupportedEncodingException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.logging.Level;
@@ -32,6 +36,11 @@ import java.util.logging.Logger;
 
 /**
  * The {@link BarrierListener} implementation for synchronizing the cache server list among all clients which have joined the same zookeeper server
+ * <p>
+ * The server list is in the form of "host:port,host2:port:weight". The weight is optional and 1 by default.
+ * Weights are applied only if {@code weighted} is true because clients which don't support weights
+ * parse "host:port:weight" as the host "host:port" and the port "weight".
+ * If the weight of a server is changed, the server's weight of the cache is updated in place.
  *
  * @author Bongjae Chang
  */
@@ -39,15 +48,27 @@ public class CacheServerListBarrierListener implements BarrierListener {
 
     private static final Logger logger = Grizzly.logger(CacheServerListBarrierListener.class);
     public static final String DEFAULT_SERVER_LIST_CHARSET = "UTF-8";
+    public static final int DEFAULT_WEIGHT = 1;
 
     protected final MemcachedCache cache;
     protected final String cacheName;
+    protected final boolean weighted;
     protected final Set<SocketAddress> localCacheServerSet = new CopyOnWriteArraySet<SocketAddress>();
+    // the weights of servers which are not DEFAULT_WEIGHT
+    protected final Map<SocketAddress, Integer> localCacheServerWeights = new ConcurrentHashMap<SocketAddress, Integer>();
     private final List<BarrierListener> customListenerList = new CopyOnWriteArrayList<BarrierListener>();
 
     public CacheServerListBarrierListener(final MemcachedCache cache, final Set<SocketAddress> cacheServerSet) {
+        this(cache, cacheServerSet, false);
+    }
+
+    /**
+     * @param weighted true if weights of the remote server list are applied. otherwise, weights are ignored
+     */
+    public CacheServerListBarrierListener(final MemcachedCache cache, final Set<SocketAddress> cacheServerSet, final boolean weighted) {
         this.cache = cache;
         this.cacheName = cache.getName();
+        this.weighted = weighted;
         if (cacheServerSet != null) {
             this.localCacheServerSet.addAll(cacheServerSet);
         }
@@ -110,26 +131,33 @@ public class CacheServerListBarrierListener implements BarrierListener {
         }
         try {
             final String remoteDataString = new String(remoteBytes, DEFAULT_SERVER_LIST_CHARSET);
-            final Set<SocketAddress> remoteCacheServers = getAddressesFromStringList(remoteDataString);
+            final Map<SocketAddress, Integer> remoteCacheServers = parseServerList(remoteDataString);
             if (!remoteCacheServers.isEmpty()) {
                 if (cache != null) {
                     final Set<SocketAddress> shouldBeAdded = new HashSet<SocketAddress>();
+                    final Set<SocketAddress> shouldBeUpdated = new HashSet<SocketAddress>();
                     final Set<SocketAddress> shouldBeRemoved = new HashSet<SocketAddress>();
-                    for (final SocketAddress remoteServer : remoteCacheServers) {
-                        if (!localCacheServerSet.remove(remoteServer)) {
-                            shouldBeAdded.add(remoteServer);
+                    for (final Map.Entry<SocketAddress, Integer> remoteServer : remoteCacheServers.entrySet()) {
+                        if (!localCacheServerSet.remove(remoteServer.getKey())) {
+                            shouldBeAdded.add(remoteServer.getKey());
+                        } else if (getLocalWeight(remoteServer.getKey()) != remoteServer.getValue()) {
+                            shouldBeUpdated.add(remoteServer.getKey());
                         }
                     }
                     shouldBeRemoved.addAll(localCacheServerSet);
                     for (final SocketAddress address : shouldBeAdded) {
-                        cache.addServer(address);
+                        addServer(address, remoteCacheServers.get(address));
+                    }
+                    for (final SocketAddress address : shouldBeUpdated) {
+                        cache.addServer(address, remoteCacheServers.get(address));
                     }
                     for (final SocketAddress address : shouldBeRemoved) {
                         cache.removeServer(address);
                     }
                     // refresh local
                     localCacheServerSet.clear();
-                    localCacheServerSet.addAll(remoteCacheServers);
+                    localCacheServerSet.addAll(remoteCacheServers.keySet());
+                    setLocalWeights(remoteCacheServers);
                 }
             }
         } catch (UnsupportedEncodingException uee) {
@@ -164,6 +192,48 @@ public class CacheServerListBarrierListener implements BarrierListener {
         }
     }
 
+    /**
+     * Parse the remote server list. If this listener is not {@code weighted}, all servers have {@link #DEFAULT_WEIGHT}
+     */
+    protected Map<SocketAddress, Integer> parseServerList(final String serverList) {
+        final Map<SocketAddress, Integer> servers = getWeightedAddressesFromStringList(serverList);
+        if (!weighted && hasWeights(servers)) {
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.log(Level.WARNING, "weights of the remote server list are ignored because weights are disabled. cacheName={0}, list={1}",
+                        new Object[]{cacheName, serverList});
+            }
+            for (final Map.Entry<SocketAddress, Integer> entry : servers.entrySet()) {
+                entry.setValue(DEFAULT_WEIGHT);
+            }
+        }
+        return servers;
+    }
+
+    /**
+     * Add the server to the cache. The server of the default weight is added by {@link MemcachedCache#addServer(SocketAddress)}
+     */
+    protected void addServer(final SocketAddress address, final int weight) {
+        if (weight == DEFAULT_WEIGHT) {
+            cache.addServer(address);
+        } else {
+            cache.addServer(address, weight);
+        }
+    }
+
+    private int getLocalWeight(final SocketAddress address) {
+        final Integer weight = localCacheServerWeights.get(address);
+        return weight != null ? weight : DEFAULT_WEIGHT;
+    }
+
+    protected void setLocalWeights(final Map<SocketAddress, Integer> weightedServers) {
+        localCacheServerWeights.clear();
+        for (final Map.Entry<SocketAddress, Integer> entry : weightedServers.entrySet()) {
+            if (entry.getValue() != DEFAULT_WEIGHT) {
+                localCacheServerWeights.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
     public void addCustomListener(final BarrierListener listener) {
         if (listener == null) {
             return;
@@ -182,7 +252,9 @@ public class CacheServerListBarrierListener implements BarrierListener {
     public String toString() {
         return "CacheServerListBarrierListener{" +
                 "cacheName='" + cacheName + '\'' +
+                ", weighted=" + weighted +
                 ", localCacheServerSet=" + localCacheServerSet +
+                ", localCacheServerWeights=" + localCacheServerWeights +
                 ", customListenerList=" + customListenerList +
                 '}';
     }
@@ -197,28 +269,94 @@ public class CacheServerListBarrierListener implements BarrierListener {
      * @return server set
      */
     public static Set<SocketAddress> getAddressesFromStringList(final String serverList) {
+        return new HashSet<SocketAddress>(getWeightedAddressesFromStringList(serverList).keySet());
+    }
+
+    /**
+     * Split a string in the form of "host:port:weight, host2:port" into a Map of
+     * {@link java.net.SocketAddress} instances and their weights.
+     * <p>
+     * The weight is optional and {@link #DEFAULT_WEIGHT} by default, and should not be greater than {@link NodeLocator#MAX_WEIGHT}.
+     * Colon-delimited IPv6 without the weight is also supported. For example: ::1:11211
+     * IPv6 with the weight should be enclosed in square brackets. For example: [::1]:11211:2
+     *
+     * @param serverList server list in the form of "host:port:weight,host2:port"
+     * @return the map of the server and its weight in the order of the list
+     */
+    public static Map<SocketAddress, Integer> getWeightedAddressesFromStringList(final String serverList) {
         if (serverList == null) {
             throw new IllegalArgumentException("null host list");
         }
         if (serverList.trim().equals("")) {
             throw new IllegalArgumentException("no hosts in list:  ``" + serverList + "''");
         }
-        final HashSet<SocketAddress> addrs = new HashSet<SocketAddress>();
+        final Map<SocketAddress, Integer> addrs = new LinkedHashMap<SocketAddress, Integer>();
         for (final String hoststuff : serverList.split("(,| )")) {
             if (hoststuff.length() == 0) {
                 continue;
             }
-            int finalColon = hoststuff.lastIndexOf(':');
-            if (finalColon < 1) {
-                throw new IllegalArgumentException("Invalid server ``" + hoststuff + "'' in list:  " + serverList);
+            final String hostPart;
+            final String portNum;
+            String weightNum = null;
+            final int firstColon = hoststuff.indexOf(':');
+            final int finalColon = hoststuff.lastIndexOf(':');
+            if (hoststuff.startsWith("[")) {
+                // [host]:port or [host]:port:weight
+                final int closingBracket = hoststuff.indexOf(']');
+                if (closingBracket < 2 || closingBracket + 1 >= hoststuff.length() || hoststuff.charAt(closingBracket + 1) != ':') {
+                    throw new IllegalArgumentException("Invalid server ``" + hoststuff + "'' in list:  " + serverList);
+                }
+                hostPart = hoststuff.substring(1, closingBracket);
+                final String rest = hoststuff.substring(closingBracket + 2);
+                final int colon = rest.indexOf(':');
+                portNum = colon < 0 ? rest : rest.substring(0, colon);
+                weightNum = colon < 0 ? null : rest.substring(colon + 1);
+            } else if (firstColon > 0 && firstColon != finalColon && hoststuff.indexOf(':', firstColon + 1) == finalColon) {
+                // host:port:weight
+                hostPart = hoststuff.substring(0, firstColon);
+                portNum = hoststuff.substring(firstColon + 1, finalColon);
+                weightNum = hoststuff.substring(finalColon + 1);
+            } else {
+                if (finalColon < 1) {
+                    throw new IllegalArgumentException("Invalid server ``" + hoststuff + "'' in list:  " + serverList);
+                }
+                hostPart = hoststuff.substring(0, finalColon);
+                portNum = hoststuff.substring(finalColon + 1);
+            }
+            final int weight = weightNum != null ? Integer.parseInt(weightNum) : DEFAULT_WEIGHT;
+            if (weight <= 0 || weight > NodeLocator.MAX_WEIGHT) {
+                throw new IllegalArgumentException("Invalid weight of the server ``" + hoststuff + "'' in list:  " + serverList);
             }
-            final String hostPart = hoststuff.substring(0, finalColon);
-            final String portNum = hoststuff.substring(finalColon + 1);
-            addrs.add(new InetSocketAddress(hostPart, Integer.parseInt(portNum)));
+            addrs.put(new InetSocketAddress(hostPart, Integer.parseInt(portNum)), weight);
         }
         return addrs;
     }
 
+    /**
+     * Check if the server list has weights which are not {@link #DEFAULT_WEIGHT}
+     * <p>
+     * Invalid server lists are not checked here and are regarded as unweighted.
+     *
+     * @param serverList server list in the form of "host:port:weight,host2:port"
+     * @return true if some servers of the list have weights
+     */
+    public static boolean hasWeights(final String serverList) {
+        try {
+            return hasWeights(getWeightedAddressesFromStringList(serverList));
+        } catch (IllegalArgumentException iae) {
+            return false;
+        }
+    }
+
+    private static boolean hasWeights(final Map<SocketAddress, Integer> servers) {
+        for (final Integer weight : servers.values()) {
+            if (weight != DEFAULT_WEIGHT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Convert server set into server list like "host:port,host2:port"
      *
@@ -229,11 +367,41 @@ public class CacheServerListBarrierListener implements BarrierListener {
         if (servers == null || servers.isEmpty()) {
             throw new IllegalArgumentException("Null servers");
         }
-        final StringBuilder builder = new StringBuilder(256);
+        final Map<SocketAddress, Integer> weightedServers = new LinkedHashMap<SocketAddress, Integer>();
         for (final SocketAddress server : servers) {
-            if (server instanceof InetSocketAddress) {
-                final InetSocketAddress inetSocketAddress = (InetSocketAddress) server;
-                builder.append(inetSocketAddress.getHostName()).append(':').append(inetSocketAddress.getPort());
+            weightedServers.put(server, DEFAULT_WEIGHT);
+        }
+        return getStringListFromAddressMap(weightedServers);
+    }
+
+    /**
+     * Convert the map of servers and their weights into server list like "host:port:weight,host2:port"
+     * <p>
+     * The weight is omitted if it is {@link #DEFAULT_WEIGHT}.
+     *
+     * @param servers the map of {@link InetSocketAddress} and its weight
+     * @return server list in the form of "host:port:weight,host2:port"
+     */
+    public static String getStringListFromAddressMap(final Map<SocketAddress, Integer> servers) {
+        if (servers == null || servers.isEmpty()) {
+            throw new IllegalArgumentException("Null servers");
+        }
+        final StringBuilder builder = new StringBuilder(256);
+        for (final Map.Entry<SocketAddress, Integer> entry : servers.entrySet()) {
+            if (entry.getKey() instanceof InetSocketAddress) {
+                final InetSocketAddress inetSocketAddress = (InetSocketAddress) entry.getKey();
+                final String hostName = inetSocketAddress.getHostName();
+                final boolean weighted = entry.getValue() != null && entry.getValue() != DEFAULT_WEIGHT;
+                if (weighted && hostName.indexOf(':') >= 0) {
+                    // IPv6 with the weight
+                    builder.append('[').append(hostName).append(']');
+                } else {
+                    builder.append(hostName);
+                }
+                builder.append(':').append(inetSocketAddress.getPort());
+                if (weighted) {
+                    builder.append(':').append(entry.getValue());
+                }
                 builder.append(',');
             }
         }
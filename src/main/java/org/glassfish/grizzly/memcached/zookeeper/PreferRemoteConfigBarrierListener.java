@@ -21,6 +21,7 @@ import org.glassfish.grizzly.memcached.MemcachedCache;
 
 import java.io.UnsupportedEncodingException;
 import java.net.SocketAddress;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -36,6 +37,10 @@ public class PreferRemoteConfigBarrierListener extends CacheServerListBarrierLis
         super(cache, cacheServerSet);
     }
 
+    public PreferRemoteConfigBarrierListener(final MemcachedCache cache, final Set<SocketAddress> cacheServerSet, final boolean weighted) {
+        super(cache, cacheServerSet, weighted);
+    }
+
     @Override
     public void onInit(final String regionName, final String path, final byte[] remoteBytes) {
         if (remoteBytes == null || remoteBytes.length == 0) {
@@ -50,7 +55,7 @@ public class PreferRemoteConfigBarrierListener extends CacheServerListBarrierLis
             }
             throw new IllegalStateException("remote config was not ready. path=" + path + ", cacheName=" + cacheName);
         }
-        final Set<SocketAddress> remoteCacheServers = getAddressesFromStringList(remoteCacheServerList);
+        final Map<SocketAddress, Integer> remoteCacheServers = parseServerList(remoteCacheServerList);
         if (remoteCacheServerList.isEmpty()) {
             throw new IllegalStateException("remote config was not ready. path=" + path + ", cacheName=" + cacheName);
         }
@@ -59,10 +64,11 @@ public class PreferRemoteConfigBarrierListener extends CacheServerListBarrierLis
         }
         // initializes local server list with remote config
         localCacheServerSet.clear();
-        for (final SocketAddress address : remoteCacheServers) {
-            localCacheServerSet.add(address);
-            cache.addServer(address);
+        for (final Map.Entry<SocketAddress, Integer> entry : remoteCacheServers.entrySet()) {
+            localCacheServerSet.add(entry.getKey());
+            addServer(entry.getKey(), entry.getValue());
         }
+        setLocalWeights(remoteCacheServers);
         super.onInit(regionName, path, remoteBytes);
     }
 }
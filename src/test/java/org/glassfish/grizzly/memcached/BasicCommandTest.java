@@ -16,6 +16,8 @@
 
 package org.glassfish.grizzly.memcached;
 
+import org.glassfish.grizzly.memcached.transcoder.BinaryTranscoder;
+import org.glassfish.grizzly.memcached.transcoder.Lz4Compressor;
 import org.junit.Assert;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -29,11 +31,17 @@ import java.io.ObjectOutput;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BiConsumer;
 
 /**
  * @author Bongjae Chang
@@ -474,6 +482,136 @@ public class BasicCommandTest {
         manager.shutdown();
     }
 
+    // memcached server should be booted in local
+    //@Test
+    public void testAwaitWriteWithResponse() {
+        final GrizzlyMemcachedCacheManager manager = new GrizzlyMemcachedCacheManager.Builder().build();
+        final GrizzlyMemcachedCache.Builder<String, String> builder = manager.createCacheBuilder("user");
+        builder.awaitWriteWithResponse(true);
+        final MemcachedCache<String, String> userCache = builder.build();
+        userCache.addServer(DEFAULT_MEMCACHED_ADDRESS);
+
+        for (int i = 0; i < 100; i++) {
+            final String key = "name" + i;
+            Assert.assertTrue(userCache.set(key, "foo" + i, expirationTimeoutInSec, false));
+            Assert.assertEquals("foo" + i, userCache.get(key, false));
+            Assert.assertTrue(userCache.delete(key, false));
+            Assert.assertNull(userCache.get(key, false));
+        }
+
+        manager.shutdown();
+    }
+
+    // memcached server should be booted in local
+    //@Test
+    public void testTranscoder() {
+        final GrizzlyMemcachedCacheManager manager = new GrizzlyMemcachedCacheManager.Builder().build();
+        final GrizzlyMemcachedCache.Builder<String, Object> builder = manager.createCacheBuilder("user");
+        builder.transcoder(new BinaryTranscoder<Object>());
+        final MemcachedCache<String, Object> userCache = builder.build();
+        userCache.addServer(DEFAULT_MEMCACHED_ADDRESS);
+
+        Assert.assertTrue(userCache.set("name", "foo", expirationTimeoutInSec, false));
+        Assert.assertEquals("foo", userCache.get("name", false));
+        Assert.assertTrue(userCache.set("count", 10L, expirationTimeoutInSec, false));
+        Assert.assertEquals(10L, userCache.get("count", false));
+        Assert.assertTrue(userCache.delete("name", false));
+        Assert.assertTrue(userCache.delete("count", false));
+
+        manager.shutdown();
+    }
+
+    // memcached server should be booted in local
+    //@Test
+    public void testStreamingGetMulti() {
+        final int multiSize = 100;
+        final int missingSize = 10;
+        final GrizzlyMemcachedCacheManager manager = new GrizzlyMemcachedCacheManager.Builder().build();
+        final GrizzlyMemcachedCache.Builder<String, String> builder = manager.createCacheBuilder("user");
+        final MemcachedCache<String, String> userCache = builder.build();
+        userCache.addServer(DEFAULT_MEMCACHED_ADDRESS);
+
+        final List<String> keys = new ArrayList<String>();
+        for (int i = 0; i < multiSize; i++) {
+            final String key = "name" + i;
+            keys.add(key);
+            if (i < multiSize - missingSize) {
+                userCache.set(key, "foo" + i, expirationTimeoutInSec, false);
+            }
+        }
+        final Map<String, String> result = new ConcurrentHashMap<String, String>();
+        userCache.getMulti(keys, new BiConsumer<String, String>() {
+            @Override
+            public void accept(final String key, final String value) {
+                Assert.assertNull(result.put(key, value));
+            }
+        });
+        Assert.assertEquals(multiSize - missingSize, result.size());
+
+        for (int i = 0; i < multiSize; i++) {
+            final String key = "name" + i;
+            if (i < multiSize - missingSize) {
+                Assert.assertEquals("foo" + i, result.get(key));
+            } else {
+                Assert.assertNull(result.get(key));
+            }
+
+            // clean
+            userCache.delete(key, false);
+        }
+
+        manager.shutdown();
+    }
+
+    // memcached server should be booted in local
+    //@Test
+    public void testStreamingGetMultiInDecodeExecutor() throws Exception {
+        final int multiSize = 100;
+        final ExecutorService decodeExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                return new Thread(r, "decoder");
+            }
+        });
+        final GrizzlyMemcachedCacheManager manager = new GrizzlyMemcachedCacheManager.Builder().build();
+        final GrizzlyMemcachedCache.Builder<String, String> builder = manager.createCacheBuilder("user");
+        builder.decodeExecutor(decodeExecutor);
+        final GrizzlyMemcachedCache<String, String> userCache = builder.build();
+        userCache.addServer(DEFAULT_MEMCACHED_ADDRESS);
+
+        final List<String> keys = new ArrayList<String>();
+        for (int i = 0; i < multiSize; i++) {
+            final String key = "name" + i;
+            keys.add(key);
+            userCache.set(key, "foo" + i, expirationTimeoutInSec, false);
+        }
+        final Map<String, String> result = new ConcurrentHashMap<String, String>();
+        final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        final BiConsumer<String, String> consumer = new BiConsumer<String, String>() {
+            @Override
+            public void accept(final String key, final String value) {
+                threadNames.add(Thread.currentThread().getName());
+                result.put(key, value);
+            }
+        };
+        userCache.getMulti(keys, consumer);
+        Assert.assertEquals(multiSize, result.size());
+
+        // the future is completed after all values are handed in the executor
+        result.clear();
+        userCache.getMultiAsync(keys, consumer).get();
+        Assert.assertEquals(multiSize, result.size());
+        Assert.assertEquals(1, threadNames.size());
+        Assert.assertTrue(threadNames.contains("decoder"));
+
+        for (String key : keys) {
+            userCache.delete(key, false);
+        }
+
+        manager.shutdown();
+        decodeExecutor.shutdown();
+    }
+
     // memcached server should be booted in local
     @SuppressWarnings("unchecked")
     //@Test
@@ -794,6 +932,64 @@ public class BasicCommandTest {
         manager.shutdown();
     }
 
+    // memcached server should be booted in local
+    //@Test
+    public void testCompressor() {
+        final GrizzlyMemcachedCacheManager manager = new GrizzlyMemcachedCacheManager.Builder().build();
+        final GrizzlyMemcachedCache.Builder<String, String> builder = manager.createCacheBuilder("user");
+        builder.compressor(Lz4Compressor.getInstance()).compressionThreshold(1024);
+        final MemcachedCache<String, String> userCache = builder.build();
+        userCache.addServer(DEFAULT_MEMCACHED_ADDRESS);
+
+        final StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            stringBuilder.append("value").append(i % 10);
+        }
+        final String largeValue = stringBuilder.toString();
+        Assert.assertTrue(userCache.set("name", largeValue, expirationTimeoutInSec, false));
+        Assert.assertEquals(largeValue, userCache.get("name", false));
+        Assert.assertTrue(userCache.set("name", "small", expirationTimeoutInSec, false));
+        Assert.assertEquals("small", userCache.get("name", false));
+        Assert.assertTrue(userCache.delete("name", false));
+
+        manager.shutdown();
+    }
+
+    // memcached server should be booted in local
+    //@Test
+    public void testNumeric() {
+        final GrizzlyMemcachedCacheManager manager = new GrizzlyMemcachedCacheManager.Builder().build();
+        final GrizzlyMemcachedCache.Builder<String, Object> builder = manager.createCacheBuilder("user");
+        final MemcachedCache<String, Object> userCache = builder.build();
+        userCache.addServer(DEFAULT_MEMCACHED_ADDRESS);
+
+        Assert.assertTrue(userCache.setLong("long", Long.MAX_VALUE, expirationTimeoutInSec, false));
+        Assert.assertEquals(Long.MAX_VALUE, userCache.getLong("long", -1));
+        Assert.assertEquals(Long.MAX_VALUE, userCache.get("long", false));
+        // out of int range
+        Assert.assertEquals(-1, userCache.getInt("long", -1));
+
+        Assert.assertTrue(userCache.setInt("int", 10, expirationTimeoutInSec, false));
+        Assert.assertEquals(10, userCache.getInt("int", -1));
+        Assert.assertEquals(10, userCache.get("int", false));
+
+        // counters are ASCII decimal strings
+        userCache.delete("counter", false);
+        Assert.assertEquals(100, userCache.incr("counter", 1, 100, expirationTimeoutInSec, false));
+        Assert.assertEquals(101, userCache.incr("counter", 1, 100, expirationTimeoutInSec, false));
+        Assert.assertEquals(101, userCache.getLong("counter", -1));
+
+        Assert.assertTrue(userCache.set("string", "value", expirationTimeoutInSec, false));
+        Assert.assertEquals(-1, userCache.getLong("string", -1));
+        Assert.assertEquals(-1, userCache.getLong("notFound", -1));
+
+        userCache.delete("long", false);
+        userCache.delete("int", false);
+        userCache.delete("counter", false);
+        userCache.delete("string", false);
+        manager.shutdown();
+    }
+
     // memcached server should be booted in local
     //@Test
     public void testObjectCache() {
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.glassfish.grizzly.memcached.pool.ObjectPool;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+public class BoundedLoadRouterTest {
+
+    private static final CommandOpcodes[] NOT_SPILLABLE = {
+            CommandOpcodes.Set, CommandOpcodes.SetQ, CommandOpcodes.Add, CommandOpcodes.Replace,
+            CommandOpcodes.Delete, CommandOpcodes.DeleteQ, CommandOpcodes.Increment, CommandOpcodes.Decrement,
+            CommandOpcodes.Append, CommandOpcodes.Prepend, CommandOpcodes.Touch,
+            CommandOpcodes.Gets, CommandOpcodes.GetsQ, CommandOpcodes.GAT, CommandOpcodes.GATQ};
+
+    @Test
+    public void testOnlyReadsSpill() {
+        final ConsistentHashStore<String> locator = new ConsistentHashStore<String>();
+        final List<String> servers = new ArrayList<String>();
+        for (int i = 0; i < 4; i++) {
+            servers.add("server" + i);
+            locator.add("server" + i);
+        }
+        final StubPool pool = new StubPool();
+        final BoundedLoadRouter<String> router = new BoundedLoadRouter<String>(locator, pool, new Supplier<List<String>>() {
+            @Override
+            public List<String> get() {
+                return servers;
+            }
+        }, new ToIntFunction<String>() {
+            @Override
+            public int applyAsInt(final String server) {
+                return NodeLocator.DEFAULT_WEIGHT;
+            }
+        }, 0.25);
+
+        final long hash = locator.getKeyHash().hash("hot-key".getBytes());
+        final String primary = locator.getByHash(hash);
+        Assert.assertEquals(primary, router.get(hash, CommandOpcodes.Get));
+
+        // the primary has all in-flight requests
+        pool.activeCounts.put(primary, 100);
+        sleepForRefresh();
+        for (CommandOpcodes op : new CommandOpcodes[]{CommandOpcodes.Get, CommandOpcodes.GetQ, CommandOpcodes.GetK, CommandOpcodes.GetKQ}) {
+            final String spilled = router.get(hash, op);
+            Assert.assertNotNull(spilled);
+            Assert.assertNotEquals(op.name(), primary, spilled);
+        }
+        for (CommandOpcodes op : NOT_SPILLABLE) {
+            Assert.assertEquals(op.name(), primary, router.get(hash, op));
+        }
+
+        // back to the primary after the load is gone
+        pool.activeCounts.clear();
+        sleepForRefresh();
+        Assert.assertEquals(primary, router.get(hash, CommandOpcodes.Get));
+    }
+
+    @Test
+    public void testSpilledReadMisses() {
+        final ConsistentHashStore<String> locator = new ConsistentHashStore<String>();
+        final List<String> servers = new ArrayList<String>();
+        final Map<String, Map<String, String>> stores = new HashMap<String, Map<String, String>>();
+        for (int i = 0; i < 4; i++) {
+            servers.add("server" + i);
+            locator.add("server" + i);
+            stores.put("server" + i, new HashMap<String, String>());
+        }
+        final StubPool pool = new StubPool();
+        final BoundedLoadRouter<String> router = new BoundedLoadRouter<String>(locator, pool, new Supplier<List<String>>() {
+            @Override
+            public List<String> get() {
+                return servers;
+            }
+        }, new ToIntFunction<String>() {
+            @Override
+            public int applyAsInt(final String server) {
+                return NodeLocator.DEFAULT_WEIGHT;
+            }
+        }, 0.25);
+
+        final long hash = locator.getKeyHash().hash("hot-key".getBytes());
+        final String primary = locator.getByHash(hash);
+        pool.activeCounts.put(primary, 100);
+        sleepForRefresh();
+
+        // the cache-aside caller sets the value after a miss but the set goes to the overloaded own server
+        Assert.assertNull(stores.get(router.get(hash, CommandOpcodes.Get)).get("hot-key"));
+        stores.get(router.get(hash, CommandOpcodes.Set)).put("hot-key", "value");
+        Assert.assertEquals("value", stores.get(primary).get("hot-key"));
+        // so the spilled read still misses while the own server is over the bound
+        Assert.assertNull(stores.get(router.get(hash, CommandOpcodes.Get)).get("hot-key"));
+
+        pool.activeCounts.clear();
+        sleepForRefresh();
+        Assert.assertEquals("value", stores.get(router.get(hash, CommandOpcodes.Get)).get("hot-key"));
+    }
+
+    private static void sleepForRefresh() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class StubPool implements ObjectPool<String, Object> {
+
+        private final Map<String, Integer> activeCounts = new HashMap<String, Integer>();
+
+        @Override
+        public void createAllMinObjects(final String key) {
+        }
+
+        @Override
+        public Object borrowObject(final String key, final long timeoutInMillis) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void returnObject(final String key, final Object value) {
+        }
+
+        @Override
+        public void removeObject(final String key, final Object value) {
+        }
+
+        @Override
+        public void removeAllObjects(final String key) {
+        }
+
+        @Override
+        public void destroy(final String key) {
+        }
+
+        @Override
+        public void destroy() {
+        }
+
+        @Override
+        public int getPoolSize(final String key) {
+            return 0;
+        }
+
+        @Override
+        public int getPeakCount(final String key) {
+            return 0;
+        }
+
+        @Override
+        public int getActiveCount(final String key) {
+            final Integer count = activeCounts.get(key);
+            return count != null ? count : 0;
+        }
+
+        @Override
+        public int getIdleCount(final String key) {
+            return 0;
+        }
+    }
+}
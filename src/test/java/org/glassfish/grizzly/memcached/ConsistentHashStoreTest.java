@@ -106,4 +106,43 @@ public class ConsistentHashStoreTest {
         }
         Assert.assertTrue(distributed);
     }
+
+    @Test
+    public void testReplicaNumber() {
+        final ConsistentHashStore<String> consistentHash = new ConsistentHashStore<String>(10);
+        Assert.assertEquals(10, consistentHash.getReplicaNumber());
+        Assert.assertNull(consistentHash.get("key"));
+
+        consistentHash.add("server1");
+        Assert.assertEquals("server1", consistentHash.get("key"));
+        Assert.assertEquals("server1", consistentHash.getByHash(0));
+
+        consistentHash.add("server2");
+        final Set<String> selected = new HashSet<String>();
+        for (int i = 0; i < 200; i++) {
+            final String key = "key" + i;
+            final String server = consistentHash.get(key);
+            Assert.assertEquals(server, consistentHash.getByHash(MemcachedKey.of(key).getHash(KeyHash.KETAMA)));
+            selected.add(server);
+        }
+        Assert.assertEquals(2, selected.size());
+
+        // the order of adding doesn't matter unless points of servers collide
+        final ConsistentHashStore<String> reversed = new ConsistentHashStore<String>(10);
+        reversed.add("server2");
+        reversed.add("server1");
+        for (int i = 0; i < 200; i++) {
+            Assert.assertEquals(consistentHash.get("key" + i), reversed.get("key" + i));
+        }
+
+        consistentHash.clear();
+        Assert.assertFalse(consistentHash.hasValue("server1"));
+        Assert.assertNull(consistentHash.get("key"));
+
+        try {
+            new ConsistentHashStore<String>(0);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
 }
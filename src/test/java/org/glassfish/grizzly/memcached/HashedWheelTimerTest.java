@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HashedWheelTimerTest {
+
+    @Test
+    public void testExpiration() throws Exception {
+        final HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 8);
+        try {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final long start = System.nanoTime();
+            // longer than one revolution of the wheel
+            final HashedWheelTimer.Timeout timeout = timer.newTimeout(new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            }, 200, TimeUnit.MILLISECONDS);
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+            Assert.assertTrue(timeout.isExpired());
+            Assert.assertFalse(timeout.cancel());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 16);
+        try {
+            final AtomicInteger expiredCount = new AtomicInteger();
+            final Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    expiredCount.incrementAndGet();
+                }
+            };
+            final int count = 1000;
+            final HashedWheelTimer.Timeout[] timeouts = new HashedWheelTimer.Timeout[count];
+            for (int i = 0; i < count; i++) {
+                timeouts[i] = timer.newTimeout(task, 50 + (i % 10), TimeUnit.MILLISECONDS);
+            }
+            // cancels even timeouts
+            for (int i = 0; i < count; i += 2) {
+                Assert.assertTrue(timeouts[i].cancel());
+                Assert.assertTrue(timeouts[i].isCancelled());
+            }
+            final CountDownLatch latch = new CountDownLatch(1);
+            timer.newTimeout(new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            }, 300, TimeUnit.MILLISECONDS);
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(count / 2, expiredCount.get());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testZeroDelayAndFailingTask() throws Exception {
+        final HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 4);
+        try {
+            timer.newTimeout(new Runnable() {
+                @Override
+                public void run() {
+                    throw new IllegalStateException("expected");
+                }
+            }, 0, TimeUnit.MILLISECONDS);
+            final CountDownLatch latch = new CountDownLatch(1);
+            timer.newTimeout(new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            }, -1, TimeUnit.MILLISECONDS);
+            // the failing task should not stop the worker
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        final HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 4);
+        final AtomicInteger expiredCount = new AtomicInteger();
+        timer.newTimeout(new Runnable() {
+            @Override
+            public void run() {
+                expiredCount.incrementAndGet();
+            }
+        }, 10, TimeUnit.SECONDS);
+        timer.stop();
+        try {
+            timer.newTimeout(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }, 10, TimeUnit.MILLISECONDS);
+            Assert.fail("the stopped timer should reject new timeouts");
+        } catch (IllegalStateException expected) {
+        }
+        Assert.assertEquals(0, expiredCount.get());
+
+        // stopping the timer which was never started
+        new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 4).stop();
+    }
+}
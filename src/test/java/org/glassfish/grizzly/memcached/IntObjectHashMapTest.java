@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class IntObjectHashMapTest {
+
+    @Test
+    public void testBasicOperations() {
+        final IntObjectHashMap<String> map = new IntObjectHashMap<String>(4);
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.put(1, "one"));
+        Assert.assertNull(map.put(-1, "minus one"));
+        Assert.assertNull(map.put(0, "zero"));
+        Assert.assertEquals("one", map.put(1, "ONE"));
+        Assert.assertEquals(3, map.size());
+
+        Assert.assertEquals("ONE", map.get(1));
+        Assert.assertEquals("minus one", map.get(-1));
+        Assert.assertEquals("zero", map.get(0));
+        Assert.assertNull(map.get(2));
+
+        Assert.assertEquals("zero", map.remove(0));
+        Assert.assertNull(map.remove(0));
+        Assert.assertFalse(map.containsKey(0));
+        Assert.assertEquals(2, map.size());
+        Assert.assertEquals(2, map.values().size());
+
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.get(1));
+    }
+
+    @Test
+    public void testSequentialKeys() {
+        // opaques are assigned sequentially and removed almost in order
+        final IntObjectHashMap<Integer> map = new IntObjectHashMap<Integer>();
+        final int window = 100;
+        for (int i = 0; i < 100000; i++) {
+            map.put(i, i);
+            if (i >= window) {
+                Assert.assertEquals(Integer.valueOf(i - window), map.remove(i - window));
+            }
+        }
+        Assert.assertEquals(window, map.size());
+        for (int i = 100000 - window; i < 100000; i++) {
+            Assert.assertEquals(Integer.valueOf(i), map.get(i));
+        }
+    }
+
+    @Test
+    public void testRandomOperationsWithHashMap() {
+        final Random random = new Random(12345);
+        final IntObjectHashMap<Integer> map = new IntObjectHashMap<Integer>();
+        final Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 200000; i++) {
+            // small key range makes many collisions and removals
+            final int key = random.nextInt(1024) - 512;
+            final int op = random.nextInt(3);
+            if (op == 0) {
+                Assert.assertEquals(expected.put(key, i), map.put(key, i));
+            } else if (op == 1) {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                Assert.assertEquals(expected.get(key), map.get(key));
+            }
+            Assert.assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            Assert.assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+public class KeyHashTest {
+
+    @Test
+    public void testKnownHashes() {
+        Assert.assertEquals(0xef46db3751d8e999L, KeyHash.XXHASH64.hash(new byte[0]));
+        Assert.assertEquals(0x44bc2cf5ad770999L, KeyHash.XXHASH64.hash("abc".getBytes()));
+        Assert.assertEquals(0xfbcea83c8a378bf1L, KeyHash.XXHASH64.hash("Nobody inspects the spammish repetition".getBytes()));
+        Assert.assertEquals(0L, KeyHash.MURMUR3.hash(new byte[0]));
+        Assert.assertEquals(0xcbd8a7b341bd9b02L, KeyHash.MURMUR3.hash("hello".getBytes()));
+    }
+
+    @Test
+    public void testByteBuffer() {
+        final Random random = new Random();
+        final KeyHash[] keyHashes = new KeyHash[]{KeyHash.KETAMA, KeyHash.MURMUR3, KeyHash.XXHASH64};
+        for (int length = 0; length < 100; length++) {
+            final byte[] key = new byte[length];
+            random.nextBytes(key);
+            // the key is in the middle of the buffer
+            final byte[] padded = new byte[length + 6];
+            System.arraycopy(key, 0, padded, 3, length);
+            for (KeyHash keyHash : keyHashes) {
+                final long expected = keyHash.hash(key);
+                Assert.assertEquals(expected, keyHash.hash(padded, 3, length));
+
+                final ByteBuffer heap = ByteBuffer.wrap(padded, 3, length);
+                Assert.assertEquals(expected, keyHash.hash(heap));
+                Assert.assertEquals(3, heap.position());
+                Assert.assertEquals(3 + length, heap.limit());
+
+                final ByteBuffer direct = ByteBuffer.allocateDirect(padded.length);
+                direct.put(padded).position(3).limit(3 + length);
+                Assert.assertEquals(expected, keyHash.hash(direct));
+                direct.order(ByteOrder.LITTLE_ENDIAN);
+                Assert.assertEquals(expected, keyHash.hash(direct));
+                Assert.assertEquals(3, direct.position());
+            }
+        }
+    }
+
+    @Test
+    public void testRing() {
+        final KeyHash[] keyHashes = new KeyHash[]{KeyHash.KETAMA, KeyHash.MURMUR3, KeyHash.XXHASH64};
+        for (KeyHash keyHash : keyHashes) {
+            final ConsistentHashStore<String> consistentHash = new ConsistentHashStore<String>(160, keyHash);
+            for (int i = 0; i < 10; i++) {
+                consistentHash.add("server" + i);
+            }
+            final int[] counts = new int[10];
+            for (int i = 0; i < 10000; i++) {
+                final String key = "key" + i;
+                final String server = consistentHash.get(key);
+                Assert.assertEquals(server, consistentHash.getByHash(MemcachedKey.of(key).getHash(keyHash)));
+                counts[Integer.parseInt(server.substring("server".length()))]++;
+            }
+            // every server takes a fair share of keys
+            for (int count : counts) {
+                Assert.assertTrue(keyHash + " is skewed. count=" + count, count > 500 && count < 2000);
+            }
+        }
+    }
+}
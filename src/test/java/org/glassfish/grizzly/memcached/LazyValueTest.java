@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memcached.transcoder.CachedData;
+import org.glassfish.grizzly.memcached.transcoder.Transcoder;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LazyValueTest {
+
+    // decodes the flags only. zero flags fail to be decoded
+    private final AtomicInteger decodeCount = new AtomicInteger();
+    private final Transcoder<String> transcoder = new Transcoder<String>() {
+        @Override
+        public CachedData encode(final String value, final MemoryManager memoryManager) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String decode(final int flags, final Buffer buffer, final int position, final int limit, final MemoryManager memoryManager) {
+            decodeCount.incrementAndGet();
+            return flags != 0 ? "value" + flags : null;
+        }
+    };
+
+    @Test
+    public void testResolve() {
+        Assert.assertEquals("value1", LazyValue.resolve(createLazyValue(1)));
+        Assert.assertNull(LazyValue.resolve(createLazyValue(0)));
+
+        final Object valueWithCas = LazyValue.resolve(new ValueWithCas<Object>(createLazyValue(2), 10L));
+        Assert.assertEquals("value2", ((ValueWithCas<?>) valueWithCas).getValue());
+        Assert.assertEquals(10L, ((ValueWithCas<?>) valueWithCas).getCas());
+
+        final Object valueWithKey = LazyValue.resolve(new ValueWithKey<Object, Object>("key", createLazyValue(3)));
+        Assert.assertEquals("key", ((ValueWithKey<?, ?>) valueWithKey).getKey());
+        Assert.assertEquals("value3", ((ValueWithKey<?, ?>) valueWithKey).getValue());
+        Assert.assertNull(LazyValue.resolve(new ValueWithCas<Object>(createLazyValue(0), 10L)));
+
+        // already decoded responses are returned as they are
+        final ValueWithCas<String> decoded = new ValueWithCas<String>("value", 1L);
+        Assert.assertSame(decoded, LazyValue.resolve(decoded));
+        Assert.assertEquals(Boolean.TRUE, LazyValue.resolve(Boolean.TRUE));
+        Assert.assertNull(LazyValue.resolve(null));
+    }
+
+    @Test
+    public void testResolveAll() {
+        final Map<String, Object> result = new HashMap<String, Object>();
+        for (int i = 0; i < 10; i++) {
+            result.put("key" + i, createLazyValue(i));
+        }
+        result.put("decoded", "value");
+        // nothing is decoded until the result is resolved
+        Assert.assertEquals(0, decodeCount.get());
+        LazyValue.resolveAll(result);
+        Assert.assertEquals(10, decodeCount.get());
+        // the failed value is removed like a missing key
+        Assert.assertEquals(10, result.size());
+        Assert.assertFalse(result.containsKey("key0"));
+        Assert.assertEquals("value9", result.get("key9"));
+        Assert.assertEquals("value", result.get("decoded"));
+    }
+
+    private LazyValue createLazyValue(final int flags) {
+        return new LazyValue(flags, new byte[0], transcoder, null);
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.memcached.transcoder.DefaultTranscoder;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.nio.transport.TCPNIOConnection;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+
+public class MemcachedClientFilterTest {
+
+    private static final byte RESPONSE_MAGIC_NUMBER = (byte) 0x81;
+    private static final byte[] LATE_VALUE = "late".getBytes();
+
+    private SocketChannel channel;
+    private Connection connection;
+
+    @Before
+    public void setUp() throws IOException {
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance().build();
+        channel = SocketChannel.open();
+        // the connection is never connected. the filter is driven by hand-made contexts
+        connection = new TCPNIOConnection(transport, channel);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        channel.close();
+    }
+
+    @Test
+    public void testDiscardAbandonedResponse() throws IOException {
+        final MemcachedClientFilter filter = new MemcachedClientFilter(true, true, false);
+        final MemcachedRequest get = createRequest(CommandOpcodes.Get, false, 0);
+        final MemcachedRequest delete = createRequest(CommandOpcodes.Delete, false, 0);
+        write(filter, get, delete);
+
+        Assert.assertTrue(filter.cancel(connection, get));
+        // the late value of the abandoned get is skipped without being decoded and the delete is still matched
+        read(filter, createGetResponse(0), createResponse(CommandOpcodes.Delete, 0, 0));
+        Assert.assertFalse(get.isCompleted());
+        Assert.assertNull(get.response);
+        Assert.assertTrue(delete.isCompleted());
+        Assert.assertEquals(Boolean.TRUE, delete.response);
+        Assert.assertEquals(Boolean.FALSE, delete.isError);
+    }
+
+    @Test
+    public void testNoReply() throws IOException {
+        final MemcachedClientFilter filter = new MemcachedClientFilter(true, true, false);
+        final MemcachedRequest getQ = createRequest(CommandOpcodes.GetQ, true, 1);
+        final MemcachedRequest noop = createRequest(CommandOpcodes.Noop, false, 0);
+        write(filter, getQ, noop);
+
+        // the missed quiet get has no response so the noop's header is parsed again for the noop
+        read(filter, createResponse(CommandOpcodes.Noop, 0, 0));
+        Assert.assertTrue(getQ.isCompleted());
+        Assert.assertNull(getQ.response);
+        Assert.assertEquals(Boolean.FALSE, getQ.isError);
+        Assert.assertTrue(noop.isCompleted());
+
+        // the abandoned quiet get is removed without being completed
+        final MemcachedRequest abandonedGetQ = createRequest(CommandOpcodes.GetQ, true, 2);
+        final MemcachedRequest liveNoop = createRequest(CommandOpcodes.Noop, false, 0);
+        write(filter, abandonedGetQ, liveNoop);
+        Assert.assertTrue(filter.cancel(connection, abandonedGetQ));
+        read(filter, createResponse(CommandOpcodes.Noop, 0, 0));
+        Assert.assertFalse(abandonedGetQ.isCompleted());
+        Assert.assertTrue(liveNoop.isCompleted());
+    }
+
+    @Test
+    public void testMaxAbandonedRequests() throws IOException {
+        final MemcachedClientFilter filter = new MemcachedClientFilter(true, true, false);
+        final int max = MemcachedClientFilter.MAX_ABANDONED_REQUESTS_PER_CONNECTION;
+        final MemcachedRequest[] requests = new MemcachedRequest[max + 1];
+        for (int i = 0; i < max; i++) {
+            requests[i] = createRequest(CommandOpcodes.DeleteQ, true, i + 1);
+        }
+        requests[max] = createRequest(CommandOpcodes.Delete, false, 0);
+        write(filter, requests);
+        for (int i = 0; i < max; i++) {
+            Assert.assertTrue(filter.cancel(connection, requests[i]));
+        }
+        // the connection which has too many abandoned requests should not be reused
+        Assert.assertFalse(filter.cancel(connection, requests[max]));
+        // cancelling the abandoned request again doesn't count it twice
+        Assert.assertFalse(filter.cancel(connection, requests[0]));
+
+        // the quiet requests are passed by the no-reply path and the delete's response is discarded
+        read(filter, createResponse(CommandOpcodes.Delete, 0, 0));
+        for (MemcachedRequest request : requests) {
+            Assert.assertFalse(request.isCompleted());
+        }
+
+        // all late responses were consumed so the connection can be reused
+        final MemcachedRequest noop = createRequest(CommandOpcodes.Noop, false, 0);
+        write(filter, noop);
+        Assert.assertTrue(filter.cancel(connection, noop));
+    }
+
+    @Test
+    public void testCancelUnqueuedRequests() throws IOException {
+        final MemcachedClientFilter filter = new MemcachedClientFilter(true, true, false);
+        final int max = MemcachedClientFilter.MAX_ABANDONED_REQUESTS_PER_CONNECTION;
+        // requests which were never written will never receive late responses so they are not counted
+        for (int i = 0; i <= max; i++) {
+            Assert.assertTrue(filter.cancel(connection, createRequest(CommandOpcodes.Get, false, 0)));
+        }
+
+        // a queued request is counted and its late response is discarded
+        final MemcachedRequest get = createRequest(CommandOpcodes.Get, false, 0);
+        write(filter, get);
+        Assert.assertTrue(filter.cancel(connection, get));
+        read(filter, createGetResponse(0));
+        Assert.assertFalse(get.isCompleted());
+        final MemcachedRequest noop = createRequest(CommandOpcodes.Noop, false, 0);
+        write(filter, noop);
+        read(filter, createResponse(CommandOpcodes.Noop, 0, 0));
+        Assert.assertTrue(noop.isCompleted());
+    }
+
+    @Test
+    public void testOutOfOrderAbandonedResponse() throws IOException {
+        final MemcachedClientFilter filter = new MemcachedClientFilter(true, true, true);
+        final MemcachedRequest get = createRequest(CommandOpcodes.Get, false, 0);
+        final MemcachedRequest delete = createRequest(CommandOpcodes.Delete, false, 0);
+        write(filter, get, delete);
+        Assert.assertTrue(filter.cancel(connection, get));
+
+        // the abandoned get's response arrives after the live delete's
+        read(filter, createResponse(CommandOpcodes.Delete, 0, delete.correlationOpaque), createGetResponse(get.correlationOpaque));
+        Assert.assertTrue(delete.isCompleted());
+        Assert.assertEquals(Boolean.TRUE, delete.response);
+        Assert.assertFalse(get.isCompleted());
+        Assert.assertNull(get.response);
+
+        // the following request is still correlated
+        final MemcachedRequest noop = createRequest(CommandOpcodes.Noop, false, 0);
+        write(filter, noop);
+        read(filter, createResponse(CommandOpcodes.Noop, 0, noop.correlationOpaque));
+        Assert.assertTrue(noop.isCompleted());
+    }
+
+    @Test
+    public void testCancelWithClosedConnection() throws IOException {
+        final MemcachedClientFilter queueFilter = new MemcachedClientFilter(true, true, false);
+        final MemcachedClientFilter opaqueFilter = new MemcachedClientFilter(true, true, true);
+        final MemcachedRequest queued = createRequest(CommandOpcodes.Get, false, 0);
+        final MemcachedRequest correlated = createRequest(CommandOpcodes.Get, false, 0);
+        write(queueFilter, queued);
+        write(opaqueFilter, correlated);
+
+        channel.close();
+        // the closed connection should not be returned to the pool in both modes
+        Assert.assertFalse(queueFilter.cancel(connection, queued));
+        Assert.assertFalse(opaqueFilter.cancel(connection, correlated));
+    }
+
+    @Test
+    public void testDirectValueEncodingFailure() throws IOException {
+        final MemcachedClientFilter filter = new MemcachedClientFilter(true, true, false);
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(true, false, true);
+        builder.op(CommandOpcodes.SetQ);
+        builder.noReply(true);
+        builder.opaque(1);
+        builder.originKey("key");
+        // Object is not serializable
+        builder.value(new Object(), new DefaultTranscoder<Object>(-1));
+        final MemcachedRequest setQ = builder.build();
+        builder.recycle();
+        final MemcachedRequest noop = createRequest(CommandOpcodes.Noop, false, 0);
+        write(filter, setQ, noop);
+
+        // only the request which can't be encoded fails and the fence is still matched
+        Assert.assertTrue(setQ.failure instanceof ValueEncodingException);
+        read(filter, createResponse(CommandOpcodes.Noop, 0, 0));
+        Assert.assertFalse(setQ.isCompleted());
+        Assert.assertTrue(noop.isCompleted());
+    }
+
+    private void write(final MemcachedClientFilter filter, final MemcachedRequest... requests) throws IOException {
+        final FilterChainContext ctx = FilterChainContext.create(connection);
+        ctx.setMessage(requests);
+        filter.handleWrite(ctx);
+    }
+
+    private void read(final MemcachedClientFilter filter, final Buffer... responses) throws IOException {
+        int length = 0;
+        for (Buffer response : responses) {
+            length += response.remaining();
+        }
+        final Buffer input = MemoryManager.DEFAULT_MEMORY_MANAGER.allocate(length);
+        for (Buffer response : responses) {
+            input.put(response);
+        }
+        input.flip();
+        final FilterChainContext ctx = FilterChainContext.create(connection);
+        ctx.setMessage(input);
+        filter.handleRead(ctx);
+    }
+
+    private static MemcachedRequest createRequest(final CommandOpcodes op, final boolean noReply, final int opaque) {
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, false, false);
+        builder.op(op);
+        builder.noReply(noReply);
+        builder.opaque(opaque);
+        builder.originKey("key");
+        final MemcachedRequest request = builder.build();
+        builder.recycle();
+        return request;
+    }
+
+    // the get's response with the flags and a value which can't be decoded without the transcoder
+    private static Buffer createGetResponse(final int opaque) {
+        final Buffer buffer = createHeader(CommandOpcodes.Get, 4, 4 + LATE_VALUE.length, opaque);
+        buffer.putInt(0); // flags
+        buffer.put(LATE_VALUE);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static Buffer createResponse(final CommandOpcodes op, final int extraLength, final int opaque) {
+        final Buffer buffer = createHeader(op, extraLength, extraLength, opaque);
+        for (int i = 0; i < extraLength; i++) {
+            buffer.put((byte) 0);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static Buffer createHeader(final CommandOpcodes op, final int extraLength, final int totalBodyLength, final int opaque) {
+        final Buffer buffer = MemoryManager.DEFAULT_MEMORY_MANAGER.allocate(24 + totalBodyLength);
+        buffer.put(RESPONSE_MAGIC_NUMBER);
+        buffer.put(op.opcode());
+        buffer.putShort((short) 0); // key length
+        buffer.put((byte) extraLength);
+        buffer.put((byte) 0); // data type
+        buffer.putShort((short) 0); // status ok
+        buffer.putInt(totalBodyLength);
+        buffer.putInt(opaque);
+        buffer.putLong(0L); // cas
+        return buffer;
+    }
+}
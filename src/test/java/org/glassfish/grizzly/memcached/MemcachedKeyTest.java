@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MemcachedKeyTest {
+
+    @Test
+    public void testKeyHandle() {
+        final MemcachedKey key = MemcachedKey.of("name");
+        Assert.assertEquals(key, MemcachedKey.of("name"));
+        Assert.assertEquals(key.hashCode(), MemcachedKey.of("name").hashCode());
+        Assert.assertEquals(key, MemcachedKey.of("name".getBytes()));
+        Assert.assertNotEquals(key, MemcachedKey.of("name2"));
+        Assert.assertEquals("name", key.toString());
+        Assert.assertEquals(4, key.getLength());
+
+        // the handle is routed to the same server as its String key
+        final ConsistentHashStore<String> consistentHash = new ConsistentHashStore<String>();
+        for (int i = 0; i < 10; i++) {
+            consistentHash.add("server" + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            final String stringKey = "key" + i;
+            Assert.assertEquals(consistentHash.get(stringKey), consistentHash.getByHash(MemcachedKey.of(stringKey).getHash(KeyHash.KETAMA)));
+        }
+
+        // the raw bytes are copied
+        final byte[] raw = "raw".getBytes();
+        final MemcachedKey rawKey = MemcachedKey.of(raw);
+        raw[0] = 'w';
+        Assert.assertEquals("raw", rawKey.toString());
+    }
+
+    @Test
+    public void testInvalidKey() {
+        try {
+            MemcachedKey.of("");
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            MemcachedKey.of(new byte[MemcachedRequest.MAX_KEY_LENGTH + 1]);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            MemcachedKey.of((String) null);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testKeyCache() {
+        final MemcachedKeyCache keyCache = new MemcachedKeyCache(10);
+        final MemcachedKey key = keyCache.get("key");
+        Assert.assertSame(key, keyCache.get("key"));
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(MemcachedKey.of("key" + i), keyCache.get("key" + i));
+        }
+        Assert.assertEquals(keyCache.getMaxSize(), keyCache.size());
+
+        // the recently used key survives while other keys are added
+        final MemcachedKey hot = keyCache.get("hot");
+        for (int i = 0; i < 100; i++) {
+            Assert.assertSame(hot, keyCache.get("hot"));
+            keyCache.get("cold" + i);
+        }
+        Assert.assertEquals(keyCache.getMaxSize(), keyCache.size());
+        keyCache.clear();
+        Assert.assertEquals(0, keyCache.size());
+    }
+}
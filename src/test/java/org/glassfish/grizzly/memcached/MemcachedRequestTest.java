@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.glassfish.grizzly.CompletionHandler;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class MemcachedRequestTest {
+
+    @Test
+    public void testExtras() {
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(true, false, false);
+        builder.op(CommandOpcodes.Set);
+        builder.flags(0);
+        builder.expirationInSecs(0);
+        final MemcachedRequest set = builder.build();
+        builder.recycle();
+        // zero values are still present
+        Assert.assertTrue(set.hasFlags());
+        Assert.assertTrue(set.hasExpirationInSecs());
+        Assert.assertFalse(set.hasDelta());
+        Assert.assertEquals(8, set.getExtrasLength());
+        Assert.assertEquals(24 + 8, set.getPacketLength());
+
+        final MemcachedRequest.Builder incrBuilder = MemcachedRequest.Builder.create(true, false, false);
+        incrBuilder.op(CommandOpcodes.Increment);
+        incrBuilder.delta(1L);
+        incrBuilder.initial(10L);
+        incrBuilder.expirationInSecs(60);
+        final MemcachedRequest incr = incrBuilder.build();
+        incrBuilder.recycle();
+        Assert.assertEquals(Long.valueOf(1L), incr.getDelta());
+        Assert.assertEquals(Long.valueOf(10L), incr.getInitial());
+        Assert.assertEquals(Integer.valueOf(60), incr.getExpirationInSecs());
+        Assert.assertFalse(incr.hasFlags());
+        Assert.assertNull(incr.getFlags());
+        Assert.assertEquals(20, incr.getExtrasLength());
+
+        final MemcachedRequest.Builder noopBuilder = MemcachedRequest.Builder.create(false, false, false);
+        noopBuilder.op(CommandOpcodes.Noop);
+        final MemcachedRequest noop = noopBuilder.build();
+        noopBuilder.recycle();
+        Assert.assertEquals(0, noop.getExtrasLength());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testBoxedExtras() {
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(true, false, false);
+        builder.op(CommandOpcodes.Set);
+        builder.flags(Integer.valueOf(1));
+        builder.expirationInSecs(Integer.valueOf(60));
+        // null clears the extra
+        builder.expirationInSecs((Integer) null);
+        final MemcachedRequest set = builder.build();
+        builder.recycle();
+        Assert.assertEquals(Integer.valueOf(1), set.getFlags());
+        Assert.assertFalse(set.hasExpirationInSecs());
+        Assert.assertNull(set.getExpirationInSecs());
+        Assert.assertEquals(4, set.getExtrasLength());
+    }
+
+    @Test
+    public void testHandlerBeforeCompletion() throws Exception {
+        final MemcachedRequest request = createRequest();
+        final AtomicBoolean completedInHandler = new AtomicBoolean(true);
+        request.completionHandler = new CompletionHandler<MemcachedRequest>() {
+            @Override
+            public void cancelled() {
+            }
+
+            @Override
+            public void failed(final Throwable throwable) {
+            }
+
+            @Override
+            public void completed(final MemcachedRequest result) {
+                // the sender can't recycle the request while the handler is reading it
+                completedInHandler.set(result.isCompleted());
+            }
+
+            @Override
+            public void updated(final MemcachedRequest result) {
+            }
+        };
+        Assert.assertTrue(request.dispose());
+        request.complete();
+        Assert.assertFalse(completedInHandler.get());
+        Assert.assertTrue(request.isCompleted());
+    }
+
+    @Test
+    public void testCompletion() throws Exception {
+        final MemcachedRequest request = createRequest();
+        Assert.assertFalse(request.await(10, TimeUnit.MILLISECONDS));
+        // a timed-out request is never recycled
+        Assert.assertFalse(request.recycleIfCompleted());
+
+        final CountDownLatch waiting = new CountDownLatch(1);
+        final Thread completer = new Thread() {
+            public void run() {
+                try {
+                    waiting.await();
+                    Thread.sleep(20);
+                } catch (InterruptedException ignore) {
+                }
+                Assert.assertTrue(request.dispose());
+                request.response = "value";
+                request.isError = Boolean.FALSE;
+                request.complete();
+            }
+        };
+        completer.start();
+        waiting.countDown();
+        Assert.assertTrue(request.await(5, TimeUnit.SECONDS));
+        completer.join();
+        Assert.assertEquals("value", request.response);
+        Assert.assertTrue(request.isDisposed());
+        Assert.assertFalse(request.dispose());
+        Assert.assertTrue(request.isCompleted());
+        Assert.assertTrue(request.recycleIfCompleted());
+        // recycled state
+        Assert.assertNull(request.response);
+        Assert.assertNull(request.getOp());
+        Assert.assertFalse(request.isCompleted());
+    }
+
+    @Test
+    public void testPartialSignalAndFailure() throws Exception {
+        final MemcachedRequest request = createRequest();
+        request.signal();
+        request.await();
+        // the filter still owns the partially answered request
+        Assert.assertFalse(request.isCompleted());
+        Assert.assertFalse(request.recycleIfCompleted());
+
+        final MemcachedRequest failed = createRequest();
+        failed.fail(new IllegalStateException("expected"));
+        Assert.assertTrue(failed.await(0, TimeUnit.MILLISECONDS));
+        Assert.assertFalse(failed.recycleIfCompleted());
+    }
+
+    private static MemcachedRequest createRequest() {
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, false, false);
+        builder.op(CommandOpcodes.Get);
+        final MemcachedRequest request = builder.build();
+        builder.recycle();
+        return request;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memcached.transcoder.DefaultTranscoder;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MemcachedResponseTest {
+
+    @Test
+    public void testNumericValue() {
+        final MemcachedResponse response = decode(BufferWrapper.BufferType.LONG.flags, longBytes(42L), null);
+        Assert.assertTrue(response.hasNumericValue());
+        Assert.assertEquals(42L, response.getNumericValue());
+        // the boxing is deferred
+        Assert.assertNull(response.getDecodedValue());
+
+        final MemcachedResponse counter = decode(0, String.valueOf(Long.MAX_VALUE).getBytes(), null);
+        Assert.assertTrue(counter.hasNumericValue());
+        Assert.assertEquals(Long.MAX_VALUE, counter.getNumericValue());
+    }
+
+    @Test
+    public void testCounterOverflow() {
+        // memcached's counters are unsigned so they can overflow a signed long
+        Assert.assertFalse(decode(0, "9223372036854775808".getBytes(), null).hasNumericValue());
+        Assert.assertFalse(decode(0, "18446744073709551615".getBytes(), null).hasNumericValue());
+        Assert.assertFalse(decode(0, "99999999999999999999".getBytes(), null).hasNumericValue());
+        Assert.assertFalse(decode(0, "12a".getBytes(), null).hasNumericValue());
+    }
+
+    @Test
+    public void testTranscoderSubclass() {
+        final DefaultTranscoder<Object> defaultTranscoder = new DefaultTranscoder<Object>();
+        Assert.assertTrue(decode(BufferWrapper.BufferType.LONG.flags, longBytes(1L), defaultTranscoder).hasNumericValue());
+        // the subclass may decode numbers in its own way
+        final DefaultTranscoder<Object> subclass = new DefaultTranscoder<Object>() {
+        };
+        Assert.assertFalse(decode(BufferWrapper.BufferType.LONG.flags, longBytes(1L), subclass).hasNumericValue());
+    }
+
+    private static MemcachedResponse decode(final int flags, final byte[] value, final DefaultTranscoder<Object> transcoder) {
+        final Buffer buffer = MemoryManager.DEFAULT_MEMORY_MANAGER.allocate(value.length);
+        buffer.put(value);
+        buffer.flip();
+        final MemcachedResponse response = MemcachedResponse.create();
+        response.setOp(CommandOpcodes.Get);
+        response.setStatus(ResponseStatus.No_Error);
+        response.setFlags(flags);
+        response.setDecodedValue(buffer, 0, value.length, MemoryManager.DEFAULT_MEMORY_MANAGER, transcoder, -1);
+        return response;
+    }
+
+    private static byte[] longBytes(final long value) {
+        final byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) (value >>> (8 * (7 - i)));
+        }
+        return bytes;
+    }
+}
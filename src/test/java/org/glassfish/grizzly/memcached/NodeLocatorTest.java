@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+public class NodeLocatorTest {
+
+    private static final int NODE_NUM = 64;
+    private static final int KEY_NUM = 64 * 1000;
+
+    @Test
+    public void testLocators() {
+        testLocator(new ConsistentHashStore<String>());
+        testLocator(new ConsistentHashStore<String>(160, KeyHash.XXHASH64));
+        testLocator(new JumpNodeLocator<String>());
+        testLocator(new RendezvousNodeLocator<String>());
+    }
+
+    private static void testLocator(final NodeLocator<String> locator) {
+        Assert.assertNull(locator.get(ByteBuffer.wrap("key".getBytes())));
+        Assert.assertNull(locator.getByHash(0));
+        for (int i = 0; i < NODE_NUM; i++) {
+            locator.add("server" + i);
+        }
+        Assert.assertTrue(locator.hasNode("server0"));
+        Assert.assertFalse(locator.hasNode("server" + NODE_NUM));
+
+        final Map<String, String> selected = new HashMap<String, String>();
+        final Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (int i = 0; i < KEY_NUM; i++) {
+            final String key = "key" + i;
+            final String node = locator.get(ByteBuffer.wrap(key.getBytes()));
+            Assert.assertNotNull(node);
+            Assert.assertEquals(node, locator.getByHash(locator.getKeyHash().hash(key.getBytes())));
+            selected.put(key, node);
+            final Integer count = counts.get(node);
+            counts.put(node, count != null ? count + 1 : 1);
+        }
+        Assert.assertEquals(NODE_NUM, counts.size());
+        int largest = 0;
+        for (Integer count : counts.values()) {
+            largest = Math.max(largest, count);
+        }
+        // the measured imbalance is close to the reported one
+        final double measured = (double) largest / (KEY_NUM / NODE_NUM);
+        Assert.assertTrue(locator + " measured=" + measured, Math.abs(measured - locator.getLoadImbalance()) < 0.15);
+
+        // only keys of the removed node move
+        final String removed = "server10";
+        locator.remove(removed);
+        Assert.assertFalse(locator.hasNode(removed));
+        int moved = 0;
+        for (Map.Entry<String, String> entry : selected.entrySet()) {
+            final String node = locator.get(ByteBuffer.wrap(entry.getKey().getBytes()));
+            Assert.assertNotEquals(removed, node);
+            if (!node.equals(entry.getValue())) {
+                moved++;
+            }
+        }
+        Assert.assertTrue(locator + " moved=" + moved, moved < counts.get(removed) * 2.2);
+
+        locator.clear();
+        Assert.assertFalse(locator.hasNode("server0"));
+        Assert.assertNull(locator.getByHash(0));
+    }
+
+    @Test
+    public void testJump() {
+        // the bucket is stable while buckets are added
+        for (long key = 0; key < 1000; key++) {
+            final int bucket = JumpNodeLocator.jump(key, 10);
+            Assert.assertTrue(bucket >= 0 && bucket < 10);
+            final int next = JumpNodeLocator.jump(key, 11);
+            Assert.assertTrue(next == bucket || next == 10);
+        }
+    }
+
+    @Test
+    public void testWeightedRendezvous() {
+        final RendezvousNodeLocator<String> locator = new RendezvousNodeLocator<String>();
+        locator.add("small", 1);
+        locator.add("big", 3);
+        int big = 0;
+        for (int i = 0; i < 10000; i++) {
+            if ("big".equals(locator.getByHash(KeyHash.XXHASH64.hash(("key" + i).getBytes())))) {
+                big++;
+            }
+        }
+        Assert.assertTrue("big=" + big, big > 7000 && big < 8000);
+
+        // updating the weight keeps the node
+        locator.add("big", 1);
+        Assert.assertTrue(locator.hasNode("big"));
+        try {
+            locator.add("zero", 0);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testWeights() {
+        testWeights(new ConsistentHashStore<String>());
+        testWeights(new JumpNodeLocator<String>());
+        testWeights(new RendezvousNodeLocator<String>());
+    }
+
+    private static void testWeights(final NodeLocator<String> locator) {
+        for (int i = 0; i < 8; i++) {
+            locator.add("server" + i);
+        }
+        final Map<String, String> selected = new HashMap<String, String>();
+        for (int i = 0; i < KEY_NUM; i++) {
+            final String key = "key" + i;
+            selected.put(key, locator.get(ByteBuffer.wrap(key.getBytes())));
+        }
+
+        // the heavy server takes about three times as many keys as others
+        locator.add("server0", 3);
+        int heavy = 0;
+        int moved = 0;
+        for (Map.Entry<String, String> entry : selected.entrySet()) {
+            final String node = locator.get(ByteBuffer.wrap(entry.getKey().getBytes()));
+            if ("server0".equals(node)) {
+                heavy++;
+            }
+            if (!node.equals(entry.getValue())) {
+                moved++;
+                // keys move only to the heavy server except the last bucket of the jump hash
+                if (!(locator instanceof JumpNodeLocator)) {
+                    Assert.assertEquals("server0", node);
+                }
+            }
+        }
+        final double share = (double) heavy / KEY_NUM;
+        Assert.assertTrue(locator + " share=" + share, share > 0.25 && share < 0.35);
+        Assert.assertTrue(locator + " moved=" + moved, moved < KEY_NUM * 0.3);
+        Assert.assertTrue(locator + " imbalance=" + locator.getLoadImbalance(), locator.getLoadImbalance() < 1.5);
+
+        // back to the original weight
+        locator.add("server0", NodeLocator.DEFAULT_WEIGHT);
+        if (!(locator instanceof JumpNodeLocator)) {
+            for (Map.Entry<String, String> entry : selected.entrySet()) {
+                Assert.assertEquals(entry.getValue(), locator.get(ByteBuffer.wrap(entry.getKey().getBytes())));
+            }
+        }
+        try {
+            locator.add("server0", 0);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            locator.add("server0", NodeLocator.MAX_WEIGHT + 1);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testSpill() {
+        testSpill(new ConsistentHashStore<String>());
+        testSpill(new JumpNodeLocator<String>());
+        testSpill(new RendezvousNodeLocator<String>());
+    }
+
+    private static void testSpill(final NodeLocator<String> locator) {
+        Assert.assertNull(locator.getByHash(0, null));
+        for (int i = 0; i < 8; i++) {
+            locator.add("server" + i);
+        }
+        final Predicate<String> notServer0 = new Predicate<String>() {
+            @Override
+            public boolean test(final String node) {
+                return !"server0".equals(node);
+            }
+        };
+        final Predicate<String> nothing = new Predicate<String>() {
+            @Override
+            public boolean test(final String node) {
+                return false;
+            }
+        };
+        final Map<String, Integer> spilled = new HashMap<String, Integer>();
+        for (int i = 0; i < KEY_NUM / 10; i++) {
+            final long hash = locator.getKeyHash().hash(("key" + i).getBytes());
+            final String primary = locator.getByHash(hash);
+            final String selected = locator.getByHash(hash, notServer0);
+            Assert.assertNotEquals("server0", selected);
+            // the spill is deterministic
+            Assert.assertEquals(selected, locator.getByHash(hash, notServer0));
+            if (!"server0".equals(primary)) {
+                Assert.assertEquals(primary, selected);
+            } else {
+                final Integer count = spilled.get(selected);
+                spilled.put(selected, count != null ? count + 1 : 1);
+            }
+            // the primary is returned if no node is acceptable
+            Assert.assertEquals(primary, locator.getByHash(hash, nothing));
+        }
+        // keys of the rejected node spill to several nodes
+        Assert.assertTrue(locator + " spilled=" + spilled, spilled.size() > 1);
+    }
+}
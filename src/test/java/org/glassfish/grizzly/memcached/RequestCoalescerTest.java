@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class RequestCoalescerTest {
+
+    @Test
+    public void testFlushByMaxBatchSize() throws Exception {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        final RecordingSender sender = new RecordingSender();
+        // the window is long enough so that only the batch size can flush
+        final RequestCoalescer<String> coalescer = new RequestCoalescer<String>(sender, scheduler, TimeUnit.SECONDS.toMicros(60), 3);
+        try {
+            final List<CompletableFuture<Object>> futures = new ArrayList<CompletableFuture<Object>>();
+            for (int i = 0; i < 6; i++) {
+                futures.add(coalescer.submit("server1", createRequest("key" + i)));
+            }
+            Assert.assertEquals(2, sender.batchSizes.size());
+            Assert.assertEquals(Integer.valueOf(3), sender.batchSizes.get(0));
+            Assert.assertEquals(Integer.valueOf(3), sender.batchSizes.get(1));
+            for (int i = 0; i < 6; i++) {
+                Assert.assertEquals("key" + i, futures.get(i).get(1, TimeUnit.SECONDS));
+            }
+        } finally {
+            coalescer.destroy();
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFlushByWindow() throws Exception {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        final RecordingSender sender = new RecordingSender();
+        final RequestCoalescer<String> coalescer = new RequestCoalescer<String>(sender, scheduler, 1000, 100);
+        try {
+            final CompletableFuture<Object> future1 = coalescer.submit("server1", createRequest("key1"));
+            final CompletableFuture<Object> future2 = coalescer.submit("server1", createRequest("key2"));
+            final CompletableFuture<Object> future3 = coalescer.submit("server2", createRequest("key3"));
+            Assert.assertEquals("key1", future1.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals("key2", future2.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals("key3", future3.get(5, TimeUnit.SECONDS));
+            // one batch per server
+            Assert.assertEquals(2, sender.batchSizes.size());
+            Assert.assertTrue(sender.batchSizes.contains(2));
+            Assert.assertTrue(sender.batchSizes.contains(1));
+        } finally {
+            coalescer.destroy();
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFlushByWindowInSendExecutor() throws Exception {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        final ExecutorService sendExecutor = Executors.newSingleThreadExecutor();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        // the sender of server1 blocks like borrowing a connection from the exhausted pool
+        final RequestCoalescer<String> coalescer = new RequestCoalescer<String>(new RequestCoalescer.BatchSender<String>() {
+            @Override
+            public void send(final String address, final List<RequestCoalescer.Entry> entries) throws Exception {
+                if ("server1".equals(address)) {
+                    blocked.countDown();
+                    release.await();
+                }
+                for (RequestCoalescer.Entry entry : entries) {
+                    entry.getFuture().complete(Thread.currentThread().getName());
+                }
+            }
+        }, scheduler, sendExecutor, 1000, 100);
+        try {
+            final String schedulerThread = scheduler.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    return Thread.currentThread().getName();
+                }
+            }).get(5, TimeUnit.SECONDS);
+            final CompletableFuture<Object> blockedFuture = coalescer.submit("server1", createRequest("key1"));
+            Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            // the scheduler still closes other batches in time
+            final CompletableFuture<Object> timerFuture = new CompletableFuture<Object>();
+            scheduler.execute(new Runnable() {
+                @Override
+                public void run() {
+                    timerFuture.complete(Boolean.TRUE);
+                }
+            });
+            Assert.assertEquals(Boolean.TRUE, timerFuture.get(5, TimeUnit.SECONDS));
+            release.countDown();
+            Assert.assertNotEquals(schedulerThread, blockedFuture.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            coalescer.destroy();
+            scheduler.shutdownNow();
+            sendExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentSubmits() throws Exception {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        final RecordingSender sender = new RecordingSender();
+        final RequestCoalescer<String> coalescer = new RequestCoalescer<String>(sender, scheduler, 500, 16);
+        final int threadCount = 20;
+        final int submitCount = 100;
+        final CountDownLatch startFlag = new CountDownLatch(1);
+        final CountDownLatch finishFlag = new CountDownLatch(threadCount);
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        try {
+            for (int i = 0; i < threadCount; i++) {
+                final int threadIndex = i;
+                final Thread t = new Thread() {
+                    public void run() {
+                        try {
+                            startFlag.await();
+                            for (int j = 0; j < submitCount; j++) {
+                                final String key = "key" + threadIndex + "-" + j;
+                                final Object response = coalescer.submit("server1", createRequest(key)).get(5, TimeUnit.SECONDS);
+                                if (!key.equals(response)) {
+                                    errors.add(new AssertionError("unexpected response=" + response + ", key=" + key));
+                                }
+                            }
+                        } catch (Throwable t) {
+                            errors.add(t);
+                        } finally {
+                            finishFlag.countDown();
+                        }
+                    }
+                };
+                t.start();
+            }
+            startFlag.countDown();
+            Assert.assertTrue(finishFlag.await(60, TimeUnit.SECONDS));
+            Assert.assertTrue(errors.toString(), errors.isEmpty());
+            int total = 0;
+            for (Integer size : sender.batchSizes) {
+                Assert.assertTrue(size <= 16 + threadCount);
+                total += size;
+            }
+            // every request was sent only once
+            Assert.assertEquals(threadCount * submitCount, total);
+        } finally {
+            coalescer.destroy();
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureAndDestroy() throws Exception {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        final RequestCoalescer<String> failingCoalescer = new RequestCoalescer<String>(new RequestCoalescer.BatchSender<String>() {
+            @Override
+            public void send(final String address, final List<RequestCoalescer.Entry> entries) throws Exception {
+                throw new IllegalStateException("failed to write");
+            }
+        }, scheduler, 1000, 2);
+        final CompletableFuture<Object> future1 = failingCoalescer.submit("server1", createRequest("key1"));
+        final CompletableFuture<Object> future2 = failingCoalescer.submit("server1", createRequest("key2"));
+        assertFailed(future1, IllegalStateException.class);
+        assertFailed(future2, IllegalStateException.class);
+        failingCoalescer.destroy();
+
+        final RequestCoalescer<String> coalescer = new RequestCoalescer<String>(new RecordingSender(), scheduler, TimeUnit.SECONDS.toMicros(60), 100);
+        final CompletableFuture<Object> pending = coalescer.submit("server1", createRequest("key1"));
+        coalescer.destroy();
+        assertFailed(pending, IllegalStateException.class);
+        assertFailed(coalescer.submit("server1", createRequest("key2")), IllegalStateException.class);
+        scheduler.shutdownNow();
+    }
+
+    private static void assertFailed(final CompletableFuture<Object> future, final Class<? extends Throwable> cause) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("the future should be failed");
+        } catch (ExecutionException ee) {
+            Assert.assertTrue(cause.isInstance(ee.getCause()));
+        }
+    }
+
+    private static MemcachedRequest createRequest(final String key) {
+        final MemcachedRequest.Builder builder = MemcachedRequest.Builder.create(false, false, false);
+        builder.op(CommandOpcodes.GetQ);
+        builder.originKey(key);
+        final MemcachedRequest request = builder.build();
+        builder.recycle();
+        return request;
+    }
+
+    // completes each future with its request's origin key
+    private static class RecordingSender implements RequestCoalescer.BatchSender<String> {
+
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+
+        @Override
+        public void send(final String address, final List<RequestCoalescer.Entry> entries) {
+            batchSizes.add(entries.size());
+            for (RequestCoalescer.Entry entry : entries) {
+                entry.getFuture().complete(entry.getRequest().getOriginKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class RequestHedgerTest {
+
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testBackupWins() throws Exception {
+        final RequestHedger<String> hedger = new RequestHedger<String>(scheduler, 10, 95, 100);
+        final CompletableFuture<String> slowPrimary = new CompletableFuture<String>();
+        final CompletableFuture<String> result = hedger.submit("server", supply(slowPrimary), supply(CompletableFuture.completedFuture("backup")));
+        Assert.assertEquals("backup", result.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, hedger.getBackupCount());
+        // the losing primary is cancelled in the scheduler's thread and its late answer doesn't change the result
+        awaitScheduler(0);
+        Assert.assertTrue(slowPrimary.isCancelled());
+        slowPrimary.complete("primary");
+        Assert.assertEquals("backup", result.get());
+    }
+
+    @Test
+    public void testLosingBackupCancelled() throws Exception {
+        final RequestHedger<String> hedger = new RequestHedger<String>(scheduler, 10, 95, 100);
+        final CompletableFuture<String> primary = new CompletableFuture<String>();
+        final CompletableFuture<String> backup = new CompletableFuture<String>();
+        final CompletableFuture<String> result = hedger.submit("server", supply(primary), supply(backup));
+        awaitScheduler(10);
+        Assert.assertEquals(1, hedger.getBackupCount());
+        primary.complete("primary");
+        Assert.assertEquals("primary", result.get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(backup.isCancelled());
+
+        // the caller's cancellation cancels all attempts
+        final CompletableFuture<String> pending = new CompletableFuture<String>();
+        hedger.submit("server", supply(pending), supply(new CompletableFuture<String>())).cancel(false);
+        Assert.assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    public void testPrimaryWins() throws Exception {
+        final RequestHedger<String> hedger = new RequestHedger<String>(scheduler, 50, 95, 100);
+        final CompletableFuture<String> result = hedger.submit("server",
+                supply(CompletableFuture.completedFuture("primary")), supply(CompletableFuture.completedFuture("backup")));
+        Assert.assertEquals("primary", result.get(5, TimeUnit.SECONDS));
+        // the hedge delay has passed without the backup
+        awaitScheduler(50);
+        Assert.assertEquals(0, hedger.getBackupCount());
+
+        // the adaptive delay is unknown until enough latencies are observed
+        final RequestHedger<String> adaptive = new RequestHedger<String>(scheduler, -1, 95, 100);
+        Assert.assertEquals(-1, adaptive.getHedgeDelayInNanos("server", false));
+        for (int i = 0; i < 64; i++) {
+            adaptive.submit("server", supply(CompletableFuture.completedFuture("primary")), supply(CompletableFuture.completedFuture("backup"))).get();
+        }
+        Assert.assertTrue(adaptive.getHedgeDelayInNanos("server", false) >= 0);
+        Assert.assertEquals(-1, adaptive.getHedgeDelayInNanos("other", false));
+        adaptive.remove("server");
+        Assert.assertEquals(-1, adaptive.getHedgeDelayInNanos("server", false));
+    }
+
+    @Test
+    public void testBulkLatencies() throws Exception {
+        final RequestHedger<String> adaptive = new RequestHedger<String>(scheduler, -1, 95, 100);
+        for (int i = 0; i < 64; i++) {
+            adaptive.submit("server", true, supply(CompletableFuture.completedFuture("primary")), supply(CompletableFuture.completedFuture("backup"))).get();
+        }
+        // bulk latencies don't decide the delay of single requests
+        Assert.assertTrue(adaptive.getHedgeDelayInNanos("server", true) >= 0);
+        Assert.assertEquals(-1, adaptive.getHedgeDelayInNanos("server", false));
+        adaptive.remove("server");
+        Assert.assertEquals(-1, adaptive.getHedgeDelayInNanos("server", true));
+    }
+
+    @Test
+    public void testBackupInSendExecutor() throws Exception {
+        final ExecutorService sendExecutor = Executors.newSingleThreadExecutor();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            final RequestHedger<String> hedger = new RequestHedger<String>(scheduler, sendExecutor, 10, 95, 100);
+            // the first backup blocks like borrowing a connection from the exhausted pool
+            final CompletableFuture<String> blockedResult = hedger.submit("server", supply(new CompletableFuture<String>()), new Supplier<CompletableFuture<String>>() {
+                @Override
+                public CompletableFuture<String> get() {
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return CompletableFuture.completedFuture("backup");
+                }
+            });
+            Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            // the scheduler still fires other hedge delays
+            final CompletableFuture<String> timerFuture = new CompletableFuture<String>();
+            scheduler.execute(new Runnable() {
+                @Override
+                public void run() {
+                    timerFuture.complete("fired");
+                }
+            });
+            Assert.assertEquals("fired", timerFuture.get(5, TimeUnit.SECONDS));
+            release.countDown();
+            Assert.assertEquals("backup", blockedResult.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            sendExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBudget() throws Exception {
+        // one backup per twenty requests
+        final RequestHedger<String> hedger = new RequestHedger<String>(scheduler, 0, 95, 5);
+        final List<CompletableFuture<String>> results = new ArrayList<CompletableFuture<String>>();
+        for (int i = 0; i < 40; i++) {
+            final CompletableFuture<String> neverAnswered = new CompletableFuture<String>();
+            results.add(hedger.submit("server", supply(neverAnswered), supply(CompletableFuture.completedFuture("backup"))));
+        }
+        awaitScheduler(0);
+        int answered = 0;
+        for (CompletableFuture<String> result : results) {
+            if (result.isDone()) {
+                Assert.assertEquals("backup", result.get());
+                answered++;
+            }
+        }
+        Assert.assertEquals(2, answered);
+        Assert.assertEquals(2, hedger.getBackupCount());
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        final RequestHedger<String> hedger = new RequestHedger<String>(scheduler, 10, 95, 100);
+        // the primary failure is hidden by the backup
+        final CompletableFuture<String> failedPrimary = new CompletableFuture<String>();
+        final CompletableFuture<String> backup = new CompletableFuture<String>();
+        final CompletableFuture<String> result = hedger.submit("server", supply(failedPrimary), supply(backup));
+        awaitScheduler(10);
+        failedPrimary.completeExceptionally(new IllegalStateException("primary"));
+        Assert.assertFalse(result.isDone());
+        backup.complete("backup");
+        Assert.assertEquals("backup", result.get(5, TimeUnit.SECONDS));
+
+        // fails when all attempts fail
+        final CompletableFuture<String> failedBackup = new CompletableFuture<String>();
+        failedBackup.completeExceptionally(new IllegalStateException("backup"));
+        final CompletableFuture<String> slowPrimary = new CompletableFuture<String>();
+        final CompletableFuture<String> allFailed = hedger.submit("server", supply(slowPrimary), supply(failedBackup));
+        awaitScheduler(10);
+        Assert.assertEquals(2, hedger.getBackupCount());
+        Assert.assertFalse(allFailed.isDone());
+        slowPrimary.completeExceptionally(new IllegalStateException("primary"));
+        try {
+            allFailed.get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException expected) {
+            Assert.assertEquals("primary", expected.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Wait until the single-threaded scheduler has run the hedge tasks which were due within the given delay
+     * <p>
+     * The scheduler runs tasks in the order of their due times, so this doesn't depend on the speed of the machine.
+     */
+    private void awaitScheduler(final long delayInMillis) throws Exception {
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, delayInMillis, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS);
+    }
+
+    private static Supplier<CompletableFuture<String>> supply(final CompletableFuture<String> future) {
+        return new Supplier<CompletableFuture<String>>() {
+            @Override
+            public CompletableFuture<String> get() {
+                return future;
+            }
+        };
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached.pool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+public class MultiplexedObjectPoolTest {
+
+    @Test
+    public void testSharedObjectsInSingleThread() throws Exception {
+        final PoolableObjectFactoryImpl factory = new PoolableObjectFactoryImpl();
+        final MultiplexedObjectPool.Builder<Integer, Integer> builder = new MultiplexedObjectPool.Builder<Integer, Integer>(factory);
+        builder.size(3);
+        final ObjectPool<Integer, Integer> pool = builder.build();
+
+        final int key = 1;
+        Assert.assertEquals(0, pool.getPoolSize(key));
+        Assert.assertEquals(0, pool.getActiveCount(key));
+
+        final Set<Integer> borrowed = new HashSet<Integer>();
+        final Integer[] objects = new Integer[30];
+        for (int i = 0; i < objects.length; i++) {
+            try {
+                objects[i] = pool.borrowObject(key, -1);
+            } catch (Exception e) {
+                Assert.fail(e.getMessage());
+            }
+            Assert.assertNotNull(objects[i]);
+            borrowed.add(objects[i]);
+        }
+        // only 3 objects are shared by round-robin
+        Assert.assertEquals(3, borrowed.size());
+        Assert.assertEquals(3, factory.sequence);
+        Assert.assertEquals(3, pool.getPoolSize(key));
+        Assert.assertEquals(objects.length, pool.getActiveCount(key));
+        Assert.assertEquals(0, pool.getIdleCount(key));
+        Assert.assertEquals(objects[0], objects[3]);
+
+        for (Integer object : objects) {
+            pool.returnObject(key, object);
+        }
+        // returning never destroys shared objects
+        Assert.assertEquals(3, factory.sequence);
+        Assert.assertEquals(3, pool.getPoolSize(key));
+        Assert.assertEquals(0, pool.getActiveCount(key));
+
+        pool.destroy();
+        Assert.assertEquals(0, factory.sequence);
+    }
+
+    @Test
+    public void testRemoveObject() throws Exception {
+        final PoolableObjectFactoryImpl factory = new PoolableObjectFactoryImpl();
+        final MultiplexedObjectPool.Builder<Integer, Integer> builder = new MultiplexedObjectPool.Builder<Integer, Integer>(factory);
+        builder.size(2);
+        final ObjectPool<Integer, Integer> pool = builder.build();
+
+        final int key = 1;
+        pool.createAllMinObjects(key);
+        Assert.assertEquals(2, pool.getPoolSize(key));
+
+        final Integer first = pool.borrowObject(key, -1);
+        pool.removeObject(key, first);
+        Assert.assertEquals(1, pool.getPoolSize(key));
+        Assert.assertEquals(1, factory.sequence);
+        Assert.assertEquals(0, pool.getActiveCount(key));
+
+        // the cleared slot is filled with new object
+        final Integer second = pool.borrowObject(key, -1);
+        final Integer third = pool.borrowObject(key, -1);
+        Assert.assertNotEquals(first, second);
+        Assert.assertNotEquals(first, third);
+        Assert.assertEquals(2, pool.getPoolSize(key));
+        Assert.assertEquals(2, factory.sequence);
+
+        pool.removeAllObjects(key);
+        Assert.assertEquals(0, pool.getPoolSize(key));
+        Assert.assertEquals(0, factory.sequence);
+
+        pool.destroy(key);
+        Assert.assertEquals(0, pool.getPoolSize(key));
+        pool.destroy();
+    }
+
+    @Test
+    public void testConcurrentBorrow() throws Exception {
+        final PoolableObjectFactoryImpl factory = new PoolableObjectFactoryImpl();
+        final MultiplexedObjectPool.Builder<Integer, Integer> builder = new MultiplexedObjectPool.Builder<Integer, Integer>(factory);
+        builder.size(4);
+        final ObjectPool<Integer, Integer> pool = builder.build();
+
+        final int key = 1;
+        final int threadCount = 50;
+        final int borrowCount = 100;
+        final Set<Integer> borrowed = Collections.synchronizedSet(new HashSet<Integer>());
+        final CountDownLatch startFlag = new CountDownLatch(1);
+        final CountDownLatch finishFlag = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            final Thread t = new Thread() {
+                public void run() {
+                    try {
+                        startFlag.await();
+                        for (int j = 0; j < borrowCount; j++) {
+                            final Integer object = pool.borrowObject(key, -1);
+                            borrowed.add(object);
+                            pool.returnObject(key, object);
+                        }
+                    } catch (Exception e) {
+                        Assert.fail(e.getMessage());
+                    } finally {
+                        finishFlag.countDown();
+                    }
+                }
+            };
+            t.start();
+        }
+        startFlag.countDown();
+        finishFlag.await();
+
+        // each slot's object is created only once even if many threads borrow it at the same time
+        Assert.assertEquals(4, borrowed.size());
+        Assert.assertEquals(4, factory.sequence);
+        Assert.assertEquals(0, pool.getActiveCount(key));
+        pool.destroy();
+        Assert.assertEquals(0, factory.sequence);
+    }
+
+    private static class PoolableObjectFactoryImpl implements PoolableObjectFactory<Integer, Integer> {
+
+        private int sequence = 0;
+        private int id = 1000;
+
+        @Override
+        public synchronized Integer createObject(final Integer key) throws Exception {
+            sequence++;
+            id++;
+            return id;
+        }
+
+        @Override
+        public synchronized void destroyObject(final Integer key, final Integer value) throws Exception {
+            sequence--;
+        }
+
+        @Override
+        public boolean validateObject(final Integer key, final Integer value) throws Exception {
+            return true;
+        }
+    }
+}
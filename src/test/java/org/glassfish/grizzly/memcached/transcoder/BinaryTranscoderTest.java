@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached.transcoder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class BinaryTranscoderTest {
+
+    @Test
+    public void testBuiltInTypes() {
+        final BinaryTranscoder<Object> transcoder = new BinaryTranscoder<Object>();
+        final Object[] values = {"value", 1, Long.MAX_VALUE, Boolean.TRUE, 1.5d};
+        for (Object value : values) {
+            final byte[] bytes = transcoder.encodeToBytes(value);
+            Assert.assertEquals(value, transcoder.decodeFromBytes(bytes, 0, bytes.length));
+        }
+        final byte[] raw = {1, 2, 3};
+        final byte[] bytes = transcoder.encodeToBytes(raw);
+        Assert.assertArrayEquals(raw, (byte[]) transcoder.decodeFromBytes(bytes, 0, bytes.length));
+        // class id and the fields only
+        Assert.assertEquals(1 + 4, transcoder.encodeToBytes(1).length);
+    }
+
+    @Test
+    public void testLongString() {
+        final BinaryTranscoder<Object> transcoder = new BinaryTranscoder<Object>();
+        // larger than 64KB which writeUTF() can't write, and a supplementary character which the modified UTF-8 encodes differently
+        final StringBuilder builder = new StringBuilder();
+        while (builder.length() < 70 * 1024) {
+            builder.append("long value \uD83D\uDE00 ");
+        }
+        final String value = builder.toString();
+        final byte[] bytes = transcoder.encodeToBytes(value);
+        final byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        Assert.assertTrue(utf8.length > 65535);
+        // class id, the varint length and the standard UTF-8
+        Assert.assertEquals(1 + 3 + utf8.length, bytes.length);
+        Assert.assertArrayEquals(utf8, Arrays.copyOfRange(bytes, 4, bytes.length));
+        Assert.assertEquals(value, transcoder.decodeFromBytes(bytes, 0, bytes.length));
+
+        // the corrupt length which is longer than the value
+        final byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        Assert.assertNull(transcoder.decodeFromBytes(truncated, 0, truncated.length));
+    }
+
+    @Test
+    public void testDirectEncoding() throws IOException {
+        final BinaryTranscoder<Object> transcoder = new BinaryTranscoder<Object>();
+        final String value = "direct value";
+        Assert.assertTrue(transcoder.isDirectlyEncodable(value));
+        Assert.assertFalse(transcoder.isDirectlyEncodable(new Object()));
+        Assert.assertEquals(BinaryTranscoder.FLAGS, transcoder.getFlags(value));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transcoder.writeTo(value, out);
+        Assert.assertArrayEquals(transcoder.encodeToBytes(value), out.toByteArray());
+        // the last encoded length is the next hint
+        Assert.assertEquals(out.size(), transcoder.getEncodedLengthHint("other value!"));
+
+        final DefaultTranscoder<Object> defaultTranscoder = new DefaultTranscoder<Object>(-1);
+        Assert.assertTrue(defaultTranscoder.isDirectlyEncodable(new ArrayList<String>()));
+        Assert.assertFalse(defaultTranscoder.isDirectlyEncodable(value));
+        Assert.assertFalse(new DefaultTranscoder<Object>().isDirectlyEncodable(new ArrayList<String>()));
+    }
+
+    @Test
+    public void testRegistration() {
+        final BinaryTranscoder<Object> transcoder = new BinaryTranscoder<Object>();
+        transcoder.register(1000, Point.class, new BinaryTranscoder.Codec<Point>() {
+            @Override
+            public void write(final Point value, final DataOutput out) throws IOException {
+                out.writeInt(value.x);
+                out.writeInt(value.y);
+            }
+
+            @Override
+            public Point read(final DataInput in) throws IOException {
+                return new Point(in.readInt(), in.readInt());
+            }
+        });
+        final byte[] bytes = transcoder.encodeToBytes(new Point(3, 4));
+        // two bytes of the varint class id
+        Assert.assertEquals(2 + 8, bytes.length);
+        final Point point = (Point) transcoder.decodeFromBytes(bytes, 0, bytes.length);
+        Assert.assertEquals(3, point.x);
+        Assert.assertEquals(4, point.y);
+
+        // other clients which don't know the class id
+        Assert.assertNull(new BinaryTranscoder<Object>().decodeFromBytes(bytes, 0, bytes.length));
+
+        try {
+            transcoder.encodeToBytes(new Object());
+            Assert.fail("unregistered class should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            transcoder.register(1, Object.class, new BinaryTranscoder.Codec<Object>() {
+                @Override
+                public void write(final Object value, final DataOutput out) {
+                }
+
+                @Override
+                public Object read(final DataInput in) {
+                    return null;
+                }
+            });
+            Assert.fail("reserved class id should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            transcoder.register(1001, Point.class, new BinaryTranscoder.Codec<Point>() {
+                @Override
+                public void write(final Point value, final DataOutput out) {
+                }
+
+                @Override
+                public Point read(final DataInput in) {
+                    return null;
+                }
+            });
+            Assert.fail("duplicate class should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static class Point {
+        private final int x;
+        private final int y;
+
+        private Point(final int x, final int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2026 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.grizzly.memcached.transcoder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class CompressorTest {
+
+    @Test
+    public void testLz4RoundTrip() {
+        roundTrip(Lz4Compressor.getInstance());
+    }
+
+    @Test
+    public void testDeflateRoundTrip() {
+        roundTrip(new DeflateCompressor());
+    }
+
+    @Test
+    public void testLz4Ratio() {
+        final Compressor compressor = Lz4Compressor.getInstance();
+        final byte[] repetitive = createText(200 * 1024);
+        Assert.assertTrue(compressor.compress(repetitive, 0, repetitive.length).length < repetitive.length / 4);
+
+        // random bytes can't be compressed but should not grow much
+        final byte[] random = new byte[100 * 1024];
+        new Random(1).nextBytes(random);
+        final byte[] compressed = compressor.compress(random, 0, random.length);
+        Assert.assertTrue(compressed.length <= random.length + random.length / 255 + 20);
+        Assert.assertArrayEquals(random, compressor.decompress(compressed, 0, compressed.length));
+    }
+
+    @Test
+    public void testMalformed() {
+        final byte[] source = createText(1024);
+        for (Compressor compressor : new Compressor[]{Lz4Compressor.getInstance(), new DeflateCompressor()}) {
+            final byte[] compressed = compressor.compress(source, 0, source.length);
+            try {
+                // truncated
+                compressor.decompress(compressed, 0, compressed.length / 2);
+                Assert.fail("truncated bytes should be rejected. compressor=" + compressor);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testLz4CorruptHeader() {
+        final byte[] source = createText(1024);
+        final byte[] compressed = Lz4Compressor.getInstance().compress(source, 0, source.length);
+
+        // the original length which the compressed bytes can't expand to is rejected before allocating
+        final byte[] huge = compressed.clone();
+        huge[0] = 0x7F;
+        try {
+            Lz4Compressor.getInstance().decompress(huge, 0, huge.length);
+            Assert.fail("the huge original length should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new Lz4Compressor(512).decompress(compressed, 0, compressed.length);
+            Assert.fail("the original length over the maximum should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        // the length extension at the end doesn't read the following bytes of the array
+        final byte[] padded = new byte[4 + 1 + 16];
+        padded[3] = 100;
+        padded[4] = (byte) 0xF0;
+        for (int i = 5; i < padded.length; i++) {
+            padded[i] = (byte) 0xFF;
+        }
+        try {
+            Lz4Compressor.getInstance().decompress(padded, 0, 5);
+            Assert.fail("the truncated literal length should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testMinGain() {
+        final CompressingTranscoder<byte[]> transcoder =
+                new CompressingTranscoder<byte[]>(ByteArrayTranscoder.getInstance(), Lz4Compressor.getInstance(), 1024, 10);
+        Assert.assertTrue(transcoder.isWorthCompressing(1000, 900));
+        Assert.assertFalse(transcoder.isWorthCompressing(1000, 901));
+        try {
+            new CompressingTranscoder<byte[]>(ByteArrayTranscoder.getInstance(), new Compressor() {
+                @Override
+                public int getFlag() {
+                    return 1;
+                }
+
+                @Override
+                public byte[] compress(final byte[] in, final int offset, final int length) {
+                    return in;
+                }
+
+                @Override
+                public byte[] decompress(final byte[] in, final int offset, final int length) {
+                    return in;
+                }
+            }, 1024, 10);
+            Assert.fail("the flag which conflicts with transcoders should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static void roundTrip(final Compressor compressor) {
+        final Random random = new Random(7);
+        final int[] sizes = {0, 1, 12, 13, 100, 65 * 1024, 300 * 1024};
+        for (int size : sizes) {
+            final byte[] text = createText(size);
+            assertRoundTrip(compressor, text);
+            // mostly random with some repeated runs
+            final byte[] mixed = new byte[size];
+            random.nextBytes(mixed);
+            for (int i = 0; i + 64 < size; i += 512) {
+                System.arraycopy(mixed, 0, mixed, i, 64);
+            }
+            assertRoundTrip(compressor, mixed);
+        }
+        // with an offset
+        final byte[] text = createText(4096);
+        final byte[] compressed = compressor.compress(text, 100, 3000);
+        final byte[] expected = new byte[3000];
+        System.arraycopy(text, 100, expected, 0, 3000);
+        Assert.assertArrayEquals(expected, compressor.decompress(compressed, 0, compressed.length));
+    }
+
+    private static void assertRoundTrip(final Compressor compressor, final byte[] source) {
+        final byte[] compressed = compressor.compress(source, 0, source.length);
+        final byte[] padded = new byte[compressed.length + 10];
+        System.arraycopy(compressed, 0, padded, 5, compressed.length);
+        Assert.assertArrayEquals(source, compressor.decompress(padded, 5, compressed.length));
+    }
+
+    private static byte[] createText(final int size) {
+        final byte[] bytes = new byte[size];
+        final String words = "{\"id\":12345,\"name\":\"grizzly memcached\",\"tags\":[\"cache\",\"client\"],\"active\":true}";
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) words.charAt((i * 7 + i / 97) % words.length());
+        }
+        return bytes;
+    }
+}
@@ -17,6 +17,7 @@
 package org.glassfish.grizzly.memcached.zookeeper;
 
 import org.glassfish.grizzly.memcached.MemcachedCache;
+import org.glassfish.grizzly.memcached.NodeLocator;
 import org.glassfish.grizzly.memcached.ValueWithCas;
 import org.glassfish.grizzly.memcached.ValueWithKey;
 import org.junit.Assert;
@@ -77,6 +78,35 @@ public class CacheServerListBarrierListenerTest {
         Assert.assertTrue(addressSet2.isEmpty());
     }
 
+    @Test
+    public void testWeightedAddressParsing() {
+        final String addressListString = "localhost:2222:3, localhost:3333, [::1]:4444:2, ::1:5555";
+        final Map<SocketAddress, Integer> addressMap = CacheServerListBarrierListener.getWeightedAddressesFromStringList(addressListString);
+        Assert.assertEquals(4, addressMap.size());
+        Assert.assertEquals(Integer.valueOf(3), addressMap.get(new InetSocketAddress("localhost", 2222)));
+        Assert.assertEquals(Integer.valueOf(1), addressMap.get(new InetSocketAddress("localhost", 3333)));
+        Assert.assertEquals(Integer.valueOf(2), addressMap.get(new InetSocketAddress("::1", 4444)));
+        Assert.assertEquals(Integer.valueOf(1), addressMap.get(new InetSocketAddress("::1", 5555)));
+        Assert.assertEquals(4, CacheServerListBarrierListener.getAddressesFromStringList(addressListString).size());
+
+        final String addressListString2 = CacheServerListBarrierListener.getStringListFromAddressMap(addressMap);
+        Assert.assertEquals(addressMap, CacheServerListBarrierListener.getWeightedAddressesFromStringList(addressListString2));
+
+        try {
+            CacheServerListBarrierListener.getWeightedAddressesFromStringList("localhost:2222:0");
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            CacheServerListBarrierListener.getWeightedAddressesFromStringList("localhost:2222:" + (NodeLocator.MAX_WEIGHT + 1));
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+
+        Assert.assertTrue(CacheServerListBarrierListener.hasWeights(addressListString));
+        Assert.assertFalse(CacheServerListBarrierListener.hasWeights("localhost:2222, ::1:5555"));
+    }
+
     // zookeeper server should be booted in local
     //@Test
     public void testCacheServerList() {